@@ -0,0 +1,61 @@
+-- Compares the old function-based view filters with the half-open range filters on a million-row copy of APPOINTMENTS.
+--
+-- Run it against a scratch copy of client_schedule with MySQL 8.0.18 or later (EXPLAIN ANALYZE is needed):
+--     mysql -u sqlUser -p client_schedule < benchmarks/sql/appointment_view_ranges.sql
+--
+-- The rows go into APPOINTMENTS_BENCH, which has the same columns as APPOINTMENTS but no foreign keys, so the real table is never touched.
+-- Compare the "actual time" of the top row of each EXPLAIN ANALYZE plan. The range queries should switch from a full table scan
+-- to an index range scan on idx_appointments_bench_user_start once the index is created.
+
+DROP TABLE IF EXISTS APPOINTMENTS_BENCH;
+CREATE TABLE APPOINTMENTS_BENCH LIKE APPOINTMENTS;
+
+DROP TEMPORARY TABLE IF EXISTS BENCH_DIGITS;
+CREATE TEMPORARY TABLE BENCH_DIGITS (Digit INT NOT NULL PRIMARY KEY);
+INSERT INTO BENCH_DIGITS VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+-- 1,000,000 appointments for 10 users, spread over five years in 30 minute slots.
+INSERT INTO APPOINTMENTS_BENCH (Appointment_ID, Title, Description, Location, Type, Start, End, Create_Date, Created_By,
+                                Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID)
+SELECT n + 1,
+       CONCAT('Bench ', n),
+       'Benchmark appointment',
+       'Bench',
+       ELT(1 + n % 4, 'Planning Session', 'De-Briefing', 'Follow Up', 'Review'),
+       TIMESTAMP('2020-01-01 08:00:00') + INTERVAL (n % 87600) * 30 MINUTE,
+       TIMESTAMP('2020-01-01 08:30:00') + INTERVAL (n % 87600) * 30 MINUTE,
+       NOW(), 'bench', NOW(), 'bench',
+       1 + n % 100,
+       1 + n % 10,
+       1 + n % 3
+FROM (SELECT a.Digit + b.Digit * 10 + c.Digit * 100 + d.Digit * 1000 + e.Digit * 10000 + f.Digit * 100000 AS n
+      FROM BENCH_DIGITS a, BENCH_DIGITS b, BENCH_DIGITS c, BENCH_DIGITS d, BENCH_DIGITS e, BENCH_DIGITS f) numbers;
+
+ANALYZE TABLE APPOINTMENTS_BENCH;
+
+-- Old filters. These cannot use an index on Start because Start is wrapped in a function.
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND month(Start) = 6 AND year(Start) = 2022;
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND date(Start) = '2022-06-15';
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND YEARWEEK(Start) = YEARWEEK('2022-06-15');
+
+-- New filters before the index exists. The plans still scan the table, which gives the baseline for the index.
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND Start >= '2022-06-01 00:00:00' AND Start < '2022-07-01 00:00:00';
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND Start >= '2022-06-15 00:00:00' AND Start < '2022-06-16 00:00:00';
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND Start >= '2022-06-12 00:00:00' AND Start < '2022-06-19 00:00:00';
+
+-- The same index that migration 002 adds to APPOINTMENTS.
+CREATE INDEX idx_appointments_bench_user_start ON APPOINTMENTS_BENCH (User_ID, Start);
+ANALYZE TABLE APPOINTMENTS_BENCH;
+
+-- Old filters with the index. They still scan every row of the user.
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND month(Start) = 6 AND year(Start) = 2022;
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND date(Start) = '2022-06-15';
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND YEARWEEK(Start) = YEARWEEK('2022-06-15');
+
+-- New filters with the index. These read only the rows inside the range.
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND Start >= '2022-06-01 00:00:00' AND Start < '2022-07-01 00:00:00';
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND Start >= '2022-06-15 00:00:00' AND Start < '2022-06-16 00:00:00';
+EXPLAIN ANALYZE SELECT * FROM APPOINTMENTS_BENCH WHERE User_ID = 1 AND Start >= '2022-06-12 00:00:00' AND Start < '2022-06-19 00:00:00';
+
+DROP TEMPORARY TABLE BENCH_DIGITS;
+DROP TABLE APPOINTMENTS_BENCH;
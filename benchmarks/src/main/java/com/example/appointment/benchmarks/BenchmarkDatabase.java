@@ -0,0 +1,185 @@
+package com.example.appointment.benchmarks;
+
+import com.example.appointment.AppointmentIndex;
+import com.example.appointment.BlockingConnectionPool;
+import com.example.appointment.ConnectionModel;
+import com.example.appointment.DatabaseDialect;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-memory H2 database in MySQL mode that stands in for client_schedule. The schema is created by DatabaseDialect.H2 from the packaged
+ * client_schedule.sql and the migrations, the same way the program creates an embedded database, so the benchmarks run against the real tables,
+ * foreign keys and indexes. The database is installed as the ConnectionModel's pool, so the controller interfaces and services run unchanged against it.
+ * <br>
+ * The sample customers and appointments of the script are replaced. The appointments are shared out evenly between the customers in 30 minute slots
+ * during business hours, starting on BASE_DATE.
+ * */
+final class BenchmarkDatabase implements AutoCloseable {
+    /**
+     * The business day that the first appointment of every customer is on.
+     * */
+    static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 1, 2, 8, 0);
+    /**
+     * The number of 30 minute slots in a business day, from 08:00 to 22:00.
+     * */
+    static final int SLOTS_PER_DAY = 28;
+    private static final int BATCH_SIZE = 1000;
+    private static final int USER_COUNT = 10;
+    private static final AtomicInteger DATABASE_COUNT = new AtomicInteger();
+    private final BlockingConnectionPool pool;
+    private final Connection keepAlive;
+
+    /**
+     * Creates and seeds a new database and installs it as the ConnectionModel's pool.
+     * @param customerCount The number of customers to create.
+     * @param appointmentCount The number of appointments to create. They are shared out evenly between the customers.
+     * @throws SQLException If the database cannot be created.
+     * */
+    BenchmarkDatabase(int customerCount, int appointmentCount) throws SQLException {
+        String url = "jdbc:h2:mem:client_schedule_" + DATABASE_COUNT.incrementAndGet() + ";MODE=MySQL;NON_KEYWORDS=END";
+        keepAlive = DriverManager.getConnection(url);
+        DatabaseDialect.H2.initializeSchema(keepAlive);
+        removeSampleRows(keepAlive);
+        insertUsers(keepAlive);
+        insertCustomers(keepAlive, customerCount);
+        insertAppointments(keepAlive, customerCount, appointmentCount);
+        restartIds(keepAlive, customerCount, appointmentCount);
+        pool = new BlockingConnectionPool(() -> DriverManager.getConnection(url), 2, 4, Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofSeconds(60));
+        ConnectionModel.getInstance().setConnectionPool(pool, DatabaseDialect.H2);
+        AppointmentIndex.getInstance().invalidate();
+    }
+
+    /**
+     * @param slot The number of a customer's appointment, starting at 0.
+     * @return The start of that appointment in the business time zone. Each customer has one appointment in every 30 minute slot of a business day,
+     * so a customer's appointments never overlap each other.
+     * */
+    static LocalDateTime slotStart(int slot){
+        return BASE_DATE.plusDays(slot / SLOTS_PER_DAY).plusMinutes(30L * (slot % SLOTS_PER_DAY));
+    }
+
+    private static void removeSampleRows(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()){
+            stmt.execute("DELETE FROM APPOINTMENTS");
+            stmt.execute("DELETE FROM CUSTOMERS");
+        }
+    }
+
+    /**
+     * Adds users to the two in the script, so that the appointments can be shared out between USER_COUNT users.
+     * */
+    private static void insertUsers(Connection connection) throws SQLException {
+        String sql = "INSERT INTO USERS (User_ID, User_Name, Password, Create_Date, Created_By, Last_Update, Last_Updated_By) "
+                + "SELECT ?, ?, ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM USERS WHERE User_ID = ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)){
+            for (int i = 1; i <= USER_COUNT; i++){
+                stmt.setInt(1, i);
+                stmt.setString(2, "bench" + i);
+                stmt.setString(3, "bench");
+                stmt.setObject(4, BASE_DATE);
+                stmt.setString(5, "bench");
+                stmt.setObject(6, BASE_DATE);
+                stmt.setString(7, "bench");
+                stmt.setInt(8, i);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static int[] divisionIds(Connection connection) throws SQLException {
+        List<Integer> divisionIds = new ArrayList<>();
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("SELECT Division_ID FROM FIRST_LEVEL_DIVISIONS ORDER BY Division_ID")){
+            while (rs.next()){
+                divisionIds.add(rs.getInt(1));
+            }
+        }
+        return divisionIds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void insertCustomers(Connection connection, int customerCount) throws SQLException {
+        String sql = "INSERT INTO CUSTOMERS (Customer_ID, Customer_Name, Address, Postal_Code, Phone, Create_Date, Created_By, Last_Update, "
+                + "Last_Updated_By, Division_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        int[] divisionIds = divisionIds(connection);
+        try (PreparedStatement stmt = connection.prepareStatement(sql)){
+            for (int i = 1; i <= customerCount; i++){
+                stmt.setInt(1, i);
+                stmt.setString(2, "Customer " + i);
+                stmt.setString(3, i + " Main Street, White Plains");
+                stmt.setString(4, String.format("%05d", i % 100000));
+                stmt.setString(5, "817-555-" + String.format("%04d", i % 10000));
+                stmt.setObject(6, BASE_DATE);
+                stmt.setString(7, "bench");
+                stmt.setObject(8, BASE_DATE);
+                stmt.setString(9, "bench");
+                stmt.setInt(10, divisionIds[i % divisionIds.length]);
+                stmt.addBatch();
+                if (i % BATCH_SIZE == 0){
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void insertAppointments(Connection connection, int customerCount, int appointmentCount) throws SQLException {
+        String sql = "INSERT INTO APPOINTMENTS (Appointment_ID, Title, Description, Location, Type, Start, End, Create_Date, Created_By, "
+                + "Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String[] types = {"Planning Session", "De-Briefing", "Follow Up", "Review"};
+        try (PreparedStatement stmt = connection.prepareStatement(sql)){
+            for (int i = 0; i < appointmentCount; i++){
+                int customerId = 1 + i % customerCount;
+                LocalDateTime start = slotStart(i / customerCount);
+                stmt.setInt(1, i + 1);
+                stmt.setString(2, "Appointment " + i);
+                stmt.setString(3, "Benchmark appointment");
+                stmt.setString(4, "Room " + i % 8);
+                stmt.setString(5, types[i % types.length]);
+                stmt.setObject(6, start);
+                stmt.setObject(7, start.plusMinutes(30));
+                stmt.setObject(8, BASE_DATE);
+                stmt.setString(9, "bench");
+                stmt.setObject(10, BASE_DATE);
+                stmt.setString(11, "bench");
+                stmt.setInt(12, customerId);
+                stmt.setInt(13, 1 + i % USER_COUNT);
+                stmt.setInt(14, 1 + i % 3);
+                stmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0){
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Moves the auto-increment counters past the inserted IDs, as the script does for its sample rows.
+     * */
+    private static void restartIds(Connection connection, int customerCount, int appointmentCount) throws SQLException {
+        try (Statement stmt = connection.createStatement()){
+            stmt.execute("ALTER TABLE CUSTOMERS ALTER COLUMN Customer_ID RESTART WITH " + (customerCount + 1));
+            stmt.execute("ALTER TABLE APPOINTMENTS ALTER COLUMN Appointment_ID RESTART WITH " + (appointmentCount + 1));
+        }
+    }
+
+    /**
+     * Closes the pool and drops the database.
+     * */
+    @Override
+    public void close() throws SQLException {
+        AppointmentIndex.getInstance().invalidate();
+        pool.close();
+        keepAlive.close();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.appointment.benchmarks;
+
+import java.io.IOException;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entry point of the benchmarks jar. It takes the same arguments as the JMH launcher, but writes the results as JSON to jmh-result.json
+ * unless -rf or -rff is given, so the results of two releases can be diffed.
+ * <br>
+ * java -jar benchmarks/target/benchmarks.jar [JMH options] [benchmark regex]
+ * */
+public final class BenchmarkMain {
+    /**
+     * The file that the results are written to when no -rff option is given.
+     * */
+    public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkMain(){
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        CommandLineOptions commandLineOptions;
+        try {
+            commandLineOptions = new CommandLineOptions(args);
+        }
+        catch (CommandLineOptionException e){
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList() || commandLineOptions.shouldListProfilers()
+                || commandLineOptions.shouldListResultFormats() || commandLineOptions.shouldListWithParams()){
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()){
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()){
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
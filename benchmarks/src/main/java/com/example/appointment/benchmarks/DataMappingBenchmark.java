@@ -0,0 +1,68 @@
+package com.example.appointment.benchmarks;
+
+import com.example.appointment.Appointment;
+import com.example.appointment.ConnectionModel;
+import com.example.appointment.Customer;
+import com.example.appointment.controller.GetAppointmentsInterface;
+import com.example.appointment.controller.GetCustomersInterface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long GetAppointmentsInterface.getAppointmentList and GetCustomersInterface.getCustomerList take to read a whole table,
+ * from preparing the statement to closing it. The tables are in an H2 database that is seeded once per trial.
+ * <br>
+ * java -jar benchmarks/target/benchmarks.jar DataMappingBenchmark
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataMappingBenchmark {
+    /**
+     * The number of rows in each table.
+     * */
+    @Param({"10000", "100000"})
+    private int rowCount;
+
+    private BenchmarkDatabase database;
+    private final GetAppointmentsInterface appointments = new GetAppointmentsInterface(){};
+    private final GetCustomersInterface customers = new GetCustomersInterface(){};
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws SQLException {
+        database = new BenchmarkDatabase(rowCount, rowCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() throws SQLException {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Appointment> appointmentList() throws SQLException, IOException {
+        return appointments.getAppointmentList(ConnectionModel.getInstance().getConnection().prepareStatement("SELECT * FROM APPOINTMENTS"));
+    }
+
+    @Benchmark
+    public List<Customer> customerList() throws SQLException, IOException {
+        return customers.getCustomerList(ConnectionModel.getInstance().getConnection().prepareStatement("SELECT * FROM CUSTOMERS"));
+    }
+}
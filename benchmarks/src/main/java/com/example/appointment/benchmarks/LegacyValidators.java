@@ -0,0 +1,191 @@
+package com.example.appointment.benchmarks;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The address, postal code and phone number checks as they were before CountryRule, kept as the baseline for ValidationBenchmark.
+ * Each check compiles its regular expressions on every call and rebuilds the value with String.replace.
+ * */
+final class LegacyValidators {
+    private LegacyValidators(){
+    }
+
+    static boolean addressCheck(String address, int fieldCount) {
+        if (!address.isEmpty()) {
+            String streetNumber;
+            String regex = "^([\\S]+[0-9])";
+            Pattern pattern = Pattern.compile(regex);
+            Matcher matcher = pattern.matcher(address);
+            if (matcher.find()){
+                streetNumber = matcher.group();
+                address = (address.substring(streetNumber.length()).trim());
+            }
+            else{
+                return false;
+            }
+        }
+        else{
+            return false;
+        }
+        int fieldCheckValue = fieldCheck(address);
+        if (fieldCheckValue == -1) {
+            return false;
+        }
+        return (fieldCheckValue == fieldCount);
+    }
+
+    private static int fieldCheck(String address){
+        int counter = 0;
+        if (!address.isEmpty()){
+            int endIndex = 0;
+            String regex = "[^,]*";
+            Pattern pattern = Pattern.compile(regex);
+            Matcher matcher = pattern.matcher(address);
+            while (matcher.find()){
+                if (!matcher.group().isEmpty()){
+                    endIndex = matcher.end();
+                    counter++;
+                }
+            }
+            String extraText = "";
+            extraText = address.substring(endIndex);
+            if (!extraText.isEmpty()){
+                counter = -1;
+            }
+        }
+        return counter;
+    }
+
+    static boolean postalCodeChecker (String postalCode, String country){
+        if (postalCode.isEmpty()){
+            return false;
+        }
+        postalCode = postalCode.toUpperCase();
+        String regex = "([0-9]){5}";
+        Pattern pattern = Pattern.compile(regex);
+        Matcher matcher = pattern.matcher(postalCode);
+        String leftOverText = postalCode;
+
+        if (country.equals("U.S")){
+            if(postalCode.length() == 10){
+                regex = "([0-9]){5}([-])([0-9]){4}";
+                pattern = Pattern.compile(regex);
+                matcher = pattern.matcher(postalCode);
+            }
+            if (matcher.find()){
+                postalCode = matcher.group();
+            }
+            else{
+                return false;
+            }
+        }
+        else if (country.equals("Canada")){
+            postalCode = postalCode.toUpperCase();
+            regex = "^((?![DFIOQUWZ])[A-Z])([0-9A-Z]){1,3}([\\s])([0-9])((?![DFIOQU])[0-9A-Z]){2}";
+            pattern = Pattern.compile(regex);
+            matcher = pattern.matcher(postalCode);
+            if (matcher.find()){
+                postalCode = matcher.group();
+            }
+            else{
+                return false;
+            }
+        }
+        else if (country.equals("UK")){
+            postalCode = postalCode.toUpperCase();
+            regex = "^([A-Z])([0-9A-Z]){1,3}([\\s])([0-9])([0-9A-Z]){2}";
+            pattern = Pattern.compile(regex);
+            matcher = pattern.matcher(postalCode);
+            if (matcher.find()){
+                postalCode = matcher.group();
+            }
+            else{
+                return false;
+            }
+        }
+        else{
+            return false;
+        }
+
+        leftOverText = leftOverText.replace(postalCode, "");
+        if (leftOverText.equals("")){
+            return true;
+        }
+        return false;
+    }
+
+    static boolean phoneNumberCheck(String phoneNumber, String country){
+        if (phoneNumber.isEmpty()){
+            return false;
+        }
+
+        if(country.equals("U.S") || country.equals("Canada")){
+            String regex = "([0-9]){10}";
+            Pattern pattern = Pattern.compile(regex);
+            for (int i = 0; i < phoneNumber.length();){
+                if (('-' == phoneNumber.charAt(i)) || (' ' == phoneNumber.charAt(i))) {
+                    phoneNumber = phoneNumber.replace(String.valueOf(phoneNumber.charAt(i)), "");
+                }
+                i += 3;
+            }
+
+            String leftOverText = phoneNumber;
+            Matcher matcher = pattern.matcher(phoneNumber);
+            if (matcher.find()){
+                phoneNumber = matcher.group();
+            }
+            else{
+                return false;
+            }
+            leftOverText = leftOverText.replace(phoneNumber, "");
+            if (leftOverText.isEmpty()){
+                try{
+                    Long.valueOf(phoneNumber);
+                    return true;
+                }
+                catch(NumberFormatException e){
+                    return false;
+                }
+            }
+            else{
+                return false;
+            }
+        }
+
+        else if (country.equals("UK")){
+            String regex = "([0-9]){11}";
+            if (phoneNumber.startsWith("+44")){
+                phoneNumber = phoneNumber.replace("+44", "");
+                regex = "([0-9]){9}";
+            }
+
+            for (int i = 0; i < phoneNumber.length(); i++){
+                if ((' ' == phoneNumber.charAt(i))){
+                    phoneNumber = phoneNumber.replace(String.valueOf(phoneNumber.charAt(i)), "");
+                }
+            }
+
+            String leftOverText = phoneNumber;
+            Pattern pattern = Pattern.compile(regex);
+            Matcher matcher = pattern.matcher(phoneNumber);
+            if (matcher.find()){
+                phoneNumber = matcher.group();
+            }
+            else{
+                return false;
+            }
+            leftOverText = leftOverText.replace(phoneNumber, "");
+            if (leftOverText.isEmpty()){
+                try{
+                    Long value = Long.valueOf(phoneNumber);
+                    return true;
+                }
+                catch(NumberFormatException e){
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
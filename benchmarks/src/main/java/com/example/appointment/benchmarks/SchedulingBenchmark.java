@@ -0,0 +1,136 @@
+package com.example.appointment.benchmarks;
+
+import com.example.appointment.Appointment;
+import com.example.appointment.AppointmentIndex;
+import com.example.appointment.AppointmentRowMapper;
+import com.example.appointment.controller.AppointmentAlertsInterface;
+import com.example.appointment.controller.AppointmentOverlappingInterface;
+import com.example.appointment.service.AppointmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the checks that run when an appointment is saved or the user logs in:
+ * <ul>
+ *     <li>isBetween, for every pair of a new appointment and the existing appointments of its customer.</li>
+ *     <li>findOverlaps, the check that AppointmentService runs when an appointment is saved, with both overlap check modes against an H2 database
+ *     that is seeded once per trial.</li>
+ *     <li>getExpiringAppointments, over a list of appointments where some start within 15 minutes of now.</li>
+ * </ul>
+ * java -jar benchmarks/target/benchmarks.jar SchedulingBenchmark
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulingBenchmark {
+    private static final int CUSTOMER_COUNT = 1000;
+
+    /**
+     * The number of appointments in the database and in the list that is checked for expiring appointments.
+     * */
+    @Param({"100000"})
+    private int appointmentCount;
+
+    private final Checks checks = new Checks();
+    private ZonedDateTime[] starts;
+    private ZonedDateTime[] ends;
+    private ZonedDateTime probeStart;
+    private ZonedDateTime probeEnd;
+    private ArrayList<Appointment> appointments;
+
+    private static final class Checks implements AppointmentOverlappingInterface, AppointmentAlertsInterface {
+    }
+
+    /**
+     * The database for findOverlaps. It is a separate state so that only that benchmark is run once for each overlap check mode.
+     * */
+    @State(Scope.Benchmark)
+    public static class DatabaseState {
+        /**
+         * The value of the appointment.overlapCheck system property.
+         * */
+        @Param({"DATABASE", "INDEX"})
+        private String overlapCheck;
+
+        private BenchmarkDatabase database;
+
+        @Setup(Level.Trial)
+        public void createDatabase(SchedulingBenchmark benchmark) throws SQLException {
+            System.setProperty(AppointmentService.OVERLAP_CHECK_PROPERTY, overlapCheck);
+            database = new BenchmarkDatabase(CUSTOMER_COUNT, benchmark.appointmentCount);
+            AppointmentIndex.getInstance().invalidate();
+        }
+
+        @TearDown(Level.Trial)
+        public void closeDatabase() throws SQLException {
+            System.clearProperty(AppointmentService.OVERLAP_CHECK_PROPERTY);
+            database.close();
+        }
+    }
+
+    /**
+     * Creates the existing appointments of one customer, a new appointment that overlaps one of them, and the list of appointments
+     * that is checked for expiring appointments.
+     * */
+    @Setup(Level.Trial)
+    public void createAppointments(){
+        int appointmentsPerCustomer = appointmentCount / CUSTOMER_COUNT;
+        starts = new ZonedDateTime[appointmentsPerCustomer];
+        ends = new ZonedDateTime[appointmentsPerCustomer];
+        for (int slot = 0; slot < appointmentsPerCustomer; slot++){
+            starts[slot] = BenchmarkDatabase.slotStart(slot).atZone(AppointmentRowMapper.BUSINESS_ZONE_ID);
+            ends[slot] = starts[slot].plusMinutes(30);
+        }
+        probeStart = starts[appointmentsPerCustomer / 2].plusMinutes(15);
+        probeEnd = probeStart.plusMinutes(30);
+
+        ZonedDateTime now = ZonedDateTime.now();
+        appointments = new ArrayList<>(appointmentCount);
+        for (int i = 0; i < appointmentCount; i++){
+            ZonedDateTime start = now.plusMinutes(i % 1440 - 720);
+            appointments.add(new Appointment(i + 1, "Appointment " + i, "Benchmark appointment", "Room " + i % 8, 1 + i % 3,
+                    "Review", start, start.plusMinutes(30), 1 + i % CUSTOMER_COUNT, 1 + i % 10));
+        }
+    }
+
+    @Benchmark
+    public int isBetween(){
+        int overlapping = 0;
+        for (int i = 0; i < starts.length; i++){
+            if (checks.isBetween(starts[i], ends[i], probeStart, probeEnd)){
+                overlapping++;
+            }
+        }
+        return overlapping;
+    }
+
+    @Benchmark
+    public List<Appointment> findOverlaps(DatabaseState databaseState) throws SQLException, IOException {
+        return AppointmentService.getInstance().findOverlaps(CUSTOMER_COUNT / 2, probeStart, probeEnd, -1);
+    }
+
+    @Benchmark
+    public List<Appointment> getExpiringAppointments(){
+        return checks.getExpiringAppointments(appointments);
+    }
+}
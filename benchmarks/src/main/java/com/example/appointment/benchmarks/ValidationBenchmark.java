@@ -0,0 +1,138 @@
+package com.example.appointment.benchmarks;
+
+import com.example.appointment.CountryRule;
+import com.example.appointment.Customer;
+import com.example.appointment.CustomerValidator;
+import com.example.appointment.controller.AddressCheckInterface;
+import com.example.appointment.controller.PhoneNumberCheckInterface;
+import com.example.appointment.controller.PostalCodeCheckInterface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the customer checks in CountryRule, CustomerValidator and the three check interfaces with the regular expression checks they replaced.
+ * Every benchmark checks the same mix of valid and invalid values for the three countries, so the scores are operations per batch of customers.
+ * <br>
+ * java -jar benchmarks/target/benchmarks.jar ValidationBenchmark
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+    private static final String[] COUNTRIES = {"U.S", "Canada", "UK"};
+    private static final String[][] ADDRESSES = {
+            {"123 ABC Street, White Plains", "9 Elm Road, Dallas", "Elm Road, Dallas", "42 Main Street, Austin,"},
+            {"123 ABC Street, Newmarket", "77 King Street West, Toronto", "12 Queen Street", "5 Bay Street, Toronto, Ontario"},
+            {"123 ABC Street, Greenwich, London", "10 Downing Street, Westminster, London", "221B Baker Street, London", "1 High Street, Leeds,"}
+    };
+    private static final String[][] POSTAL_CODES = {
+            {"12345", "12345-1234", "1234", "12345$"},
+            {"A1A 1A1", "k1a 0b1", "D1A 1A1", "M5V 3L9X"},
+            {"SW1A 1AA", "ec1a 1bb", "SW1A1AA", "W1A 0AX"}
+    };
+    private static final String[][] PHONE_NUMBERS = {
+            {"817-555-5555", "8175555555", "817 555 555", "(817) 555-5555"},
+            {"416-555-5555", "416 555 5555", "416-555-555a", "4165555555"},
+            {"020 7183 8750", "02071838750", "+442071838750", "020 7183 875"}
+    };
+
+    /**
+     * The number of customers in each batch.
+     * */
+    @Param({"10000"})
+    private int customerCount;
+
+    private List<Customer> customers;
+    private String[] customerCountries;
+    private final Checks checks = new Checks();
+
+    private static final class Checks implements AddressCheckInterface, PostalCodeCheckInterface, PhoneNumberCheckInterface {
+    }
+
+    /**
+     * Creates the customers by cycling through the sample values. The division ID is used as the index of the customer's country.
+     * */
+    @Setup
+    public void createCustomers(){
+        customers = new ArrayList<>(customerCount);
+        customerCountries = new String[customerCount];
+        for (int i = 0; i < customerCount; i++){
+            int country = i % COUNTRIES.length;
+            int sample = (i / COUNTRIES.length) % ADDRESSES[country].length;
+            customers.add(new Customer(i, "Customer " + i, ADDRESSES[country][sample], POSTAL_CODES[country][(sample + 1) % 4],
+                    PHONE_NUMBERS[country][(sample + 2) % 4], null, "bench", null, "bench", country));
+            customerCountries[i] = COUNTRIES[country];
+        }
+    }
+
+    @Benchmark
+    public int legacyChecks(){
+        int valid = 0;
+        for (int i = 0; i < customers.size(); i++){
+            Customer customer = customers.get(i);
+            String country = customerCountries[i];
+            int fieldCount = country.equals("UK") ? 3 : 2;
+            if (LegacyValidators.addressCheck(customer.getAddress(), fieldCount)
+                    && LegacyValidators.postalCodeChecker(customer.getPostalCode(), country)
+                    && LegacyValidators.phoneNumberCheck(customer.getPhone(), country)){
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int countryRuleChecks(){
+        int valid = 0;
+        for (int i = 0; i < customers.size(); i++){
+            Customer customer = customers.get(i);
+            String country = customerCountries[i];
+            if (CustomerValidator.isValidAddress(customer.getAddress(), country)
+                    && CustomerValidator.isValidPostalCode(customer.getPostalCode(), country)
+                    && CustomerValidator.isValidPhoneNumber(customer.getPhone(), country)){
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * The same checks through the interfaces that the customer scenes implement.
+     * */
+    @Benchmark
+    public int interfaceChecks(){
+        int valid = 0;
+        for (int i = 0; i < customers.size(); i++){
+            Customer customer = customers.get(i);
+            String country = customerCountries[i];
+            int fieldCount = country.equals("UK") ? 3 : 2;
+            if (checks.addressCheck(customer.getAddress(), fieldCount)
+                    && checks.postalCodeChecker(customer.getPostalCode(), country)
+                    && checks.phoneNumberCheck(customer.getPhone(), country)){
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public List<Set<CustomerValidator.Field>> validateAllParallel(){
+        return CustomerValidator.validateAll(customers, divisionId -> CountryRule.forCountry(COUNTRIES[divisionId]));
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.appointment;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A Singleton class that alerts the user fifteen minutes before each of their appointments starts, for as long as they are logged in.
+ * <br>
+ * The upcoming appointments are kept in a priority queue ordered by the time their alert is due, and a single timer is set for the alert at the
+ * head of the queue. When it goes off, every alert that is due at that moment is delivered together and the timer is set for the next one.
+ * Each evaluation reads the clock once, so all of the appointments are compared against the same moment.
+ * <br>
+ * The queue is loaded when the user logs in, and kept up to date by the controllers calling appointmentSaved() and appointmentDeleted().
+ * All of the scheduler's state is only touched by its own thread, so the queue needs no locking.
+ * */
+public final class AlertScheduler {
+    /**
+     * How long before an appointment starts its alert is delivered.
+     * */
+    public static final Duration ALERT_LEAD_TIME = Duration.ofMinutes(15);
+    private static AlertScheduler INSTANCE;
+    private final Logger LOGGER = Logger.getLogger(AlertScheduler.class.getName());
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "appointment-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Clock clock = Clock.systemUTC();
+    private final PriorityQueue<ScheduledAlert> queue = new PriorityQueue<>(Comparator.comparingLong((ScheduledAlert alert) -> alert.alertAt));
+    private final Map<Integer, ScheduledAlert> alertsByAppointment = new HashMap<>();
+    private Integer userId;
+    private Consumer<List<Appointment>> listener;
+    private ScheduledFuture<?> wakeUp;
+
+    /**
+     * An appointment in the queue and the time its alert is due. When an appointment is modified or deleted its alert is cancelled
+     * instead of being searched for in the queue, and cancelled alerts are dropped when they reach the head.
+     * */
+    private static final class ScheduledAlert {
+        private final Appointment appointment;
+        private final long alertAt;
+        private boolean cancelled;
+
+        private ScheduledAlert(Appointment appointment, long alertAt){
+            this.appointment = appointment;
+            this.alertAt = alertAt;
+        }
+    }
+
+    /**
+     * Constructor that is private so that only one AlertScheduler object is ever created.
+     * */
+    private AlertScheduler(){
+    }
+
+    /**
+     * A method that returns the instance of the AlertScheduler. It only creates a new one the first time it is called.
+     * @return The AlertScheduler object.
+     * */
+    public static synchronized AlertScheduler getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new AlertScheduler();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * A method that starts alerting a user about their appointments. It loads every appointment of the user whose alert is still in the future.
+     * Any alerts of a previous user are dropped.
+     * @param userId The ID of the user that logged in.
+     * @param listener Called with the appointments whose alerts are due. It is called on the scheduler's thread, so a listener that shows
+     *                 an alert has to move to the JavaFX application thread first.
+     * */
+    public void start(int userId, Consumer<List<Appointment>> listener){
+        executor.execute(() -> {
+            clear();
+            this.userId = userId;
+            this.listener = listener;
+            try {
+                load(userId);
+            }
+            catch (SQLException | IOException | RuntimeException e){
+                LOGGER.log(Level.WARNING, "The upcoming appointments could not be loaded for alerts.", e);
+            }
+            reschedule();
+        });
+    }
+
+    /**
+     * A method that stops alerting the current user. This is called when the user logs out.
+     * */
+    public void stop(){
+        executor.execute(this::clear);
+    }
+
+    /**
+     * Stops the scheduler's thread. This is called when the program exits.
+     * */
+    public void shutdown(){
+        executor.shutdownNow();
+    }
+
+    /**
+     * A method that updates the alert of an appointment that was added or modified. If the appointment doesn't belong to the current user anymore,
+     * or its alert time has already passed, any alert it had is cancelled.
+     * @param appointment The appointment that was saved.
+     * */
+    public void appointmentSaved(Appointment appointment){
+        executor.execute(() -> {
+            if (userId == null){
+                return;
+            }
+            if (appointment.getUserID() == userId){
+                schedule(appointment, clock.millis());
+            }
+            else{
+                cancel(appointment.getAppointmentID());
+            }
+            reschedule();
+        });
+    }
+
+    /**
+     * A method that cancels the alert of an appointment that was deleted.
+     * @param appointmentId The ID of the appointment that was deleted.
+     * */
+    public void appointmentDeleted(int appointmentId){
+        executor.execute(() -> {
+            cancel(appointmentId);
+            reschedule();
+        });
+    }
+
+    private void load(int userId) throws SQLException, IOException {
+        long now = clock.millis();
+        LocalDateTime firstStart = LocalDateTime.ofInstant(Instant.ofEpochMilli(now).plus(ALERT_LEAD_TIME), AppointmentRowMapper.BUSINESS_ZONE_ID);
+        String sqlQuery = "SELECT * FROM APPOINTMENTS WHERE User_ID = ? AND Start > ?";
+        try (PreparedStatement stmt = ConnectionModel.getInstance().getConnection().prepareStatement(sqlQuery)){
+            stmt.setInt(1, userId);
+            stmt.setObject(2, firstStart);
+            ResultSetStreams.forEach(stmt, AppointmentRowMapper.FACTORY, appointment -> schedule(appointment, now));
+        }
+    }
+
+    /**
+     * Adds the alert of an appointment to the queue, replacing any alert it already had. Nothing is added if the alert is not in the future.
+     * */
+    private void schedule(Appointment appointment, long now){
+        cancel(appointment.getAppointmentID());
+        long alertAt = appointment.getStartEpochSecond() * 1000 - ALERT_LEAD_TIME.toMillis();
+        if (alertAt > now){
+            ScheduledAlert alert = new ScheduledAlert(appointment, alertAt);
+            queue.add(alert);
+            alertsByAppointment.put(appointment.getAppointmentID(), alert);
+        }
+    }
+
+    private void cancel(int appointmentId){
+        ScheduledAlert alert = alertsByAppointment.remove(appointmentId);
+        if (alert != null){
+            alert.cancelled = true;
+        }
+    }
+
+    /**
+     * Delivers every alert that is due, then sets the timer for the next one.
+     * */
+    private void fire(){
+        long now = clock.millis();
+        List<Appointment> dueAppointments = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().alertAt <= now){
+            ScheduledAlert alert = queue.poll();
+            if (!alert.cancelled){
+                alertsByAppointment.remove(alert.appointment.getAppointmentID());
+                dueAppointments.add(alert.appointment);
+            }
+        }
+        if (!dueAppointments.isEmpty() && listener != null){
+            try {
+                listener.accept(dueAppointments);
+            }
+            catch (RuntimeException e){
+                LOGGER.log(Level.WARNING, "An appointment alert could not be delivered.", e);
+            }
+        }
+        reschedule();
+    }
+
+    /**
+     * Sets the timer for the alert at the head of the queue, replacing the timer that was set before.
+     * */
+    private void reschedule(){
+        if (wakeUp != null){
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+        while (!queue.isEmpty() && queue.peek().cancelled){
+            queue.poll();
+        }
+        if (!queue.isEmpty()){
+            wakeUp = executor.schedule(this::fire, queue.peek().alertAt - clock.millis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void clear(){
+        if (wakeUp != null){
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+        queue.clear();
+        alertsByAppointment.clear();
+        userId = null;
+        listener = null;
+    }
+}
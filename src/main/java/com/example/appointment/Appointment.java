@@ -4,19 +4,23 @@ import java.time.*;
 
 /**
  * Creates a unique appointment object with the specified information.
+ * <br>
+ * Appointments are immutable. The start and end are stored as epoch seconds instead of ZonedDateTime objects, and the type and location
+ * are interned because most appointments share a handful of them, so each appointment takes a fraction of the memory it used to.
+ * The text that the tables show for the start and end is formatted once and cached with getDisplay().
  */
-public class Appointment {
-    private int appointmentID;
-    private String title;
-    private String description;
-    private String location;
-    private String type;
-    private ZonedDateTime startDate;
-    private ZonedDateTime endDate;
-    private int contactID;
-    private int customerID;
-    private int userID;
-    private ZoneId appointmentZoneId;
+public final class Appointment {
+    private final int appointmentID;
+    private final String title;
+    private final String description;
+    private final String location;
+    private final String type;
+    private final long startEpochSecond;
+    private final long endEpochSecond;
+    private final int contactID;
+    private final int customerID;
+    private final int userID;
+    private volatile AppointmentDisplay display;
 
 
     /**
@@ -34,18 +38,45 @@ public class Appointment {
      * */
     public Appointment(int appointmentID, String title, String description, String location, int contactID,
                        String type, ZonedDateTime startDate, ZonedDateTime endDate, int customerID, int userID){
+        this(appointmentID, title, description, location, contactID, type, startDate.toEpochSecond(), endDate.toEpochSecond(), customerID, userID);
+    }
+
+    /**
+     * Constructor that creates a new appointment whose start and end are already epoch seconds, such as an appointment read from the database.
+     * @param appointmentID The ID of the appointment.
+     * @param title The title of the appointment
+     * @param description A description of the appointment's purpose.
+     * @param location The location of the appointment
+     * @param contactID The ID of the contact that is associated with this appointment.
+     * @param type A description of what type of appointment this is.
+     * @param startEpochSecond The start of the appointment in seconds since 1970-01-01T00:00Z.
+     * @param endEpochSecond The end of the appointment in seconds since 1970-01-01T00:00Z.
+     * @param customerID The ID for the customer that is associated with this appointment.
+     * @param userID The ID for the user that created this appointment.
+     * */
+    public Appointment(int appointmentID, String title, String description, String location, int contactID,
+                       String type, long startEpochSecond, long endEpochSecond, int customerID, int userID){
         this.appointmentID = appointmentID;
         this.title = title;
         this.description = description;
-        this.location = location;
+        this.location = location == null ? null : location.intern();
         this.contactID = contactID;
-        this.type = type;
-        this.startDate = startDate;
-        this.endDate = endDate;
+        this.type = type == null ? null : type.intern();
+        this.startEpochSecond = startEpochSecond;
+        this.endEpochSecond = endEpochSecond;
         this.customerID = customerID;
         this.userID = userID;
     }
 
+    /**
+     * A method that creates a copy of this appointment with a different ID. It is used when the database generates the ID of a new appointment.
+     * @param appointmentID The appointment ID that the database generated for this appointment.
+     * @return A new appointment that is the same as this one except for its ID.
+     * */
+    public Appointment withAppointmentID(int appointmentID){
+        return new Appointment(appointmentID, title, description, location, contactID, type, startEpochSecond, endEpochSecond, customerID, userID);
+    }
+
     /**
      * @return the appointment ID.
      */
@@ -60,13 +91,6 @@ public class Appointment {
         return title;
     }
 
-    /**
-     * @param title the title to set.
-     */
-    public void setTitle(String title) {
-        this.title = title;
-    }
-
     /**
      * @return the description of the appointment.
      */
@@ -74,13 +98,6 @@ public class Appointment {
         return description;
     }
 
-    /**
-     * @param description the appointment description to set.
-     */
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
     /**
      * @return the location of the appointment.
      */
@@ -88,13 +105,6 @@ public class Appointment {
         return location;
     }
 
-    /**
-     * @param location the location to set.
-     */
-    public void setLocation(String location) {
-        this.location = location;
-    }
-
     /**
      * @return The ID of the contact for this appointment.
      */
@@ -103,62 +113,76 @@ public class Appointment {
     }
 
     /**
-     * @param contactID the contact information of the appointment to be set.
+     * @return the appointment type.
      */
-    public void setContactID(int contactID) {
-        this.contactID = contactID;
+    public String getType() {
+        return type;
     }
 
     /**
-     * @return the appointment type to set
-     */
-    public String getType() {
-        return type;
+     * @return The start of the appointment in seconds since 1970-01-01T00:00Z.
+     * */
+    public long getStartEpochSecond() {
+        return startEpochSecond;
     }
 
     /**
-     * @param appointmentType the Appointment type to set
-     */
-    public void setType(String appointmentType) {
-        this.type = appointmentType;
+     * @return The end of the appointment in seconds since 1970-01-01T00:00Z.
+     * */
+    public long getEndEpochSecond() {
+        return endEpochSecond;
     }
 
     /**
-     * @return the start date of the appointment.
+     * @return the start date of the appointment in the business time zone. A new object is created on each call.
      */
     public ZonedDateTime getStartDate() {
-        return startDate;
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(startEpochSecond), AppointmentRowMapper.BUSINESS_ZONE_ID);
     }
 
     /**
-     * @return the end date of the appointment.
+     * @return the end date of the appointment in the business time zone. A new object is created on each call.
      */
     public ZonedDateTime getEndDate() {
-        return endDate;
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(endEpochSecond), AppointmentRowMapper.BUSINESS_ZONE_ID);
     }
 
+    /**
+     * @param zoneId The time zone that the start is converted to.
+     * @return The start of the appointment on the wall clock of the time zone.
+     * */
+    public LocalDateTime getStart(ZoneId zoneId){
+        return toLocalDateTime(startEpochSecond, zoneId);
+    }
 
     /**
-     * A method that lets the program change the zone ID to the one passed in. This is useful for switching
-     * from business ZoneId of Eastern Standard Time to the user's local Zone ID.
-     * @param zoneId Takes in the zone ID set by the program. This can be used to change to and from Eastern Standard Time.
+     * @param zoneId The time zone that the end is converted to.
+     * @return The end of the appointment on the wall clock of the time zone.
      * */
-    public void setAppointmentZoneId(ZoneId zoneId){
-        appointmentZoneId = zoneId;
+    public LocalDateTime getEnd(ZoneId zoneId){
+        return toLocalDateTime(endEpochSecond, zoneId);
     }
 
     /**
-     * @return the use ID of the appointment.
-     */
-    public int getUserID() {
-        return userID;
+     * A method that returns the start and end of the appointment formatted for display. The text is only formatted the first time it is asked for
+     * with a format, so table cells that are rendered again don't convert or format anything.
+     * @param format The time zone and formatters that the text is created with.
+     * @return The formatted start and end of the appointment.
+     * */
+    public AppointmentDisplay getDisplay(AppointmentDisplay.Format format){
+        AppointmentDisplay cached = display;
+        if (cached == null || cached.getFormat() != format){
+            cached = new AppointmentDisplay(format, getStart(format.getZoneId()), getEnd(format.getZoneId()));
+            display = cached;
+        }
+        return cached;
     }
 
     /**
-     * @param userID the user ID to be set.
+     * @return the use ID of the appointment.
      */
-    public void setUserID(int userID) {
-        this.userID = userID;
+    public int getUserID() {
+        return userID;
     }
 
     /**
@@ -168,10 +192,7 @@ public class Appointment {
         return customerID;
     }
 
-    /**
-     * @param customerID The customer ID to set for this appointment.
-     * */
-    public void setCustomerID(int customerID) {
-        this.customerID = customerID;
+    private static LocalDateTime toLocalDateTime(long epochSecond, ZoneId zoneId){
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, zoneId.getRules().getOffset(Instant.ofEpochSecond(epochSecond)));
     }
 }
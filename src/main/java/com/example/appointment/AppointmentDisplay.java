@@ -0,0 +1,128 @@
+package com.example.appointment;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * The start and end of an appointment converted to a time zone and formatted for the tables. Each appointment caches the one for the
+ * format that was last asked for, so it is only created again when the user's time zone or language changes.
+ * @see Appointment#getDisplay(Format)
+ * */
+public final class AppointmentDisplay {
+    private final Format format;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final String startDateText;
+    private final String startTimeText;
+    private final String endDateText;
+    private final String endTimeText;
+
+    /**
+     * The time zone and formatters that appointments are displayed with. Formats are compared by identity, so Format.of() returns the same
+     * object for as long as the time zone and locale don't change.
+     * */
+    public static final class Format {
+        private static volatile Format current;
+        private final ZoneId zoneId;
+        private final Locale locale;
+        private final DateTimeFormatter dateFormatter;
+        private final DateTimeFormatter timeFormatter;
+
+        private Format(ZoneId zoneId, Locale locale){
+            this.zoneId = zoneId;
+            this.locale = locale;
+            dateFormatter = DateTimeFormatter.ofPattern(FormattingService.DATE_PATTERN, locale);
+            timeFormatter = DateTimeFormatter.ofPattern(FormattingService.TIME_PATTERN, locale);
+        }
+
+        /**
+         * A method that returns the format for a time zone and locale. The last format is reused if it has the same time zone and locale.
+         * @param zoneId The time zone that the appointments are shown in.
+         * @param locale The locale that the dates are formatted with.
+         * @return The format.
+         * */
+        public static Format of(ZoneId zoneId, Locale locale){
+            Format format = current;
+            if (format == null || !format.zoneId.equals(zoneId) || !format.locale.equals(locale)){
+                format = new Format(zoneId, locale);
+                current = format;
+            }
+            return format;
+        }
+
+        /**
+         * @return The time zone that the appointments are shown in.
+         * */
+        public ZoneId getZoneId() {
+            return zoneId;
+        }
+
+        /**
+         * @return The locale that the dates are formatted with.
+         * */
+        public Locale getLocale() {
+            return locale;
+        }
+    }
+
+    AppointmentDisplay(Format format, LocalDateTime start, LocalDateTime end){
+        this.format = format;
+        this.start = start;
+        this.end = end;
+        startDateText = format.dateFormatter.format(start);
+        startTimeText = format.timeFormatter.format(start);
+        endDateText = format.dateFormatter.format(end);
+        endTimeText = format.timeFormatter.format(end);
+    }
+
+    /**
+     * @return The format that the text was created with.
+     * */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * @return The start of the appointment in the format's time zone.
+     * */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * @return The end of the appointment in the format's time zone.
+     * */
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * @return The start date in the format MM-dd-yyyy.
+     * */
+    public String getStartDateText() {
+        return startDateText;
+    }
+
+    /**
+     * @return The start time in the format HH:mm.
+     * */
+    public String getStartTimeText() {
+        return startTimeText;
+    }
+
+    /**
+     * @return The end date in the format MM-dd-yyyy.
+     * */
+    public String getEndDateText() {
+        return endDateText;
+    }
+
+    /**
+     * @return The end time in the format HH:mm.
+     * */
+    public String getEndTimeText() {
+        return endTimeText;
+    }
+}
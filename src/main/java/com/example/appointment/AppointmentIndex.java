@@ -0,0 +1,212 @@
+package com.example.appointment;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A Singleton class that keeps an in-memory index of every appointment so that overlapping appointments can be found without querying the database
+ * on every save. The appointments are kept in one IntervalTree per customer and one per contact, which answers an overlap query in O(log n + k).
+ * <br>
+ * The index is loaded from the database the first time it is needed, which is the first save in AppointmentService's INDEX overlap check mode.
+ * After that AppointmentService and the BulkImporter keep it up to date by calling put() before they commit an appointment, while its customer is
+ * still locked, and remove() when an appointment is deleted. If a transaction is rolled back after put() was called, the index is invalidated.
+ * */
+public final class AppointmentIndex {
+    private static AppointmentIndex INSTANCE;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Appointment> appointmentsById = new HashMap<>();
+    private final Map<Integer, IntervalTree<Appointment>> appointmentsByCustomer = new HashMap<>();
+    private final Map<Integer, IntervalTree<Appointment>> appointmentsByContact = new HashMap<>();
+    private boolean loaded = false;
+
+    /**
+     * Constructor that is private so that only one AppointmentIndex object is ever created.
+     * */
+    private AppointmentIndex(){
+    }
+
+    /**
+     * A method that returns the instance of the AppointmentIndex. It only creates a new one the first time it is called.
+     * @return The AppointmentIndex object.
+     * */
+    public static synchronized AppointmentIndex getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new AppointmentIndex();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * A method that returns the appointments of a customer that overlap the given time.
+     * @param customerId The ID of the customer whose appointments are checked.
+     * @param start The start of the time that is checked.
+     * @param end The end of the time that is checked.
+     * @param excludedAppointmentId The ID of an appointment that should be ignored. This prevents an appointment that is being modified from overlapping with itself.
+     * @return A list of the overlapping appointments, in order of their start time.
+     * @throws SQLException If the index has to be loaded and a SQL database error occurs.
+     * @throws IOException If the index has to be loaded and the connection cannot be accessed.
+     * */
+    public List<Appointment> findCustomerOverlaps(int customerId, ZonedDateTime start, ZonedDateTime end, int excludedAppointmentId) throws SQLException, IOException {
+        return findOverlaps(appointmentsByCustomer, customerId, start, end, excludedAppointmentId);
+    }
+
+    /**
+     * A method that returns the appointments of a contact that overlap the given time.
+     * @param contactId The ID of the contact whose appointments are checked.
+     * @param start The start of the time that is checked.
+     * @param end The end of the time that is checked.
+     * @param excludedAppointmentId The ID of an appointment that should be ignored.
+     * @return A list of the overlapping appointments, in order of their start time.
+     * @throws SQLException If the index has to be loaded and a SQL database error occurs.
+     * @throws IOException If the index has to be loaded and the connection cannot be accessed.
+     * */
+    public List<Appointment> findContactOverlaps(int contactId, ZonedDateTime start, ZonedDateTime end, int excludedAppointmentId) throws SQLException, IOException {
+        return findOverlaps(appointmentsByContact, contactId, start, end, excludedAppointmentId);
+    }
+
+    /**
+     * A method that adds an appointment to the index, or replaces it if an appointment with the same ID is already indexed.
+     * If the index hasn't been loaded yet nothing happens, because the appointment will be read from the database when it is loaded.
+     * @param appointment The appointment that was added or modified.
+     * */
+    public void put(Appointment appointment){
+        lock.writeLock().lock();
+        try {
+            if (loaded){
+                removeFromTrees(appointment.getAppointmentID());
+                addToTrees(appointment);
+            }
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A method that removes an appointment from the index.
+     * @param appointmentId The ID of the appointment that was deleted.
+     * */
+    public void remove(int appointmentId){
+        lock.writeLock().lock();
+        try {
+            if (loaded){
+                removeFromTrees(appointmentId);
+            }
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clears the index so that it is loaded again from the database the next time it is needed.
+     * */
+    public void invalidate(){
+        lock.writeLock().lock();
+        try {
+            clear();
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Appointment> findOverlaps(Map<Integer, IntervalTree<Appointment>> trees, int key, ZonedDateTime start, ZonedDateTime end,
+                                           int excludedAppointmentId) throws SQLException, IOException {
+        ensureLoaded();
+        List<Appointment> overlapping = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            IntervalTree<Appointment> tree = trees.get(key);
+            if (tree != null){
+                tree.findOverlapping(start.toInstant().toEpochMilli(), end.toInstant().toEpochMilli(), overlapping);
+            }
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+        overlapping.removeIf(appointment -> appointment.getAppointmentID() == excludedAppointmentId);
+        return overlapping;
+    }
+
+    /**
+     * Loads every appointment from the database if the index hasn't been loaded yet.
+     * */
+    private void ensureLoaded() throws SQLException, IOException {
+        lock.readLock().lock();
+        try {
+            if (loaded){
+                return;
+            }
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        PreparedStatement stmt = null;
+        try {
+            if (loaded){
+                return;
+            }
+            String sqlQuery = "SELECT * FROM APPOINTMENTS";
+            stmt = ConnectionModel.getInstance().getConnection().prepareStatement(sqlQuery);
+            ResultSetStreams.forEach(stmt, AppointmentRowMapper.FACTORY, this::addToTrees);
+            loaded = true;
+        }
+        catch (SQLException | IOException | RuntimeException e){
+            clear();
+            throw e;
+        }
+        finally{
+            if (stmt != null){
+                stmt.close();
+            }
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear(){
+        appointmentsById.clear();
+        appointmentsByCustomer.clear();
+        appointmentsByContact.clear();
+        loaded = false;
+    }
+
+    private void addToTrees(Appointment appointment){
+        long start = appointment.getStartEpochSecond() * 1000;
+        long end = appointment.getEndEpochSecond() * 1000;
+        appointmentsById.put(appointment.getAppointmentID(), appointment);
+        appointmentsByCustomer.computeIfAbsent(appointment.getCustomerID(), id -> new IntervalTree<>())
+                .insert(start, end, appointment.getAppointmentID(), appointment);
+        appointmentsByContact.computeIfAbsent(appointment.getContactID(), id -> new IntervalTree<>())
+                .insert(start, end, appointment.getAppointmentID(), appointment);
+    }
+
+    private void removeFromTrees(int appointmentId){
+        Appointment previous = appointmentsById.remove(appointmentId);
+        if (previous == null){
+            return;
+        }
+        long start = previous.getStartEpochSecond() * 1000;
+        removeFromTree(appointmentsByCustomer, previous.getCustomerID(), start, appointmentId);
+        removeFromTree(appointmentsByContact, previous.getContactID(), start, appointmentId);
+    }
+
+    private static void removeFromTree(Map<Integer, IntervalTree<Appointment>> trees, int key, long start, int appointmentId){
+        IntervalTree<Appointment> tree = trees.get(key);
+        if (tree != null){
+            tree.remove(start, appointmentId);
+            if (tree.size() == 0){
+                trees.remove(key);
+            }
+        }
+    }
+}
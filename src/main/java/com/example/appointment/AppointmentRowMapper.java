@@ -0,0 +1,66 @@
+package com.example.appointment;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * A RowMapper that turns a row of the APPOINTMENTS table into an Appointment object. The column indexes are looked up once when the mapper
+ * is created, so every row after that is read by index.
+ * */
+public final class AppointmentRowMapper implements RowMapper<Appointment> {
+    /**
+     * The time zone that the appointment start and end times are stored in.
+     * */
+    public static final ZoneId BUSINESS_ZONE_ID = ZoneId.of("America/New_York");
+
+    /**
+     * A factory that creates an AppointmentRowMapper for each ResultSet.
+     * */
+    public static final RowMapper.Factory<Appointment> FACTORY = AppointmentRowMapper::new;
+
+    private final int appointmentIdIndex;
+    private final int titleIndex;
+    private final int descriptionIndex;
+    private final int locationIndex;
+    private final int typeIndex;
+    private final int startIndex;
+    private final int endIndex;
+    private final int contactIdIndex;
+    private final int customerIdIndex;
+    private final int userIdIndex;
+
+    /**
+     * A constructor that looks up the index of every appointment column in the ResultSet.
+     * @param rs The ResultSet that the mapper will read.
+     * @throws SQLException If one of the appointment columns is missing from the ResultSet.
+     * */
+    public AppointmentRowMapper(ResultSet rs) throws SQLException {
+        appointmentIdIndex = rs.findColumn("Appointment_ID");
+        titleIndex = rs.findColumn("Title");
+        descriptionIndex = rs.findColumn("Description");
+        locationIndex = rs.findColumn("Location");
+        typeIndex = rs.findColumn("Type");
+        startIndex = rs.findColumn("Start");
+        endIndex = rs.findColumn("End");
+        contactIdIndex = rs.findColumn("Contact_ID");
+        customerIdIndex = rs.findColumn("Customer_ID");
+        userIdIndex = rs.findColumn("User_ID");
+    }
+
+    @Override
+    public Appointment mapRow(ResultSet rs) throws SQLException {
+        long startEpochSecond = toEpochSecond(rs.getObject(startIndex, LocalDateTime.class));
+        long endEpochSecond = toEpochSecond(rs.getObject(endIndex, LocalDateTime.class));
+        return new Appointment(rs.getInt(appointmentIdIndex), rs.getString(titleIndex), rs.getString(descriptionIndex), rs.getString(locationIndex),
+                rs.getInt(contactIdIndex), rs.getString(typeIndex), startEpochSecond, endEpochSecond, rs.getInt(customerIdIndex), rs.getInt(userIdIndex));
+    }
+
+    /**
+     * Converts a time stored in the business time zone to epoch seconds without creating a ZonedDateTime.
+     * */
+    private static long toEpochSecond(LocalDateTime businessDateTime){
+        return businessDateTime.toEpochSecond(BUSINESS_ZONE_ID.getRules().getOffset(businessDateTime));
+    }
+}
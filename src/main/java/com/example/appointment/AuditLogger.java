@@ -0,0 +1,307 @@
+package com.example.appointment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A Singleton class that writes the audit log: logins, changes to appointments and customers, and slow queries. Each event is one line of JSON, such as
+ * <br>
+ * {"time":"2022-04-19T05:19:53Z","event":"login_succeeded","user":"test","zone":"America/New_York"}
+ * <br>
+ * Recording an event only puts it in a fixed-size ring buffer, so the JavaFX application thread never waits for the disk. A background thread takes
+ * the events out in batches and writes each batch with a single write. When the buffer is full the new events are dropped, and the number dropped
+ * is written to the log once there is room again. The log is rotated when it reaches MAX_FILE_BYTES, and FILE_COUNT files are kept.
+ * <br>
+ * The file is log_activity.jsonl in the working directory, unless the appointment.audit.file system property names another one. The slow queries
+ * come from the QueryMetrics, which decides which queries are slow.
+ * */
+public final class AuditLogger {
+    private static AuditLogger INSTANCE;
+    private static final int BUFFER_CAPACITY = 8192;
+    private static final int BATCH_SIZE = 512;
+    private static final long MAX_FILE_BYTES = 3_000_000;
+    private static final int FILE_COUNT = 10;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    /**
+     * How long the writer thread waits for an event before it checks whether the logger was closed. The thread isn't interrupted to stop it,
+     * because an interrupt closes the file's channel and the events that are still in the buffer could not be written.
+     * */
+    private static final long POLL_MILLIS = 100;
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ISO_INSTANT;
+    private final Logger LOGGER = Logger.getLogger(AuditLogger.class.getName());
+    private final BlockingQueue<AuditEvent> events = new ArrayBlockingQueue<>(BUFFER_CAPACITY);
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final Path path = Path.of(System.getProperty("appointment.audit.file", "log_activity.jsonl"));
+    private final Thread writerThread;
+    private volatile boolean closed;
+    private OutputStream out;
+    private long fileSize;
+
+    /**
+     * The kinds of events in the audit log.
+     * */
+    public enum EventType {
+        LOGIN_SUCCEEDED,
+        LOGIN_FAILED,
+        CREATED,
+        UPDATED,
+        DELETED,
+        SLOW_QUERY,
+        EVENTS_DROPPED;
+
+        private final String jsonName = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One line of the audit log. The time is taken when the event is recorded, and everything else is only formatted on the writer thread.
+     * */
+    private static final class AuditEvent {
+        private final Instant time = Instant.now();
+        private final EventType type;
+        private final String user;
+        /**
+         * The kind of row that changed, or the caller of a slow query.
+         * */
+        private final String subject;
+        private final long id;
+        private final String sql;
+        private final long durationMillis;
+
+        private AuditEvent(EventType type, String user, String subject, long id, String sql, long durationMillis){
+            this.type = type;
+            this.user = user;
+            this.subject = subject;
+            this.id = id;
+            this.sql = sql;
+            this.durationMillis = durationMillis;
+        }
+    }
+
+    /**
+     * Constructor that is private so that only one AuditLogger object is ever created. It starts the writer thread.
+     * */
+    private AuditLogger(){
+        writerThread = new Thread(this::writeEvents, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * A method that returns the instance of the AuditLogger. It only creates a new one the first time it is called.
+     * @return The AuditLogger object.
+     * */
+    public static synchronized AuditLogger getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new AuditLogger();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * @param username The name that the user logged in with.
+     * */
+    public void loginSucceeded(String username){
+        record(new AuditEvent(EventType.LOGIN_SUCCEEDED, username, null, 0, null, 0));
+    }
+
+    /**
+     * @param username The name that the user tried to log in with.
+     * */
+    public void loginFailed(String username){
+        record(new AuditEvent(EventType.LOGIN_FAILED, username, null, 0, null, 0));
+    }
+
+    /**
+     * A method that records that a row was created, updated or deleted.
+     * @param type CREATED, UPDATED or DELETED.
+     * @param entity The kind of row, such as appointment or customer.
+     * @param id The ID of the row.
+     * @param username The name of the user that made the change.
+     * */
+    public void changed(EventType type, String entity, long id, String username){
+        record(new AuditEvent(type, username, entity, id, null, 0));
+    }
+
+    /**
+     * A method that records a query that took longer than the slow query threshold.
+     * @param sql The SQL of the query.
+     * @param caller The class and method that prepared the query.
+     * @param elapsedNanos How long the query took, in nanoseconds.
+     * */
+    public void slowQuery(String sql, String caller, long elapsedNanos){
+        record(new AuditEvent(EventType.SLOW_QUERY, null, caller, 0, sql, TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+    }
+
+    /**
+     * @return The number of events that were dropped because the buffer was full, since the program started.
+     * */
+    public long getDroppedEventCount(){
+        return droppedEvents.get();
+    }
+
+    /**
+     * Writes the events that are still in the buffer and stops the writer thread. Events recorded after this are dropped.
+     * This is called when the program exits.
+     * */
+    public void close(){
+        closed = true;
+        try {
+            writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Puts an event in the buffer without waiting. The event is dropped if the buffer is full.
+     * */
+    private void record(AuditEvent event){
+        if (closed || !events.offer(event)){
+            droppedEvents.incrementAndGet();
+        }
+    }
+
+    /**
+     * The loop of the writer thread. It waits for an event, takes every other event that is ready up to the batch size, and writes them together.
+     * After the logger is closed it keeps going until the buffer is empty, and then closes the file.
+     * */
+    private void writeEvents(){
+        List<AuditEvent> batch = new ArrayList<>(BATCH_SIZE);
+        long reportedDrops = 0;
+        while (true){
+            try {
+                AuditEvent event = events.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (event != null){
+                    batch.add(event);
+                }
+            }
+            catch (InterruptedException e){
+                LOGGER.log(Level.FINE, "The audit log writer was interrupted.", e);
+            }
+            events.drainTo(batch, BATCH_SIZE - batch.size());
+            if (batch.isEmpty()){
+                if (closed){
+                    break;
+                }
+                continue;
+            }
+            long drops = droppedEvents.get();
+            if (drops > reportedDrops){
+                batch.add(new AuditEvent(EventType.EVENTS_DROPPED, null, null, drops - reportedDrops, null, 0));
+                reportedDrops = drops;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+        closeFile();
+    }
+
+    /**
+     * Formats the events as JSON lines and writes them to the file in a single write, rotating the file first if they would not fit.
+     * If the file cannot be written, the batch is lost and a warning is logged.
+     * */
+    private void writeBatch(List<AuditEvent> batch){
+        StringWriter lines = new StringWriter(batch.size() * 128);
+        try {
+            for (AuditEvent event : batch){
+                writeEvent(new JsonWriter(lines), event);
+                lines.write('\n');
+            }
+            byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+            if (out == null){
+                openFile();
+            }
+            if (fileSize > 0 && fileSize + bytes.length > MAX_FILE_BYTES){
+                rotate();
+            }
+            out.write(bytes);
+            fileSize += bytes.length;
+        }
+        catch (IOException e){
+            LOGGER.log(Level.WARNING, batch.size() + " audit events could not be written to " + path + ".", e);
+            closeFile();
+        }
+    }
+
+    private static void writeEvent(JsonWriter json, AuditEvent event) throws IOException {
+        json.beginObject().name("time").value(TIME_FORMATTER.format(event.time)).name("event").value(event.type.jsonName);
+        if (event.user != null){
+            json.name("user").value(event.user);
+        }
+        switch (event.type){
+            case LOGIN_SUCCEEDED:
+            case LOGIN_FAILED:
+                json.name("zone").value(ZoneId.systemDefault().getId());
+                break;
+            case CREATED:
+            case UPDATED:
+            case DELETED:
+                json.name("entity").value(event.subject).name("id").value(event.id);
+                break;
+            case SLOW_QUERY:
+                json.name("caller").value(event.subject).name("sql").value(event.sql).name("durationMillis").value(event.durationMillis);
+                break;
+            case EVENTS_DROPPED:
+                json.name("count").value(event.id);
+                break;
+        }
+        json.endObject();
+    }
+
+    private void openFile() throws IOException {
+        out = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        fileSize = Files.size(path);
+    }
+
+    /**
+     * Renames log_activity.jsonl to log_activity.jsonl.1, log_activity.jsonl.1 to log_activity.jsonl.2 and so on, deleting the oldest file,
+     * and starts a new file.
+     * */
+    private void rotate() throws IOException {
+        closeFile();
+        Files.deleteIfExists(rotatedPath(FILE_COUNT - 1));
+        for (int i = FILE_COUNT - 2; i >= 1; i--){
+            Path rotated = rotatedPath(i);
+            if (Files.exists(rotated)){
+                Files.move(rotated, rotatedPath(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(path, rotatedPath(1), StandardCopyOption.REPLACE_EXISTING);
+        openFile();
+    }
+
+    private Path rotatedPath(int index){
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+
+    private void closeFile(){
+        if (out != null){
+            try {
+                out.close();
+            }
+            catch (IOException e){
+                LOGGER.log(Level.FINE, "The audit log could not be closed.", e);
+            }
+            out = null;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.appointment;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The default connection pool used by the ConnectionModel. It keeps between a minimum and maximum number of physical connections open and hands them
+ * out to callers. A Semaphore limits how many connections can be borrowed at once so callers wait up to the borrow timeout instead of failing immediately.
+ * <br>
+ * Idle connections are validated before they are handed out if they have been sitting in the pool longer than the validation interval. This way
+ * a connection that was dropped by the server is replaced instead of being given to a controller.
+ * <br>
+ * A housekeeping thread checks for borrowed connections that have been held longer than the leak detection threshold, and logs where they were borrowed from.
+ * */
+public class BlockingConnectionPool implements ConnectionPool {
+    private static final Logger LOGGER = Logger.getLogger(BlockingConnectionPool.class.getName());
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final ConnectionFactory connectionFactory;
+    private final int minimumSize;
+    private final int maximumSize;
+    private final long borrowTimeoutNanos;
+    private final long validationIntervalNanos;
+    private final long leakDetectionThresholdNanos;
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> activeConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    /**
+     * A constructor that creates the pool and opens the minimum number of connections straight away, so a bad database URL is reported at login
+     * instead of on the first query.
+     * @param connectionFactory The factory used to open new physical connections.
+     * @param minimumSize The number of connections the pool keeps open even when they're idle.
+     * @param maximumSize The largest number of connections the pool will ever open.
+     * @param borrowTimeout How long a caller waits for a connection before giving up.
+     * @param validationInterval How long a connection can sit idle before it's validated again when it's borrowed.
+     * @param leakDetectionThreshold How long a connection can be borrowed before it's reported as a possible leak.
+     * @throws SQLException If the minimum number of connections cannot be opened.
+     * */
+    public BlockingConnectionPool(ConnectionFactory connectionFactory, int minimumSize, int maximumSize, Duration borrowTimeout,
+                                  Duration validationInterval, Duration leakDetectionThreshold) throws SQLException {
+        if (minimumSize < 0 || maximumSize < 1 || minimumSize > maximumSize){
+            throw new IllegalArgumentException("The pool sizes must satisfy 0 <= minimum <= maximum and maximum >= 1.");
+        }
+        this.connectionFactory = connectionFactory;
+        this.minimumSize = minimumSize;
+        this.maximumSize = maximumSize;
+        this.borrowTimeoutNanos = borrowTimeout.toNanos();
+        this.validationIntervalNanos = validationInterval.toNanos();
+        this.leakDetectionThresholdNanos = leakDetectionThreshold.toNanos();
+        this.permits = new Semaphore(maximumSize, true);
+        try {
+            fillToMinimum();
+        }
+        catch (SQLException e){
+            closeIdleConnections();
+            throw e;
+        }
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long housekeepingMillis = Math.max(1000, leakDetectionThreshold.toMillis() / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeeping, housekeepingMillis, housekeepingMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * A method that borrows a connection from the pool. The most recently returned idle connection is reused first because it's the most likely to still be valid.
+     * If there are no idle connections and the pool is below its maximum size then a new connection is opened.
+     * @return A connection whose close() method returns it to the pool.
+     * @throws SQLException If the pool is closed, the borrow timeout expires, or a new connection cannot be opened.
+     * */
+    @Override
+    public Connection borrowConnection() throws SQLException {
+        if (closed){
+            throw new SQLException("The connection pool has been closed.");
+        }
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutNanos, TimeUnit.NANOSECONDS)){
+                timeoutCount.increment();
+                throw new SQLTimeoutException("Timed out waiting for a database connection. " + getMetrics());
+            }
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+        try {
+            PooledConnection pooledConnection = takeValidIdleConnection();
+            if (pooledConnection == null){
+                pooledConnection = openConnection();
+            }
+            long waitNanos = System.nanoTime() - waitStart;
+            borrowCount.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            pooledConnection.markBorrowed(leakDetectionThresholdNanos > 0);
+            activeConnections.add(pooledConnection);
+            return pooledConnection.createLease();
+        }
+        catch (SQLException | RuntimeException e){
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return A snapshot of the pool's current metrics.
+     * */
+    @Override
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(activeConnections.size(), idleConnections.size(), totalConnections.get(), maximumSize,
+                borrowCount.sum(), totalWaitNanos.sum(), maxWaitNanos.get(), timeoutCount.sum(), leakCount.sum());
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeping thread. Borrowed connections are closed when they are returned.
+     * */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        closeIdleConnections();
+    }
+
+    /**
+     * A method that removes idle connections from the pool until it finds one that is still valid. Connections that were used recently are trusted
+     * without a round trip to the server.
+     * @return A valid idle connection, or null if there are no idle connections left.
+     * */
+    private PooledConnection takeValidIdleConnection() {
+        PooledConnection pooledConnection;
+        while ((pooledConnection = idleConnections.pollFirst()) != null){
+            if (System.nanoTime() - pooledConnection.lastReturnedNanos < validationIntervalNanos){
+                return pooledConnection;
+            }
+            try {
+                if (pooledConnection.physicalConnection.isValid(VALIDATION_TIMEOUT_SECONDS)){
+                    return pooledConnection;
+                }
+            }
+            catch (SQLException e){
+                LOGGER.log(Level.FINE, "Idle connection failed validation.", e);
+            }
+            discard(pooledConnection);
+        }
+        return null;
+    }
+
+    /**
+     * @return A newly opened pooled connection.
+     * @throws SQLException If the database cannot be contacted.
+     * */
+    private PooledConnection openConnection() throws SQLException {
+        PooledConnection pooledConnection = new PooledConnection(connectionFactory.createConnection());
+        totalConnections.incrementAndGet();
+        return pooledConnection;
+    }
+
+    /**
+     * A method that opens connections until the pool has at least its minimum number of connections.
+     * @throws SQLException If a connection cannot be opened.
+     * */
+    private void fillToMinimum() throws SQLException {
+        while (!closed && totalConnections.get() < minimumSize){
+            PooledConnection pooledConnection = openConnection();
+            pooledConnection.lastReturnedNanos = System.nanoTime();
+            idleConnections.offerLast(pooledConnection);
+        }
+    }
+
+    /**
+     * A method that returns a borrowed connection to the pool. Any transaction the caller left open is rolled back so the next caller starts clean.
+     * @param pooledConnection The connection that is being returned.
+     * */
+    private void release(PooledConnection pooledConnection) {
+        activeConnections.remove(pooledConnection);
+        try {
+            Connection physicalConnection = pooledConnection.physicalConnection;
+            if (closed || physicalConnection.isClosed()){
+                discard(pooledConnection);
+                return;
+            }
+            if (!physicalConnection.getAutoCommit()){
+                physicalConnection.rollback();
+                physicalConnection.setAutoCommit(true);
+            }
+            pooledConnection.lastReturnedNanos = System.nanoTime();
+            idleConnections.offerFirst(pooledConnection);
+        }
+        catch (SQLException e){
+            discard(pooledConnection);
+        }
+        finally{
+            permits.release();
+        }
+    }
+
+    /**
+     * A method that closes a physical connection and removes it from the pool's count.
+     * @param pooledConnection The connection to be closed.
+     * */
+    private void discard(PooledConnection pooledConnection) {
+        totalConnections.decrementAndGet();
+        try {
+            pooledConnection.physicalConnection.close();
+        }
+        catch (SQLException e){
+            LOGGER.log(Level.FINE, "Failed to close a discarded connection.", e);
+        }
+    }
+
+    /**
+     * Closes all the idle connections in the pool.
+     * */
+    private void closeIdleConnections() {
+        PooledConnection pooledConnection;
+        while ((pooledConnection = idleConnections.pollFirst()) != null){
+            discard(pooledConnection);
+        }
+    }
+
+    /**
+     * A method that runs periodically on the housekeeping thread. It reports borrowed connections that look like leaks, and makes sure
+     * the pool still has its minimum number of connections after any were discarded.
+     * */
+    private void housekeeping() {
+        long now = System.nanoTime();
+        if (leakDetectionThresholdNanos > 0){
+            for (PooledConnection pooledConnection : activeConnections){
+                if (!pooledConnection.leakReported && now - pooledConnection.borrowedNanos > leakDetectionThresholdNanos){
+                    pooledConnection.leakReported = true;
+                    leakCount.increment();
+                    LOGGER.log(Level.WARNING, "A database connection has been borrowed for longer than "
+                            + TimeUnit.NANOSECONDS.toMillis(leakDetectionThresholdNanos) + " ms and may have leaked.", pooledConnection.borrowTrace);
+                }
+            }
+        }
+        try {
+            fillToMinimum();
+        }
+        catch (SQLException e){
+            LOGGER.log(Level.FINE, "Could not refill the connection pool.", e);
+        }
+    }
+
+    /**
+     * A physical connection along with the bookkeeping the pool needs for validation and leak detection.
+     * */
+    private final class PooledConnection {
+        private final Connection physicalConnection;
+        private volatile long lastReturnedNanos;
+        private volatile long borrowedNanos;
+        private volatile boolean leakReported;
+        private volatile Throwable borrowTrace;
+
+        private PooledConnection(Connection physicalConnection){
+            this.physicalConnection = physicalConnection;
+        }
+
+        /**
+         * Records when and where the connection was borrowed.
+         * @param captureTrace Whether the caller's stack trace should be saved for leak reports.
+         * */
+        private void markBorrowed(boolean captureTrace){
+            borrowedNanos = System.nanoTime();
+            leakReported = false;
+            borrowTrace = captureTrace ? new Throwable("Connection borrowed here") : null;
+        }
+
+        /**
+         * A method that wraps the physical connection in a proxy so that closing it returns the connection to the pool.
+         * A new proxy is made for every borrow so that a caller that holds onto an old connection cannot use it after returning it.
+         * @return A connection proxy for this borrow.
+         * */
+        private Connection createLease(){
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Lease(this));
+        }
+    }
+
+    /**
+     * The invocation handler behind each borrowed connection. Every call is passed to the physical connection except close() and isClosed().
+     * */
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooledConnection;
+        private boolean returned = false;
+
+        private Lease(PooledConnection pooledConnection){
+            this.pooledConnection = pooledConnection;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()){
+                case "close":
+                    if (!returned){
+                        returned = true;
+                        release(pooledConnection);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooledConnection.physicalConnection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooledConnection.physicalConnection + (returned ? ", returned]" : "]");
+                default:
+                    if (returned){
+                        throw new SQLException("This connection has already been returned to the pool.");
+                    }
+                    try {
+                        return method.invoke(pooledConnection.physicalConnection, args);
+                    }
+                    catch (InvocationTargetException e){
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,563 @@
+package com.example.appointment;
+
+import com.example.appointment.exceptions.CsvFormatException;
+import com.example.appointment.exceptions.InvalidAppointmentException;
+import com.example.appointment.service.AppointmentService;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A class that imports customers and appointments from CSV files. The file is read one row at a time, each row is validated with the same rules
+ * as the add customer and add appointment scenes, and the valid rows are written with JDBC batches in chunked transactions.
+ * <br>
+ * Each chunk of rows is sent with one executeBatch() and committed together on a connection borrowed from the pool. If the database rejects the
+ * chunk, it is rolled back and its rows are written one at a time, so that only the rows the database rejects are reported as errors.
+ * Appointments are checked for overlaps in the same transaction that writes them, after their customers are locked, the same way AppointmentService saves one.
+ * Rows that fail validation are never sent to the database. Every rejected row is listed in the ImportReport with its line number.
+ * <br>
+ * The first row of the file is a header with the column names, which can be in any order:
+ * <ul>
+ *     <li>Customers: Customer_Name, Address, Postal_Code, Phone, Division_ID</li>
+ *     <li>Appointments: Title, Description, Location, Type, Start, End, Customer_ID, User_ID, Contact_ID.
+ *     Start and End are written as yyyy-MM-dd HH:mm in the business time zone, the same way they are stored in the database.</li>
+ * </ul>
+ * */
+public final class BulkImporter {
+    /**
+     * The system property that sets how many rows are written in each batch and transaction.
+     * */
+    public static final String BATCH_SIZE_PROPERTY = "appointment.import.batchSize";
+    private static final int BATCH_SIZE = Math.max(1, Integer.getInteger(BATCH_SIZE_PROPERTY, 500));
+    private static final String[] CUSTOMER_COLUMNS = {"Customer_Name", "Address", "Postal_Code", "Phone", "Division_ID"};
+    private static final String[] APPOINTMENT_COLUMNS = {"Title", "Description", "Location", "Type", "Start", "End", "Customer_ID", "User_ID", "Contact_ID"};
+    private static final String INSERT_CUSTOMER = "INSERT INTO CUSTOMERS (Customer_Name, Address, Postal_Code, Phone, Create_Date, Created_By, "
+            + "Last_Update, Last_Updated_By, Division_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_APPOINTMENT = "INSERT INTO APPOINTMENTS (Title, Description, Location, Type, Start, End, Create_Date, Created_By, "
+            + "Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd[ ]['T']HH:mm[:ss]");
+
+    /**
+     * A row that passed validation and is waiting to be written, with the line of the file that it came from.
+     * */
+    private static final class PendingRow<T> {
+        private final long lineNumber;
+        private final T value;
+
+        private PendingRow(long lineNumber, T value){
+            this.lineNumber = lineNumber;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Checks rows against the database in the transaction that writes them, just before they are written. It is told about the rows that were written
+     * before the transaction commits, while the locks that the check took are still held.
+     * */
+    @FunctionalInterface
+    private interface RowCheck<T> {
+        /**
+         * @param connection The borrowed connection, with auto-commit turned off.
+         * @param rows The rows that are about to be written.
+         * @return The reason that each rejected row can't be written. The rows that aren't in the map are written.
+         * */
+        Map<PendingRow<T>, String> check(Connection connection, List<PendingRow<T>> rows) throws SQLException, IOException;
+
+        /**
+         * Called with each row that was written and its generated ID, before the transaction commits.
+         * */
+        default void written(T value, int id){
+        }
+
+        /**
+         * Called when a transaction is rolled back after written() was called for its rows.
+         * */
+        default void rolledBack(){
+        }
+    }
+
+    /**
+     * The check of the appointments. The written appointments are put in the AppointmentIndex before the commit, the same way AppointmentService saves one,
+     * so that a save of one of their customers that waits on the lock finds them in the INDEX mode.
+     * */
+    private static final class ScheduleCheck implements RowCheck<Appointment> {
+        @Override
+        public Map<PendingRow<Appointment>, String> check(Connection connection, List<PendingRow<Appointment>> rows) throws SQLException, IOException {
+            return checkSchedules(connection, rows);
+        }
+
+        @Override
+        public void written(Appointment appointment, int id){
+            AppointmentIndex.getInstance().put(appointment.withAppointmentID(id));
+        }
+
+        @Override
+        public void rolledBack(){
+            AppointmentIndex.getInstance().invalidate();
+        }
+    }
+
+    /**
+     * Sets the parameters of the INSERT statement for one row.
+     * */
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement stmt, T value) throws SQLException;
+    }
+
+    /**
+     * Constructor that is private because this class only has static methods.
+     * */
+    private BulkImporter(){
+    }
+
+    /**
+     * @return The number of rows that are written in each batch and transaction.
+     * */
+    public static int getBatchSize(){
+        return BATCH_SIZE;
+    }
+
+    /**
+     * A method that imports customers from a CSV file. Each chunk of customers is validated in parallel with CustomerValidator before it is written.
+     * @param handle The handle of the background task. If the task is cancelled the import stops after the current chunk.
+     * @param csv The CSV file. It is closed when the import finishes.
+     * @return The report of the import.
+     * @throws SQLException If the connection to the database fails.
+     * @throws CsvFormatException If the file is missing a column or is not a valid CSV file.
+     * @throws IOException If the file cannot be read, or the connection cannot be accessed.
+     * */
+    public static ImportReport importCustomers(DataAccessExecutor.QueryHandle handle, Reader csv) throws SQLException, IOException {
+        ImportReport report = new ImportReport();
+        Map<Integer, CountryRule> rulesByDivision = CustomerValidator.loadRulesByDivision();
+        String username = ConnectionModel.getInstance().getCurrentUsername();
+        ZonedDateTime now = ZonedDateTime.now();
+        try (CsvReader reader = new CsvReader(csv); Connection connection = ConnectionModel.getInstance().borrowConnection()) {
+            int[] columns = readHeader(reader, CUSTOMER_COLUMNS);
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = handle.track(connection.prepareStatement(INSERT_CUSTOMER, Statement.RETURN_GENERATED_KEYS))){
+                List<PendingRow<Customer>> chunk = new ArrayList<>(BATCH_SIZE);
+                List<String> record;
+                while (!handle.isCancelled() && (record = reader.readRecord()) != null){
+                    if (isBlank(record)){
+                        continue;
+                    }
+                    report.rowRead();
+                    long lineNumber = reader.getRecordLineNumber();
+                    try {
+                        Customer customer = new Customer(-1, requiredField(record, columns, 0), field(record, columns, 1), field(record, columns, 2),
+                                field(record, columns, 3), now, username, now, username, intField(record, columns, 4));
+                        chunk.add(new PendingRow<>(lineNumber, customer));
+                    }
+                    catch (IllegalArgumentException e){
+                        report.rowRejected(lineNumber, e.getMessage());
+                    }
+                    if (chunk.size() == BATCH_SIZE){
+                        writeCustomers(handle, connection, stmt, chunk, rulesByDivision, report);
+                        chunk.clear();
+                    }
+                }
+                if (!handle.isCancelled()){
+                    writeCustomers(handle, connection, stmt, chunk, rulesByDivision, report);
+                }
+            }
+        }
+        finally{
+            ReferenceDataCache.getInstance().invalidate(ReferenceDataCache.Table.CUSTOMERS);
+            report.finish();
+        }
+        return report;
+    }
+
+    /**
+     * A method that imports appointments from a CSV file. Each appointment must be within business hours, and must not overlap another appointment
+     * of the same customer, including the appointments earlier in the file. Before a chunk is written its customers are locked and each appointment
+     * is checked with the same overlap check as AppointmentService, in the transaction that inserts the chunk, so an appointment that is saved by
+     * another user during the import can't overlap an imported one.
+     * @param handle The handle of the background task. If the task is cancelled the import stops after the current chunk.
+     * @param csv The CSV file. It is closed when the import finishes.
+     * @return The report of the import.
+     * @throws SQLException If the connection to the database fails.
+     * @throws CsvFormatException If the file is missing a column or is not a valid CSV file.
+     * @throws IOException If the file cannot be read, or the connection cannot be accessed.
+     * */
+    public static ImportReport importAppointments(DataAccessExecutor.QueryHandle handle, Reader csv) throws SQLException, IOException {
+        ImportReport report = new ImportReport();
+        ReferenceDataCache cache = ReferenceDataCache.getInstance();
+        IntIdSet customerIds = cache.getCustomerIds();
+        IntIdSet userIds = cache.getUserIds();
+        IntIdSet contactIds = cache.getContactIds();
+        String username = ConnectionModel.getInstance().getCurrentUsername();
+        try (CsvReader reader = new CsvReader(csv); Connection connection = ConnectionModel.getInstance().borrowConnection()) {
+            int[] columns = readHeader(reader, APPOINTMENT_COLUMNS);
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = handle.track(connection.prepareStatement(INSERT_APPOINTMENT, Statement.RETURN_GENERATED_KEYS))){
+                List<PendingRow<Appointment>> chunk = new ArrayList<>(BATCH_SIZE);
+                List<String> record;
+                while (!handle.isCancelled() && (record = reader.readRecord()) != null){
+                    if (isBlank(record)){
+                        continue;
+                    }
+                    report.rowRead();
+                    long lineNumber = reader.getRecordLineNumber();
+                    try {
+                        chunk.add(new PendingRow<>(lineNumber, parseAppointment(record, columns, customerIds, userIds, contactIds)));
+                    }
+                    catch (IllegalArgumentException e){
+                        report.rowRejected(lineNumber, e.getMessage());
+                    }
+                    if (chunk.size() == BATCH_SIZE){
+                        writeAppointments(handle, connection, stmt, chunk, username, report);
+                        chunk.clear();
+                    }
+                }
+                if (!handle.isCancelled()){
+                    writeAppointments(handle, connection, stmt, chunk, username, report);
+                }
+            }
+        }
+        finally{
+            cache.invalidate(ReferenceDataCache.Table.APPOINTMENT_TYPES);
+            report.finish();
+        }
+        return report;
+    }
+
+    private static void writeCustomers(DataAccessExecutor.QueryHandle handle, Connection connection, PreparedStatement stmt, List<PendingRow<Customer>> chunk,
+                                       Map<Integer, CountryRule> rulesByDivision, ImportReport report) throws SQLException, IOException {
+        List<Customer> customers = new ArrayList<>(chunk.size());
+        for (PendingRow<Customer> row : chunk){
+            customers.add(row.value);
+        }
+        List<Set<CustomerValidator.Field>> results = CustomerValidator.validateAll(customers, rulesByDivision::get);
+        List<PendingRow<Customer>> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++){
+            Set<CustomerValidator.Field> invalidFields = results.get(i);
+            if (invalidFields.isEmpty()){
+                valid.add(chunk.get(i));
+            }
+            else{
+                report.rowRejected(chunk.get(i).lineNumber, describe(invalidFields, chunk.get(i).value));
+            }
+        }
+        writeChunk(handle, connection, stmt, valid, (lockedConnection, rows) -> Collections.emptyMap(), (insert, customer) -> {
+            insert.setString(1, customer.getCustomerName());
+            insert.setString(2, customer.getAddress());
+            insert.setString(3, customer.getPostalCode());
+            insert.setString(4, customer.getPhone());
+            insert.setObject(5, customer.getCreateDate());
+            insert.setString(6, customer.getCreatedBy());
+            insert.setObject(7, customer.getLastUpdate());
+            insert.setString(8, customer.getLastUpdatedBy());
+            insert.setInt(9, customer.getDivisionID());
+        }, (customer, customerId) -> {
+            customer.setCustomerID(customerId);
+            CustomerSearchIndex.getInstance().put(customer);
+        }, report);
+    }
+
+    private static void writeAppointments(DataAccessExecutor.QueryHandle handle, Connection connection, PreparedStatement stmt, List<PendingRow<Appointment>> chunk, String username,
+                                          ImportReport report) throws SQLException, IOException {
+        writeChunk(handle, connection, stmt, chunk, new ScheduleCheck(), (insert, appointment) -> {
+            ZonedDateTime now = ZonedDateTime.now();
+            insert.setString(1, appointment.getTitle());
+            insert.setString(2, appointment.getDescription());
+            insert.setString(3, appointment.getLocation());
+            insert.setString(4, appointment.getType());
+            insert.setObject(5, appointment.getStart(AppointmentRowMapper.BUSINESS_ZONE_ID));
+            insert.setObject(6, appointment.getEnd(AppointmentRowMapper.BUSINESS_ZONE_ID));
+            insert.setObject(7, now);
+            insert.setString(8, username);
+            insert.setObject(9, now);
+            insert.setString(10, username);
+            insert.setInt(11, appointment.getCustomerID());
+            insert.setInt(12, appointment.getUserID());
+            insert.setInt(13, appointment.getContactID());
+        }, (appointment, appointmentId) -> AlertScheduler.getInstance().appointmentSaved(appointment.withAppointmentID(appointmentId)), report);
+    }
+
+    /**
+     * Locks the customers of the rows and finds the rows that overlap an appointment in the database, or an earlier row of the same chunk.
+     * The customers are locked in order of their IDs, so that two imports that share customers can't each hold a lock that the other is waiting for.
+     * */
+    private static Map<PendingRow<Appointment>, String> checkSchedules(Connection connection, List<PendingRow<Appointment>> rows) throws SQLException, IOException {
+        Map<PendingRow<Appointment>, String> rejected = new HashMap<>();
+        Map<Integer, List<Appointment>> acceptedByCustomer = new TreeMap<>();
+        for (PendingRow<Appointment> row : rows){
+            acceptedByCustomer.put(row.value.getCustomerID(), new ArrayList<>());
+        }
+        for (Iterator<Map.Entry<Integer, List<Appointment>>> customers = acceptedByCustomer.entrySet().iterator(); customers.hasNext();){
+            int customerId = customers.next().getKey();
+            if (!AppointmentService.lockCustomer(connection, customerId)){
+                customers.remove();
+                for (PendingRow<Appointment> row : rows){
+                    if (row.value.getCustomerID() == customerId){
+                        rejected.put(row, "There is no customer with the ID " + customerId + ".");
+                    }
+                }
+            }
+        }
+        for (PendingRow<Appointment> row : rows){
+            Appointment appointment = row.value;
+            List<Appointment> accepted = acceptedByCustomer.get(appointment.getCustomerID());
+            if (accepted == null){
+                continue;
+            }
+            List<Appointment> overlapping = AppointmentService.findOverlaps(connection, appointment.getCustomerID(), appointment.getStartDate(),
+                    appointment.getEndDate(), appointment.getAppointmentID());
+            if (!overlapping.isEmpty()){
+                rejected.put(row, "The appointment overlaps appointment " + overlapping.get(0).getAppointmentID() + " of customer " + appointment.getCustomerID() + ".");
+                continue;
+            }
+            for (Appointment other : accepted){
+                if (appointment.getStartEpochSecond() < other.getEndEpochSecond() && appointment.getEndEpochSecond() > other.getStartEpochSecond()){
+                    rejected.put(row, "The appointment overlaps another appointment of customer " + appointment.getCustomerID() + " in the file.");
+                    break;
+                }
+            }
+            if (!rejected.containsKey(row)){
+                accepted.add(appointment);
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Writes a chunk of rows with one batch and commits them. If the batch fails it is rolled back and the rows are written one at a time,
+     * so that the rows that the database accepts are still imported.
+     * @param handle The handle of the background task. If the task is cancelled while the batch runs, the exception is thrown instead of retrying the rows.
+     * @param connection The borrowed connection, with auto-commit turned off.
+     * @param stmt The INSERT statement, prepared to return the generated keys.
+     * @param chunk The rows that will be written.
+     * @param check Finds the rows that can't be written, in the same transaction, before they are written. It is told about the written rows before the commit.
+     * @param binder Sets the parameters of the statement for a row.
+     * @param idSetter Called with each row that was written and its generated ID, after the commit.
+     * @param report The report that the imported and rejected rows are counted in.
+     * @throws SQLException If the connection fails.
+     * @throws IOException If the check can't be made.
+     * */
+    private static <T> void writeChunk(DataAccessExecutor.QueryHandle handle, Connection connection, PreparedStatement stmt, List<PendingRow<T>> chunk, RowCheck<T> check,
+                                       RowBinder<T> binder, ObjIntConsumer<T> idSetter, ImportReport report) throws SQLException, IOException {
+        if (chunk.isEmpty()){
+            return;
+        }
+        Map<PendingRow<T>, String> rejected;
+        List<PendingRow<T>> written = new ArrayList<>(chunk.size());
+        int[] ids = null;
+        try {
+            rejected = check.check(connection, chunk);
+            for (PendingRow<T> row : chunk){
+                if (!rejected.containsKey(row)){
+                    binder.bind(stmt, row.value);
+                    stmt.addBatch();
+                    written.add(row);
+                }
+            }
+            if (!written.isEmpty()){
+                stmt.executeBatch();
+                ids = generatedKeys(stmt, written.size());
+                for (int i = 0; i < ids.length; i++){
+                    check.written(written.get(i).value, ids[i]);
+                }
+            }
+            connection.commit();
+        }
+        catch (SQLException e){
+            if (ids != null){
+                check.rolledBack();
+            }
+            if (handle.isCancelled() || isConnectionFailure(e)){
+                throw e;
+            }
+            stmt.clearBatch();
+            connection.rollback();
+            writeOneAtATime(handle, connection, stmt, chunk, check, binder, idSetter, report);
+            return;
+        }
+        for (PendingRow<T> row : chunk){
+            String reason = rejected.get(row);
+            if (reason != null){
+                report.rowRejected(row.lineNumber, reason);
+            }
+        }
+        if (ids == null){
+            return;
+        }
+        for (int i = 0; i < ids.length; i++){
+            idSetter.accept(written.get(i).value, ids[i]);
+        }
+        report.rowsImported(ids.length);
+    }
+
+    /**
+     * Reads the IDs that the database generated for the rows of the last batch, in the order that the rows were added to it.
+     * */
+    private static int[] generatedKeys(PreparedStatement stmt, int rowCount) throws SQLException {
+        int[] ids = new int[rowCount];
+        try (ResultSet keys = stmt.getGeneratedKeys()){
+            for (int i = 0; i < rowCount; i++){
+                if (!keys.next()){
+                    throw new SQLException("The database did not return an ID for every imported row.");
+                }
+                ids[i] = keys.getInt(1);
+            }
+        }
+        return ids;
+    }
+
+    private static <T> void writeOneAtATime(DataAccessExecutor.QueryHandle handle, Connection connection, PreparedStatement stmt, List<PendingRow<T>> chunk, RowCheck<T> check,
+                                            RowBinder<T> binder, ObjIntConsumer<T> idSetter, ImportReport report) throws SQLException, IOException {
+        for (PendingRow<T> row : chunk){
+            int id = -1;
+            try {
+                String reason = check.check(connection, List.of(row)).get(row);
+                if (reason != null){
+                    connection.rollback();
+                    report.rowRejected(row.lineNumber, reason);
+                    continue;
+                }
+                binder.bind(stmt, row.value);
+                stmt.executeUpdate();
+                id = generatedKeys(stmt, 1)[0];
+                check.written(row.value, id);
+                connection.commit();
+            }
+            catch (SQLException e){
+                if (id != -1){
+                    check.rolledBack();
+                }
+                if (handle.isCancelled() || isConnectionFailure(e)){
+                    throw e;
+                }
+                connection.rollback();
+                report.rowRejected(row.lineNumber, e.getMessage());
+                continue;
+            }
+            idSetter.accept(row.value, id);
+            report.rowsImported(1);
+        }
+    }
+
+    private static Appointment parseAppointment(List<String> record, int[] columns, IntIdSet customerIds, IntIdSet userIds,
+                                                IntIdSet contactIds){
+        String title = requiredField(record, columns, 0);
+        String description = requiredField(record, columns, 1);
+        String location = requiredField(record, columns, 2);
+        String type = requiredField(record, columns, 3);
+        ZonedDateTime start = dateTimeField(record, columns, 4);
+        ZonedDateTime end = dateTimeField(record, columns, 5);
+        int customerId = intField(record, columns, 6);
+        int userId = intField(record, columns, 7);
+        int contactId = intField(record, columns, 8);
+        if (!customerIds.contains(customerId)){
+            throw new IllegalArgumentException("There is no customer with the ID " + customerId + ".");
+        }
+        if (!userIds.contains(userId)){
+            throw new IllegalArgumentException("There is no user with the ID " + userId + ".");
+        }
+        if (!contactIds.contains(contactId)){
+            throw new IllegalArgumentException("There is no contact with the ID " + contactId + ".");
+        }
+        Appointment appointment = new Appointment(-1, title, description, location, contactId, type, start, end, customerId, userId);
+        try {
+            AppointmentService.validate(appointment);
+        }
+        catch (InvalidAppointmentException e){
+            throw new IllegalArgumentException(e.getMessage());
+        }
+        return appointment;
+    }
+
+    /**
+     * Reads the header and finds the column of every field that is imported.
+     * @return The index in each record of the expected columns, in the same order as the expected columns.
+     * */
+    private static int[] readHeader(CsvReader reader, String[] expectedColumns) throws IOException {
+        List<String> header = reader.readRecord();
+        if (header == null){
+            throw new CsvFormatException("The file is empty.");
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++){
+            String name = header.get(i).trim();
+            if (i == 0 && name.startsWith("\uFEFF")){
+                name = name.substring(1);
+            }
+            positions.put(name.toLowerCase(Locale.ROOT), i);
+        }
+        int[] columns = new int[expectedColumns.length];
+        for (int i = 0; i < expectedColumns.length; i++){
+            Integer position = positions.get(expectedColumns[i].toLowerCase(Locale.ROOT));
+            if (position == null){
+                throw new CsvFormatException("The file is missing the " + expectedColumns[i] + " column.");
+            }
+            columns[i] = position;
+        }
+        return columns;
+    }
+
+    private static String field(List<String> record, int[] columns, int column){
+        int position = columns[column];
+        if (position >= record.size()){
+            throw new IllegalArgumentException("The row has " + record.size() + " fields, but the header has more.");
+        }
+        return record.get(position).trim();
+    }
+
+    private static String requiredField(List<String> record, int[] columns, int column){
+        String value = field(record, columns, column);
+        if (value.isEmpty()){
+            throw new IllegalArgumentException("A value is required in every column.");
+        }
+        return value;
+    }
+
+    private static int intField(List<String> record, int[] columns, int column){
+        String value = field(record, columns, column);
+        try {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e){
+            throw new IllegalArgumentException("'" + value + "' is not a valid ID.");
+        }
+    }
+
+    private static ZonedDateTime dateTimeField(List<String> record, int[] columns, int column){
+        String value = field(record, columns, column);
+        try {
+            return ZonedDateTime.of(LocalDateTime.parse(value, DATE_TIME_FORMATTER), AppointmentRowMapper.BUSINESS_ZONE_ID);
+        }
+        catch (DateTimeParseException e){
+            throw new IllegalArgumentException("'" + value + "' is not a date and time in the format yyyy-MM-dd HH:mm.");
+        }
+    }
+
+    private static boolean isBlank(List<String> record){
+        return record.size() == 1 && record.get(0).isBlank();
+    }
+
+    private static String describe(Set<CustomerValidator.Field> invalidFields, Customer customer){
+        if (invalidFields.contains(CustomerValidator.Field.COUNTRY)){
+            return "Division " + customer.getDivisionID() + " is not in a country that customers can be added in.";
+        }
+        StringJoiner joiner = new StringJoiner(", ", "Invalid ", ".");
+        for (CustomerValidator.Field field : invalidFields){
+            joiner.add(field.name().toLowerCase(Locale.ROOT).replace('_', ' '));
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * @return True if the exception means that the connection is unusable, rather than that the database rejected a row.
+     * */
+    private static boolean isConnectionFailure(SQLException e){
+        return e instanceof SQLNonTransientConnectionException || e instanceof SQLTransientConnectionException || e instanceof SQLRecoverableException
+                || e instanceof SQLTimeoutException;
+    }
+}
@@ -2,42 +2,53 @@ package com.example.appointment;
 
 import com.example.appointment.controller.SQLControllerInterface;
 import com.example.appointment.exceptions.SQLConnectionDroppedException;
-import javafx.application.Platform;
 import javafx.scene.control.Alert;
 import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.*;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.logging.*;
 
 /**
  * A Singleton class that manages the database connection, and tracks the current language for the entire application.
  * Password is stored as character array in order to improve security so that the password String is never saved into the String pool.
+ * <br>
+ * The database connections are kept in a connection pool. The connection returned by getConnection() is shared by the whole program, and each statement
+ * prepared on it borrows its own connection from the pool until the statement is closed. This way the controllers can keep using the connection
+ * the same way they always have, while queries from different threads no longer have to wait on a single socket.
  * */
 public final class ConnectionModel implements SQLControllerInterface {
     private static ConnectionModel INSTANCE;
-    private Connection conn;
-    private PreparedStatement stmt;
-    private ResultSet rs;
+    private static final int MINIMUM_POOL_SIZE = 2;
+    private static final int MAXIMUM_POOL_SIZE = 10;
+    private static final Duration BORROW_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration VALIDATION_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration LEAK_DETECTION_THRESHOLD = Duration.ofSeconds(60);
+    private volatile ConnectionPool connectionPool;
+    private volatile DatabaseDialect dialect = DatabaseDialect.MYSQL;
+    private DataSourceSettings dataSourceSettings;
+    private final Connection sharedConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, new SharedConnectionHandler());
     private ResourceBundle resourceBundle;
     private Locale userLocale;
     private Integer userId = null;
     private String currentUsername = "";
     private static int retryCount = 0;
-    private final Logger LOGGER = Logger.getLogger(ConnectionModel.class.getName());
 
     /**
      * Constructor that creates a ConnectionModel object. It is private so that only one ConnectionModel object is ever created.
-     * @throws IOException If an input/output error occurs.
      * */
-    private ConnectionModel() throws IOException {
+    private ConnectionModel(){
         DriverManager.setLoginTimeout(3);
         userLocale = Locale.getDefault();
         resourceBundle = ResourceBundle.getBundle("MessagesBundle", userLocale);
-        setDatabaseLog();
+        FormattingService.getInstance().setLocale(userLocale, resourceBundle);
     }
 
     /**
@@ -52,15 +63,9 @@ public final class ConnectionModel implements SQLControllerInterface {
      * A method that returns an instance of the ConnectionModel object. It only creates a new
      * @return a ConnectionModel object
      * */
-    public static ConnectionModel getInstance(){
-        try{
-            if (INSTANCE == null){
-                INSTANCE = new ConnectionModel();
-            }
-            return INSTANCE;
-        }
-        catch (IOException e){
-            Platform.exit();
+    public static synchronized ConnectionModel getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new ConnectionModel();
         }
         return INSTANCE;
     }
@@ -68,6 +73,7 @@ public final class ConnectionModel implements SQLControllerInterface {
     /**
      * A method that establishes the SQL database connection. If the database cannot be contacted then it will call itself 3 times. If after the 3rd time there is still not a connection,
      * then an error message wil be generated and an exception will be thrown.
+     * The database is the one given to setDataSourceSettings(), or the one in the system properties if none was given. An embedded database is loaded with the schema first.
      * @param username - The username that the user passes in through the login page.
      * @param password - The password that the user passes in through the login page.
      * @throws SQLException If the SQL database cannot be contacted.
@@ -75,11 +81,18 @@ public final class ConnectionModel implements SQLControllerInterface {
      * */
     public void establishConnection(String username, char[] password) throws SQLException, SQLConnectionDroppedException {
         currentUsername = username;
-        String databaseURL = "jdbc:mysql://localhost:3306/client_schedule?user=sqlUser&password=Passw0rd!";
         try {
-            this.conn = DriverManager.getConnection(databaseURL);
+            if (connectionPool == null){
+                DataSourceSettings settings = getDataSourceSettings();
+                try (Connection connection = settings.connect()){
+                    settings.getDialect().initializeSchema(connection);
+                }
+                dialect = settings.getDialect();
+                connectionPool = new BlockingConnectionPool(settings::connect, MINIMUM_POOL_SIZE, MAXIMUM_POOL_SIZE,
+                        BORROW_TIMEOUT, VALIDATION_INTERVAL, LEAK_DETECTION_THRESHOLD);
+            }
             setUserId(username, password);
-            LOGGER.info( "Access approved." + currentUsername + "." + getCurrentTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "." + ZoneId.systemDefault());
+            AuditLogger.getInstance().loginSucceeded(currentUsername);
         }
         catch (SQLException e){
             retryCount++;
@@ -87,7 +100,7 @@ public final class ConnectionModel implements SQLControllerInterface {
                 establishConnection(username, password);
             }
             else{
-                LOGGER.warning("Access denied." + currentUsername + "." + getCurrentTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + ".");
+                AuditLogger.getInstance().loginFailed(currentUsername);
                 throw new SQLConnectionDroppedException();
             }
         }
@@ -95,28 +108,96 @@ public final class ConnectionModel implements SQLControllerInterface {
 
     /**
      * A method that returns the connection object that is established with the establishConnection() method.
+     * The connection is shared by the whole program. Each statement that is prepared on it borrows a pooled connection that is returned when the statement is closed,
+     * so statements must always be closed after they are used.
      * @throws IOException If an input/output error occurs.
      * @return A SQL connection object.
      * */
     public Connection getConnection() throws IOException {
-        if (conn == null){
+        if (connectionPool == null){
             throw new IOException("You cannot access a connection when it is not instantiated.");
         }
-        return conn;
+        return sharedConnection;
     }
 
     /**
-     * A method that sets up the database logging system so that a text document named 'log_activity.txt' can be created that tracks login attempts.
-     * The log is limited to only 1 file at a time, at a max size of 3000 MBs.
-     * @throws IOException If an input/output error occurs.
+     * A method that borrows a dedicated connection from the pool. This is for work that needs the same connection for more than one statement,
+     * such as a transaction. The connection must be closed to return it to the pool. Its statements are measured by the QueryMetrics.
+     * @return A connection reserved for the caller until it is closed.
+     * @throws SQLException If no connection is available before the borrow timeout.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public Connection borrowConnection() throws SQLException, IOException {
+        ConnectionPool pool = connectionPool;
+        if (pool == null){
+            throw new IOException("You cannot access a connection when it is not instantiated.");
+        }
+        return InstrumentedStatement.instrument(pool.borrowConnection());
+    }
+
+    /**
+     * A method that replaces the connection pool used by the program. Any previous pool is closed.
+     * @param connectionPool The connection pool that will supply the program's database connections.
      * */
-    private void setDatabaseLog() throws IOException {
-        LogManager.getLogManager().reset();
-        LOGGER.setLevel(Level.INFO);
-        FileHandler fileHandler = new FileHandler("log_activity.txt", 3000000, 1, true);
-        SimpleFormatter simpleFormatter = new SimpleFormatter();
-        fileHandler.setFormatter(simpleFormatter);
-        LOGGER.addHandler(fileHandler);
+    public void setConnectionPool(ConnectionPool connectionPool){
+        ConnectionPool previousPool = this.connectionPool;
+        this.connectionPool = connectionPool;
+        if (previousPool != null && previousPool != connectionPool){
+            previousPool.close();
+            ReferenceDataCache.getInstance().invalidateAll();
+            CustomerSearchIndex.getInstance().invalidate();
+        }
+    }
+
+    /**
+     * A method that replaces the connection pool used by the program with one for a different kind of database. Any previous pool is closed.
+     * @param connectionPool The connection pool that will supply the program's database connections.
+     * @param dialect The dialect of the database that the pool connects to.
+     * */
+    public void setConnectionPool(ConnectionPool connectionPool, DatabaseDialect dialect){
+        this.dialect = dialect;
+        setConnectionPool(connectionPool);
+    }
+
+    /**
+     * @return The dialect of the database that the connection pool connects to. It is MySQL until a pool for another database is created.
+     * */
+    public DatabaseDialect getDialect(){
+        return dialect;
+    }
+
+    /**
+     * A method that sets the database that establishConnection() connects to. It has no effect on a connection pool that has already been created.
+     * @param dataSourceSettings The database settings.
+     * */
+    public synchronized void setDataSourceSettings(DataSourceSettings dataSourceSettings){
+        this.dataSourceSettings = dataSourceSettings;
+    }
+
+    /**
+     * @return The database that establishConnection() connects to. Unless setDataSourceSettings() was called, it is read from the system properties.
+     * @throws IllegalArgumentException If the system properties name an unsupported database.
+     * */
+    public synchronized DataSourceSettings getDataSourceSettings(){
+        if (dataSourceSettings == null){
+            dataSourceSettings = DataSourceSettings.fromSystemProperties();
+        }
+        return dataSourceSettings;
+    }
+
+    /**
+     * @return A snapshot of the connection pool's metrics, or null if the pool has not been created yet.
+     * */
+    public PoolMetrics getConnectionPoolMetrics(){
+        ConnectionPool pool = connectionPool;
+        return pool == null ? null : pool.getMetrics();
+    }
+
+    /**
+     * Closes the connection pool. This is called when the program exits.
+     * */
+    public void closeConnectionPool(){
+        setConnectionPool(null);
     }
 
     /**
@@ -148,6 +229,8 @@ public final class ConnectionModel implements SQLControllerInterface {
      * */
     public void setUserId(String username, char[] password) throws SQLConnectionDroppedException{
         if (username != null){
+            PreparedStatement stmt = null;
+            ResultSet rs = null;
             try{
                 userId = -1;
                 String query = "SELECT User_ID FROM USERS WHERE User_Name = ? AND password = ?";
@@ -189,7 +272,7 @@ public final class ConnectionModel implements SQLControllerInterface {
 
     /**
      * A method that calls all the language translations methods to make it simpler to translate everything in the application.
-     * Because this class is a Singleton, this change will be reflected across every scene.
+     * Because this class is a Singleton, this change will be reflected across every scene. The FormattingService is rebuilt for the new language.
      * @param locale takes in the user's default Locale.
      * */
     public void setCurrentLocale(Locale locale) {
@@ -200,6 +283,7 @@ public final class ConnectionModel implements SQLControllerInterface {
         else{
             resourceBundle = ResourceBundle.getBundle("MessagesBundle_en_US");
         }
+        FormattingService.getInstance().setLocale(locale, resourceBundle);
     }
 
     /**
@@ -209,4 +293,66 @@ public final class ConnectionModel implements SQLControllerInterface {
     public Locale getCurrentLocale(){
         return userLocale;
     }
+
+    /**
+     * The invocation handler behind the shared connection. Methods that create statements borrow a connection from the pool, and the statement
+     * returns it when the statement is closed. The statements are instrumented so that the QueryMetrics measure them. Any other method borrows a connection just long enough to run. Closing the shared connection does nothing,
+     * because it belongs to the whole program.
+     * <br>
+     * The pool rolls back and resets every connection it is given back, so a method that changes the state of the connection, such as setAutoCommit()
+     * or commit(), would be silently undone. Those methods throw SQLFeatureNotSupportedException instead; a transaction needs its own connection
+     * from borrowConnection().
+     * */
+    private final class SharedConnectionHandler implements InvocationHandler {
+        private final Set<String> stateChangingMethods = Set.of("setAutoCommit", "commit", "rollback", "setSavepoint", "releaseSavepoint",
+                "setSchema", "setCatalog", "setTransactionIsolation", "setReadOnly", "setHoldability", "setTypeMap", "setClientInfo",
+                "setNetworkTimeout", "abort");
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()){
+                case "close":
+                    return null;
+                case "isClosed":
+                    return connectionPool == null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SharedConnection[" + connectionPool + "]";
+                default:
+                    break;
+            }
+            if (stateChangingMethods.contains(method.getName())){
+                throw new SQLFeatureNotSupportedException("The shared connection does not support " + method.getName()
+                        + "(), because each call runs on a different connection. Use borrowConnection() to get a connection of your own.");
+            }
+            ConnectionPool pool = connectionPool;
+            if (pool == null){
+                throw new SQLException("The connection pool has not been created.");
+            }
+            Connection lease = pool.borrowConnection();
+            boolean statementOwnsLease = false;
+            try {
+                Object result = method.invoke(lease, args);
+                if (result instanceof Statement){
+                    Object statement = InstrumentedStatement.wrap((Statement) result, method.getReturnType(), InstrumentedStatement.preparedSql(args),
+                            (Connection) proxy, lease);
+                    statementOwnsLease = true;
+                    return statement;
+                }
+                return result;
+            }
+            catch (InvocationTargetException e){
+                InstrumentedStatement.creationFailed(method, args);
+                throw e.getCause();
+            }
+            finally{
+                if (!statementOwnsLease){
+                    lease.close();
+                }
+            }
+        }
+    }
 }
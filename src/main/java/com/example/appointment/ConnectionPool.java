@@ -0,0 +1,41 @@
+package com.example.appointment;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * An interface for the connection pools that can sit behind the ConnectionModel. The ConnectionModel only talks to the pool through this
+ * interface, so a different pool implementation can be plugged in with ConnectionModel.setConnectionPool() without changing any controllers.
+ * */
+public interface ConnectionPool extends AutoCloseable {
+
+    /**
+     * A factory that opens a new physical connection to the database whenever the pool needs to grow.
+     * */
+    @FunctionalInterface
+    interface ConnectionFactory {
+        /**
+         * @return A newly opened database connection.
+         * @throws SQLException If the database cannot be contacted.
+         * */
+        Connection createConnection() throws SQLException;
+    }
+
+    /**
+     * A method that borrows a connection from the pool. Calling close() on the returned connection gives it back to the pool instead of closing it.
+     * @return A connection that is reserved for the caller until it is closed.
+     * @throws SQLException If no connection becomes available before the borrow timeout, or if the database cannot be contacted.
+     * */
+    Connection borrowConnection() throws SQLException;
+
+    /**
+     * @return A snapshot of the pool's current metrics.
+     * */
+    PoolMetrics getMetrics();
+
+    /**
+     * Closes every idle connection and stops the pool from handing out new connections.
+     * */
+    @Override
+    void close();
+}
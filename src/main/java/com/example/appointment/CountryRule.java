@@ -0,0 +1,292 @@
+package com.example.appointment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The address, postal code and phone number rules for each country that customers can be added in. The rules are written as character scanners
+ * instead of regular expressions, so checking a value never compiles a pattern or creates a new string. Letters are compared in upper case,
+ * so a postal code can be typed in either case.
+ * <br>
+ * Example:
+ * <br>
+ * U.S.: 123 ABC Street, White Plains | 12345 OR 12345-1234 | 817-555-5555
+ * <br>
+ * Canada: 123 ABC Street, Newmarket | A1A 1A1 | 416-555-5555
+ * <br>
+ * U.K.: 123 ABC Street, Greenwich, London | SW1A 1AA | 020 7183 8750 OR +442071838750
+ * */
+public enum CountryRule {
+    /**
+     * U.S. postal codes are in the format 12345 or 12345-1234. More information can be found <a href="https://en.wikipedia.org/wiki/ZIP_Code">here</a>.
+     * <br>
+     * The United States and Canada are both part of the North American Numbering Plan (NANP), so a phone number is ten digits in the format 817-555-5555,
+     * where the hyphens can also be spaces or left out. More information can be found <a href="https://en.wikipedia.org/wiki/North_American_Numbering_Plan">here</a>.
+     * */
+    UNITED_STATES("U.S", 2) {
+        @Override
+        public boolean isValidPostalCode(CharSequence postalCode) {
+            int length = postalCode.length();
+            if (length != 5 && length != 10){
+                return false;
+            }
+            for (int i = 0; i < length; i++){
+                char c = postalCode.charAt(i);
+                if (i == 5 ? c != '-' : !isDigit(c)){
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isValidPhoneNumber(CharSequence phoneNumber) {
+            return isNorthAmericanPhoneNumber(phoneNumber);
+        }
+    },
+    /**
+     * Canadian postal codes are in the format A1A 1A1. The first letter can't be D, F, I, O, Q, U, W or Z, and the last two characters can't be
+     * D, F, I, O, Q or U. More information can be found <a href="https://en.wikipedia.org/wiki/Postal_codes_in_Canada">here</a>.
+     * <br>
+     * Canadian phone numbers follow the same rules as U.S. phone numbers.
+     * */
+    CANADA("Canada", 2) {
+        @Override
+        public boolean isValidPostalCode(CharSequence postalCode) {
+            return isPostalCode(postalCode, "DFIOQUWZ", "DFIOQU");
+        }
+
+        @Override
+        public boolean isValidPhoneNumber(CharSequence phoneNumber) {
+            return isNorthAmericanPhoneNumber(phoneNumber);
+        }
+    },
+    /**
+     * U.K. postal codes are in the format SW1A 1AA, with fewer restrictions on the letters than Canadian postal codes.
+     * More information can be found <a href="https://en.wikipedia.org/wiki/Postcodes_in_the_United_Kingdom">here</a>.
+     * <br>
+     * U.K. phone numbers can be given in the national format, which is eleven digits starting with the trunk prefix 0, or in the international
+     * E.164 format, which is +44 followed by the ten digits without the 0. Spaces are ignored in both formats.
+     * More information can be found <a href="https://en.wikipedia.org/wiki/Telephone_numbers_in_the_United_Kingdom">here</a>.
+     * */
+    UNITED_KINGDOM("UK", 3) {
+        @Override
+        public boolean isValidPostalCode(CharSequence postalCode) {
+            return isPostalCode(postalCode, "", "");
+        }
+
+        @Override
+        public boolean isValidPhoneNumber(CharSequence phoneNumber) {
+            int start = 0;
+            int expectedDigits = 11;
+            if (phoneNumber.length() >= 3 && phoneNumber.charAt(0) == '+' && phoneNumber.charAt(1) == '4' && phoneNumber.charAt(2) == '4'){
+                start = 3;
+                expectedDigits = 10;
+            }
+            return countDigits(phoneNumber, start, " ") == expectedDigits;
+        }
+    };
+
+    private static final Map<String, CountryRule> RULES_BY_COUNTRY = new HashMap<>();
+    private final String countryName;
+    private final int addressFieldCount;
+
+    static {
+        for (CountryRule rule : values()){
+            RULES_BY_COUNTRY.put(rule.countryName, rule);
+        }
+    }
+
+    /**
+     * Constructor for a country's rules.
+     * @param countryName The name of the country in the COUNTRIES table.
+     * @param addressFieldCount The number of fields that an address in the country has after the street number.
+     * */
+    CountryRule(String countryName, int addressFieldCount){
+        this.countryName = countryName;
+        this.addressFieldCount = addressFieldCount;
+    }
+
+    /**
+     * @param countryName The name of a country in the COUNTRIES table.
+     * @return The rules for the country, or null if customers can't be added in the country.
+     * */
+    public static CountryRule forCountry(String countryName){
+        return countryName == null ? null : RULES_BY_COUNTRY.get(countryName);
+    }
+
+    /**
+     * @return The name of the country in the COUNTRIES table.
+     * */
+    public String getCountryName() {
+        return countryName;
+    }
+
+    /**
+     * American and Canadian addresses have two fields after the street number, the street name and the city name.
+     * This is in contrast to the U.K. address which has three fields.
+     * @return The number of fields that an address in the country has after the street number.
+     * */
+    public int getAddressFieldCount() {
+        return addressFieldCount;
+    }
+
+    /**
+     * @param postalCode The postal code that will be checked.
+     * @return True if the postal code is in a format that is valid for the country.
+     * */
+    public abstract boolean isValidPostalCode(CharSequence postalCode);
+
+    /**
+     * @param phoneNumber The phone number that will be checked.
+     * @return True if the phone number is in a format that is valid for the country.
+     * */
+    public abstract boolean isValidPhoneNumber(CharSequence phoneNumber);
+
+    /**
+     * @param address The address that will be checked.
+     * @return True if the address is in a format that is valid for the country.
+     * @see #isValidAddress(CharSequence, int)
+     * */
+    public boolean isValidAddress(CharSequence address) {
+        return isValidAddress(address, addressFieldCount);
+    }
+
+    /**
+     * A method that checks if an address has a street number followed by the given number of fields.
+     * The street number is the start of the address up to its last digit, before the first whitespace. The fields after it are separated
+     * by commas. Empty fields are skipped, but an address that ends with a comma is invalid.
+     * @param address The address that will be checked.
+     * @param fieldCount The number of fields that the address should have after the street number.
+     * @return True if the address has the street number and the number of fields.
+     * */
+    public static boolean isValidAddress(CharSequence address, int fieldCount) {
+        int length = address.length();
+        int streetNumberEnd = -1;
+        for (int i = 0; i < length && !isWhitespace(address.charAt(i)); i++){
+            if (i > 0 && isDigit(address.charAt(i))){
+                streetNumberEnd = i + 1;
+            }
+        }
+        if (streetNumberEnd == -1){
+            return false;
+        }
+        int start = streetNumberEnd;
+        int end = length;
+        while (start < end && address.charAt(start) <= ' '){
+            start++;
+        }
+        while (end > start && address.charAt(end - 1) <= ' '){
+            end--;
+        }
+        int fields = 0;
+        int lastFieldEnd = start;
+        boolean inField = false;
+        for (int i = start; i < end; i++){
+            if (address.charAt(i) == ','){
+                inField = false;
+            }
+            else{
+                if (!inField){
+                    fields++;
+                    inField = true;
+                }
+                lastFieldEnd = i + 1;
+            }
+        }
+        return lastFieldEnd == end && fields == fieldCount;
+    }
+
+    /**
+     * Checks a postal code in the format A1A 1A1 or SW1A 1AA: a letter, one to three letters or digits, a whitespace, a digit, and two letters or digits.
+     * @param postalCode The postal code that will be checked.
+     * @param excludedFirstLetters The letters that the postal code can't start with.
+     * @param excludedLastCharacters The letters that the last two characters can't be.
+     * @return True if the postal code matches the format.
+     * */
+    private static boolean isPostalCode(CharSequence postalCode, String excludedFirstLetters, String excludedLastCharacters){
+        int length = postalCode.length();
+        if (length < 6 || length > 8){
+            return false;
+        }
+        char first = toUpperCase(postalCode.charAt(0));
+        if (first < 'A' || first > 'Z' || excludedFirstLetters.indexOf(first) >= 0){
+            return false;
+        }
+        int space = length - 4;
+        for (int i = 1; i < space; i++){
+            if (!isUpperCaseLetterOrDigit(toUpperCase(postalCode.charAt(i)))){
+                return false;
+            }
+        }
+        if (!isWhitespace(postalCode.charAt(space)) || !isDigit(postalCode.charAt(space + 1))){
+            return false;
+        }
+        for (int i = space + 2; i < length; i++){
+            char c = toUpperCase(postalCode.charAt(i));
+            if (!isUpperCaseLetterOrDigit(c) || excludedLastCharacters.indexOf(c) >= 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks a phone number in the format 817-555-5555. The area code, exchange and line number may be separated by one hyphen or space, or not at all.
+     * @param phoneNumber The phone number.
+     * @return True if the phone number matches the format.
+     * */
+    private static boolean isNorthAmericanPhoneNumber(CharSequence phoneNumber){
+        int digits = 0;
+        for (int i = 0; i < phoneNumber.length(); i++){
+            char c = phoneNumber.charAt(i);
+            if (isDigit(c)){
+                digits++;
+            }
+            else if ((c != '-' && c != ' ') || (digits != 3 && digits != 6) || !isDigit(phoneNumber.charAt(i - 1))){
+                return false;
+            }
+        }
+        return digits == 10;
+    }
+
+    /**
+     * Counts the digits in a phone number, skipping the separator characters.
+     * @param phoneNumber The phone number.
+     * @param start The index that the digits start at.
+     * @param separators The characters that may appear between the digits.
+     * @return The number of digits, or -1 if the phone number contains a character that is not a digit or a separator.
+     * */
+    private static int countDigits(CharSequence phoneNumber, int start, String separators){
+        int digits = 0;
+        for (int i = start; i < phoneNumber.length(); i++){
+            char c = phoneNumber.charAt(i);
+            if (isDigit(c)){
+                digits++;
+            }
+            else if (separators.indexOf(c) < 0){
+                return -1;
+            }
+        }
+        return digits;
+    }
+
+    private static boolean isDigit(char c){
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpperCaseLetterOrDigit(char c){
+        return (c >= 'A' && c <= 'Z') || isDigit(c);
+    }
+
+    private static char toUpperCase(char c){
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    /**
+     * @return True for the same characters as the \s regular expression class: space, tab, line feed, vertical tab, form feed and carriage return.
+     * */
+    private static boolean isWhitespace(char c){
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.appointment;
+
+import com.example.appointment.exceptions.CsvFormatException;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class that reads a CSV file one record at a time, so a file of any size can be imported without loading it into memory.
+ * <br>
+ * Fields are separated by commas. A field in double quotes can contain commas, line breaks and doubled quotes (""), which are read as one quote.
+ * Records can end with either \n or \r\n.
+ * */
+public final class CsvReader implements Closeable {
+    private final BufferedReader reader;
+    private final StringBuilder field = new StringBuilder();
+    private long lineNumber = 1;
+    private long recordLineNumber;
+
+    /**
+     * Constructor that reads the CSV from a Reader.
+     * @param reader The Reader that the CSV is read from. It is closed when the CsvReader is closed.
+     * */
+    public CsvReader(Reader reader){
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * A method that reads the next record.
+     * @return The fields of the record, or null if the end of the file was reached. A blank line is returned as a single empty field.
+     * @throws CsvFormatException If the file ends inside a quoted field.
+     * @throws IOException If the file cannot be read.
+     * */
+    public List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1){
+            return null;
+        }
+        recordLineNumber = lineNumber;
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true){
+            if (quoted){
+                if (c == -1){
+                    throw new CsvFormatException("The quoted field that starts on line " + recordLineNumber + " is never closed.");
+                }
+                if (c == '"'){
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"'){
+                        field.append('"');
+                    }
+                    else{
+                        quoted = false;
+                        reader.reset();
+                    }
+                }
+                else{
+                    if (c == '\n'){
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            }
+            else if (c == '"' && field.length() == 0){
+                quoted = true;
+            }
+            else if (c == ','){
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else if (c == '\n' || c == -1){
+                if (c == '\n'){
+                    lineNumber++;
+                }
+                int end = field.length();
+                if (end > 0 && field.charAt(end - 1) == '\r'){
+                    field.setLength(end - 1);
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            else{
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    /**
+     * @return The line number that the last record started on. The first line of the file is line 1.
+     * */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
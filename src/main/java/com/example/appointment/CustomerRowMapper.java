@@ -0,0 +1,58 @@
+package com.example.appointment;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * A RowMapper that turns a row of the CUSTOMERS table into a Customer object. The column indexes are looked up once when the mapper
+ * is created, so every row after that is read by index.
+ * */
+public final class CustomerRowMapper implements RowMapper<Customer> {
+    /**
+     * A factory that creates a CustomerRowMapper for each ResultSet.
+     * */
+    public static final RowMapper.Factory<Customer> FACTORY = CustomerRowMapper::new;
+
+    private final ZoneId systemZoneId = ZoneId.systemDefault();
+    private final int customerIdIndex;
+    private final int nameIndex;
+    private final int addressIndex;
+    private final int postalCodeIndex;
+    private final int phoneIndex;
+    private final int createDateIndex;
+    private final int createdByIndex;
+    private final int lastUpdateIndex;
+    private final int lastUpdatedByIndex;
+    private final int divisionIdIndex;
+
+    /**
+     * A constructor that looks up the index of every customer column in the ResultSet.
+     * @param rs The ResultSet that the mapper will read.
+     * @throws SQLException If one of the customer columns is missing from the ResultSet.
+     * */
+    public CustomerRowMapper(ResultSet rs) throws SQLException {
+        customerIdIndex = rs.findColumn("Customer_ID");
+        nameIndex = rs.findColumn("Customer_Name");
+        addressIndex = rs.findColumn("Address");
+        postalCodeIndex = rs.findColumn("Postal_Code");
+        phoneIndex = rs.findColumn("Phone");
+        createDateIndex = rs.findColumn("Create_Date");
+        createdByIndex = rs.findColumn("Created_By");
+        lastUpdateIndex = rs.findColumn("Last_Update");
+        lastUpdatedByIndex = rs.findColumn("Last_Updated_By");
+        divisionIdIndex = rs.findColumn("Division_ID");
+    }
+
+    @Override
+    public Customer mapRow(ResultSet rs) throws SQLException {
+        ZonedDateTime createdDate = ZonedDateTime.of(rs.getObject(createDateIndex, LocalDateTime.class), systemZoneId);
+        Timestamp lastUpdate = rs.getTimestamp(lastUpdateIndex);
+        ZonedDateTime lastUpdatedDate = ZonedDateTime.ofInstant(lastUpdate.toInstant(), systemZoneId);
+        return new Customer(rs.getInt(customerIdIndex), rs.getString(nameIndex), rs.getString(addressIndex), rs.getString(postalCodeIndex),
+                rs.getString(phoneIndex), createdDate, rs.getString(createdByIndex), lastUpdatedDate, rs.getString(lastUpdatedByIndex), rs.getInt(divisionIdIndex));
+    }
+}
@@ -0,0 +1,463 @@
+package com.example.appointment;
+
+import com.example.appointment.service.CustomerService;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * A Singleton class that keeps an in-memory prefix index of every customer so that the customer screens can search as the user types.
+ * The ID, name, address, postal code and phone number of each customer are split into words, and every word is kept in a sorted map
+ * with the IDs of the customers that have it. All the words that start with what was typed are next to each other in the map, so a
+ * prefix is found with one range lookup instead of a scan of the customers.
+ * <br>
+ * Words are compared without case or accents, so "que" finds "Québec". A query with more than one word only returns the customers that have
+ * a word starting with each of them, and the postal code and phone number are also indexed without their spaces and dashes.
+ * The customers are also kept in order of their name, so the customers whose name starts with what was typed are one range of that order,
+ * and a prefix that matches thousands of customers can stop after the first few that match instead of collecting all of them.
+ * <br>
+ * The index is loaded from the database the first time it is needed. After that the CustomerService keeps it up to date by calling put() when a
+ * customer is added or modified, and remove() when a customer is deleted. The customers are read and indexed without holding the lock, and only the finished
+ * index is swapped in under it, so getLoadedCustomer() never waits for the database while a ComboBox cell is drawn. Changes made while the index is
+ * loading are kept and applied to it after the swap.
+ * */
+public final class CustomerSearchIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    /**
+     * When every prefix is in more words than this, the customers are checked in order of their name until enough are found, instead of
+     * collecting every customer with a prefix. A prefix such as "s" matches most customers, so the first ones in name order almost always match.
+     * */
+    private static final int SCAN_THRESHOLD = 4096;
+    private static final Comparator<IndexedCustomer> BY_NAME = Comparator.comparing((IndexedCustomer indexed) -> indexed.sortName)
+            .thenComparingInt(indexed -> indexed.customerId);
+    private static CustomerSearchIndex INSTANCE;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Held by the thread that loads the index, so that only one thread reads the customers from the database.
+     * */
+    private final Object loadLock = new Object();
+    private Map<Integer, IndexedCustomer> customersById = new HashMap<>();
+    private NavigableMap<String, IntHashSet> customerIdsByWord = new TreeMap<>();
+    private NavigableSet<IndexedCustomer> customersByName = new TreeSet<>(BY_NAME);
+    private boolean loaded = false;
+    /**
+     * The customers that were put or removed while the index was loading, by ID, where a removed customer is null. It is null when no load is running.
+     * */
+    private Map<Integer, IndexedCustomer> changesWhileLoading;
+    /**
+     * Counts the calls to invalidate(), so that a load that was running during one is not used.
+     * */
+    private int invalidations;
+
+    /**
+     * A customer and the words it is indexed under.
+     * */
+    private static final class IndexedCustomer {
+        private final Customer customer;
+        private final int customerId;
+        private final String sortName;
+        private final String[] words;
+
+        private IndexedCustomer(Customer customer){
+            this.customer = customer;
+            this.customerId = customer.getCustomerID();
+            this.sortName = String.join(" ", splitWords(normalize(customer.getCustomerName())));
+            this.words = wordsOf(customer);
+        }
+
+        /**
+         * Creates a key that is sorted before every customer whose name starts with the text, for looking up a range of customersByName.
+         * */
+        private IndexedCustomer(String sortName){
+            this.customer = null;
+            this.customerId = Integer.MIN_VALUE;
+            this.sortName = sortName;
+            this.words = new String[0];
+        }
+
+        private boolean hasWordStartingWith(String prefix){
+            for (String word : words){
+                if (word.startsWith(prefix)){
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Constructor that is private so that only one CustomerSearchIndex object is ever created.
+     * */
+    private CustomerSearchIndex(){
+    }
+
+    /**
+     * A method that returns the instance of the CustomerSearchIndex. It only creates a new one the first time it is called.
+     * @return The CustomerSearchIndex object.
+     * */
+    public static synchronized CustomerSearchIndex getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new CustomerSearchIndex();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * A method that returns the customers that match what the user typed. The customers whose name starts with the text come first, and then the
+     * customers that only match on another word, such as their last name or city. Each group is in order of the customer's name.
+     * @param query The text that was typed. Each word in it must be the start of a word of the customer.
+     * @param limit The most customers that are returned.
+     * @return The matching customers, or an empty list if the query has no words.
+     * @throws SQLException If the index has to be loaded and a SQL database error occurs.
+     * @throws IOException If the index has to be loaded and the connection cannot be accessed.
+     * */
+    public List<Customer> search(String query, int limit) throws SQLException, IOException {
+        String[] prefixes = splitWords(normalize(query));
+        if (prefixes.length == 0 || limit <= 0){
+            return List.of();
+        }
+        ensureLoaded();
+        List<Customer> matches = new ArrayList<>(Math.min(limit, 64));
+        IntHashSet found = new IntHashSet();
+        lock.readLock().lock();
+        try {
+            addNameMatches(String.join(" ", prefixes), limit, matches, found);
+            if (matches.size() < limit){
+                addWordMatches(prefixes, limit, matches, found);
+            }
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    /**
+     * Adds the customers whose name starts with the text. They are next to each other in the name order, so this only reads the ones that are returned.
+     * */
+    private void addNameMatches(String namePrefix, int limit, List<Customer> matches, IntHashSet found){
+        for (IndexedCustomer indexed : customersByName.tailSet(new IndexedCustomer(namePrefix), true)){
+            if (matches.size() == limit || !indexed.sortName.startsWith(namePrefix)){
+                return;
+            }
+            matches.add(indexed.customer);
+            found.add(indexed.customerId);
+        }
+    }
+
+    /**
+     * Adds the customers that have a word starting with each prefix. The customers of the prefix with the fewest matches are collected and
+     * the other prefixes are only checked against them. If every prefix matches thousands of customers, the customers are checked in name order
+     * instead, which stops after the first ones that match.
+     * */
+    private void addWordMatches(String[] prefixes, int limit, List<Customer> matches, IntHashSet found){
+        int fewest = 0;
+        int fewestCandidates = Integer.MAX_VALUE;
+        for (int i = 0; i < prefixes.length; i++){
+            int candidates = countCandidates(prefixes[i]);
+            if (candidates < fewestCandidates){
+                fewest = i;
+                fewestCandidates = candidates;
+            }
+        }
+        if (fewestCandidates > SCAN_THRESHOLD){
+            scanByName(prefixes, limit, matches, found);
+            return;
+        }
+        int remaining = limit - matches.size();
+        PriorityQueue<IndexedCustomer> best = new PriorityQueue<>(remaining + 1, BY_NAME.reversed());
+        for (IntHashSet customerIds : wordsStartingWith(prefixes[fewest]).values()){
+            customerIds.forEach(customerId -> {
+                if (!found.add(customerId)){
+                    return;
+                }
+                IndexedCustomer indexed = customersById.get(customerId);
+                if (matchesAll(indexed, prefixes)){
+                    best.add(indexed);
+                    if (best.size() > remaining){
+                        best.poll();
+                    }
+                }
+            });
+        }
+        Customer[] wordMatches = new Customer[best.size()];
+        for (int i = wordMatches.length - 1; i >= 0; i--){
+            wordMatches[i] = best.poll().customer;
+        }
+        Collections.addAll(matches, wordMatches);
+    }
+
+    private void scanByName(String[] prefixes, int limit, List<Customer> matches, IntHashSet found){
+        for (IndexedCustomer indexed : customersByName){
+            if (matches.size() == limit){
+                return;
+            }
+            if (!found.contains(indexed.customerId) && matchesAll(indexed, prefixes)){
+                matches.add(indexed.customer);
+            }
+        }
+    }
+
+    private NavigableMap<String, IntHashSet> wordsStartingWith(String prefix){
+        return customerIdsByWord.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * @return The number of customers with a word that starts with the prefix, counting a customer once for each such word. Counting stops just
+     * after the scan threshold, since any larger number is handled the same way.
+     * */
+    private int countCandidates(String prefix){
+        int candidates = 0;
+        for (IntHashSet customerIds : wordsStartingWith(prefix).values()){
+            candidates += customerIds.size();
+            if (candidates > SCAN_THRESHOLD){
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean matchesAll(IndexedCustomer indexed, String[] prefixes){
+        for (String prefix : prefixes){
+            if (!indexed.hasWordStartingWith(prefix)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A method that returns an indexed customer without loading the index, so it can be called while a ComboBox cell is drawn.
+     * @param customerId The ID of the customer.
+     * @return The customer, or null if there is no customer with the ID or the index hasn't been loaded yet.
+     * */
+    public Customer getLoadedCustomer(int customerId){
+        lock.readLock().lock();
+        try {
+            IndexedCustomer indexed = customersById.get(customerId);
+            return indexed == null ? null : indexed.customer;
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A method that adds a customer to the index, or replaces it if a customer with the same ID is already indexed.
+     * If the index hasn't been loaded yet nothing happens, because the customer will be read from the database when it is loaded.
+     * @param customer The customer that was added or modified.
+     * */
+    public void put(Customer customer){
+        IndexedCustomer indexed = new IndexedCustomer(customer);
+        lock.writeLock().lock();
+        try {
+            if (loaded){
+                removeWords(customer.getCustomerID());
+                addWords(indexed);
+            }
+            else if (changesWhileLoading != null){
+                changesWhileLoading.put(customer.getCustomerID(), indexed);
+            }
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A method that removes a customer from the index.
+     * @param customerId The ID of the customer that was deleted.
+     * */
+    public void remove(int customerId){
+        lock.writeLock().lock();
+        try {
+            if (loaded){
+                removeWords(customerId);
+            }
+            else if (changesWhileLoading != null){
+                changesWhileLoading.put(customerId, null);
+            }
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clears the index so that it is loaded again from the database the next time it is needed.
+     * */
+    public void invalidate(){
+        lock.writeLock().lock();
+        try {
+            clear();
+            invalidations++;
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads every customer from the database if the index hasn't been loaded yet. The screens call this on a background thread when they open,
+     * so the first search doesn't have to wait for it. The lock is only held to swap in the loaded index, not while the customers are read.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection cannot be accessed.
+     * */
+    public void ensureLoaded() throws SQLException, IOException {
+        if (isLoaded()){
+            return;
+        }
+        synchronized (loadLock){
+            while (!isLoaded()){
+                load();
+            }
+        }
+    }
+
+    private boolean isLoaded(){
+        lock.readLock().lock();
+        try {
+            return loaded;
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads every customer into new maps, and swaps them in with the changes that were made in the meantime. Nothing is swapped in if the index
+     * was invalidated while the customers were read, so ensureLoaded() loads them again.
+     * */
+    private void load() throws SQLException, IOException {
+        int loadInvalidations;
+        lock.writeLock().lock();
+        try {
+            changesWhileLoading = new HashMap<>();
+            loadInvalidations = invalidations;
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+        Map<Integer, IndexedCustomer> loadedById = new HashMap<>();
+        NavigableMap<String, IntHashSet> loadedIdsByWord = new TreeMap<>();
+        NavigableSet<IndexedCustomer> loadedByName = new TreeSet<>(BY_NAME);
+        try {
+            for (Customer customer : CustomerService.getInstance().findAll()){
+                addWords(new IndexedCustomer(customer), loadedById, loadedIdsByWord, loadedByName);
+            }
+        }
+        catch (SQLException | IOException | RuntimeException e){
+            lock.writeLock().lock();
+            try {
+                changesWhileLoading = null;
+            }
+            finally{
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            Map<Integer, IndexedCustomer> changes = changesWhileLoading;
+            changesWhileLoading = null;
+            if (invalidations != loadInvalidations){
+                return;
+            }
+            customersById = loadedById;
+            customerIdsByWord = loadedIdsByWord;
+            customersByName = loadedByName;
+            loaded = true;
+            changes.forEach((customerId, indexed) -> {
+                removeWords(customerId);
+                if (indexed != null){
+                    addWords(indexed);
+                }
+            });
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear(){
+        customersById.clear();
+        customersByName.clear();
+        customerIdsByWord.clear();
+        loaded = false;
+    }
+
+    private void addWords(IndexedCustomer indexed){
+        addWords(indexed, customersById, customerIdsByWord, customersByName);
+    }
+
+    private static void addWords(IndexedCustomer indexed, Map<Integer, IndexedCustomer> byId, NavigableMap<String, IntHashSet> idsByWord,
+            NavigableSet<IndexedCustomer> byName){
+        int customerId = indexed.customerId;
+        byId.put(customerId, indexed);
+        byName.add(indexed);
+        for (String word : indexed.words){
+            idsByWord.computeIfAbsent(word, w -> new IntHashSet(1)).add(customerId);
+        }
+    }
+
+    private void removeWords(int customerId){
+        IndexedCustomer previous = customersById.remove(customerId);
+        if (previous == null){
+            return;
+        }
+        customersByName.remove(previous);
+        for (String word : previous.words){
+            IntHashSet customerIds = customerIdsByWord.get(word);
+            if (customerIds != null && customerIds.remove(customerId) && customerIds.isEmpty()){
+                customerIdsByWord.remove(word);
+            }
+        }
+    }
+
+    /**
+     * @return Every distinct word that the customer is indexed under.
+     * */
+    private static String[] wordsOf(Customer customer){
+        Set<String> words = new LinkedHashSet<>();
+        words.add(Integer.toString(customer.getCustomerID()));
+        addWords(words, customer.getCustomerName(), false);
+        addWords(words, customer.getAddress(), false);
+        addWords(words, customer.getPostalCode(), true);
+        addWords(words, customer.getPhone(), true);
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * Adds the words of one field. A postal code or phone number is also added as one word, so "EC2A3" and "869908" find it.
+     * */
+    private static void addWords(Set<String> words, String field, boolean alsoJoined){
+        String[] fieldWords = splitWords(normalize(field));
+        Collections.addAll(words, fieldWords);
+        if (alsoJoined && fieldWords.length > 1){
+            words.add(String.join("", fieldWords));
+        }
+    }
+
+    /**
+     * @return The text in lower case and without accents, so that searches don't depend on either.
+     * */
+    private static String normalize(String text){
+        if (text == null){
+            return "";
+        }
+        return ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] splitWords(String normalized){
+        String[] words = WORD_SEPARATOR.split(normalized);
+        if (words.length > 0 && words[0].isEmpty()){
+            return Arrays.copyOfRange(words, 1, words.length);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.appointment;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A class that validates the address, postal code and phone number of customers with the rules of their country. It is used by the customer
+ * scenes for a single customer, and by imports to validate a whole list of customers at once.
+ * @see CountryRule
+ * */
+public final class CustomerValidator {
+    /**
+     * The fields of a customer that can be invalid.
+     * */
+    public enum Field {
+        /**
+         * The customer's division is not in a country that has rules.
+         * */
+        COUNTRY,
+        ADDRESS,
+        POSTAL_CODE,
+        PHONE
+    }
+
+    private static final Set<Field> VALID = Set.of();
+    private static final Set<Field> UNKNOWN_COUNTRY = Set.of(Field.COUNTRY);
+
+    /**
+     * Constructor that is private because this class only has static methods.
+     * */
+    private CustomerValidator(){
+    }
+
+    /**
+     * @param address The address that will be checked.
+     * @param country The name of the customer's country.
+     * @return True if the address is in a format that is valid for the country.
+     * */
+    public static boolean isValidAddress(String address, String country){
+        CountryRule rule = CountryRule.forCountry(country);
+        return rule != null && rule.isValidAddress(address);
+    }
+
+    /**
+     * @param postalCode The postal code that will be checked.
+     * @param country The name of the customer's country.
+     * @return True if the postal code is in a format that is valid for the country.
+     * */
+    public static boolean isValidPostalCode(String postalCode, String country){
+        CountryRule rule = CountryRule.forCountry(country);
+        return rule != null && rule.isValidPostalCode(postalCode);
+    }
+
+    /**
+     * @param phoneNumber The phone number that will be checked.
+     * @param country The name of the customer's country.
+     * @return True if the phone number is in a format that is valid for the country.
+     * */
+    public static boolean isValidPhoneNumber(String phoneNumber, String country){
+        CountryRule rule = CountryRule.forCountry(country);
+        return rule != null && rule.isValidPhoneNumber(phoneNumber);
+    }
+
+    /**
+     * A method that validates every field of a customer that has country specific rules.
+     * @param customer The customer that will be validated.
+     * @param rule The rules of the customer's country, or null if the country has no rules.
+     * @return The fields that are invalid. The set is empty if the customer is valid.
+     * */
+    public static Set<Field> validate(Customer customer, CountryRule rule){
+        if (rule == null){
+            return UNKNOWN_COUNTRY;
+        }
+        Set<Field> invalidFields = null;
+        if (customer.getAddress() == null || !rule.isValidAddress(customer.getAddress())){
+            invalidFields = EnumSet.of(Field.ADDRESS);
+        }
+        if (customer.getPostalCode() == null || !rule.isValidPostalCode(customer.getPostalCode())){
+            invalidFields = add(invalidFields, Field.POSTAL_CODE);
+        }
+        if (customer.getPhone() == null || !rule.isValidPhoneNumber(customer.getPhone())){
+            invalidFields = add(invalidFields, Field.PHONE);
+        }
+        return invalidFields == null ? VALID : invalidFields;
+    }
+
+    /**
+     * A method that validates one customer. The rules of the customer's country are found from its division with the ReferenceDataCache.
+     * @param customer The customer that will be validated.
+     * @return The fields that are invalid. The set is empty if the customer is valid.
+     * @throws SQLException If the countries or divisions have to be loaded and a SQL database error occurs.
+     * @throws IOException If the countries or divisions have to be loaded and the connection cannot be accessed.
+     * */
+    public static Set<Field> validate(Customer customer) throws SQLException, IOException {
+        ReferenceDataCache cache = ReferenceDataCache.getInstance();
+        Integer countryId = cache.getCountryId(customer.getDivisionID());
+        return validate(customer, countryId == null ? null : CountryRule.forCountry(cache.getCountries().get(countryId)));
+    }
+
+    /**
+     * A method that validates a list of customers in parallel. The rules of each customer's country are found from its division
+     * with the ReferenceDataCache, which is loaded before the customers are validated.
+     * @param customers The customers that will be validated.
+     * @return The invalid fields of each customer, in the same order as the customers.
+     * @throws SQLException If the countries or divisions have to be loaded and a SQL database error occurs.
+     * @throws IOException If the countries or divisions have to be loaded and the connection cannot be accessed.
+     * */
+    public static List<Set<Field>> validateAll(List<Customer> customers) throws SQLException, IOException {
+        return validateAll(customers, loadRulesByDivision()::get);
+    }
+
+    /**
+     * @return The rules of the country that each division is in, from the ReferenceDataCache. Divisions in countries without rules map to null.
+     * @throws SQLException If the countries or divisions have to be loaded and a SQL database error occurs.
+     * @throws IOException If the countries or divisions have to be loaded and the connection cannot be accessed.
+     * */
+    static Map<Integer, CountryRule> loadRulesByDivision() throws SQLException, IOException {
+        ReferenceDataCache cache = ReferenceDataCache.getInstance();
+        Map<Integer, String> countries = cache.getCountries();
+        Map<Integer, CountryRule> rulesByDivision = new HashMap<>();
+        for (Integer divisionId : cache.getDivisionNames().keySet()){
+            rulesByDivision.put(divisionId, CountryRule.forCountry(countries.get(cache.getCountryId(divisionId))));
+        }
+        return rulesByDivision;
+    }
+
+    /**
+     * A method that validates a list of customers in parallel.
+     * @param customers The customers that will be validated.
+     * @param rulesByDivision A function that returns the rules of the country that a division is in, or null if the country has no rules.
+     *                        It is called from several threads at once.
+     * @return The invalid fields of each customer, in the same order as the customers.
+     * */
+    public static List<Set<Field>> validateAll(List<Customer> customers, IntFunction<CountryRule> rulesByDivision){
+        return IntStream.range(0, customers.size()).parallel()
+                .mapToObj(i -> {
+                    Customer customer = customers.get(i);
+                    return validate(customer, rulesByDivision.apply(customer.getDivisionID()));
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static Set<Field> add(Set<Field> invalidFields, Field field){
+        if (invalidFields == null){
+            return EnumSet.of(field);
+        }
+        invalidFields.add(field);
+        return invalidFields;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.appointment;
+
+import javafx.application.Platform;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A Singleton class that runs database work on background threads so that the JavaFX application thread is never blocked by a query.
+ * Every task returns a CompletableFuture that is completed on the JavaFX application thread, so the controllers can update their
+ * TableViews directly from the callbacks.
+ * <br>
+ * Tasks can be submitted with a key, such as the TableView that will display the results. When a new task is submitted with the same key,
+ * the previous task is cancelled and any statement it is running is cancelled in the database, so switching views quickly never shows stale data.
+ * */
+public final class DataAccessExecutor {
+    private static DataAccessExecutor INSTANCE;
+    private static final int THREAD_COUNT = 4;
+    private static final int QUEUE_CAPACITY = 64;
+    private final Logger LOGGER = Logger.getLogger(DataAccessExecutor.class.getName());
+    private final ThreadPoolExecutor executor;
+    private final Executor completionExecutor;
+    private final Map<Object, CompletableFuture<?>> latestTasks = new ConcurrentHashMap<>();
+
+    /**
+     * A task that accesses the database. The task should pass every statement it creates to the QueryHandle, so that the statement can be
+     * cancelled if the task is cancelled.
+     * @param <T> The type of the task's result.
+     * */
+    @FunctionalInterface
+    public interface DataAccessTask<T> {
+        /**
+         * @param handle The handle that tracks the statements of this task.
+         * @return The result of the task.
+         * @throws SQLException If a SQL database error occurs.
+         * @throws IOException If the connection cannot be accessed.
+         * */
+        T execute(QueryHandle handle) throws SQLException, IOException;
+    }
+
+    /**
+     * A handle that is passed into each task. It tracks the statements that the task is running so that they can be cancelled.
+     * */
+    public static final class QueryHandle {
+        private final Queue<Statement> statements = new ConcurrentLinkedQueue<>();
+        private volatile boolean cancelled;
+
+        /**
+         * A method that registers a statement so that it is cancelled if the task is cancelled.
+         * @param statement The statement that the task is about to run.
+         * @param <S> The type of the statement.
+         * @return The same statement, so that the method can wrap the call that creates it.
+         * @throws SQLException If the task was already cancelled.
+         * */
+        public <S extends Statement> S track(S statement) throws SQLException {
+            statements.add(statement);
+            if (cancelled){
+                cancelStatement(statement);
+                throw new SQLException("The query was cancelled.");
+            }
+            return statement;
+        }
+
+        /**
+         * @return True if the task has been cancelled.
+         * */
+        public boolean isCancelled(){
+            return cancelled;
+        }
+
+        /**
+         * Cancels every statement that the task registered.
+         * */
+        private void cancel(){
+            cancelled = true;
+            for (Statement statement : statements){
+                cancelStatement(statement);
+            }
+        }
+
+        private static void cancelStatement(Statement statement){
+            try {
+                if (!statement.isClosed()){
+                    statement.cancel();
+                }
+            }
+            catch (SQLException e){
+                // The statement already finished, so there is nothing left to cancel.
+            }
+        }
+    }
+
+    /**
+     * Constructor that creates the DataAccessExecutor. It is private so that only one executor is ever created.
+     * @param completionExecutor The executor that completes the futures. This is the JavaFX application thread for the program.
+     * */
+    private DataAccessExecutor(Executor completionExecutor){
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.completionExecutor = completionExecutor;
+        this.executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "data-access-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * A method that returns the instance of the DataAccessExecutor. It only creates a new one the first time it is called.
+     * @return The DataAccessExecutor object.
+     * */
+    public static synchronized DataAccessExecutor getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new DataAccessExecutor(Platform::runLater);
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * A method that runs a task on a background thread.
+     * @param task The database work that will be run.
+     * @param <T> The type of the task's result.
+     * @return A future that is completed on the JavaFX application thread with the task's result.
+     * */
+    public <T> CompletableFuture<T> submit(DataAccessTask<T> task){
+        QueryHandle handle = new QueryHandle();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            Future<?> running = executor.submit(() -> run(task, handle, result));
+            result.whenComplete((value, throwable) -> {
+                if (result.isCancelled()){
+                    handle.cancel();
+                    running.cancel(true);
+                }
+            });
+        }
+        catch (RejectedExecutionException e){
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * A method that runs a task on a background thread, and cancels the previous task that was submitted with the same key.
+     * This is used when the user switches views, so that the results of an older query never overwrite the newer one.
+     * @param key The key of the task, such as the TableView that will display the result.
+     * @param task The database work that will be run.
+     * @param <T> The type of the task's result.
+     * @return A future that is completed on the JavaFX application thread with the task's result.
+     * */
+    public <T> CompletableFuture<T> submitLatest(Object key, DataAccessTask<T> task){
+        CompletableFuture<T> result = submit(task);
+        CompletableFuture<?> previous = latestTasks.put(key, result);
+        if (previous != null){
+            previous.cancel(true);
+        }
+        result.whenComplete((value, throwable) -> latestTasks.remove(key, result));
+        return result;
+    }
+
+    /**
+     * Cancels the task that is currently running for the key, if there is one.
+     * @param key The key that the task was submitted with.
+     * */
+    public void cancel(Object key){
+        CompletableFuture<?> previous = latestTasks.remove(key);
+        if (previous != null){
+            previous.cancel(true);
+        }
+    }
+
+    /**
+     * Stops the background threads. This is called when the program exits.
+     * */
+    public void shutdown(){
+        latestTasks.values().forEach(future -> future.cancel(true));
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the task on the background thread and hands the result to the completion executor.
+     * */
+    private <T> void run(DataAccessTask<T> task, QueryHandle handle, CompletableFuture<T> result){
+        if (result.isDone()){
+            return;
+        }
+        try {
+            T value = task.execute(handle);
+            completionExecutor.execute(() -> result.complete(value));
+        }
+        catch (Throwable e){
+            if (!handle.isCancelled()){
+                LOGGER.log(Level.FINE, "A background query failed.", e);
+            }
+            completionExecutor.execute(() -> result.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.appointment;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * The database that the program connects to. By default it is the client_schedule database on the local MySQL server, and it can be changed with these system properties:
+ * <ul>
+ *     <li>appointment.db.mode - mysql, h2-mem for an embedded in-memory database, or h2-file for an embedded database in a file.</li>
+ *     <li>appointment.db.url - A JDBC URL, which is used instead of the mode. The dialect is taken from the URL. A MySQL URL should include
+ *     useCursorFetch=true, or the rows are not fetched in batches.</li>
+ *     <li>appointment.db.path - The file of the h2-file database, without the .mv.db extension. It is client_schedule in the working directory by default.</li>
+ *     <li>appointment.db.user - The database user.</li>
+ * </ul>
+ * The database password is read from the APPOINTMENT_DB_PASSWORD environment variable, so that it doesn't show up in the process list.
+ * The embedded databases are loaded with the client_schedule schema the first time they are opened, so the program can run without a MySQL server.
+ * */
+public final class DataSourceSettings {
+    /**
+     * Connector/J ignores the fetch size and reads the whole result into memory unless useCursorFetch is set, so it is set here for ResultSetStreams.
+     * */
+    private static final String MYSQL_URL = "jdbc:mysql://localhost:3306/client_schedule?useCursorFetch=true";
+    private static final String MYSQL_USER = "sqlUser";
+    private static final String MYSQL_PASSWORD = "Passw0rd!";
+    private static final String H2_USER = "sa";
+    private static final String H2_OPTIONS = ";MODE=MySQL;NON_KEYWORDS=END";
+    private final DatabaseDialect dialect;
+    private final String url;
+    private final String user;
+    private final String password;
+
+    /**
+     * @param url The JDBC URL of the database.
+     * @param user The database user.
+     * @param password The database user's password.
+     * @throws IllegalArgumentException If the URL is not for a supported database.
+     * */
+    public DataSourceSettings(String url, String user, String password){
+        this.dialect = DatabaseDialect.forUrl(url);
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    /**
+     * @return The settings of the client_schedule database on the local MySQL server.
+     * */
+    public static DataSourceSettings mysql(){
+        return new DataSourceSettings(MYSQL_URL, MYSQL_USER, MYSQL_PASSWORD);
+    }
+
+    /**
+     * @param name The name of the database. Every connection with the same name in the same process uses the same database.
+     * @return The settings of an embedded database that is kept in memory until the program exits.
+     * */
+    public static DataSourceSettings h2InMemory(String name){
+        return new DataSourceSettings("jdbc:h2:mem:" + name + H2_OPTIONS + ";DB_CLOSE_DELAY=-1", H2_USER, "");
+    }
+
+    /**
+     * @param path The file of the database, without the .mv.db extension. It is created if it does not exist.
+     * @return The settings of an embedded database that is kept in a file.
+     * */
+    public static DataSourceSettings h2File(Path path){
+        return new DataSourceSettings("jdbc:h2:file:" + path.toAbsolutePath() + H2_OPTIONS, H2_USER, "");
+    }
+
+    /**
+     * @return The settings from the system properties, or the local MySQL server if none are set.
+     * @throws IllegalArgumentException If the mode or the URL is not supported.
+     * */
+    public static DataSourceSettings fromSystemProperties(){
+        String url = System.getProperty("appointment.db.url");
+        DataSourceSettings settings;
+        if (url != null){
+            settings = DatabaseDialect.forUrl(url) == DatabaseDialect.H2 ? new DataSourceSettings(url, H2_USER, "")
+                    : new DataSourceSettings(url, MYSQL_USER, MYSQL_PASSWORD);
+        }
+        else{
+            String mode = System.getProperty("appointment.db.mode", "mysql");
+            switch (mode){
+                case "mysql":
+                    settings = mysql();
+                    break;
+                case "h2-mem":
+                    settings = h2InMemory("client_schedule");
+                    break;
+                case "h2-file":
+                    settings = h2File(Path.of(System.getProperty("appointment.db.path", "client_schedule")));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported database mode: " + mode);
+            }
+        }
+        String user = System.getProperty("appointment.db.user", settings.user);
+        String password = System.getenv("APPOINTMENT_DB_PASSWORD");
+        return new DataSourceSettings(settings.url, user, password == null ? settings.password : password);
+    }
+
+    /**
+     * Opens a new connection to the database. The caller is responsible for closing it.
+     * @return A new connection.
+     * @throws SQLException If the database cannot be contacted.
+     * */
+    public Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    /**
+     * @return The dialect of the database.
+     * */
+    public DatabaseDialect getDialect(){
+        return dialect;
+    }
+
+    /**
+     * @return The JDBC URL of the database.
+     * */
+    public String getUrl(){
+        return url;
+    }
+
+    /**
+     * @return The database user.
+     * */
+    public String getUser(){
+        return user;
+    }
+
+    /**
+     * The password is left out so that the settings can be logged.
+     * */
+    @Override
+    public String toString(){
+        return "DataSourceSettings[" + dialect + ", " + url + ", " + user + "]";
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.appointment;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * The databases that the program can run against, and the parts of their SQL that differ. Queries that need something that is not the same in
+ * every database ask the ConnectionModel's dialect for it instead of writing it out, so the same query runs on the MySQL server and on an embedded H2 database.
+ * */
+public enum DatabaseDialect {
+    /**
+     * The MySQL server that holds client_schedule. Its schema is owned by the other systems that share it, so the program never creates or changes it.
+     * */
+    MYSQL("jdbc:mysql:") {
+        @Override
+        public String monthOf(String column){
+            return "MONTH(" + column + ")";
+        }
+
+        @Override
+        public String limit(){
+            return " LIMIT ?";
+        }
+
+        @Override
+        public void initializeSchema(Connection connection){
+        }
+    },
+    /**
+     * An embedded H2 database, in memory or in a file. It is opened in MySQL mode with END allowed as a column name, and the client_schedule schema
+     * and the migrations are loaded the first time it is opened.
+     * */
+    H2("jdbc:h2:") {
+        @Override
+        public String monthOf(String column){
+            return "EXTRACT(MONTH FROM " + column + ")";
+        }
+
+        @Override
+        public String limit(){
+            return " FETCH FIRST ? ROWS ONLY";
+        }
+
+        @Override
+        public void initializeSchema(Connection connection) throws SQLException {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet tables = metaData.getTables(null, null, "APPOINTMENTS", null)){
+                if (tables.next()){
+                    return;
+                }
+            }
+            try (Statement stmt = connection.createStatement()){
+                stmt.execute("RUNSCRIPT FROM 'classpath:" + H2_SCHEMA + "' CHARSET 'UTF-8'");
+                for (String migration : MIGRATIONS){
+                    stmt.execute("RUNSCRIPT FROM 'classpath:" + migration + "'");
+                }
+            }
+            Logger.getLogger(DatabaseDialect.class.getName()).info("Created the client_schedule schema in " + metaData.getURL() + ".");
+        }
+    };
+
+    private static final String H2_SCHEMA = "/sql/h2/client_schedule.sql";
+    /**
+     * The migrations in the order they are run on a new embedded database. A new migration has to be added here as well as to the MySQL server.
+     * */
+    private static final List<String> MIGRATIONS = List.of(
+            "/sql/migrations/001_add_appointments_customer_start_end_index.sql",
+            "/sql/migrations/002_add_appointments_user_start_index.sql",
+            "/sql/migrations/003_add_appointments_contact_start_index.sql",
+            "/sql/migrations/004_add_last_update_indexes.sql");
+    private final String urlPrefix;
+
+    DatabaseDialect(String urlPrefix){
+        this.urlPrefix = urlPrefix;
+    }
+
+    /**
+     * @param column The date time column or expression.
+     * @return An expression for the month of the column, where January is 1.
+     * */
+    public abstract String monthOf(String column);
+
+    /**
+     * @return The clause that goes at the end of a query to return at most as many rows as its last parameter, including a leading space.
+     * */
+    public abstract String limit();
+
+    /**
+     * Creates the client_schedule tables if the database does not have them yet. Nothing is changed in a database that already has them.
+     * @param connection A connection to the database.
+     * @throws SQLException If the schema cannot be created.
+     * */
+    public abstract void initializeSchema(Connection connection) throws SQLException;
+
+    /**
+     * @param url A JDBC URL.
+     * @return The dialect of the database that the URL points to.
+     * @throws IllegalArgumentException If the URL is not for a supported database.
+     * */
+    public static DatabaseDialect forUrl(String url){
+        for (DatabaseDialect dialect : values()){
+            if (url.startsWith(dialect.urlPrefix)){
+                return dialect;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported database URL: " + url);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.appointment;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * A half-open range of business time, from the start (inclusive) to the end (exclusive). The appointment times are stored in the business
+ * time zone, so the ranges are built from business dates and bound directly as Start &gt;= ? AND Start &lt; ?. Unlike month(Start) or date(Start),
+ * that comparison can use the index on Start.
+ * */
+public final class DateRange {
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    /**
+     * Constructor that is private so that the ranges are always created with one of the factory methods.
+     * @param start The first moment of the range.
+     * @param end The first moment after the range.
+     * */
+    private DateRange(LocalDateTime start, LocalDateTime end){
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @return Today's date in the business time zone.
+     * */
+    public static LocalDate businessToday(){
+        return LocalDate.now(AppointmentRowMapper.BUSINESS_ZONE_ID);
+    }
+
+    /**
+     * @param date The day that the range covers.
+     * @return A range that covers the whole day.
+     * */
+    public static DateRange ofDay(LocalDate date){
+        return new DateRange(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * A method that returns the week that contains the date. Weeks start on Sunday, which matches the MySQL YEARWEEK() function the view used to call.
+     * @param date A day within the week.
+     * @return A range that covers the whole week.
+     * */
+    public static DateRange ofWeek(LocalDate date){
+        LocalDate firstDay = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+        return new DateRange(firstDay.atStartOfDay(), firstDay.plusWeeks(1).atStartOfDay());
+    }
+
+    /**
+     * @param month The month that the range covers.
+     * @return A range that covers the whole month.
+     * */
+    public static DateRange ofMonth(YearMonth month){
+        return new DateRange(month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    /**
+     * @param year The year that the range covers.
+     * @return A range that covers the whole year.
+     * */
+    public static DateRange ofYear(Year year){
+        return new DateRange(year.atDay(1).atStartOfDay(), year.plusYears(1).atDay(1).atStartOfDay());
+    }
+
+    /**
+     * @return The first moment of the range.
+     * */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * @return The first moment after the range.
+     * */
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * A method that sets the start and end of the range on two parameters that follow each other, such as Start &gt;= ? AND Start &lt; ?.
+     * @param stmt The statement that the range is set on.
+     * @param startIndex The index of the start parameter. The end is set on the next index.
+     * @throws SQLException If the parameters cannot be set.
+     * */
+    public void bind(PreparedStatement stmt, int startIndex) throws SQLException {
+        stmt.setObject(startIndex, start);
+        stmt.setObject(startIndex + 1, end);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + ")";
+    }
+}
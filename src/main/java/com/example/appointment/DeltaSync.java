@@ -0,0 +1,385 @@
+package com.example.appointment;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * A class that finds the rows of a table that have changed since a table was displayed, so that the table can be patched instead of loaded again.
+ * Every program that writes to the client_schedule tables sets the Last_Update column, so a Cursor only has to remember the latest Last_Update it
+ * has seen, called the watermark, and each poll reads the rows that were updated after it:
+ * <br>
+ * SELECT * FROM APPOINTMENTS WHERE Last_Update &gt;= ?
+ * <br>
+ * The Last_Update index answers this with a range scan, so a poll reads as many rows as have changed, not as many as the table has.
+ * <br>
+ * Last_Update is written from the clock of the program that saves the row, and a row is only visible once its transaction commits, so a row can appear
+ * with a Last_Update that is a little older than the watermark. Each poll reads back an overlap before the watermark to catch these rows. The rows in
+ * the overlap are read again by the next poll, which is harmless because applying a row that is already displayed doesn't change anything.
+ * <br>
+ * A deleted row leaves nothing behind to be read, so the services report each row that they delete with deleted(). A Cursor returns the IDs that were
+ * deleted since it was started. An ID is dropped from the log once every Cursor that is still in use has moved past it, so the log only holds the
+ * deletes that some Cursor hasn't applied yet.
+ * <br>
+ * Rows that are deleted by another program can't be seen this way. Every few minutes a poll also reads every ID in the table, and the rows that are
+ * displayed but no longer in the table are removed.
+ * @param <T> The type of object that each row is turned into.
+ * */
+public final class DeltaSync<T> {
+    /**
+     * The system property that sets how many seconds before the watermark each poll reads again.
+     * */
+    public static final String OVERLAP_PROPERTY = "appointment.sync.overlapSeconds";
+    /**
+     * The system property that sets how many seconds apart the polls read every ID in the table to find rows that another program deleted.
+     * */
+    public static final String RECONCILE_PROPERTY = "appointment.sync.reconcileSeconds";
+    private static final long OVERLAP_MILLIS = Long.getLong(OVERLAP_PROPERTY, 60) * 1000;
+    private static final long RECONCILE_NANOS = Long.getLong(RECONCILE_PROPERTY, 300) * 1_000_000_000L;
+    private static final int[] NO_IDS = new int[0];
+
+    /**
+     * The changes to the APPOINTMENTS table.
+     * */
+    public static final DeltaSync<Appointment> APPOINTMENTS = new DeltaSync<>("APPOINTMENTS", "Appointment_ID", Appointment::getAppointmentID, AppointmentRowMapper.FACTORY);
+    /**
+     * The changes to the CUSTOMERS table.
+     * */
+    public static final DeltaSync<Customer> CUSTOMERS = new DeltaSync<>("CUSTOMERS", "Customer_ID", Customer::getCustomerID, CustomerRowMapper.FACTORY);
+
+    private final String changedRowsQuery;
+    private final String watermarkQuery;
+    private final String idQuery;
+    private final ToIntFunction<? super T> idExtractor;
+    private final RowMapper.Factory<T> factory;
+    private final long overlapMillis;
+    private final long reconcileNanos;
+    /**
+     * The Cursors that have been started and not closed. A Cursor that is thrown away without being closed stops holding back the log once it is garbage collected.
+     * */
+    private final Set<Cursor<T>> liveCursors = Collections.newSetFromMap(new WeakHashMap<>());
+    private int[] deletedIds = new int[16];
+    private int deletedCount;
+    /**
+     * The position of deletedIds[0]. Positions count every delete since the program started, so they stay the same when the log is trimmed.
+     * */
+    private long firstDeletedPosition;
+
+    private DeltaSync(String table, String idColumn, ToIntFunction<? super T> idExtractor, RowMapper.Factory<T> factory){
+        this(table, idColumn, idExtractor, factory, OVERLAP_MILLIS, RECONCILE_NANOS);
+    }
+
+    /**
+     * Constructor that sets the overlap and the reconcile interval directly instead of from the system properties, so that tests can shorten them.
+     * */
+    DeltaSync(String table, String idColumn, ToIntFunction<? super T> idExtractor, RowMapper.Factory<T> factory, long overlapMillis, long reconcileNanos){
+        this.overlapMillis = overlapMillis;
+        this.reconcileNanos = reconcileNanos;
+        this.changedRowsQuery = "SELECT * FROM " + table + " WHERE Last_Update >= ?";
+        this.watermarkQuery = "SELECT MAX(Last_Update) FROM " + table;
+        this.idQuery = "SELECT " + idColumn + " FROM " + table;
+        this.idExtractor = idExtractor;
+        this.factory = factory;
+    }
+
+    /**
+     * @param row A row of the table.
+     * @return The row's ID.
+     * */
+    public int idOf(T row){
+        return idExtractor.applyAsInt(row);
+    }
+
+    /**
+     * A method that records that a row was deleted, so that the Cursors can remove it. It should be called after the delete has been committed.
+     * @param id The ID of the deleted row.
+     * */
+    public synchronized void deleted(int id){
+        if (liveCursors.isEmpty()){
+            // A Cursor that is started later begins after this delete, so there is nobody to report it to.
+            firstDeletedPosition += deletedCount + 1;
+            deletedCount = 0;
+            return;
+        }
+        if (deletedCount == deletedIds.length){
+            trim();
+        }
+        if (deletedCount == deletedIds.length){
+            deletedIds = Arrays.copyOf(deletedIds, deletedCount * 2);
+        }
+        deletedIds[deletedCount++] = id;
+    }
+
+    /**
+     * @return A new Cursor. It has to be started before it can be polled.
+     * */
+    public Cursor<T> cursor(){
+        return new Cursor<>(this);
+    }
+
+    /**
+     * @return The number of deletes that are still in the log, for tests and diagnostics.
+     * */
+    synchronized int loggedDeleteCount(){
+        return deletedCount;
+    }
+
+    /**
+     * Adds a Cursor to the live Cursors and sets its position to the end of the log, so that the log keeps every delete from now on until the Cursor has seen it.
+     * */
+    private synchronized void register(Cursor<T> cursor){
+        cursor.deletedPosition = firstDeletedPosition + deletedCount;
+        liveCursors.add(cursor);
+    }
+
+    private synchronized void unregister(Cursor<T> cursor){
+        liveCursors.remove(cursor);
+        trim();
+    }
+
+    private synchronized int[] deletedSince(long position){
+        int from = (int) Math.max(0, position - firstDeletedPosition);
+        return from >= deletedCount ? NO_IDS : Arrays.copyOfRange(deletedIds, from, deletedCount);
+    }
+
+    /**
+     * Drops the deletes that every live Cursor has moved past.
+     * */
+    private synchronized void trim(){
+        long end = firstDeletedPosition + deletedCount;
+        long oldestPosition = end;
+        for (Cursor<T> cursor : liveCursors){
+            oldestPosition = Math.min(oldestPosition, cursor.deletedPosition);
+        }
+        int passed = (int) (oldestPosition - firstDeletedPosition);
+        if (passed <= 0){
+            return;
+        }
+        System.arraycopy(deletedIds, passed, deletedIds, 0, deletedCount - passed);
+        deletedCount -= passed;
+        firstDeletedPosition = oldestPosition;
+        if (deletedIds.length > 16 && deletedCount < deletedIds.length / 4){
+            deletedIds = Arrays.copyOf(deletedIds, Math.max(16, deletedIds.length / 2));
+        }
+    }
+
+    /**
+     * The position of one displayed table in the changes. A Cursor only moves forward when advance() is called with the changes that have been
+     * applied, so a poll that is cancelled, or whose changes are thrown away, doesn't lose them; the next poll reads them again.
+     * A Cursor should be closed when its table is no longer displayed, so that the deletes it hasn't seen can be dropped.
+     * @param <T> The type of object that each row is turned into.
+     * */
+    public static final class Cursor<T> {
+        private final DeltaSync<T> sync;
+        private Timestamp watermark;
+        /**
+         * Written while the DeltaSync or the Cursor is locked, and read by trim() without locking the Cursor, so that the two locks are never held in the other order.
+         * It only moves forward, so an old value only keeps a delete a little longer.
+         * */
+        private volatile long deletedPosition;
+        private long reconciledAt;
+        private boolean started;
+
+        private Cursor(DeltaSync<T> sync){
+            this.sync = sync;
+        }
+
+        /**
+         * A method that sets the watermark to the latest Last_Update in the table. It must be called before the rows are loaded, so that a row that
+         * changes while they are loading is found by the first poll.
+         * @param handle The handle of the background task, so that the query can be cancelled.
+         * @throws SQLException If a SQL database error occurs.
+         * @throws IOException If the connection cannot be accessed.
+         * */
+        public void start(DataAccessExecutor.QueryHandle handle) throws SQLException, IOException {
+            sync.register(this);
+            Timestamp latestUpdate;
+            try (PreparedStatement stmt = handle.track(ConnectionModel.getInstance().getConnection().prepareStatement(sync.watermarkQuery));
+                 ResultSet rs = stmt.executeQuery()){
+                latestUpdate = rs.next() ? rs.getTimestamp(1) : null;
+            }
+            synchronized (this){
+                watermark = latestUpdate == null ? new Timestamp(0) : latestUpdate;
+                reconciledAt = System.nanoTime();
+                started = true;
+            }
+        }
+
+        /**
+         * A method that stops the Cursor from holding back the deletes that it hasn't seen. The Cursor can't be polled again until it is started again.
+         * */
+        public void close(){
+            synchronized (this){
+                started = false;
+            }
+            sync.unregister(this);
+        }
+
+        /**
+         * @return True if start() has finished, so that the Cursor can be polled.
+         * */
+        public synchronized boolean isStarted(){
+            return started;
+        }
+
+        /**
+         * A method that reads the rows that were inserted or updated since the watermark, and the IDs of the rows that were deleted since the last advance.
+         * If the IDs in the table haven't been read for longer than the reconcile interval, they are read as well.
+         * The Cursor doesn't move until the changes are passed to advance().
+         * @param handle The handle of the background task, so that the query can be cancelled.
+         * @return The changes.
+         * @throws SQLException If a SQL database error occurs.
+         * @throws IOException If the connection cannot be accessed.
+         * @throws IllegalStateException If the Cursor hasn't been started.
+         * */
+        public Changes<T> poll(DataAccessExecutor.QueryHandle handle) throws SQLException, IOException {
+            Timestamp since;
+            long position;
+            boolean reconcile;
+            long pollTime = System.nanoTime();
+            synchronized (this){
+                if (!started){
+                    throw new IllegalStateException("The cursor has not been started.");
+                }
+                since = watermark;
+                position = deletedPosition;
+                reconcile = pollTime - reconciledAt >= sync.reconcileNanos;
+            }
+            int[] deleted = sync.deletedSince(position);
+            // The IDs are read before the changed rows, so a row that is inserted in between is among the changed rows even though it isn't among the IDs.
+            IntHashSet existingIds = reconcile ? readIds(handle) : null;
+            Timestamp[] latestUpdate = {since};
+            RowMapper.Factory<T> watermarkedFactory = rs -> {
+                RowMapper<T> mapper = sync.factory.create(rs);
+                int lastUpdateIndex = rs.findColumn("Last_Update");
+                return row -> {
+                    Timestamp lastUpdate = row.getTimestamp(lastUpdateIndex);
+                    if (lastUpdate != null && lastUpdate.after(latestUpdate[0])){
+                        latestUpdate[0] = lastUpdate;
+                    }
+                    return mapper.mapRow(row);
+                };
+            };
+            List<T> changedRows;
+            try (PreparedStatement stmt = handle.track(ConnectionModel.getInstance().getConnection().prepareStatement(sync.changedRowsQuery))){
+                stmt.setTimestamp(1, new Timestamp(since.getTime() - sync.overlapMillis));
+                changedRows = ResultSetStreams.list(stmt, watermarkedFactory);
+            }
+            return new Changes<>(this, changedRows, deleted, latestUpdate[0], position + deleted.length, existingIds, pollTime);
+        }
+
+        private IntHashSet readIds(DataAccessExecutor.QueryHandle handle) throws SQLException, IOException {
+            IntHashSet ids = new IntHashSet();
+            try (PreparedStatement stmt = handle.track(ConnectionModel.getInstance().getConnection().prepareStatement(sync.idQuery));
+                 ResultSet rs = stmt.executeQuery()){
+                while (rs.next()){
+                    ids.add(rs.getInt(1));
+                }
+            }
+            return ids;
+        }
+
+        /**
+         * A method that moves the Cursor past changes that have been applied. Changes from an older poll never move it backwards.
+         * @param changes The changes that were returned by poll().
+         * */
+        public void advance(Changes<T> changes){
+            if (changes.cursor != this){
+                throw new IllegalArgumentException("The changes were polled by a different cursor.");
+            }
+            synchronized (this){
+                if (changes.watermark.after(watermark)){
+                    watermark = changes.watermark;
+                }
+                deletedPosition = Math.max(deletedPosition, changes.deletedPosition);
+                if (changes.existingIds != null && changes.pollTime - reconciledAt > 0){
+                    reconciledAt = changes.pollTime;
+                }
+            }
+            sync.trim();
+        }
+    }
+
+    /**
+     * The rows that changed in one poll.
+     * @param <T> The type of object that each row is turned into.
+     * */
+    public static final class Changes<T> {
+        private final Cursor<T> cursor;
+        private final List<T> changedRows;
+        private final int[] deletedIds;
+        private final Timestamp watermark;
+        private final long deletedPosition;
+        private final IntHashSet existingIds;
+        private final long pollTime;
+        private final IntHashSet changedIds;
+
+        private Changes(Cursor<T> cursor, List<T> changedRows, int[] deletedIds, Timestamp watermark, long deletedPosition, IntHashSet existingIds, long pollTime){
+            this.cursor = cursor;
+            this.changedRows = changedRows;
+            this.deletedIds = deletedIds;
+            this.watermark = watermark;
+            this.deletedPosition = deletedPosition;
+            this.existingIds = existingIds;
+            this.pollTime = pollTime;
+            this.changedIds = new IntHashSet(changedRows.size());
+            for (T row : changedRows){
+                changedIds.add(cursor.sync.idOf(row));
+            }
+        }
+
+        /**
+         * @return The rows that were inserted or updated, in no particular order. A row can be included even though it was already displayed.
+         * */
+        public List<T> getChangedRows(){
+            return changedRows;
+        }
+
+        /**
+         * @return The IDs of the rows that were deleted.
+         * */
+        public int[] getDeletedIds(){
+            return deletedIds.clone();
+        }
+
+        /**
+         * @return True if this poll read every ID in the table, so that isMissing() can find the rows that another program deleted.
+         * */
+        public boolean isReconciled(){
+            return existingIds != null;
+        }
+
+        /**
+         * A row that was inserted after the IDs were read isn't among them, but the changed rows are read after the IDs, so it is among the changed
+         * rows instead and is not reported as missing. Every other row that isn't among the IDs is missing, including the row with the highest ID
+         * and every row of a table that is now empty.
+         * @param id The ID of a displayed row.
+         * @return True if the IDs were read and the row was not among them or the changed rows, because it has been deleted.
+         * */
+        public boolean isMissing(int id){
+            return existingIds != null && !existingIds.contains(id) && !changedIds.contains(id);
+        }
+
+        /**
+         * @return The number of rows that were changed or deleted, not counting the rows that isMissing() finds.
+         * */
+        public int size(){
+            return changedRows.size() + deletedIds.length;
+        }
+
+        /**
+         * @return True if nothing changed and the IDs weren't read.
+         * */
+        public boolean isEmpty(){
+            return size() == 0 && existingIds == null;
+        }
+    }
+}
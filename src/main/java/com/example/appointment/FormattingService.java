@@ -0,0 +1,144 @@
+package com.example.appointment;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A Singleton class that formats dates and looks up translated messages for the current language. The table cells and alerts call it for every row,
+ * so it keeps everything they need ready:
+ * <ul>
+ *     <li>Every message of the current ResourceBundle is resolved once into a map.</li>
+ *     <li>A DateTimeFormatter is only created the first time a pattern is used with the current locale.</li>
+ *     <li>The AppointmentDisplay.Format that the appointment tables use is created once per language.</li>
+ * </ul>
+ * When ConnectionModel.setCurrentLocale() switches the language everything is rebuilt for the new locale and bundle.
+ * */
+public final class FormattingService {
+    /**
+     * The pattern that dates are shown with in the tables.
+     * */
+    public static final String DATE_PATTERN = "MM-dd-yyyy";
+    /**
+     * The pattern that times are shown with in the tables and alerts.
+     * */
+    public static final String TIME_PATTERN = "HH:mm";
+    private static FormattingService INSTANCE;
+    private volatile Formats formats;
+
+    /**
+     * Everything that depends on the locale. It is replaced as a whole when the language changes, so a reader never sees a mix of two languages.
+     * */
+    private static final class Formats {
+        private final Locale locale;
+        private final Map<String, String> messages;
+        private final Map<String, DateTimeFormatter> formatters = new ConcurrentHashMap<>();
+        private final AppointmentDisplay.Format appointmentFormat;
+
+        private Formats(Locale locale, ResourceBundle bundle){
+            this.locale = locale;
+            Map<String, String> resolvedMessages = new HashMap<>();
+            for (Enumeration<String> keys = bundle.getKeys(); keys.hasMoreElements();){
+                String key = keys.nextElement();
+                resolvedMessages.put(key, bundle.getString(key));
+            }
+            messages = resolvedMessages;
+            appointmentFormat = AppointmentDisplay.Format.of(ZoneId.systemDefault(), locale);
+        }
+    }
+
+    /**
+     * Constructor that is private so that only one FormattingService object is ever created.
+     * */
+    private FormattingService(){
+    }
+
+    /**
+     * A method that returns the instance of the FormattingService. It only creates a new one the first time it is called.
+     * @return The FormattingService object.
+     * */
+    public static synchronized FormattingService getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new FormattingService();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * A method that rebuilds the formatters and messages for a new language. It is called by the ConnectionModel whenever its locale changes.
+     * @param locale The locale that dates are formatted with.
+     * @param bundle The ResourceBundle that messages are read from.
+     * */
+    public void setLocale(Locale locale, ResourceBundle bundle){
+        formats = new Formats(locale, bundle);
+    }
+
+    /**
+     * @return The locale that dates are currently formatted with.
+     * */
+    public Locale getLocale(){
+        return currentFormats().locale;
+    }
+
+    /**
+     * A method that returns the translation of a message in the current language.
+     * @param key The key of the message in the MessagesBundle.
+     * @return The translated message.
+     * @throws MissingResourceException If the current bundle doesn't have the key.
+     * */
+    public String getMessage(String key){
+        String message = currentFormats().messages.get(key);
+        if (message == null){
+            throw new MissingResourceException("Can't find resource for key " + key, ResourceBundle.class.getName(), key);
+        }
+        return message;
+    }
+
+    /**
+     * A method that returns a formatter for a pattern in the current locale. The formatter is created the first time the pattern is used.
+     * @param pattern The pattern of the formatter, as used by DateTimeFormatter.ofPattern().
+     * @return The formatter.
+     * */
+    public DateTimeFormatter getFormatter(String pattern){
+        Formats current = currentFormats();
+        return current.formatters.computeIfAbsent(pattern, key -> DateTimeFormatter.ofPattern(key, current.locale));
+    }
+
+    /**
+     * @param temporal The date that will be formatted.
+     * @return The date in the format MM-dd-yyyy.
+     * */
+    public String formatDate(TemporalAccessor temporal){
+        return getFormatter(DATE_PATTERN).format(temporal);
+    }
+
+    /**
+     * @param temporal The time that will be formatted.
+     * @return The time in the format HH:mm.
+     * */
+    public String formatTime(TemporalAccessor temporal){
+        return getFormatter(TIME_PATTERN).format(temporal);
+    }
+
+    /**
+     * @return The format that the appointment tables use for the current language and the user's time zone.
+     * */
+    public AppointmentDisplay.Format getAppointmentFormat(){
+        return currentFormats().appointmentFormat;
+    }
+
+    private Formats currentFormats(){
+        Formats current = formats;
+        if (current == null){
+            throw new IllegalStateException("The FormattingService has no locale yet.");
+        }
+        return current;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.appointment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The result of a CSV import: how many rows were read and imported, why each rejected row was rejected, and how fast the rows were imported.
+ * */
+public final class ImportReport {
+    private final List<RowError> errors = new ArrayList<>();
+    private final long startTime = System.nanoTime();
+    private long rowsRead;
+    private long rowsImported;
+    private long elapsedNanos;
+
+    /**
+     * A row that was not imported, and the reason why.
+     * */
+    public static final class RowError {
+        private final long lineNumber;
+        private final String message;
+
+        RowError(long lineNumber, String message){
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        /**
+         * @return The line of the file that the row starts on.
+         * */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * @return Why the row was not imported.
+         * */
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + message;
+        }
+    }
+
+    /**
+     * Constructor that is package-private because reports are only created by the BulkImporter. The import starts timing when the report is created.
+     * */
+    ImportReport(){
+    }
+
+    void rowRead(){
+        rowsRead++;
+    }
+
+    void rowsImported(int count){
+        rowsImported += count;
+    }
+
+    void rowRejected(long lineNumber, String message){
+        errors.add(new RowError(lineNumber, message));
+    }
+
+    void finish(){
+        elapsedNanos = System.nanoTime() - startTime;
+        errors.sort(Comparator.comparingLong(RowError::getLineNumber));
+    }
+
+    /**
+     * @return The number of data rows in the file, not counting the header.
+     * */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * @return The number of rows that were written to the database.
+     * */
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    /**
+     * @return The number of rows that were not written to the database.
+     * */
+    public long getRowsRejected() {
+        return errors.size();
+    }
+
+    /**
+     * @return The rejected rows in the order they appear in the file.
+     * */
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return How long the import took, from reading the first row to committing the last one.
+     * */
+    public Duration getElapsedTime() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * @return The number of rows read per second, whether they were imported or rejected.
+     * */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows read, %d imported, %d rejected in %d ms (%.0f rows/s)",
+                rowsRead, rowsImported, getRowsRejected(), getElapsedTime().toMillis(), getRowsPerSecond());
+    }
+}
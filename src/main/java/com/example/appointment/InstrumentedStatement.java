@@ -0,0 +1,180 @@
+package com.example.appointment;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * The invocation handler behind every statement that the ConnectionModel hands out. Each execute method is timed and added to the QueryMetrics,
+ * along with the number of rows it changed and whether it failed. getConnection() returns the connection proxy that created the statement, so a caller
+ * can't reach the pooled connection behind it. Every other method is passed straight to the real statement.
+ * <br>
+ * The caller and the metrics of a prepared statement are looked up once when it is created, so timing an execution only costs two calls to System.nanoTime().
+ * A plain statement is looked up each time it runs, because its SQL is only known then.
+ * */
+final class InstrumentedStatement implements InvocationHandler {
+    private static final String UNKNOWN_SQL = "(unknown)";
+    private final Statement statement;
+    private final Connection connection;
+    private final Connection lease;
+    private final String caller;
+    private final QueryMetrics metrics;
+    private volatile QueryMetrics.QueryStats stats;
+
+    private InstrumentedStatement(Statement statement, Connection connection, Connection lease, String caller, QueryMetrics metrics,
+            QueryMetrics.QueryStats stats){
+        this.statement = statement;
+        this.connection = connection;
+        this.lease = lease;
+        this.caller = caller;
+        this.metrics = metrics;
+        this.stats = stats;
+    }
+
+    /**
+     * A method that wraps a statement so that its executions are measured.
+     * @param statement The statement that will be wrapped.
+     * @param statementType The statement interface that the caller expects.
+     * @param preparedSql The SQL that the statement was prepared with, or null for a plain statement.
+     * @param connection The connection proxy that created the statement, which getConnection() returns.
+     * @param lease The connection that is returned to the pool when the statement is closed, or null if the statement doesn't own its connection.
+     * @return A statement proxy of the statement type.
+     * */
+    static Object wrap(Statement statement, Class<?> statementType, String preparedSql, Connection connection, Connection lease){
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        String caller = QueryMetrics.findCaller();
+        QueryMetrics.QueryStats stats = preparedSql == null ? null : metrics.statsFor(preparedSql, caller);
+        return Proxy.newProxyInstance(InstrumentedStatement.class.getClassLoader(), new Class<?>[]{statementType, QueryMetrics.Instrumented.class},
+                new InstrumentedStatement(statement, connection, lease, caller, metrics, stats));
+    }
+
+    /**
+     * A method that wraps a connection so that every statement created on it is measured. Closing the wrapper closes the connection.
+     * @param connection The connection that will be wrapped, such as one borrowed from the pool.
+     * @return A connection proxy.
+     * */
+    static Connection instrument(Connection connection){
+        return (Connection) Proxy.newProxyInstance(InstrumentedStatement.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()){
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(connection, args);
+            }
+            catch (InvocationTargetException e){
+                creationFailed(method, args);
+                throw e.getCause();
+            }
+            if (result instanceof Statement){
+                return wrap((Statement) result, method.getReturnType(), preparedSql(args), (Connection) proxy, null);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * @param args The arguments of a method that creates a statement.
+     * @return The SQL that the statement is prepared with, or null if it is a plain statement.
+     * */
+    static String preparedSql(Object[] args){
+        return args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+    }
+
+    /**
+     * A method that counts an error in the QueryMetrics if the method that failed was preparing a statement.
+     * @param method The connection method that threw an exception.
+     * @param args The arguments of the method.
+     * */
+    static void creationFailed(Method method, Object[] args){
+        String sql = preparedSql(args);
+        if (sql != null && Statement.class.isAssignableFrom(method.getReturnType())){
+            QueryMetrics.getInstance().prepareFailed(sql);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name){
+            case "close":
+                try {
+                    statement.close();
+                }
+                finally{
+                    if (lease != null){
+                        lease.close();
+                    }
+                }
+                return null;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "queryStats":
+                return stats;
+            case "getConnection":
+                return connection;
+            default:
+                break;
+        }
+        if (!name.startsWith("execute")){
+            try {
+                return method.invoke(statement, args);
+            }
+            catch (InvocationTargetException e){
+                throw e.getCause();
+            }
+        }
+        QueryMetrics.QueryStats executionStats = stats;
+        String sql = preparedSql(args);
+        if (sql != null){
+            executionStats = metrics.statsFor(QueryMetrics.normalize(sql), caller);
+            stats = executionStats;
+        }
+        else if (executionStats == null){
+            executionStats = metrics.statsFor(UNKNOWN_SQL, caller);
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = method.invoke(statement, args);
+            failed = false;
+            addChangedRows(executionStats, result);
+            return result;
+        }
+        catch (InvocationTargetException e){
+            throw e.getCause();
+        }
+        finally{
+            metrics.recordExecution(executionStats, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Adds the update count of executeUpdate(), executeLargeUpdate() or executeBatch() to the query's rows.
+     * */
+    private static void addChangedRows(QueryMetrics.QueryStats stats, Object result){
+        if (result instanceof Integer || result instanceof Long){
+            stats.addRows(Math.max(0, ((Number) result).longValue()));
+        }
+        else if (result instanceof int[]){
+            for (int count : (int[]) result){
+                stats.addRows(Math.max(0, count));
+            }
+        }
+        else if (result instanceof long[]){
+            for (long count : (long[]) result){
+                stats.addRows(Math.max(0, count));
+            }
+        }
+    }
+}
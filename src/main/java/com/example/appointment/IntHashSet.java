@@ -0,0 +1,214 @@
+package com.example.appointment;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of int values that stores them in a single int array instead of boxing each one into an Integer. It uses open addressing with linear probing,
+ * so contains() is a few array reads with no allocation, and the table is doubled whenever it becomes half full.
+ * <br>
+ * This is meant for sets of IDs, such as the customers that have appointments. It is not thread safe.
+ * */
+public final class IntHashSet {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MIN_TABLE_LENGTH = 4;
+    /**
+     * The value that marks an empty slot. Because 0 can also be a value, whether the set holds 0 is kept separately.
+     * */
+    private static final int EMPTY = 0;
+    private int[] table;
+    private int size;
+    private boolean containsZero;
+
+    /**
+     * Creates an empty set.
+     * */
+    public IntHashSet(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty set that can hold the expected number of values without growing.
+     * @param expectedSize The number of values that will be added.
+     * */
+    public IntHashSet(int expectedSize){
+        if (expectedSize < 0){
+            throw new IllegalArgumentException("The expected size cannot be negative.");
+        }
+        table = new int[tableSizeFor(expectedSize)];
+    }
+
+    /**
+     * @param value The value that will be added.
+     * @return True if the value was added, or false if it was already in the set.
+     * */
+    public boolean add(int value){
+        if (value == EMPTY){
+            if (containsZero){
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        while (table[slot] != EMPTY){
+            if (table[slot] == value){
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        size++;
+        if (size * 2 > table.length){
+            resize(table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @param value The value that will be looked up.
+     * @return True if the value is in the set.
+     * */
+    public boolean contains(int value){
+        if (value == EMPTY){
+            return containsZero;
+        }
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        while (table[slot] != EMPTY){
+            if (table[slot] == value){
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * A method that removes a value. The values after it in its run of slots are moved back, so lookups never need to skip over deleted slots.
+     * @param value The value that will be removed.
+     * @return True if the value was removed, or false if it was not in the set.
+     * */
+    public boolean remove(int value){
+        if (value == EMPTY){
+            if (!containsZero){
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        while (table[slot] != value){
+            if (table[slot] == EMPTY){
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (table[next] != EMPTY){
+            int home = hash(table[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)){
+                table[gap] = table[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap] = EMPTY;
+        size--;
+        return true;
+    }
+
+    /**
+     * @return The number of values in the set.
+     * */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * @return True if the set has no values.
+     * */
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Removes every value, keeping the table at its current size.
+     * */
+    public void clear(){
+        Arrays.fill(table, EMPTY);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * @return A new array with every value in the set, in no particular order.
+     * */
+    public int[] toArray(){
+        int[] values = new int[size];
+        int index = 0;
+        if (containsZero){
+            values[index++] = 0;
+        }
+        for (int value : table){
+            if (value != EMPTY){
+                values[index++] = value;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * A method that passes every value to the action, in no particular order. The set must not be changed until it returns.
+     * @param action The action that is called with each value.
+     * */
+    public void forEach(IntConsumer action){
+        if (containsZero){
+            action.accept(0);
+        }
+        for (int value : table){
+            if (value != EMPTY){
+                action.accept(value);
+            }
+        }
+    }
+
+    private void resize(int newLength){
+        int[] oldTable = table;
+        table = new int[newLength];
+        int mask = newLength - 1;
+        for (int value : oldTable){
+            if (value != EMPTY){
+                int slot = hash(value) & mask;
+                while (table[slot] != EMPTY){
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of the value, because IDs are usually consecutive and would otherwise fill one run of slots.
+     * */
+    private static int hash(int value){
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return The smallest power of two that keeps the expected number of values under half the table.
+     * */
+    private static int tableSizeFor(int expectedSize){
+        int length = MIN_TABLE_LENGTH;
+        while (length < (long) expectedSize * 2 + 1 && length < (1 << 30)){
+            length <<= 1;
+        }
+        return length;
+    }
+}
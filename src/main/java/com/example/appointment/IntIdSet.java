@@ -0,0 +1,109 @@
+package com.example.appointment;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of IDs that keeps them as unboxed ints. The IDs are stored in numerical order in an int array, so they can be read by
+ * position for a ComboBox and found by position with a binary search. An IntHashSet of the same IDs answers contains() without searching.
+ * <br>
+ * Nothing is changed after the constructor returns, so one IntIdSet can be shared between threads, such as by the ReferenceDataCache.
+ * */
+public final class IntIdSet {
+    /**
+     * A set with no IDs.
+     * */
+    public static final IntIdSet EMPTY = new IntIdSet(new int[0]);
+    private final int[] ids;
+    private final IntHashSet members;
+
+    private IntIdSet(int[] sortedIds){
+        this.ids = sortedIds;
+        this.members = new IntHashSet(sortedIds.length);
+        for (int id : sortedIds){
+            members.add(id);
+        }
+    }
+
+    /**
+     * A method that creates a set of the IDs. The IDs are copied and sorted, and any duplicates are dropped.
+     * @param ids The IDs, in any order.
+     * @return The set of the IDs.
+     * */
+    public static IntIdSet of(int... ids){
+        return ofOwned(Arrays.copyOf(ids, ids.length), ids.length);
+    }
+
+    /**
+     * A method that creates a set of the first IDs in an array that the caller gives up, such as one that a query filled. The array is sorted in place.
+     * @param ids The array, which may be longer than the number of IDs.
+     * @param count The number of IDs at the start of the array.
+     * @return The set of the IDs.
+     * */
+    static IntIdSet ofOwned(int[] ids, int count){
+        if (count == 0){
+            return EMPTY;
+        }
+        Arrays.sort(ids, 0, count);
+        int unique = 1;
+        for (int i = 1; i < count; i++){
+            if (ids[i] != ids[unique - 1]){
+                ids[unique++] = ids[i];
+            }
+        }
+        return new IntIdSet(unique == ids.length ? ids : Arrays.copyOf(ids, unique));
+    }
+
+    /**
+     * @param id The ID that will be looked up.
+     * @return True if the ID is in the set.
+     * */
+    public boolean contains(int id){
+        return members.contains(id);
+    }
+
+    /**
+     * @param index The position of the ID in numerical order.
+     * @return The ID at the position.
+     * @throws IndexOutOfBoundsException If the position is not between 0 and size() - 1.
+     * */
+    public int get(int index){
+        return ids[index];
+    }
+
+    /**
+     * @param id The ID that will be looked up.
+     * @return The position of the ID in numerical order, or -1 if the ID is not in the set.
+     * */
+    public int indexOf(int id){
+        if (!members.contains(id)){
+            return -1;
+        }
+        return Arrays.binarySearch(ids, id);
+    }
+
+    /**
+     * @return The number of IDs.
+     * */
+    public int size(){
+        return ids.length;
+    }
+
+    /**
+     * @return True if there are no IDs.
+     * */
+    public boolean isEmpty(){
+        return ids.length == 0;
+    }
+
+    /**
+     * @return A new array of the IDs in numerical order.
+     * */
+    public int[] toArray(){
+        return ids.clone();
+    }
+
+    @Override
+    public String toString(){
+        return Arrays.toString(ids);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.appointment;
+
+import java.util.List;
+
+/**
+ * A balanced interval tree that stores time intervals as epoch milliseconds. It is an AVL tree ordered by the interval start, where every node
+ * also remembers the latest end time in its subtree. That lets an overlap query skip every subtree that ends before the query starts,
+ * so a query costs O(log n + k) where k is the number of overlapping intervals.
+ * <br>
+ * Intervals are half-open, so an interval that ends at 10:00 does not overlap one that starts at 10:00.
+ * The tree is not thread safe, the AppointmentIndex guards it with a lock.
+ * @param <T> The type of value that is stored with each interval.
+ * */
+final class IntervalTree<T> {
+    private Node<T> root;
+    private int size;
+
+    /**
+     * A node of the tree. The id breaks ties between intervals that start at the same time, so every node has a unique position.
+     * */
+    private static final class Node<T> {
+        private final long start;
+        private final long end;
+        private final int id;
+        private final T value;
+        private long maxEnd;
+        private int height = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(long start, long end, int id, T value){
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    /**
+     * @return The number of intervals in the tree.
+     * */
+    int size(){
+        return size;
+    }
+
+    /**
+     * A method that adds an interval to the tree.
+     * @param start The start of the interval in epoch milliseconds.
+     * @param end The end of the interval in epoch milliseconds.
+     * @param id The unique ID of the interval, which is used to find it again when it is removed.
+     * @param value The value that is stored with the interval.
+     * */
+    void insert(long start, long end, int id, T value){
+        root = insert(root, new Node<>(start, end, id, value));
+    }
+
+    /**
+     * A method that removes an interval from the tree.
+     * @param start The start of the interval in epoch milliseconds. It must be the same start the interval was inserted with.
+     * @param id The unique ID of the interval.
+     * @return True if the interval was found and removed.
+     * */
+    boolean remove(long start, int id){
+        int previousSize = size;
+        root = remove(root, start, id);
+        return size < previousSize;
+    }
+
+    /**
+     * A method that adds the value of every interval that overlaps the query interval to the list.
+     * The values are added in order of their start time.
+     * @param start The start of the query interval in epoch milliseconds.
+     * @param end The end of the query interval in epoch milliseconds.
+     * @param overlapping The list that the overlapping values are added to.
+     * */
+    void findOverlapping(long start, long end, List<T> overlapping){
+        findOverlapping(root, start, end, overlapping);
+    }
+
+    private void findOverlapping(Node<T> node, long start, long end, List<T> overlapping){
+        if (node == null || node.maxEnd <= start){
+            return;
+        }
+        findOverlapping(node.left, start, end, overlapping);
+        if (node.start < end){
+            if (node.end > start){
+                overlapping.add(node.value);
+            }
+            findOverlapping(node.right, start, end, overlapping);
+        }
+    }
+
+    private static int compare(long start, int id, Node<?> node){
+        int comparison = Long.compare(start, node.start);
+        return comparison != 0 ? comparison : Integer.compare(id, node.id);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> newNode){
+        if (node == null){
+            size++;
+            return newNode;
+        }
+        if (compare(newNode.start, newNode.id, node) < 0){
+            node.left = insert(node.left, newNode);
+        }
+        else{
+            node.right = insert(node.right, newNode);
+        }
+        return balance(node);
+    }
+
+    private Node<T> remove(Node<T> node, long start, int id){
+        if (node == null){
+            return null;
+        }
+        int comparison = compare(start, id, node);
+        if (comparison < 0){
+            node.left = remove(node.left, start, id);
+        }
+        else if (comparison > 0){
+            node.right = remove(node.right, start, id);
+        }
+        else{
+            size--;
+            if (node.left == null){
+                return node.right;
+            }
+            if (node.right == null){
+                return node.left;
+            }
+            Node<T> successor = node.right;
+            while (successor.left != null){
+                successor = successor.left;
+            }
+            successor.right = removeSmallest(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private Node<T> removeSmallest(Node<T> node){
+        if (node.left == null){
+            return node.right;
+        }
+        node.left = removeSmallest(node.left);
+        return balance(node);
+    }
+
+    private static int height(Node<?> node){
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node<?> node){
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        long maxEnd = node.end;
+        if (node.left != null){
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null){
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private Node<T> balance(Node<T> node){
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1){
+            if (height(node.left.left) < height(node.left.right)){
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1){
+            if (height(node.right.right) < height(node.right.left)){
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node){
+        Node<T> newRoot = node.left;
+        node.left = newRoot.right;
+        newRoot.right = node;
+        update(node);
+        update(newRoot);
+        return newRoot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node){
+        Node<T> newRoot = node.right;
+        node.right = newRoot.left;
+        newRoot.left = node;
+        update(node);
+        update(newRoot);
+        return newRoot;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.appointment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A writer that writes JSON straight to a Writer as the values are given to it, so a response never has to be built up in memory.
+ * It is used by the API server and the audit log. It only keeps track of where the commas go. The caller is responsible for opening and closing arrays and objects in the right order.
+ * */
+public final class JsonWriter implements Closeable {
+    private final Writer out;
+    private boolean[] hasValue = new boolean[8];
+    private int depth = 0;
+    private boolean afterName = false;
+
+    /**
+     * @param out The writer that the JSON is written to. It is closed when the JsonWriter is closed.
+     * */
+    public JsonWriter(Writer out){
+        this.out = out;
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        out.write('[');
+        push();
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        depth--;
+        out.write(']');
+        return this;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        out.write('{');
+        push();
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        depth--;
+        out.write('}');
+        return this;
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        beforeValue();
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        beforeValue();
+        if (value == null){
+            out.write("null");
+        }
+        else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Flushes and closes the underlying writer.
+     * */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void push(){
+        depth++;
+        if (depth == hasValue.length){
+            hasValue = Arrays.copyOf(hasValue, depth * 2);
+        }
+        hasValue[depth] = false;
+    }
+
+    /**
+     * Writes the comma between two values of an array or object. A value that follows a name never needs one.
+     * */
+    private void beforeValue() throws IOException {
+        if (afterName){
+            afterName = false;
+            return;
+        }
+        if (depth > 0){
+            if (hasValue[depth]){
+                out.write(',');
+            }
+            hasValue[depth] = true;
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++){
+            char c = value.charAt(i);
+            String escape;
+            if (c == '"'){
+                escape = "\\\"";
+            }
+            else if (c == '\\'){
+                escape = "\\\\";
+            }
+            else if (c == '\n'){
+                escape = "\\n";
+            }
+            else if (c == '\r'){
+                escape = "\\r";
+            }
+            else if (c == '\t'){
+                escape = "\\t";
+            }
+            else if (c < 0x20){
+                escape = String.format("\\u%04x", (int) c);
+            }
+            else {
+                continue;
+            }
+            out.write(value, start, i - start);
+            out.write(escape);
+            start = i + 1;
+        }
+        out.write(value, start, length - start);
+        out.write('"');
+    }
+}
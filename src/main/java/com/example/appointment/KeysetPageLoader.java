@@ -0,0 +1,255 @@
+package com.example.appointment;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A class that loads a table one page at a time with keyset pagination. Instead of an OFFSET, which makes the database read and throw away
+ * every row before the page, each page continues from the sort key and ID of the last row that was loaded:
+ * <br>
+ * ... WHERE (Sort_Column &gt; ? OR (Sort_Column = ? AND ID &gt; ?)) ORDER BY Sort_Column, ID LIMIT ?
+ * <br>
+ * The ID breaks ties between rows with the same sort key, so every row is loaded exactly once. A loader is immutable, so it can be
+ * handed to a background thread while the controller keeps the last row it displayed.
+ * <br>
+ * NULL compares as unknown, so a column that can hold NULL is created with nullableColumn() and gets IS NULL branches instead. NULL is ordered as
+ * the smallest value, which is how both MySQL and H2 sort it.
+ * @param <T> The type of object that each row is turned into.
+ * */
+public final class KeysetPageLoader<T> {
+    /**
+     * The system property that sets the number of rows in a page.
+     * */
+    public static final String PAGE_SIZE_PROPERTY = "appointment.table.pageSize";
+    private static final int PAGE_SIZE = Integer.getInteger(PAGE_SIZE_PROPERTY, 200);
+    private static final Object[] NO_PARAMETERS = new Object[0];
+
+    private final String selectQuery;
+    private final SortColumn<T> idColumn;
+    private final RowMapper.Factory<T> factory;
+    private final String filter;
+    private final Object[] filterParameters;
+    private final Predicate<? super T> matcher;
+
+    /**
+     * A column that the rows can be ordered by. The key extractor reads the column's value back from a loaded row,
+     * so that the next page can continue after it. Only a nullable column may contain null values.
+     * @param <T> The type of object that each row is turned into.
+     * */
+    public static final class SortColumn<T> {
+        private final String columnName;
+        private final Function<? super T, ?> keyExtractor;
+        private final boolean nullable;
+
+        private SortColumn(String columnName, Function<? super T, ?> keyExtractor, boolean nullable){
+            this.columnName = columnName;
+            this.keyExtractor = keyExtractor;
+            this.nullable = nullable;
+        }
+
+        /**
+         * @return The name of the column in the database.
+         * */
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+
+    /**
+     * A method that creates a column that the rows can be ordered by.
+     * @param columnName The name of the column in the database.
+     * @param keyExtractor A function that returns the column's value for a loaded row, in the same form that it is stored in the database.
+     * @param <T> The type of object that each row is turned into.
+     * @return The sort column.
+     * */
+    public static <T> SortColumn<T> column(String columnName, Function<? super T, ?> keyExtractor){
+        return new SortColumn<>(columnName, keyExtractor, false);
+    }
+
+    /**
+     * A method that creates a column that the rows can be ordered by, for a column that can contain null values.
+     * @param columnName The name of the column in the database.
+     * @param keyExtractor A function that returns the column's value for a loaded row, in the same form that it is stored in the database, or null.
+     * @param <T> The type of object that each row is turned into.
+     * @return The sort column.
+     * */
+    public static <T> SortColumn<T> nullableColumn(String columnName, Function<? super T, ?> keyExtractor){
+        return new SortColumn<>(columnName, keyExtractor, true);
+    }
+
+    /**
+     * Constructor for a loader that loads every row of the query.
+     * @param selectQuery The query without a WHERE clause, such as SELECT * FROM CUSTOMERS.
+     * @param idColumn The unique ID column of the table, which breaks ties between rows with the same sort key.
+     * @param factory The factory that creates the mapper for each page.
+     * */
+    public KeysetPageLoader(String selectQuery, SortColumn<T> idColumn, RowMapper.Factory<T> factory){
+        this(selectQuery, idColumn, factory, null, NO_PARAMETERS, row -> true);
+    }
+
+    private KeysetPageLoader(String selectQuery, SortColumn<T> idColumn, RowMapper.Factory<T> factory, String filter, Object[] filterParameters,
+            Predicate<? super T> matcher){
+        this.selectQuery = selectQuery;
+        this.idColumn = idColumn;
+        this.factory = factory;
+        this.filter = filter;
+        this.filterParameters = filterParameters;
+        this.matcher = matcher;
+    }
+
+    /**
+     * A method that returns a copy of this loader that only loads the rows that match the filter.
+     * @param filter The condition that the rows must match, such as User_ID = ?.
+     * @param parameters The values of the filter's parameters, in order.
+     * @return A loader with the filter.
+     * */
+    public KeysetPageLoader<T> where(String filter, Object... parameters){
+        return new KeysetPageLoader<>(selectQuery, idColumn, factory, filter, Arrays.copyOf(parameters, parameters.length), null);
+    }
+
+    /**
+     * A method that returns a copy of this loader that can also check a row that was read some other way, such as by a DeltaSync poll, against its filter.
+     * @param matcher A test that is true for the same rows as the filter.
+     * @return A loader with the matcher.
+     * */
+    public KeysetPageLoader<T> matching(Predicate<? super T> matcher){
+        return new KeysetPageLoader<>(selectQuery, idColumn, factory, filter, filterParameters, matcher);
+    }
+
+    /**
+     * @return A test that is true for the rows that this loader loads, or null if the loader has a filter but no matcher.
+     * */
+    public Predicate<? super T> getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * A method that returns the order that loadPage() loads the rows in, so that a row can be put in its place among the rows that are already loaded.
+     * The order is the same as the database's, except that text is compared by its characters instead of by the column's collation. Null values come first.
+     * @param sortColumn The column that the rows are ordered by.
+     * @param ascending True if the rows are ordered from the smallest value to the largest.
+     * @return The order of the rows.
+     * */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Comparator<T> comparator(SortColumn<T> sortColumn, boolean ascending){
+        Comparator<T> order = Comparator.comparing(row -> (Comparable) sortColumn.keyExtractor.apply(row), Comparator.nullsFirst(Comparator.naturalOrder()));
+        if (!sortColumn.columnName.equals(idColumn.columnName)){
+            order = order.thenComparing(row -> (Comparable) idColumn.keyExtractor.apply(row));
+        }
+        return ascending ? order : order.reversed();
+    }
+
+    /**
+     * @return The unique ID column of the table.
+     * */
+    public SortColumn<T> getIdColumn() {
+        return idColumn;
+    }
+
+    /**
+     * @return The number of rows in a full page. A page with fewer rows is the last page.
+     * */
+    public int getPageSize() {
+        return PAGE_SIZE;
+    }
+
+    /**
+     * A method that loads the page that comes after a row.
+     * @param handle The handle of the background task, so that the query can be cancelled.
+     * @param sortColumn The column that the rows are ordered by.
+     * @param ascending True if the rows are ordered from the smallest value to the largest.
+     * @param after The last row of the previous page, or null to load the first page.
+     * @return The rows of the page. If there are fewer rows than the page size, there are no more pages.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection cannot be accessed.
+     * */
+    public List<T> loadPage(DataAccessExecutor.QueryHandle handle, SortColumn<T> sortColumn, boolean ascending, T after) throws SQLException, IOException {
+        boolean sortedById = sortColumn.columnName.equals(idColumn.columnName);
+        Object sortKey = after == null || sortedById ? null : sortColumn.keyExtractor.apply(after);
+        boolean nullSortKey = after != null && !sortedById && sortColumn.nullable && sortKey == null;
+        String query = pageQuery(ConnectionModel.getInstance().getDialect(), sortColumn, ascending, after != null, nullSortKey);
+
+        PreparedStatement stmt = handle.track(ConnectionModel.getInstance().getConnection().prepareStatement(query));
+        try {
+            int index = 1;
+            for (Object parameter : filterParameters){
+                stmt.setObject(index++, parameter);
+            }
+            if (after != null){
+                if (!sortedById && !nullSortKey){
+                    stmt.setObject(index++, sortKey);
+                    stmt.setObject(index++, sortKey);
+                }
+                stmt.setObject(index++, idColumn.keyExtractor.apply(after));
+            }
+            stmt.setInt(index, PAGE_SIZE);
+            return ResultSetStreams.list(stmt, factory);
+        }
+        finally{
+            stmt.close();
+        }
+    }
+
+    /**
+     * A method that builds the query for a page that comes first or continues after a row whose sort key isn't null.
+     * @see #pageQuery(DatabaseDialect, SortColumn, boolean, boolean, boolean)
+     * */
+    String pageQuery(DatabaseDialect dialect, SortColumn<T> sortColumn, boolean ascending, boolean continuing){
+        return pageQuery(dialect, sortColumn, ascending, continuing, false);
+    }
+
+    /**
+     * A method that builds the query for a page. Its parameters are the filter's parameters, then the sort key and ID of the previous page's
+     * last row if there is one, and then the page size. A null sort key isn't a parameter, because only the ID is compared after it.
+     * @param dialect The dialect of the database, which decides how the page size is limited.
+     * @param sortColumn The column that the rows are ordered by.
+     * @param ascending True if the rows are ordered from the smallest value to the largest.
+     * @param continuing True if the page continues after a row of the previous page, or false for the first page.
+     * @param nullSortKey True if the sort key of the row that the page continues after is null.
+     * @return The query.
+     * */
+    String pageQuery(DatabaseDialect dialect, SortColumn<T> sortColumn, boolean ascending, boolean continuing, boolean nullSortKey){
+        String comparison = ascending ? " > ?" : " < ?";
+        String direction = ascending ? " ASC" : " DESC";
+        boolean sortedById = sortColumn.columnName.equals(idColumn.columnName);
+        StringBuilder query = new StringBuilder(selectQuery);
+        String conjunction = " WHERE ";
+        if (filter != null){
+            query.append(conjunction).append('(').append(filter).append(')');
+            conjunction = " AND ";
+        }
+        if (continuing){
+            query.append(conjunction);
+            if (sortedById){
+                query.append(idColumn.columnName).append(comparison);
+            }
+            else if (sortColumn.nullable && nullSortKey){
+                // The nulls come first, so in ascending order they are followed by every non-null key, and in descending order by nothing else.
+                query.append("((").append(sortColumn.columnName).append(" IS NULL AND ").append(idColumn.columnName).append(comparison).append(')');
+                if (ascending){
+                    query.append(" OR ").append(sortColumn.columnName).append(" IS NOT NULL");
+                }
+                query.append(')');
+            }
+            else{
+                query.append('(').append(sortColumn.columnName).append(comparison)
+                        .append(" OR (").append(sortColumn.columnName).append(" = ? AND ").append(idColumn.columnName).append(comparison).append(')');
+                if (sortColumn.nullable && !ascending){
+                    query.append(" OR ").append(sortColumn.columnName).append(" IS NULL");
+                }
+                query.append(')');
+            }
+        }
+        query.append(" ORDER BY ").append(sortColumn.columnName).append(direction);
+        if (!sortedById){
+            query.append(", ").append(idColumn.columnName).append(direction);
+        }
+        return query.append(dialect.limit()).toString();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.appointment;
 
 import com.example.appointment.controller.LoginController;
+import com.example.appointment.server.ApiServer;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -13,6 +14,11 @@ import java.sql.SQLException;
  * The main class that starts the appointment program and opens the login controller.
  * */
 public class Main extends Application {
+    /**
+     * The HTTP server that is started with the program when the appointment.api.port system property is set, or null if it isn't set.
+     * */
+    private ApiServer apiServer;
+
     /** This method sets the stage for the home page of the application.
      @param stage The primary stage for the application where the main scene can be set.
      @throws IOException If an object that is being called cannot be found.
@@ -28,6 +34,21 @@ public class Main extends Application {
         stage.setScene(scene);
         stage.centerOnScreen();
         stage.show();
+        apiServer = ApiServer.startIfConfigured();
+    }
+
+    /**
+     * This method stops the API server, the appointment alerts and background queries, closes the database connection pool and writes the rest of the audit log when the program exits.
+     * */
+    @Override
+    public void stop() {
+        if (apiServer != null){
+            apiServer.close();
+        }
+        AlertScheduler.getInstance().shutdown();
+        DataAccessExecutor.getInstance().shutdown();
+        ConnectionModel.getInstance().closeConnectionPool();
+        AuditLogger.getInstance().close();
     }
 
     /**
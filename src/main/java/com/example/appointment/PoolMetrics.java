@@ -0,0 +1,112 @@
+package com.example.appointment;
+
+/**
+ * An immutable snapshot of the connection pool's metrics. A new snapshot is created every time the metrics are requested, so the values
+ * never change after the object is created.
+ * */
+public final class PoolMetrics {
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int maximumConnections;
+    private final long borrowCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long timeoutCount;
+    private final long leakCount;
+
+    /**
+     * A constructor that creates a snapshot of the pool metrics.
+     * @param activeConnections The number of connections that are currently borrowed.
+     * @param idleConnections The number of connections that are waiting in the pool.
+     * @param totalConnections The number of physical connections that are currently open.
+     * @param maximumConnections The largest number of connections the pool is allowed to open.
+     * @param borrowCount The number of connections that have been successfully borrowed.
+     * @param totalWaitNanos The total time callers spent waiting to borrow a connection.
+     * @param maxWaitNanos The longest time a single caller spent waiting to borrow a connection.
+     * @param timeoutCount The number of borrow attempts that gave up waiting.
+     * @param leakCount The number of borrowed connections that were held longer than the leak detection threshold.
+     * */
+    public PoolMetrics(int activeConnections, int idleConnections, int totalConnections, int maximumConnections, long borrowCount,
+                       long totalWaitNanos, long maxWaitNanos, long timeoutCount, long leakCount){
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.maximumConnections = maximumConnections;
+        this.borrowCount = borrowCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.timeoutCount = timeoutCount;
+        this.leakCount = leakCount;
+    }
+
+    /**
+     * @return The number of connections that are currently borrowed.
+     * */
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    /**
+     * @return The number of connections that are waiting in the pool.
+     * */
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    /**
+     * @return The number of physical connections that are currently open.
+     * */
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    /**
+     * @return The largest number of connections the pool is allowed to open.
+     * */
+    public int getMaximumConnections() {
+        return maximumConnections;
+    }
+
+    /**
+     * @return The number of connections that have been successfully borrowed.
+     * */
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    /**
+     * @return The average time in milliseconds that a caller waited to borrow a connection.
+     * */
+    public double getAverageWaitMillis() {
+        return borrowCount == 0 ? 0 : (totalWaitNanos / (double) borrowCount) / 1_000_000.0;
+    }
+
+    /**
+     * @return The longest time in milliseconds that a single caller waited to borrow a connection.
+     * */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return The number of borrow attempts that gave up waiting.
+     * */
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    /**
+     * @return The number of borrowed connections that were held longer than the leak detection threshold.
+     * */
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d idle=%d total=%d max=%d borrows=%d avgWaitMs=%.3f maxWaitMs=%.3f timeouts=%d leaks=%d",
+                activeConnections, idleConnections, totalConnections, maximumConnections, borrowCount,
+                getAverageWaitMillis(), getMaxWaitMillis(), timeoutCount, leakCount);
+    }
+}
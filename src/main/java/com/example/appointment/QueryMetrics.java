@@ -0,0 +1,366 @@
+package com.example.appointment;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A Singleton class that collects the latency, row count and error count of every query, grouped by the SQL of the query and the controller method
+ * that prepared it. Every statement created through the ConnectionModel is instrumented, so no call site has to do anything to be measured.
+ * <br>
+ * The caller is found once, when the statement is prepared, by walking the stack for the nearest controller method. A query that runs in a background
+ * task is tagged with the controller method that submitted the task, such as MainController.changeViewByWeek. A query that no controller is waiting
+ * for is tagged with the nearest method outside the data layer instead, such as AlertScheduler.load.
+ * <br>
+ * The metrics can be read through JMX as com.example.appointment:type=QueryMetrics, or dumped as a text table with dump(). Queries slower than the
+ * appointment.audit.slowQueryMillis system property, 1000 milliseconds by default, are also written to the audit log.
+ * */
+public final class QueryMetrics implements QueryMetricsMXBean {
+    private static QueryMetrics INSTANCE;
+    private static final String OBJECT_NAME = "com.example.appointment:type=QueryMetrics";
+    private static final String CONTROLLER_PACKAGE = "com.example.appointment.controller.";
+    private static final String APPLICATION_PACKAGE = "com.example.appointment.";
+    private static final String OVERFLOW_SQL = "(other queries)";
+    private static final String OVERFLOW_CALLER = "(various)";
+    private static final int MAX_STACK_DEPTH = 64;
+    private static final int MAX_TEMPLATES = 1000;
+    private static final int BUCKET_COUNT = 32;
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private final Logger LOGGER = Logger.getLogger(QueryMetrics.class.getName());
+    private final Map<QueryKey, QueryStats> statsByQuery = new ConcurrentHashMap<>();
+    private volatile QueryStats overflowStats = new QueryStats(OVERFLOW_SQL, OVERFLOW_CALLER);
+    private final AtomicLong slowQueryCount = new AtomicLong();
+    private volatile long slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("appointment.audit.slowQueryMillis", 1000));
+
+    /**
+     * A statement that is instrumented by the QueryMetrics. The rows that are read from its ResultSet are added to its query's metrics.
+     * */
+    interface Instrumented {
+        /**
+         * @return The metrics of the query that the statement ran last, or null if it has not run a query.
+         * */
+        QueryStats queryStats();
+    }
+
+    /**
+     * The mutable metrics of one query template from one caller. Every counter can be updated from many threads at once without locking.
+     * */
+    static final class QueryStats {
+        private final String sql;
+        private final String caller;
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKET_COUNT);
+
+        private QueryStats(String sql, String caller){
+            this.sql = sql;
+            this.caller = caller;
+        }
+
+        /**
+         * @return The SQL of the query.
+         * */
+        String getSql(){
+            return sql;
+        }
+
+        /**
+         * @return The class and method that prepared the query.
+         * */
+        String getCaller(){
+            return caller;
+        }
+
+        /**
+         * @param count The number of rows that were read or changed.
+         * */
+        void addRows(long count){
+            rows.add(count);
+        }
+
+        private void record(long elapsedNanos, boolean failed){
+            executions.increment();
+            if (failed){
+                errors.increment();
+            }
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+            histogram.incrementAndGet(Math.min(BUCKET_COUNT - 1, 63 - Long.numberOfLeadingZeros(micros)));
+        }
+
+        private QueryStatistics snapshot(){
+            long[] counts = new long[BUCKET_COUNT];
+            long total = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++){
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+            long maxMicros = TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+            return new QueryStatistics(sql, caller, executions.sum(), errors.sum(), rows.sum(), TimeUnit.NANOSECONDS.toMicros(totalNanos.sum()),
+                    Math.min(maxMicros, percentile(counts, total, 0.50)), Math.min(maxMicros, percentile(counts, total, 0.95)),
+                    Math.min(maxMicros, percentile(counts, total, 0.99)), maxMicros);
+        }
+
+        /**
+         * @return The upper bound, in microseconds, of the bucket that holds the percentile.
+         * */
+        private static long percentile(long[] counts, long total, double fraction){
+            long rank = (long) Math.ceil(total * fraction);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++){
+                seen += counts[i];
+                if (seen >= rank && seen > 0){
+                    return 1L << (i + 1);
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static final class QueryKey {
+        private final String sql;
+        private final String caller;
+
+        private QueryKey(String sql, String caller){
+            this.sql = sql;
+            this.caller = caller;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if (!(o instanceof QueryKey)){
+                return false;
+            }
+            QueryKey other = (QueryKey) o;
+            return sql.equals(other.sql) && caller.equals(other.caller);
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hash(sql, caller);
+        }
+    }
+
+    /**
+     * Constructor that is private so that only one QueryMetrics object is ever created. It registers the object with the platform MBean server.
+     * */
+    private QueryMetrics(){
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        }
+        catch (JMException e){
+            LOGGER.log(Level.WARNING, "The query metrics could not be registered with JMX.", e);
+        }
+    }
+
+    /**
+     * A method that returns the instance of the QueryMetrics. It only creates a new one the first time it is called.
+     * @return The QueryMetrics object.
+     * */
+    public static synchronized QueryMetrics getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new QueryMetrics();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * A method that returns the metrics of a query from a caller, creating them the first time. Once MAX_TEMPLATES queries are tracked,
+     * new queries share one entry, so a caller that builds SQL with literals can't use up the memory.
+     * @param sql The SQL of the query.
+     * @param caller The class and method that prepared the query.
+     * @return The metrics that the query's runs are added to.
+     * */
+    QueryStats statsFor(String sql, String caller){
+        QueryKey key = new QueryKey(sql, caller);
+        QueryStats stats = statsByQuery.get(key);
+        if (stats != null){
+            return stats;
+        }
+        if (statsByQuery.size() >= MAX_TEMPLATES){
+            return overflowStats;
+        }
+        return statsByQuery.computeIfAbsent(key, k -> new QueryStats(k.sql, k.caller));
+    }
+
+    /**
+     * A method that adds one run of a query to its metrics, and writes it to the audit log if it was slow.
+     * @param stats The metrics of the query.
+     * @param elapsedNanos How long the query took, in nanoseconds.
+     * @param failed True if the query threw an exception.
+     * */
+    void recordExecution(QueryStats stats, long elapsedNanos, boolean failed){
+        stats.record(elapsedNanos, failed);
+        if (elapsedNanos >= slowQueryNanos){
+            slowQueryCount.incrementAndGet();
+            AuditLogger.getInstance().slowQuery(stats.sql, stats.caller, elapsedNanos);
+        }
+    }
+
+    /**
+     * A method that counts an error for a statement that could not be prepared, such as one with a syntax error. It never ran, so its time is not recorded.
+     * @param sql The SQL of the statement.
+     * */
+    void prepareFailed(String sql){
+        statsFor(sql, findCaller()).errors.increment();
+    }
+
+    /**
+     * A method that adds the rows that were read from a statement's ResultSet to the metrics of its query. Statements that were not created through
+     * the ConnectionModel are ignored.
+     * @param statement The statement that the rows were read from.
+     * @param rows The number of rows.
+     * */
+    public void rowsRead(Statement statement, long rows){
+        if (statement instanceof Instrumented){
+            QueryStats stats = ((Instrumented) statement).queryStats();
+            if (stats != null){
+                stats.addRows(rows);
+            }
+        }
+    }
+
+    @Override
+    public List<QueryStatistics> getQueryStatistics(){
+        List<QueryStatistics> snapshots = new ArrayList<>(statsByQuery.size() + 1);
+        for (QueryStats stats : statsByQuery.values()){
+            snapshots.add(stats.snapshot());
+        }
+        QueryStatistics overflow = overflowStats.snapshot();
+        if (overflow.getExecutions() > 0){
+            snapshots.add(overflow);
+        }
+        snapshots.sort(Comparator.comparingLong(QueryStatistics::getTotalMicros).reversed());
+        return snapshots;
+    }
+
+    @Override
+    public long getSlowQueryCount(){
+        return slowQueryCount.get();
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis(){
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryNanos);
+    }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long thresholdMillis){
+        slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    @Override
+    public String dump(){
+        StringBuilder table = new StringBuilder(String.format("%-48s %10s %7s %10s %10s %10s %10s %10s  %s%n",
+                "CALLER", "RUNS", "ERRORS", "ROWS", "MEAN ms", "P95 ms", "P99 ms", "MAX ms", "SQL"));
+        for (QueryStatistics stats : getQueryStatistics()){
+            table.append(String.format("%-48s %10d %7d %10d %10.2f %10.2f %10.2f %10.2f  %s%n", stats.getCaller(), stats.getExecutions(),
+                    stats.getErrors(), stats.getRows(), stats.getMeanMicros() / 1000.0, stats.getP95Micros() / 1000.0, stats.getP99Micros() / 1000.0,
+                    stats.getMaxMicros() / 1000.0, stats.getSql()));
+        }
+        return table.toString();
+    }
+
+    @Override
+    public void reset(){
+        statsByQuery.clear();
+        overflowStats = new QueryStats(OVERFLOW_SQL, OVERFLOW_CALLER);
+    }
+
+    /**
+     * A method that finds the method that a statement is being prepared for. It is the nearest controller method on the stack, or if there isn't one,
+     * the nearest method of the program outside the data layer.
+     * @return The simple class name and method name, such as MainController.changeViewByWeek, or "(unknown)".
+     * */
+    static String findCaller(){
+        return STACK_WALKER.walk(frames -> {
+            String nearest = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames.limit(MAX_STACK_DEPTH)::iterator){
+                String className = frame.getClassName();
+                if (className.startsWith(CONTROLLER_PACKAGE)){
+                    return describe(frame);
+                }
+                if (nearest == null && className.startsWith(APPLICATION_PACKAGE) && !isDataLayer(className)){
+                    nearest = describe(frame);
+                }
+            }
+            return nearest == null ? "(unknown)" : nearest;
+        });
+    }
+
+    private static boolean isDataLayer(String className){
+        return className.startsWith(ConnectionModel.class.getName()) || className.startsWith(QueryMetrics.class.getName())
+                || className.startsWith(InstrumentedStatement.class.getName()) || className.startsWith(DataAccessExecutor.class.getName());
+    }
+
+    /**
+     * @return The simple class name and the method name of the frame. A lambda is named after the method it was written in.
+     * */
+    private static String describe(StackWalker.StackFrame frame){
+        String className = frame.getClassName();
+        String methodName = frame.getMethodName();
+        if (methodName.startsWith("lambda$")){
+            int end = methodName.indexOf('$', 7);
+            methodName = methodName.substring(7, end == -1 ? methodName.length() : end);
+        }
+        return className.substring(className.lastIndexOf('.') + 1) + "." + methodName;
+    }
+
+    /**
+     * A method that turns the SQL of a plain statement into a template by replacing its numbers and quoted strings with ?, so that the same query
+     * with different values is counted together.
+     * @param sql The SQL of the statement.
+     * @return The template of the SQL.
+     * */
+    static String normalize(String sql){
+        StringBuilder template = null;
+        int length = sql.length();
+        int copied = 0;
+        int i = 0;
+        while (i < length){
+            char c = sql.charAt(i);
+            int end = -1;
+            if (c == '\''){
+                end = i + 1;
+                while (end < length && !(sql.charAt(end) == '\'' && (end + 1 == length || sql.charAt(end + 1) != '\''))){
+                    end += sql.charAt(end) == '\'' ? 2 : 1;
+                }
+                end = Math.min(length, end + 1);
+            }
+            else if (Character.isDigit(c) && (i == 0 || !Character.isLetterOrDigit(sql.charAt(i - 1)) && sql.charAt(i - 1) != '_')){
+                end = i + 1;
+                while (end < length && (Character.isDigit(sql.charAt(end)) || sql.charAt(end) == '.')){
+                    end++;
+                }
+            }
+            if (end == -1){
+                i++;
+                continue;
+            }
+            if (template == null){
+                template = new StringBuilder(length);
+            }
+            template.append(sql, copied, i).append('?');
+            copied = end;
+            i = end;
+        }
+        return template == null ? sql : template.append(sql, copied, length).toString();
+    }
+}
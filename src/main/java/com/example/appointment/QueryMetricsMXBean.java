@@ -0,0 +1,39 @@
+package com.example.appointment;
+
+import java.util.List;
+
+/**
+ * The JMX interface of the QueryMetrics. It is registered as com.example.appointment:type=QueryMetrics, so the metrics can be read with JConsole or
+ * VisualVM while the program is running.
+ * */
+public interface QueryMetricsMXBean {
+    /**
+     * @return A snapshot of every query template and caller, with the ones that took the most total time first.
+     * */
+    List<QueryStatistics> getQueryStatistics();
+
+    /**
+     * @return The number of queries that took longer than the slow query threshold.
+     * */
+    long getSlowQueryCount();
+
+    /**
+     * @return The time a query has to take to be written to the audit log as a slow query, in milliseconds.
+     * */
+    long getSlowQueryThresholdMillis();
+
+    /**
+     * @param thresholdMillis The time a query has to take to be written to the audit log as a slow query, in milliseconds.
+     * */
+    void setSlowQueryThresholdMillis(long thresholdMillis);
+
+    /**
+     * @return A text table of the metrics, with the queries that took the most total time first.
+     * */
+    String dump();
+
+    /**
+     * Clears the metrics of every query.
+     * */
+    void reset();
+}
@@ -0,0 +1,126 @@
+package com.example.appointment;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * An immutable snapshot of the metrics of one query template from one caller. A new snapshot is created every time the metrics are requested,
+ * so the values never change after the object is created. The percentiles come from a histogram with a bucket for every power of two microseconds,
+ * so each one is the upper bound of its bucket and is at most twice the real value.
+ * */
+public final class QueryStatistics {
+    private final String sql;
+    private final String caller;
+    private final long executions;
+    private final long errors;
+    private final long rows;
+    private final long totalMicros;
+    private final long p50Micros;
+    private final long p95Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+
+    /**
+     * A constructor that creates a snapshot of a query's metrics.
+     * @param sql The SQL of the query, with the literals of a plain statement replaced by ?.
+     * @param caller The class and method that prepared the query, such as MainController.changeViewByWeek.
+     * @param executions The number of times the query was run.
+     * @param errors The number of times the query failed.
+     * @param rows The number of rows the query returned or changed.
+     * @param totalMicros The total time spent running the query.
+     * @param p50Micros The median time the query took.
+     * @param p95Micros The time that 95% of the runs took at most.
+     * @param p99Micros The time that 99% of the runs took at most.
+     * @param maxMicros The longest time the query took.
+     * */
+    @ConstructorProperties({"sql", "caller", "executions", "errors", "rows", "totalMicros", "p50Micros", "p95Micros", "p99Micros", "maxMicros"})
+    public QueryStatistics(String sql, String caller, long executions, long errors, long rows, long totalMicros, long p50Micros, long p95Micros,
+                           long p99Micros, long maxMicros){
+        this.sql = sql;
+        this.caller = caller;
+        this.executions = executions;
+        this.errors = errors;
+        this.rows = rows;
+        this.totalMicros = totalMicros;
+        this.p50Micros = p50Micros;
+        this.p95Micros = p95Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    /**
+     * @return The SQL of the query, with the literals of a plain statement replaced by ?.
+     * */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return The class and method that prepared the query, such as MainController.changeViewByWeek.
+     * */
+    public String getCaller() {
+        return caller;
+    }
+
+    /**
+     * @return The number of times the query was run.
+     * */
+    public long getExecutions() {
+        return executions;
+    }
+
+    /**
+     * @return The number of times the query failed.
+     * */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return The number of rows the query returned or changed. Returned rows are only counted when they are read through ResultSetStreams or a report.
+     * */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return The total time spent running the query, in microseconds.
+     * */
+    public long getTotalMicros() {
+        return totalMicros;
+    }
+
+    /**
+     * @return The average time the query took, in microseconds.
+     * */
+    public long getMeanMicros() {
+        return executions == 0 ? 0 : totalMicros / executions;
+    }
+
+    /**
+     * @return The median time the query took, in microseconds.
+     * */
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    /**
+     * @return The time that 95% of the runs took at most, in microseconds.
+     * */
+    public long getP95Micros() {
+        return p95Micros;
+    }
+
+    /**
+     * @return The time that 99% of the runs took at most, in microseconds.
+     * */
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    /**
+     * @return The longest time the query took, in microseconds.
+     * */
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+}
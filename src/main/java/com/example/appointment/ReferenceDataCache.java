@@ -0,0 +1,276 @@
+package com.example.appointment;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Singleton class that caches the lookup tables that the scenes fill their ComboBoxes and columns from: the countries, the divisions,
+ * the contact, customer and user IDs, and the appointment types. Each table is loaded the first time it is needed and then kept until it
+ * is older than the time to live, or until it is invalidated because the program changed it.
+ * <br>
+ * Every division of every country is loaded with one query, so changing the country in the customer scenes never has to go back to the database.
+ * The values that are returned are unmodifiable, so a caller that needs to sort a list has to copy it first. The contact, customer and user IDs
+ * are kept as IntIdSets, so checking whether an ID exists doesn't box it or scan a list.
+ * */
+public final class ReferenceDataCache {
+    /**
+     * The system property that sets how many seconds a table is cached before it is loaded again.
+     * */
+    public static final String TTL_PROPERTY = "appointment.referenceData.ttlSeconds";
+    private static ReferenceDataCache INSTANCE;
+    private final long timeToLive = TimeUnit.SECONDS.toNanos(Long.getLong(TTL_PROPERTY, 300));
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final Map<Table, CachedTable<?>> tables = new EnumMap<>(Table.class);
+    private final CachedTable<Map<Integer, String>> countries = cache(Table.COUNTRIES, () ->
+            loadMap("SELECT Country_ID, Country FROM COUNTRIES"));
+    private final CachedTable<Divisions> divisions = cache(Table.DIVISIONS, this::loadDivisions);
+    private final CachedTable<IntIdSet> contactIds = cache(Table.CONTACTS, () ->
+            loadIds("SELECT Contact_ID FROM CONTACTS"));
+    private final CachedTable<IntIdSet> customerIds = cache(Table.CUSTOMERS, () ->
+            loadIds("SELECT Customer_ID FROM CUSTOMERS"));
+    private final CachedTable<IntIdSet> userIds = cache(Table.USERS, () ->
+            loadIds("SELECT User_ID FROM USERS"));
+    private final CachedTable<List<String>> appointmentTypes = cache(Table.APPOINTMENT_TYPES, () ->
+            loadList("SELECT DISTINCT Type FROM APPOINTMENTS ORDER BY Type", RowMapper.positional(rs -> rs.getString(1))));
+
+    /**
+     * The lookup tables that are cached. These are used to invalidate a table after the program changes it.
+     * */
+    public enum Table {
+        COUNTRIES,
+        DIVISIONS,
+        CONTACTS,
+        CUSTOMERS,
+        USERS,
+        APPOINTMENT_TYPES
+    }
+
+    /**
+     * The loaded value of one table, and the time it was loaded.
+     * */
+    private final class CachedTable<T> {
+        private final Loader<T> loader;
+        private T value;
+        private long loadedAt;
+
+        private CachedTable(Loader<T> loader){
+            this.loader = loader;
+        }
+
+        private synchronized T get() throws SQLException, IOException {
+            long now = System.nanoTime();
+            if (value != null && now - loadedAt < timeToLive){
+                hitCount.incrementAndGet();
+                return value;
+            }
+            missCount.incrementAndGet();
+            value = loader.load();
+            loadedAt = now;
+            return value;
+        }
+
+        private synchronized void invalidate(){
+            value = null;
+        }
+    }
+
+    /**
+     * The query that loads a table.
+     * */
+    @FunctionalInterface
+    private interface Loader<T> {
+        T load() throws SQLException, IOException;
+    }
+
+    /**
+     * Every division, indexed by its ID and by its country.
+     * */
+    private static final class Divisions {
+        private final Map<Integer, String> names = new HashMap<>();
+        private final Map<Integer, Integer> countryIds = new HashMap<>();
+        private final Map<Integer, Map<Integer, String>> namesByCountry = new HashMap<>();
+    }
+
+    /**
+     * Constructor that is private so that only one ReferenceDataCache object is ever created.
+     * */
+    private ReferenceDataCache(){
+    }
+
+    /**
+     * A method that returns the instance of the ReferenceDataCache. It only creates a new one the first time it is called.
+     * @return The ReferenceDataCache object.
+     * */
+    public static synchronized ReferenceDataCache getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new ReferenceDataCache();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * @return A map of every country ID to the name of the country.
+     * @throws SQLException If the countries have to be loaded and a SQL database error occurs.
+     * @throws IOException If the countries have to be loaded and the connection cannot be accessed.
+     * */
+    public Map<Integer, String> getCountries() throws SQLException, IOException {
+        return countries.get();
+    }
+
+    /**
+     * @return A map of every division ID to the name of the division.
+     * @throws SQLException If the divisions have to be loaded and a SQL database error occurs.
+     * @throws IOException If the divisions have to be loaded and the connection cannot be accessed.
+     * */
+    public Map<Integer, String> getDivisionNames() throws SQLException, IOException {
+        return Collections.unmodifiableMap(divisions.get().names);
+    }
+
+    /**
+     * @param countryId The ID of the country.
+     * @return A map of the ID to the name of every division in the country. The map is empty if the country has no divisions.
+     * @throws SQLException If the divisions have to be loaded and a SQL database error occurs.
+     * @throws IOException If the divisions have to be loaded and the connection cannot be accessed.
+     * */
+    public Map<Integer, String> getDivisions(int countryId) throws SQLException, IOException {
+        return divisions.get().namesByCountry.getOrDefault(countryId, Map.of());
+    }
+
+    /**
+     * @param divisionId The ID of the division.
+     * @return The ID of the country that the division is in, or null if there is no division with that ID.
+     * @throws SQLException If the divisions have to be loaded and a SQL database error occurs.
+     * @throws IOException If the divisions have to be loaded and the connection cannot be accessed.
+     * */
+    public Integer getCountryId(int divisionId) throws SQLException, IOException {
+        return divisions.get().countryIds.get(divisionId);
+    }
+
+    /**
+     * @return Every contact ID, in numerical order.
+     * @throws SQLException If the contacts have to be loaded and a SQL database error occurs.
+     * @throws IOException If the contacts have to be loaded and the connection cannot be accessed.
+     * */
+    public IntIdSet getContactIds() throws SQLException, IOException {
+        return contactIds.get();
+    }
+
+    /**
+     * @return Every customer ID, in numerical order.
+     * @throws SQLException If the customers have to be loaded and a SQL database error occurs.
+     * @throws IOException If the customers have to be loaded and the connection cannot be accessed.
+     * */
+    public IntIdSet getCustomerIds() throws SQLException, IOException {
+        return customerIds.get();
+    }
+
+    /**
+     * @return Every user ID, in numerical order.
+     * @throws SQLException If the users have to be loaded and a SQL database error occurs.
+     * @throws IOException If the users have to be loaded and the connection cannot be accessed.
+     * */
+    public IntIdSet getUserIds() throws SQLException, IOException {
+        return userIds.get();
+    }
+
+    /**
+     * @return Every appointment type that is in use, in alphabetical order.
+     * @throws SQLException If the types have to be loaded and a SQL database error occurs.
+     * @throws IOException If the types have to be loaded and the connection cannot be accessed.
+     * */
+    public List<String> getAppointmentTypes() throws SQLException, IOException {
+        return appointmentTypes.get();
+    }
+
+    /**
+     * A method that drops a cached table so that it is loaded again the next time it is needed. This is called after the program changes the table.
+     * @param table The table that changed.
+     * */
+    public void invalidate(Table table){
+        tables.get(table).invalidate();
+    }
+
+    /**
+     * Drops every cached table. This is called when the program connects to a different database.
+     * */
+    public void invalidateAll(){
+        tables.values().forEach(CachedTable::invalidate);
+    }
+
+    /**
+     * @return The number of times a table was returned from the cache without querying the database.
+     * */
+    public long getHitCount(){
+        return hitCount.get();
+    }
+
+    /**
+     * @return The number of times a table had to be loaded from the database, because it wasn't cached or had expired.
+     * */
+    public long getMissCount(){
+        return missCount.get();
+    }
+
+    private <T> CachedTable<T> cache(Table table, Loader<T> loader){
+        CachedTable<T> cachedTable = new CachedTable<>(loader);
+        tables.put(table, cachedTable);
+        return cachedTable;
+    }
+
+    private static <T> List<T> loadList(String query, RowMapper.Factory<T> factory) throws SQLException, IOException {
+        try (PreparedStatement stmt = ConnectionModel.getInstance().getConnection().prepareStatement(query)){
+            return List.copyOf(ResultSetStreams.list(stmt, factory));
+        }
+    }
+
+    private static IntIdSet loadIds(String query) throws SQLException, IOException {
+        int[] ids = new int[64];
+        int count = 0;
+        try (PreparedStatement stmt = ConnectionModel.getInstance().getConnection().prepareStatement(query)){
+            stmt.setFetchSize(ResultSetStreams.getFetchSize());
+            try (ResultSet rs = stmt.executeQuery()){
+                while (rs.next()){
+                    if (count == ids.length){
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    ids[count++] = rs.getInt(1);
+                }
+            }
+            QueryMetrics.getInstance().rowsRead(stmt, count);
+        }
+        return IntIdSet.ofOwned(ids, count);
+    }
+
+    private static Map<Integer, String> loadMap(String query) throws SQLException, IOException {
+        try (PreparedStatement stmt = ConnectionModel.getInstance().getConnection().prepareStatement(query)){
+            return Collections.unmodifiableMap(ResultSetStreams.map(stmt, rs -> rs.getInt(1), rs -> rs.getString(2)));
+        }
+    }
+
+    private Divisions loadDivisions() throws SQLException, IOException {
+        Divisions loaded = new Divisions();
+        String query = "SELECT Division_ID, Division, Country_ID FROM FIRST_LEVEL_DIVISIONS";
+        try (PreparedStatement stmt = ConnectionModel.getInstance().getConnection().prepareStatement(query)){
+            stmt.setFetchSize(ResultSetStreams.getFetchSize());
+            try (ResultSet rs = stmt.executeQuery()){
+                while (rs.next()){
+                    int divisionId = rs.getInt(1);
+                    String division = rs.getString(2);
+                    int countryId = rs.getInt(3);
+                    loaded.names.put(divisionId, division);
+                    loaded.countryIds.put(divisionId, countryId);
+                    loaded.namesByCountry.computeIfAbsent(countryId, id -> new HashMap<>()).put(divisionId, division);
+                }
+            }
+            QueryMetrics.getInstance().rowsRead(stmt, loaded.names.size());
+        }
+        loaded.namesByCountry.replaceAll((countryId, names) -> Collections.unmodifiableMap(names));
+        return loaded;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.appointment;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Year;
+import java.util.LinkedHashMap;
+
+/**
+ * A utility class that computes the totals for the Total Customers reports in the database. Each report is one GROUP BY query that returns a single
+ * row per value, so the totals never require loading the customers themselves. The customer rows are only loaded by the report controllers
+ * when the user asks to see them.
+ * */
+public final class ReportEngine {
+
+    /**
+     * Constructor that is private because this class only has static methods.
+     * */
+    private ReportEngine(){
+    }
+
+    /**
+     * A method that counts the customers that have at least one appointment of each type.
+     * @param handle The handle of the background task, so that the query can be cancelled.
+     * @return The number of distinct customers for each appointment type, in alphabetical order of the type.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection cannot be accessed.
+     * */
+    public static ReportSummary<String> customersByType(DataAccessExecutor.QueryHandle handle) throws SQLException, IOException {
+        String query = "SELECT Type, COUNT(DISTINCT Customer_ID) FROM APPOINTMENTS GROUP BY Type ORDER BY Type";
+        PreparedStatement stmt = handle.track(ConnectionModel.getInstance().getConnection().prepareStatement(query));
+        return summarize(stmt, rs -> rs.getString(1));
+    }
+
+    /**
+     * A method that counts the customers that have at least one appointment with the user in each month of the year.
+     * @param handle The handle of the background task, so that the query can be cancelled.
+     * @param userId The ID of the user whose appointments are counted.
+     * @param year The year that the months are in.
+     * @return The number of distinct customers for each month, where January is 1. Months without appointments are left out.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection cannot be accessed.
+     * */
+    public static ReportSummary<Integer> customersByMonth(DataAccessExecutor.QueryHandle handle, int userId, Year year) throws SQLException, IOException {
+        String month = ConnectionModel.getInstance().getDialect().monthOf("Start");
+        String query = "SELECT " + month + ", COUNT(DISTINCT Customer_ID) FROM APPOINTMENTS WHERE User_ID = ? AND Start >= ? AND Start < ? "
+                + "GROUP BY " + month + " ORDER BY " + month;
+        PreparedStatement stmt = handle.track(ConnectionModel.getInstance().getConnection().prepareStatement(query));
+        stmt.setInt(1, userId);
+        DateRange.ofYear(year).bind(stmt, 2);
+        return summarize(stmt, rs -> rs.getInt(1));
+    }
+
+    /**
+     * A method that counts the customers in each country.
+     * @param handle The handle of the background task, so that the query can be cancelled.
+     * @return The number of customers for each country ID. Countries without customers are left out.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection cannot be accessed.
+     * */
+    public static ReportSummary<Integer> customersByCountry(DataAccessExecutor.QueryHandle handle) throws SQLException, IOException {
+        String query = "SELECT FIRST_LEVEL_DIVISIONS.Country_ID, COUNT(*) FROM CUSTOMERS "
+                + "JOIN FIRST_LEVEL_DIVISIONS ON CUSTOMERS.Division_ID = FIRST_LEVEL_DIVISIONS.Division_ID "
+                + "GROUP BY FIRST_LEVEL_DIVISIONS.Country_ID ORDER BY FIRST_LEVEL_DIVISIONS.Country_ID";
+        PreparedStatement stmt = handle.track(ConnectionModel.getInstance().getConnection().prepareStatement(query));
+        return summarize(stmt, rs -> rs.getInt(1));
+    }
+
+    /**
+     * Runs a query whose first column is the value and second column is the total, and closes the statement.
+     * */
+    private static <K> ReportSummary<K> summarize(PreparedStatement stmt, RowMapper<K> keyMapper) throws SQLException {
+        LinkedHashMap<K, Integer> totals = new LinkedHashMap<>();
+        try (stmt; ResultSet rs = stmt.executeQuery()){
+            while (rs.next()){
+                totals.put(keyMapper.mapRow(rs), rs.getInt(2));
+            }
+            QueryMetrics.getInstance().rowsRead(stmt, totals.size());
+        }
+        return new ReportSummary<>(totals);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.appointment;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The result of a summary report: the number of customers for each value of the report, such as each appointment type or each country.
+ * It holds only the totals, so a report can be displayed without loading any customer rows.
+ * @param <K> The type of the values that the customers are grouped by.
+ * */
+public final class ReportSummary<K> {
+    private final Map<K, Integer> totals;
+
+    /**
+     * Constructor for a ReportSummary.
+     * @param totals The number of customers for each value, in the order the values should be listed.
+     * */
+    ReportSummary(LinkedHashMap<K, Integer> totals){
+        this.totals = Collections.unmodifiableMap(totals);
+    }
+
+    /**
+     * @param key The value that the customers are grouped by.
+     * @return The number of customers for the value, or 0 if no customers have it.
+     * */
+    public int getTotal(K key){
+        return totals.getOrDefault(key, 0);
+    }
+
+    /**
+     * @return Every value that at least one customer has, in the order of the report.
+     * */
+    public Set<K> getKeys(){
+        return totals.keySet();
+    }
+
+    /**
+     * @return The number of customers for each value.
+     * */
+    public Map<K, Integer> getTotals(){
+        return totals;
+    }
+}
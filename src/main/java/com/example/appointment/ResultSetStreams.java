@@ -0,0 +1,162 @@
+package com.example.appointment;
+
+import com.example.appointment.exceptions.UncheckedSQLException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A utility class that runs a query and reads the forward-only ResultSet straight into objects with a RowMapper.
+ * The rows are read once and never copied into a CachedRowSet, so a large table is only held in memory one time.
+ * <br>
+ * The list, forEach and map methods close the ResultSet they open, but leave the statement to the caller, the same way the
+ * controllers already close their statements with closeSQLObjects(). The stream method closes both when the stream is closed.
+ * */
+public final class ResultSetStreams {
+    /**
+     * The system property that sets the number of rows the driver should fetch at a time. MySQL only honours it when the URL has useCursorFetch=true.
+     * */
+    public static final String FETCH_SIZE_PROPERTY = "appointment.jdbc.fetchSize";
+    private static volatile int fetchSize = Integer.getInteger(FETCH_SIZE_PROPERTY, 500);
+
+    /**
+     * Constructor that is private because this class only has static methods.
+     * */
+    private ResultSetStreams(){
+    }
+
+    /**
+     * @return The number of rows the driver is asked to fetch at a time.
+     * */
+    public static int getFetchSize(){
+        return fetchSize;
+    }
+
+    /**
+     * A method that changes the number of rows the driver is asked to fetch at a time. A value of 0 lets the driver decide.
+     * @param newFetchSize The number of rows to fetch at a time.
+     * */
+    public static void setFetchSize(int newFetchSize){
+        if (newFetchSize < 0){
+            throw new IllegalArgumentException("The fetch size cannot be negative.");
+        }
+        fetchSize = newFetchSize;
+    }
+
+    /**
+     * A method that runs the query and returns every row as an object.
+     * @param stmt The statement that will be run. It is not closed by this method.
+     * @param factory The factory that creates the mapper for the ResultSet.
+     * @param <T> The type of object that each row is turned into.
+     * @return A list with one object for every row.
+     * @throws SQLException If a SQL database error occurs.
+     * */
+    public static <T> List<T> list(PreparedStatement stmt, RowMapper.Factory<T> factory) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        forEach(stmt, factory, rows::add);
+        return rows;
+    }
+
+    /**
+     * A method that runs the query and passes each row to the callback as soon as it is read, so the rows never have to be held in a list.
+     * @param stmt The statement that will be run. It is not closed by this method.
+     * @param factory The factory that creates the mapper for the ResultSet.
+     * @param callback The callback that receives each row.
+     * @param <T> The type of object that each row is turned into.
+     * @throws SQLException If a SQL database error occurs.
+     * */
+    public static <T> void forEach(PreparedStatement stmt, RowMapper.Factory<T> factory, Consumer<? super T> callback) throws SQLException {
+        stmt.setFetchSize(fetchSize);
+        long rows = 0;
+        try (ResultSet rs = stmt.executeQuery()){
+            RowMapper<T> mapper = factory.create(rs);
+            while (rs.next()){
+                callback.accept(mapper.mapRow(rs));
+                rows++;
+            }
+        }
+        finally{
+            QueryMetrics.getInstance().rowsRead(stmt, rows);
+        }
+    }
+
+    /**
+     * A method that runs a query that returns two columns, and puts them into a HashMap. This is used for the ID and name lookups
+     * such as countries and divisions.
+     * @param stmt The statement that will be run. It is not closed by this method.
+     * @param keyMapper The mapper that reads the key from each row.
+     * @param valueMapper The mapper that reads the value from each row.
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     * @return A HashMap with an entry for every row.
+     * @throws SQLException If a SQL database error occurs.
+     * */
+    public static <K, V> HashMap<K, V> map(PreparedStatement stmt, RowMapper<K> keyMapper, RowMapper<V> valueMapper) throws SQLException {
+        HashMap<K, V> rows = new HashMap<>();
+        stmt.setFetchSize(fetchSize);
+        try (ResultSet rs = stmt.executeQuery()){
+            while (rs.next()){
+                rows.put(keyMapper.mapRow(rs), valueMapper.mapRow(rs));
+            }
+        }
+        QueryMetrics.getInstance().rowsRead(stmt, rows.size());
+        return rows;
+    }
+
+    /**
+     * A method that runs the query and returns a lazy Stream of the rows. The rows are only read from the database as the stream is consumed.
+     * The stream must be closed, preferably with a try-with-resources block, which closes both the ResultSet and the statement.
+     * A SQL error while reading is thrown as an UncheckedSQLException.
+     * @param stmt The statement that will be run. It is closed when the stream is closed.
+     * @param factory The factory that creates the mapper for the ResultSet.
+     * @param <T> The type of object that each row is turned into.
+     * @return A Stream of the rows.
+     * @throws SQLException If the query cannot be run.
+     * */
+    public static <T> Stream<T> stream(PreparedStatement stmt, RowMapper.Factory<T> factory) throws SQLException {
+        stmt.setFetchSize(fetchSize);
+        ResultSet rs = stmt.executeQuery();
+        RowMapper<T> mapper;
+        try {
+            mapper = factory.create(rs);
+        }
+        catch (SQLException e){
+            rs.close();
+            throw e;
+        }
+        long[] rows = new long[1];
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!rs.next()){
+                        return false;
+                    }
+                    action.accept(mapper.mapRow(rs));
+                    rows[0]++;
+                    return true;
+                }
+                catch (SQLException e){
+                    throw new UncheckedSQLException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            QueryMetrics.getInstance().rowsRead(stmt, rows[0]);
+            try (stmt; rs){
+                // Closing the ResultSet and then the statement is all that needs to happen here.
+            }
+            catch (SQLException e){
+                throw new UncheckedSQLException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.appointment;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * An interface for the classes that turn the current row of a ResultSet into an object. The mapper reads the forward-only ResultSet directly,
+ * so the rows never have to be copied into a CachedRowSet first.
+ * @param <T> The type of object that each row is turned into.
+ * */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * A factory that creates a RowMapper for a specific ResultSet. This gives the mapper a chance to look up its column indexes once,
+     * instead of looking up every column by name on every row.
+     * @param <T> The type of object that each row is turned into.
+     * */
+    @FunctionalInterface
+    interface Factory<T> {
+        /**
+         * @param rs The ResultSet that the mapper will read.
+         * @return A RowMapper that is ready to read the ResultSet.
+         * @throws SQLException If a column the mapper needs is missing from the ResultSet.
+         * */
+        RowMapper<T> create(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * A method that turns the current row of the ResultSet into an object. It should not move the cursor.
+     * @param rs The ResultSet that is positioned on the row that will be read.
+     * @return The object that was created from the row.
+     * @throws SQLException If a SQL database error occurs.
+     * */
+    T mapRow(ResultSet rs) throws SQLException;
+
+    /**
+     * A method that creates a factory for a mapper that reads its columns by position, so it doesn't need to look up any column indexes.
+     * @param mapper The mapper that reads the row.
+     * @param <T> The type of object that each row is turned into.
+     * @return A factory that returns the same mapper for every ResultSet.
+     * */
+    static <T> Factory<T> positional(RowMapper<T> mapper){
+        return rs -> mapper;
+    }
+}
@@ -4,24 +4,15 @@ import com.example.appointment.Appointment;
 import com.example.appointment.ConnectionModel;
 import com.example.appointment.exceptions.AppointmentDateException;
 import com.example.appointment.exceptions.AppointmentEndTimeException;
+import com.example.appointment.exceptions.InvalidAppointmentException;
 import com.example.appointment.exceptions.SQLConnectionDroppedException;
+import com.example.appointment.service.AppointmentService;
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.stage.Stage;
 
-import javax.sql.rowset.CachedRowSet;
-import javax.sql.rowset.RowSetProvider;
 import java.io.IOException;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.*;
 import java.util.*;
@@ -43,6 +34,8 @@ public class AddAppointmentController extends Controller implements AppointmentD
     @FXML
     private Button cancelButton;
     @FXML
+    private Button saveButton;
+    @FXML
     private ComboBox<Integer> contactIdComboBox;
     @FXML
     private ComboBox<Integer> customerIdComboBox;
@@ -80,9 +73,14 @@ public class AddAppointmentController extends Controller implements AppointmentD
     private Label userIdComboBoxErrorLabel;
 
     /**
-     * The ID for this appointment. The value is always last ID value in the database +1.
+     * The ID for this appointment. It is null for a new appointment, because the database generates the ID when the appointment is saved.
      * */
     protected Integer appointmentId = null;
+    /**
+     * The ID that a new appointment has until the database generates its real ID. No appointment in the database has this ID,
+     * so the overlap check doesn't exclude any existing appointment.
+     * */
+    protected static final int NEW_APPOINTMENT_ID = -1;
     /**
      * The start date for this appointment. The value is selected by the user using a DatePicker.
      * */
@@ -105,37 +103,18 @@ public class AddAppointmentController extends Controller implements AppointmentD
     protected ZoneId businessZoneId = ZoneId.of("America/New_York");
 
     /**
-     * A method that retrieves the appointment ID value from the database. The user does not set the appointment ID,
-     * it is generated automatically by the program so that if they are 25 items in the database the next item will be #26.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
+     * A method that shows the appointment ID. A new appointment doesn't have an ID until it is saved, because the database generates it
+     * when the row is inserted, so the TextField is left empty and shows its prompt text. This means that two users adding an appointment
+     * at the same time can never be given the same ID.
      * */
     @FXML
-    protected void setAppointmentId() throws SQLConnectionDroppedException {
+    protected void setAppointmentId() {
         if (appointmentId == null) {
-            PreparedStatement stmt = null;
-            ResultSet rs = null;
-            CachedRowSet crs = null;
-            ArrayList<Integer> appointmentIdList = new ArrayList<>();
-            try {
-                String query = "SELECT Appointment_ID FROM APPOINTMENTS";
-                stmt = ConnectionModel.getInstance().getConnection().prepareStatement(query);
-                rs = stmt.executeQuery();
-                crs = RowSetProvider.newFactory().createCachedRowSet();
-                crs.populate(rs);
-                while (crs.next()) {
-                    appointmentIdList.add(crs.getInt(1));
-                }
-                Collections.sort(appointmentIdList);
-                Collections.reverse(appointmentIdList);
-                appointmentId = (appointmentIdList.get(0) + 1);
-
-            } catch (SQLException | IOException e) {
-                CONNECTION_MODEL.SQLAlert();
-            } finally {
-                closeSQLObjects(stmt, rs, crs);
-            }
+            appointmentIdTextField.clear();
+        }
+        else {
+            appointmentIdTextField.setText(String.valueOf(appointmentId));
         }
-        appointmentIdTextField.setText(String.valueOf(appointmentId));
     }
 
     /**
@@ -160,41 +139,36 @@ public class AddAppointmentController extends Controller implements AppointmentD
 
     /**
      * A method that loads the contact ID ComboBox with values from the database.
-     * After the ComboBox gets it values from the setComboBoxValidation method it sorts the values in numerical order.
+     * The IDs are already in numerical order, and the ComboBox reads them from the IntIdSet without copying them.
      * @throws SQLException If a SQL database error occurs.
      * @throws IOException If an input/output error occurs.
      * */
     @FXML
     protected void setContactIdComboBox() throws SQLException, IOException {
-        ObservableList<Integer> observableContactIds = FXCollections.observableList(getContactIdList());
-        this.setIntegerComboBoxValidation(contactIdComboBox, observableContactIds);
-        Collections.sort(observableContactIds);
+        this.setIntegerComboBoxValidation(contactIdComboBox, getContactIdList());
     }
 
     /**
      * A method that loads the customer ID ComboBox with values from the database.
-     * After the ComboBox gets it values from the setComboBoxValidation method it sorts the values in numerical order.
+     * The IDs are already in numerical order, and the ComboBox reads them from the IntIdSet without copying them.
+     * A customer can also be picked by typing part of their name, address, postal code or phone number, which is searched by the CustomerTypeAhead.
      * @throws SQLException If a SQL database error occurs.
      * @throws IOException If an input/output error occurs.
      * */
     @FXML
     protected void setCustomerIdComboBox() throws SQLException, IOException {
-        ObservableList<Integer> observableCustomerIds = FXCollections.observableList(getCustomerIdList());
-        this.setIntegerComboBoxValidation(customerIdComboBox, observableCustomerIds);
-        Collections.sort(observableCustomerIds);
+        CustomerTypeAhead.install(customerIdComboBox, getCustomerIdList(), throwable -> handleDataAccessFailure(customerIdComboBox, throwable));
     }
 
     /**
      * A method that loads the user ID ComboBox with values from the database.
-     * After the ComboBox gets it values from the setComboBoxValidation method it sorts the values in numerical order.
+     * The IDs are already in numerical order, and the ComboBox reads them from the IntIdSet without copying them.
      * @throws SQLException If a SQL database error occurs.
      * @throws IOException If an input/output error occurs.
      * */
     @FXML
     protected void setUserIdComboBox() throws SQLException, IOException {
-        ObservableList<Integer> observableUserIds = FXCollections.observableList(getUserIdList());
-        this.setIntegerComboBoxValidation(userIdComboBox, observableUserIds);
-        Collections.sort(observableUserIds);
+        this.setIntegerComboBoxValidation(userIdComboBox, getUserIdList());
     }
 
     /**
@@ -255,19 +229,14 @@ public class AddAppointmentController extends Controller implements AppointmentD
     /**
      * A method that sets up the business hours for the start time and end time values to be checked against.
      * Regular business hours are from 0800 to 2200 Eastern Standard Time.
-     * It works by getting whatever the date the user selects and then calculating back from there. This enables it to be accurate even with time zones
-     * that can start the day after eastern standard time.
+     * It works by converting the time the user selects to eastern standard time and taking the business hours of that day. This enables it to be accurate even with time zones
+     * that can start the day after eastern standard time. The AppointmentService checks the same hours again when the appointment is saved.
+     * @see AppointmentService#isWithinBusinessHours(ZonedDateTime, ZonedDateTime)
      * */
     @FXML
     protected void setBusinessTimes(ZonedDateTime userZoneDateTime){
-        zonedBusinessStartTime = ZonedDateTime.ofInstant(userZoneDateTime.toInstant(), businessZoneId);
-        while (zonedBusinessStartTime.getHour() != 8){
-            zonedBusinessStartTime = zonedBusinessStartTime.minusHours(1);
-        }
-        while(zonedBusinessStartTime.getMinute() != 0) {
-            zonedBusinessStartTime = zonedBusinessStartTime.minusMinutes(1);
-        }
-        zonedBusinessEndTime = zonedBusinessStartTime.plusHours(14);
+        zonedBusinessStartTime = AppointmentService.getBusinessOpen(userZoneDateTime);
+        zonedBusinessEndTime = AppointmentService.getBusinessClose(userZoneDateTime);
     }
 
     /**
@@ -304,6 +273,7 @@ public class AddAppointmentController extends Controller implements AppointmentD
      *     If the values are not null, then the method goes on to the next step.
      * <br>
      *     After the data has been validated then an appointment object will be created that will get passed into the add appointment method where it will get added to the database.
+     *     The customer's other appointments are checked for overlaps by the AppointmentService while it saves the appointment.
      * @param event Passes in that the save button was pressed.
      * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * */
@@ -446,69 +416,57 @@ public class AddAppointmentController extends Controller implements AppointmentD
                 addListenerToLabel(endTimeHourTimeSpinner, endTimeErrorLabel);
                 throw new AppointmentDateException();
             }
-
-            List<Appointment> overlappingAppointments = isAppointmentOverlapping(appointmentCustomerId, zonedStartDateTime, zonedEndDateTime, appointmentId);
-            if (!overlappingAppointments.isEmpty()){
-                appointmentOverlapAlert(overlappingAppointments);
-                throw new AppointmentDateException();
-            }
         }
         catch (AppointmentDateException e){
             errorFlag = true;
         }
-
-        catch (SQLException | IOException e){
-            throw new SQLConnectionDroppedException();
-        }
         if (errorFlag){
             return;
         }
-        try{
-            Appointment appointment = new Appointment(appointmentId, appointmentTitle, appointmentDescription, appointmentLocation,
-                    appointmentContactId, appointmentType, zonedStartDateTime, zonedEndDateTime, appointmentCustomerId, appointmentUserId);
-            addAppointment(appointment);
-        }
-        catch (SQLConnectionDroppedException e){
-            changeSceneToLoginController(event);
-        }
+        Appointment appointment = new Appointment(NEW_APPOINTMENT_ID, appointmentTitle, appointmentDescription, appointmentLocation,
+                appointmentContactId, appointmentType, zonedStartDateTime, zonedEndDateTime, appointmentCustomerId, appointmentUserId);
+        addAppointment(appointment);
     }
 
     /**
      * A method that takes an Appointment object that is created in the saveAppointment() method and then passes the object into the database.
-     * After the object has been successfully added to the database it shows an alert message to the user.
+     * The AppointmentService checks the appointment and saves it on a background thread. After the object has been successfully added to the database
+     * it shows an alert message to the user.
      * @param appointment A passed in appointment to be added to the database.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * */
-    public void addAppointment(Appointment appointment) throws SQLConnectionDroppedException {
-        try{
-            String sqlCommand = "INSERT INTO APPOINTMENTS VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-            PreparedStatement stmt = CONNECTION_MODEL.getConnection().prepareStatement(sqlCommand);
-
-            stmt.setInt(1, appointment.getAppointmentID());
-            stmt.setString(2, appointment.getTitle());
-            stmt.setString(3, appointment.getDescription());
-            stmt.setString(4, appointment.getLocation());
-            stmt.setString(5, appointment.getType());
-            stmt.setObject(6, LocalDateTime.ofInstant(appointment.getStartDate().toInstant(), businessZoneId));
-            stmt.setObject(7, LocalDateTime.ofInstant(appointment.getEndDate().toInstant(), businessZoneId));
-            stmt.setObject(8, ZonedDateTime.now());
-            stmt.setString(9, CONNECTION_MODEL.getCurrentUsername());
-            stmt.setObject(10, ZonedDateTime.now());
-            stmt.setString(11, CONNECTION_MODEL.getCurrentUsername());
-            stmt.setInt(12, appointment.getCustomerID());
-            stmt.setInt(13, appointment.getUserID());
-            stmt.setInt(14, appointment.getContactID());
-            stmt.executeUpdate();
+    public void addAppointment(Appointment appointment){
+        String username = CONNECTION_MODEL.getCurrentUsername();
+        saveInBackground(saveButton, InvalidAppointmentException.class, () -> APPOINTMENT_SERVICE.create(appointment, username), savedAppointment -> {
             Alert alert = new Alert(Alert.AlertType.WARNING);
             alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningText"));
             alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("successText"));
-            alert.setContentText(CONNECTION_MODEL.getResourceBundle().getString("appointmentAddedText") + " " + appointment.getAppointmentID() + ".");
+            alert.setContentText(CONNECTION_MODEL.getResourceBundle().getString("appointmentAddedText") + " " + savedAppointment.getAppointmentID() + ".");
             alert.showAndWait();
             cancelButton.fireEvent(new ActionEvent());
-        }
-        catch (SQLException | IOException e){
-            CONNECTION_MODEL.SQLAlert();
+        }, this::invalidAppointmentAlert);
+    }
+
+    /**
+     * A method that shows why the AppointmentService didn't save the appointment. Overlapping appointments are listed in an alert, and the other
+     * reasons mark the field that has to be changed.
+     * @param e The exception that the AppointmentService threw.
+     * */
+    protected void invalidAppointmentAlert(InvalidAppointmentException e){
+        switch (e.getReason()){
+            case OVERLAPPING:
+                appointmentOverlapAlert(e.getOverlappingAppointments());
+                break;
+            case UNKNOWN_CUSTOMER:
+                addListenerToComboBox(customerIdComboBox, customerIdComboBoxErrorLabel);
+                break;
+            case END_BEFORE_START:
+                endTimeErrorLabel.setText(CONNECTION_MODEL.getResourceBundle().getString("endTimeBeforeStartTimeErrorText"));
+                addListenerToLabel(endTimeHourTimeSpinner, endTimeErrorLabel);
+                break;
+            default:
+                endTimeErrorLabel.setText(CONNECTION_MODEL.getResourceBundle().getString("endTimeErrorLabelText"));
+                addListenerToLabel(endTimeHourTimeSpinner, endTimeErrorLabel);
+                break;
         }
     }
 
@@ -516,6 +474,7 @@ public class AddAppointmentController extends Controller implements AppointmentD
 
     /**
      * This appointment is overridden so that if a new appointment is added it will check again to see if the appointment is within fifteen minutes of the current time.
+     * The main page only loads the appointments that were added or changed, because it was kept while this page was open.
      * @param event Takes in that a button was pressed.
      * @see Controller#changeSceneToMainController(ActionEvent)
      * */
@@ -523,17 +482,10 @@ public class AddAppointmentController extends Controller implements AppointmentD
     @Override
     public void changeSceneToMainController(ActionEvent event){
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/appointment/main-menu.fxml"), CONNECTION_MODEL.getResourceBundle());
-            Parent root = loader.load();
-            ((MainController) loader.getController()).changeViewAll(event);
-            ((MainController) loader.getController()).setZoneIdLabel();
-            Scene scene = new Scene(root);
-            Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
-            window.setTitle(CONNECTION_MODEL.getResourceBundle().getString("mainMenuHeaderTextLabel"));
-            window.setScene(scene);
-            window.centerOnScreen();
-            window.show();
-            ((MainController) loader.getController()).appointmentAlert(((MainController) loader.getController()).getCurrentUserAppointmentsList());
+            MainController mainController = showCachedScene(event, "main-menu.fxml", "mainMenuHeaderTextLabel");
+            mainController.setZoneIdLabel();
+            mainController.refreshAppointments();
+            mainController.loadExpiringAppointments().thenAccept(mainController::appointmentAlert);
         }
         catch (IOException e){
             Alert alert = new Alert(Alert.AlertType.WARNING);
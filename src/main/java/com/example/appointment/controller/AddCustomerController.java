@@ -1,17 +1,14 @@
 package com.example.appointment.controller;
 
 import com.example.appointment.*;
+import com.example.appointment.exceptions.InvalidCustomerException;
 import com.example.appointment.exceptions.SQLConnectionDroppedException;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javax.sql.rowset.CachedRowSet;
-import javax.sql.rowset.RowSetProvider;
 import java.io.IOException;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.*;
 import java.util.*;
@@ -33,6 +30,8 @@ public class AddCustomerController extends Controller implements AddListenerInte
     @FXML
     private Button cancelButton;
     @FXML
+    private Button saveButton;
+    @FXML
     private ComboBox<String> countryComboBox;
     @FXML
     private ComboBox<String> divisionComboBox;
@@ -45,7 +44,10 @@ public class AddCustomerController extends Controller implements AddListenerInte
     @FXML
     private Label customerPhoneErrorLabel;
 
-    private Integer customerId = null;
+    /**
+     * The ID that a new customer has until the database generates its real ID when the customer is saved.
+     * */
+    private static final int NEW_CUSTOMER_ID = -1;
 
     /**
      *
@@ -90,7 +92,6 @@ public class AddCustomerController extends Controller implements AddListenerInte
     @FXML
     public void setCustomerController(ActionEvent event) throws SQLConnectionDroppedException {
         try {
-            setCustomerId(event);
             setCustomerCountryComboBox();
         }
         catch(SQLException | IOException e){
@@ -98,41 +99,6 @@ public class AddCustomerController extends Controller implements AddListenerInte
         }
     }
 
-    /**
-     * A method that retrieves the customer ID value from the database. The user does not set the customer ID,
-     * it is generated automatically by the program so that if they are 25 items in the database the next item will be #26.
-     * @param event Passes in the button that was pressed to open the controller.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
-     * */
-    protected void setCustomerId(ActionEvent event) throws SQLConnectionDroppedException {
-        if (customerId == null){
-            PreparedStatement stmt = null;
-            ResultSet rs = null;
-            CachedRowSet crs = null;
-            ArrayList<Integer> customerIdList = new ArrayList<>();
-            try{
-                String query = "SELECT Customer_ID FROM CUSTOMERS";
-                stmt = ConnectionModel.getInstance().getConnection().prepareStatement(query);
-                rs = stmt.executeQuery();
-                crs = RowSetProvider.newFactory().createCachedRowSet();
-                crs.populate(rs);
-                while (crs.next()){
-                    customerIdList.add(crs.getInt("Customer_ID"));
-                }
-                Collections.sort(customerIdList);
-                Collections.reverse(customerIdList);
-                customerIdTextField.setText(String.valueOf(customerIdList.get(0) + 1));
-                customerId = Integer.valueOf(customerIdTextField.getText());
-            }
-            catch (SQLException | IOException e){
-                CONNECTION_MODEL.SQLAlert();
-            }
-            finally {
-                closeSQLObjects(stmt, rs, crs);
-            }
-        }
-    }
-
     /**
      * A method that loads the customer country ComboBox with values from the database.
      * After the ComboBox gets it values from the setComboBoxValidation method it sorts the values in numerical order.
@@ -195,15 +161,8 @@ public class AddCustomerController extends Controller implements AddListenerInte
      * */
     protected boolean customerAddressCheck(TextField textField){
         if (!textField.getText().isEmpty()){
-            if (countryComboBox.getValue().equals("U.S")){
-                return addressCheck(textField.getText(), 2);
-            }
-            else if (countryComboBox.getValue().equals("Canada")){
-                return addressCheck(textField.getText(), 2);
-            }
-            else{
-                return addressCheck(textField.getText(), 3);
-            }
+            CountryRule rule = CountryRule.forCountry(countryComboBox.getValue());
+            return rule != null && addressCheck(textField.getText(), rule.getAddressFieldCount());
         }
         return false;
     }
@@ -327,44 +286,37 @@ public class AddCustomerController extends Controller implements AddListenerInte
         ZonedDateTime currentDateTime = Instant.now().atZone(ZoneId.systemDefault());
         String createdBy = CONNECTION_MODEL.getCurrentUsername();
 
-        Customer customer = new Customer(customerId, customerName, customerAddress, customerPostalCode, customerPhone, currentDateTime, createdBy, currentDateTime, createdBy, customerDivisionId);
+        Customer customer = new Customer(NEW_CUSTOMER_ID, customerName, customerAddress, customerPostalCode, customerPhone, currentDateTime, createdBy, currentDateTime, createdBy, customerDivisionId);
         addCustomer(customer);
     }
 
     /**
      * A method that takes an Customer object that is created in the saveCustomer() method and then passes the object into the database.
-     * After the object has been successfully added to the database it shows an alert message to the user.
+     * The CustomerService validates the customer again for its country and saves it on a background thread. After the object has been successfully
+     * added to the database it shows an alert message to the user.
      * @param customer A passed in customer to be added to the database.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * */
-    public void addCustomer(Customer customer) throws SQLConnectionDroppedException {
-        try{
-            CONNECTION_MODEL.getConnection().setSchema("customers");
-            String sqlCommand = "INSERT INTO CUSTOMERS VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-            PreparedStatement stmt = CONNECTION_MODEL.getConnection().prepareStatement(sqlCommand);
-
-            stmt.setInt(1, customer.getCustomerID());
-            stmt.setString(2, customer.getCustomerName());
-            stmt.setString(3, customer.getAddress());
-            stmt.setString(4, customer.getPostalCode());
-            stmt.setString(5, customer.getPhone());
-            stmt.setObject(6, customer.getCreateDate());
-            stmt.setString(7, customer.getCreatedBy());
-            stmt.setObject(8, customer.getLastUpdate());
-            stmt.setString(9, customer.getLastUpdatedBy());
-            stmt.setInt(10, customer.getDivisionID());
-
-            stmt.executeUpdate();
+    public void addCustomer(Customer customer){
+        String username = CONNECTION_MODEL.getCurrentUsername();
+        saveInBackground(saveButton, InvalidCustomerException.class, () -> CUSTOMER_SERVICE.create(customer, username), id -> {
             Alert alert = new Alert(Alert.AlertType.WARNING);
             alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningText"));
             alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("successText"));
             alert.setContentText(CONNECTION_MODEL.getResourceBundle().getString("customerAddedText") + " " + customer.getCustomerName() + ".");
             alert.showAndWait();
             cancelButton.fireEvent(new ActionEvent());
-        }
-        catch (SQLException | IOException e) {
-            CONNECTION_MODEL.SQLAlert();
-        }
+        }, this::invalidCustomerAlert);
+    }
+
+    /**
+     * A method that shows an alert with the fields that the CustomerService found invalid for the customer's country.
+     * @param e The exception that the CustomerService threw.
+     * */
+    protected void invalidCustomerAlert(InvalidCustomerException e){
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningText"));
+        alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("customerInvalidText"));
+        alert.setContentText(e.getInvalidFields().toString());
+        alert.showAndWait();
     }
 }
@@ -1,11 +1,13 @@
 package com.example.appointment.controller;
 
 import com.example.appointment.Appointment;
+import com.example.appointment.AppointmentDisplay;
 import javafx.scene.control.Alert;
 
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An interface that is used to create alerts for if an appointment is expiring within 15 minutes of login.
@@ -24,50 +26,75 @@ public interface AppointmentAlertsInterface extends SQLControllerInterface{
      * @param appointments Passes in a list of appointments.
      * */
     default void appointmentAlert(ArrayList<Appointment> appointments){
-        DateTimeFormatter hourTimeFormatter = DateTimeFormatter.ofPattern("HH:mm");
         ArrayList<Appointment> expiringAppointments = new ArrayList<>(getExpiringAppointments(appointments));
         Alert alert = new Alert(Alert.AlertType.WARNING);
-        alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningAlert"));
-        alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("appointmentWarningAlertHeaderText"));
+        alert.setTitle(FORMATTING_SERVICE.getMessage("warningAlert"));
+        alert.setHeaderText(FORMATTING_SERVICE.getMessage("appointmentWarningAlertHeaderText"));
         alert.setResizable(true);
         if (expiringAppointments.isEmpty()){
-            alert.setContentText(CONNECTION_MODEL.getResourceBundle().getString("noAppointmentsInFifteenText"));
+            alert.setContentText(FORMATTING_SERVICE.getMessage("noAppointmentsInFifteenText"));
             alert.show();
             return;
         }
-        StringBuilder alertContentText = new StringBuilder(CONNECTION_MODEL.getResourceBundle().getString("appointmentWarningContentText"));
+        alert.setContentText(appointmentAlertContentText(expiringAppointments));
+        alert.show();
+    }
+
+    /**
+     * A method that creates a JavaFX alert for appointments that start within 15 minutes. It is used by the AlertScheduler while
+     * the user is logged in, so unlike appointmentAlert() it is only called when there are appointments to show.
+     * @param appointments The appointments whose alerts are due.
+     * */
+    default void upcomingAppointmentAlert(List<Appointment> appointments){
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle(FORMATTING_SERVICE.getMessage("warningAlert"));
+        alert.setHeaderText(FORMATTING_SERVICE.getMessage("appointmentWarningAlertHeaderText"));
+        alert.setResizable(true);
+        alert.setContentText(appointmentAlertContentText(appointments));
+        alert.show();
+    }
+
+    /**
+     * A method that lists the ID, title, start time and end time of each appointment in a single alert message.
+     * @param appointments The appointments that will be listed.
+     * @return The content text of the alert.
+     * */
+    private String appointmentAlertContentText(List<Appointment> appointments){
+        StringBuilder alertContentText = new StringBuilder(FORMATTING_SERVICE.getMessage("appointmentWarningContentText"));
         alertContentText.append("\n");
-        for (Appointment appointment : expiringAppointments){
-            String idText = CONNECTION_MODEL.getResourceBundle().getString("appointmentIDTextLabel");
-            String titleText = CONNECTION_MODEL.getResourceBundle().getString("appointmentTitleTextLabel");
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
-            String appointmentDateFormatted = appointment.getStartDate().format(formatter);
-            String appointmentStartDateText = CONNECTION_MODEL.getResourceBundle().getString("appointmentStartDateTextLabel");
-            String startTimeText = CONNECTION_MODEL.getResourceBundle().getString("appointmentStartTimeTextLabel");
-            String endTimeText = CONNECTION_MODEL.getResourceBundle().getString("appointmentEndTimeTextLabel");
-            alertContentText.append("\n");
-            String appointmentText = idText + ": " + appointment.getAppointmentID() + " " + titleText + ": " + appointment.getTitle()
-                    + "\n" + appointmentStartDateText + ":" + " " +appointmentDateFormatted + " " + startTimeText + ": "
-                    + LocalDateTime.ofInstant(appointment.getStartDate().toInstant(), ZoneId.systemDefault()).format(hourTimeFormatter) + " "
-                    + endTimeText + ": " + LocalDateTime.ofInstant(appointment.getEndDate().toInstant(), ZoneId.systemDefault()).format(hourTimeFormatter);
-            alertContentText.append(appointmentText);
+        String idText = FORMATTING_SERVICE.getMessage("appointmentIDTextLabel");
+        String titleText = FORMATTING_SERVICE.getMessage("appointmentTitleTextLabel");
+        String appointmentStartDateText = FORMATTING_SERVICE.getMessage("appointmentStartDateTextLabel");
+        String startTimeText = FORMATTING_SERVICE.getMessage("appointmentStartTimeTextLabel");
+        String endTimeText = FORMATTING_SERVICE.getMessage("appointmentEndTimeTextLabel");
+        DateTimeFormatter formatter = FORMATTING_SERVICE.getFormatter("MM/dd/yyyy");
+        AppointmentDisplay.Format displayFormat = FORMATTING_SERVICE.getAppointmentFormat();
+        for (Appointment appointment : appointments){
+            AppointmentDisplay display = appointment.getDisplay(displayFormat);
+            alertContentText.append("\n")
+                    .append(idText).append(": ").append(appointment.getAppointmentID()).append(" ").append(titleText).append(": ").append(appointment.getTitle())
+                    .append("\n").append(appointmentStartDateText).append(": ").append(formatter.format(appointment.getStartDate())).append(" ")
+                    .append(startTimeText).append(": ").append(display.getStartTimeText()).append(" ")
+                    .append(endTimeText).append(": ").append(display.getEndTimeText());
         }
-        alert.setContentText(alertContentText.toString());
-        alert.show();
+        return alertContentText.toString();
     }
 
     /**
      * A method that creates a list of expiring appointments from the list of total user appointments.
      * It goes through each appointment adds it to the list if the appointment is after the current time, and expires within
-     * 15 minutes of the current time.
+     * 15 minutes of the current time. The current time is read once, so every appointment is compared against the same moment.
      * @param appointments A list of appointments.
      * @return A list of a list of appointments expiring within 15 minutes of login.
      * */
     default ArrayList<Appointment> getExpiringAppointments(ArrayList<Appointment> appointments) {
         ArrayList<Appointment> expiringAppointments = new ArrayList<>();
+        long now = Instant.now().getEpochSecond();
+        long alertStart = now - Duration.ofMinutes(15).getSeconds();
+        long alertEnd = now + Duration.ofMinutes(15).getSeconds();
         for (Appointment appointment : appointments){
-            if ((appointment.getStartDate().isBefore(ZonedDateTime.now().plusMinutes(15)) && appointment.getStartDate().isAfter(ZonedDateTime.now().minusMinutes(15)))
-                 || (appointment.getEndDate().isAfter(ZonedDateTime.now()) && appointment.getStartDate().isBefore(ZonedDateTime.now()))){
+            long start = appointment.getStartEpochSecond();
+            if ((start < alertEnd && start > alertStart) || (appointment.getEndEpochSecond() > now && start < now)){
                 expiringAppointments.add(appointment);
                 }
             }
@@ -1,5 +1,6 @@
 package com.example.appointment.controller;
 
+import com.example.appointment.IntIdSet;
 import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.scene.control.ComboBox;
@@ -13,17 +14,19 @@ public interface ComboBoxListenerInterface {
     /**
      * A method that validates text entered in to a ComboBox and verifies if the text entered in matches the items in the box.
      * If the text does not match then the ComboBox will be turned to red, and the value will be cleared out to alert the user
-     * that it's an invalid entry. It verifies if the value is valid by checking if the passed in observable list contains the integer selected in the ComboBox.
+     * that it's an invalid entry. It verifies if the value is valid by checking if the passed in IDs contain the integer selected in the ComboBox.
+     * The ComboBox reads the IDs through an IdComboBoxItems list, so the check on every keystroke is a hash lookup instead of a scan of boxed Integers.
      * @param comboBox Passes in a  ComboBox to be verified.
-     * @param observableList A list of items to enter in as values for the ComboBox.
+     * @param ids The IDs to enter in as values for the ComboBox, in numerical order.
      * */
-    default void setIntegerComboBoxValidation(ComboBox<Integer> comboBox, ObservableList<Integer> observableList){
-        comboBox.setItems(observableList);
+    default void setIntegerComboBoxValidation(ComboBox<Integer> comboBox, IntIdSet ids){
+        comboBox.setItems(new IdComboBoxItems(ids));
         comboBox.editorProperty().getValue().textProperty().addListener((observable, oldValue, newValue) ->{
             try{
-                if (observableList.contains(Integer.parseInt(newValue))){
+                int id = Integer.parseInt(newValue);
+                if (ids.contains(id)){
                     comboBox.setStyle(null);
-                    comboBox.setValue(Integer.parseInt(newValue));
+                    comboBox.setValue(id);
                 }
                 else{
                     throw new IllegalArgumentException();
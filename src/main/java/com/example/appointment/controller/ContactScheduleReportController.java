@@ -1,25 +1,19 @@
 package com.example.appointment.controller;
 
 import com.example.appointment.Appointment;
+import com.example.appointment.IntIdSet;
+import com.example.appointment.ReferenceDataCache;
 import com.example.appointment.exceptions.SQLConnectionDroppedException;
-import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javax.sql.rowset.CachedRowSet;
-import javax.sql.rowset.RowSetProvider;
 import java.io.IOException;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -51,57 +45,32 @@ public class ContactScheduleReportController extends ReportsController implement
     private TableView.TableViewSelectionModel<Appointment> selectionAppointmentModel;
     @FXML
     private ComboBox<Integer> contactIdComboBox;
-    @FXML
-    private final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-    private PreparedStatement stmt;
-
     /**
      * A method that loads the contact ID ComboBox with values from the database.
-     * After the ComboBox gets it values from the setComboBoxValidation method it sorts the values in numerical order.
+     * The IDs are already in numerical order, and the ComboBox reads them from the IntIdSet without copying them.
      * @throws SQLException If a SQL database error occurs.
      * @throws IOException If an input/output error occurs.
      * */
     @FXML
     public void setContactIdComboBox() throws SQLException, IOException {
-        ObservableList<Integer> observableContactIds = FXCollections.observableList(getContactIdList());
-        Collections.sort(observableContactIds);
-        this.setIntegerComboBoxValidation(contactIdComboBox, observableContactIds);
+        this.setIntegerComboBoxValidation(contactIdComboBox, getContactIdList());
         contactIdComboBox.setOnAction(actionEvent ->
-                {
-                    try {
-                        setTableView(Integer.parseInt(String.valueOf(contactIdComboBox.getValue())));
-                    } catch (SQLConnectionDroppedException e) {
-                        changeSceneToLoginController(actionEvent);
-                    }
-                }
+                setTableView(Integer.parseInt(String.valueOf(contactIdComboBox.getValue())))
             );
     }
 
     /**
-     * A method that retrieves a list of contact ID values from the database. These values can be used to check which contacts have appointments.
+     * A method that retrieves a list of contact ID values from the reference data cache. These values can be used to check which contacts have appointments.
      * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
-     * @return A list of contact IDs.
+     * @return The contact IDs in numerical order, or no IDs if they could not be loaded.
      * */
-    public List<Integer> getContactIdList() throws SQLConnectionDroppedException {
-        PreparedStatement preparedStatement = null;
-        ResultSet rs = null;
-        CachedRowSet crs = null;
-        List<Integer> contacts = new ArrayList<>();
+    public IntIdSet getContactIdList() throws SQLConnectionDroppedException {
+        IntIdSet contacts = IntIdSet.EMPTY;
         try {
-            String sqlCommand = "SELECT Contact_ID FROM CONTACTS";
-            preparedStatement = CONNECTION_MODEL.getConnection().prepareStatement(sqlCommand);
-            rs = preparedStatement.executeQuery();
-            crs = RowSetProvider.newFactory().createCachedRowSet();
-            crs.populate(rs);
-            while(crs.next()){
-                contacts.add(crs.getInt(1));
-            }
+            contacts = ReferenceDataCache.getInstance().getContactIds();
         } catch (SQLException | IOException e) {
             CONNECTION_MODEL.SQLAlert();
         }
-        finally{
-            closeSQLObjects(preparedStatement, rs, crs);
-        }
         return contacts;
     }
 
@@ -122,51 +91,60 @@ public class ContactScheduleReportController extends ReportsController implement
      *     The two date columns work the same way and format each appointment date object to the format of MM-dd-yyyy.
      *     These lambda expressions are an easy way to make the time and date information readable and still convertible with
      *     the actual appointment object in the database.
+     * The appointments are loaded on a background thread, and the TableView is updated on the JavaFX application thread.
      * @param contactId The ID of the contact that is passed in to the SQL query.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * */
     @FXML
-    public void setTableView(int contactId) throws SQLConnectionDroppedException {
-        try{
+    public void setTableView(int contactId) {
+        DATA_ACCESS_EXECUTOR.submitLatest(appointmentTableView, handle -> {
             String sqlQuery = "SELECT * FROM APPOINTMENTS WHERE Contact_ID = ?";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(sqlQuery);
+            PreparedStatement stmt = handle.track(CONNECTION_MODEL.getConnection().prepareStatement(sqlQuery));
             stmt.setInt(1, contactId);
-            ObservableList<Appointment> appointments = FXCollections.observableArrayList(getAppointmentList(stmt));
-            SortedList<Appointment> sortedAppointmentList = new SortedList<>(appointments);
-            sortedAppointmentList.comparatorProperty().bind(appointmentTableView.comparatorProperty());
-            appointmentTableView.setItems(sortedAppointmentList);
-            appointmentIdColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("appointmentID")
-            );
-            appointmentTitleColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("title")
-            );
-            appointmentDescriptionColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("description")
-            );
-            appointmentTypeColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("type")
-            );
-            appointmentStartTimeColumn.setCellValueFactory (appointment -> new SimpleStringProperty(ZonedDateTime.ofInstant(appointment.getValue().getStartDate().toInstant(), ZoneId.systemDefault()).format(dateTimeFormatter)));
+            return getAppointmentList(stmt);
+        }).whenComplete((appointmentList, throwable) -> {
+            if (throwable == null){
+                displayAppointments(appointmentList);
+            }
+            else{
+                handleDataAccessFailure(appointmentTableView, throwable);
+            }
+        });
+    }
 
-            appointmentEndTimeColumn.setCellValueFactory (appointment -> new SimpleStringProperty(ZonedDateTime.ofInstant(appointment.getValue().getEndDate().toInstant(), ZoneId.systemDefault()).format(dateTimeFormatter)));
+    /**
+     * A method that displays the appointments for the selected contact in the TableView.
+     * @param appointmentList The appointments that were loaded for the selected contact.
+     * */
+    private void displayAppointments(List<Appointment> appointmentList){
+        ObservableList<Appointment> appointments = FXCollections.observableArrayList(appointmentList);
+        SortedList<Appointment> sortedAppointmentList = new SortedList<>(appointments);
+        sortedAppointmentList.comparatorProperty().bind(appointmentTableView.comparatorProperty());
+        appointmentTableView.setItems(sortedAppointmentList);
+        appointmentIdColumn.setCellValueFactory(
+                new PropertyValueFactory<>("appointmentID")
+        );
+        appointmentTitleColumn.setCellValueFactory(
+                new PropertyValueFactory<>("title")
+        );
+        appointmentDescriptionColumn.setCellValueFactory(
+                new PropertyValueFactory<>("description")
+        );
+        appointmentTypeColumn.setCellValueFactory(
+                new PropertyValueFactory<>("type")
+        );
+        appointmentStartTimeColumn.setCellValueFactory (appointment -> new ReadOnlyStringWrapper(appointment.getValue().getDisplay(FORMATTING_SERVICE.getAppointmentFormat()).getStartTimeText()));
 
-            startDateColumn.setCellValueFactory(appointment -> new SimpleStringProperty(ZonedDateTime.ofInstant(appointment.getValue().getStartDate().toInstant(), ZoneId.systemDefault()).format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale()))));
+        appointmentEndTimeColumn.setCellValueFactory (appointment -> new ReadOnlyStringWrapper(appointment.getValue().getDisplay(FORMATTING_SERVICE.getAppointmentFormat()).getEndTimeText()));
 
-            endDateColumn.setCellValueFactory( appointment -> new SimpleStringProperty(ZonedDateTime.ofInstant(appointment.getValue().getEndDate().toInstant(), ZoneId.systemDefault()).format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale()))));
+        startDateColumn.setCellValueFactory(appointment -> new ReadOnlyStringWrapper(appointment.getValue().getDisplay(FORMATTING_SERVICE.getAppointmentFormat()).getStartDateText()));
 
-            customerIdColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("customerID")
-            );
-            appointmentTableView.setPlaceholder(new Label(CONNECTION_MODEL.getResourceBundle().getString("tableSetAppointmentsPlaceHolderText")));
-            selectionAppointmentModel = appointmentTableView.getSelectionModel();
-            selectionAppointmentModel.setSelectionMode(SelectionMode.SINGLE);
-        }
-        catch (SQLException | IOException e){
-            CONNECTION_MODEL.SQLAlert();
-        }
-        finally{
-            closeSQLObjects(stmt);
-        }
+        endDateColumn.setCellValueFactory(appointment -> new ReadOnlyStringWrapper(appointment.getValue().getDisplay(FORMATTING_SERVICE.getAppointmentFormat()).getEndDateText()));
+
+        customerIdColumn.setCellValueFactory(
+                new PropertyValueFactory<>("customerID")
+        );
+        appointmentTableView.setPlaceholder(new Label(CONNECTION_MODEL.getResourceBundle().getString("tableSetAppointmentsPlaceHolderText")));
+        selectionAppointmentModel = appointmentTableView.getSelectionModel();
+        selectionAppointmentModel.setSelectionMode(SelectionMode.SINGLE);
     }
 }
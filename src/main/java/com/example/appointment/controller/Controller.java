@@ -1,6 +1,11 @@
 package com.example.appointment.controller;
 
+import com.example.appointment.AlertScheduler;
+import com.example.appointment.DataAccessExecutor;
+import com.example.appointment.ImportReport;
 import com.example.appointment.Main;
+import com.example.appointment.exceptions.CsvFormatException;
+import com.example.appointment.exceptions.SQLConnectionDroppedException;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -9,20 +14,212 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.concurrent.CancellationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * A base class shared by all the controllers. Provides methods to change scenes that most controllers use in order to reduce code reuse.
  * */
 public class Controller implements SQLControllerInterface{
+    /**
+     * The executor that runs the controllers' queries off the JavaFX application thread.
+     * */
+    protected static final DataAccessExecutor DATA_ACCESS_EXECUTOR = DataAccessExecutor.getInstance();
+    private static final int MAXIMUM_LISTED_IMPORT_ERRORS = 10;
+    /**
+     * The scenes that are kept after the user leaves them, by the name of their FXML file, so that going back to them only has to refresh their tables.
+     * They are only used on the JavaFX application thread, and are dropped when the user logs out.
+     * */
+    private static final Map<String, Scene> CACHED_SCENES = new HashMap<>();
+    private static final Map<String, Controller> CACHED_CONTROLLERS = new HashMap<>();
+
+    /**
+     * A method that handles a query that failed on a background thread. A cancelled query is ignored because it was replaced by a newer one.
+     * Otherwise the SQL alert is displayed and the user is sent back to the login page. The alert is always shown on the JavaFX application thread,
+     * even if the method is called from a background thread.
+     * @param node A node in the scene that the query was loading data for. It is used to find the window when the scene has to change.
+     * @param throwable The exception that the query failed with.
+     * */
+    public void handleDataAccessFailure(Node node, Throwable throwable){
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof CancellationException){
+            return;
+        }
+        if (!Platform.isFxApplicationThread()){
+            Platform.runLater(() -> handleDataAccessFailure(node, cause));
+            return;
+        }
+        try {
+            CONNECTION_MODEL.SQLAlert();
+        }
+        catch (SQLConnectionDroppedException e){
+            if (node.getScene() != null && node.getScene().getWindow() != null){
+                changeSceneToLoginController(new ActionEvent(node, null));
+            }
+        }
+    }
+
+    /**
+     * A save that runs on a background thread. Besides the database errors it can be rejected with a checked exception, such as InvalidAppointmentException,
+     * when the row breaks one of the service's rules.
+     * @param <T> The type of the save's result.
+     * @param <E> The type of the exception that the save is rejected with.
+     * */
+    @FunctionalInterface
+    protected interface SaveTask<T, E extends Exception> {
+        T save() throws SQLException, IOException, E;
+    }
+
+    /**
+     * A method that runs a save on a background thread, so that the JavaFX application thread never waits for the database, or for the customer's lock
+     * that an appointment save takes. The callbacks are called on the JavaFX application thread. A database error is handled by handleDataAccessFailure.
+     * @param node The node that started the save, such as the save button. It is disabled until the save finishes, so that the row can't be saved twice.
+     * @param rejectionType The type of the exception that the save is rejected with.
+     * @param task The save.
+     * @param onSaved Called with the result of the save.
+     * @param onRejected Called with the exception if the save was rejected.
+     * */
+    protected <T, E extends Exception> void saveInBackground(Node node, Class<E> rejectionType, SaveTask<T, E> task, Consumer<? super T> onSaved,
+                                                             Consumer<? super E> onRejected){
+        node.setDisable(true);
+        DATA_ACCESS_EXECUTOR.submit(handle -> {
+            try {
+                return task.save();
+            }
+            catch (SQLException | IOException | RuntimeException e){
+                throw e;
+            }
+            catch (Exception e){
+                throw new CompletionException(e);
+            }
+        }).whenComplete((result, throwable) -> {
+            node.setDisable(false);
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (rejectionType.isInstance(cause)){
+                onRejected.accept(rejectionType.cast(cause));
+            }
+            else if (throwable != null){
+                handleDataAccessFailure(node, throwable);
+            }
+            else{
+                onSaved.accept(result);
+            }
+        });
+    }
+
+    /**
+     * A method that asks the user for a CSV file and imports it on a background thread. When the import finishes an alert shows how many rows
+     * were imported and rejected, how fast they were imported, and why the first rows were rejected.
+     * @param node A node in the scene that the import was started from. It is used to find the window for the file chooser and the alerts.
+     * @param importer Creates the database work that imports the chosen file, such as BulkImporter.importCustomers.
+     * @param onFinished Called on the JavaFX application thread after the import, so that the scene can reload its table.
+     * */
+    protected void importCsvFile(Node node, Function<Path, DataAccessExecutor.DataAccessTask<ImportReport>> importer, Runnable onFinished){
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(CONNECTION_MODEL.getResourceBundle().getString("importFileChooserTitle"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+        File file = fileChooser.showOpenDialog(node.getScene().getWindow());
+        if (file == null){
+            return;
+        }
+        DATA_ACCESS_EXECUTOR.submit(importer.apply(file.toPath())).whenComplete((report, throwable) -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (throwable == null){
+                importReportAlert(report);
+                onFinished.run();
+            }
+            else if (cause instanceof CsvFormatException){
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningText"));
+                alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("importFailedHeaderText"));
+                alert.setContentText(cause.getMessage());
+                alert.showAndWait();
+            }
+            else{
+                handleDataAccessFailure(node, throwable);
+                onFinished.run();
+            }
+        });
+    }
+
+    /**
+     * A method that displays the result of an import. Only the first rejected rows are listed so that the alert fits on the screen.
+     * @param report The report of the import.
+     * */
+    private void importReportAlert(ImportReport report){
+        StringBuilder contentText = new StringBuilder();
+        contentText.append(CONNECTION_MODEL.getResourceBundle().getString("importRowsImportedText")).append(": ").append(report.getRowsImported()).append("\n");
+        contentText.append(CONNECTION_MODEL.getResourceBundle().getString("importRowsRejectedText")).append(": ").append(report.getRowsRejected()).append("\n");
+        contentText.append(CONNECTION_MODEL.getResourceBundle().getString("importRowsPerSecondText")).append(": ").append(Math.round(report.getRowsPerSecond()));
+        List<ImportReport.RowError> errors = report.getErrors();
+        if (!errors.isEmpty()){
+            contentText.append("\n");
+        }
+        for (int i = 0; i < Math.min(errors.size(), MAXIMUM_LISTED_IMPORT_ERRORS); i++){
+            contentText.append("\n").append(errors.get(i));
+        }
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("importAlertTitle"));
+        alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("importAlertHeaderText"));
+        alert.setContentText(contentText.toString());
+        alert.showAndWait();
+    }
+
+    /**
+     * A method that shows a scene that is kept after the user leaves it. The FXML file is only loaded the first time, so the scene's controller keeps its
+     * table and the rows it has loaded, and the caller only has to refresh what changed while the user was away.
+     * @param event Takes in the button that was pressed. It is used to find the window.
+     * @param fxmlFile The name of the FXML file, such as main-menu.fxml.
+     * @param titleKey The key of the window title in the resource bundle.
+     * @param <C> The type of the scene's controller.
+     * @return The scene's controller.
+     * @throws IOException If the FXML file cannot be loaded.
+     * */
+    @SuppressWarnings("unchecked")
+    protected <C extends Controller> C showCachedScene(ActionEvent event, String fxmlFile, String titleKey) throws IOException {
+        Scene scene = CACHED_SCENES.get(fxmlFile);
+        if (scene == null){
+            FXMLLoader loader = new FXMLLoader(Main.class.getResource(fxmlFile), CONNECTION_MODEL.getResourceBundle());
+            Parent root = loader.load();
+            scene = new Scene(root);
+            CACHED_SCENES.put(fxmlFile, scene);
+            CACHED_CONTROLLERS.put(fxmlFile, loader.getController());
+        }
+        Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        window.setTitle(CONNECTION_MODEL.getResourceBundle().getString(titleKey));
+        window.setScene(scene);
+        window.centerOnScreen();
+        window.show();
+        return (C) CACHED_CONTROLLERS.get(fxmlFile);
+    }
+
+    /**
+     * Drops the scenes that are kept by showCachedScene, so that they are loaded again with the next user's language and rows.
+     * */
+    protected static void clearCachedScenes(){
+        CACHED_SCENES.clear();
+        CACHED_CONTROLLERS.clear();
+    }
+
     /**
      * Changes scenes back to the Login page whenever the Logout button is pressed.
      * @param event Takes in that the Logout button was pressed.
      * */
     @FXML
     public void changeSceneToLoginController(ActionEvent event){
+        AlertScheduler.getInstance().stop();
+        clearCachedScenes();
         try {
             FXMLLoader loader = new FXMLLoader(Main.class.getResource("login-page.fxml"), CONNECTION_MODEL.getResourceBundle());
             Parent root = loader.load();
@@ -46,21 +243,15 @@ public class Controller implements SQLControllerInterface{
 
     /**
      * Changes scene to the main page whenever the cancel button is pressed, or if an item is saved to the database.
+     * The main page is kept while the user is away from it, so only the appointments that changed are loaded when the user comes back.
      * @param event Takes in that a button was pressed.
      * */
     @FXML
     public void changeSceneToMainController(ActionEvent event){
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/appointment/main-menu.fxml"), CONNECTION_MODEL.getResourceBundle());
-            Parent root = loader.load();
-            ((MainController) loader.getController()).changeViewAll(event);
-            ((MainController) loader.getController()).setZoneIdLabel();
-            Scene scene = new Scene(root);
-            Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
-            window.setTitle(CONNECTION_MODEL.getResourceBundle().getString("mainMenuHeaderTextLabel"));
-            window.setScene(scene);
-            window.centerOnScreen();
-            window.show();
+            MainController mainController = showCachedScene(event, "main-menu.fxml", "mainMenuHeaderTextLabel");
+            mainController.setZoneIdLabel();
+            mainController.refreshAppointments();
         }
         catch (IOException e){
             Alert alert = new Alert(Alert.AlertType.WARNING);
@@ -75,21 +266,14 @@ public class Controller implements SQLControllerInterface{
     /**
      * A method that changes the scene to the view customers page when the view customers radio button is pressed.
      * The view customers page loads its own TableView with the customer data, and aligns directly with the appointment table view.
+     * Like the main page it is kept while the user is away from it, so coming back from adding or modifying a customer only loads the customers that changed.
      * @param event Takes in that the View Customers radio button was pressed.
      * @throws IOException If an input/output error occurs.
      * @throws SQLException If the database error occurs.
      * */
     @FXML
     public void changeSceneToViewCustomersController(ActionEvent event) throws IOException, SQLException {
-        FXMLLoader loader = new FXMLLoader(Main.class.getResource("view-customers.fxml"), CONNECTION_MODEL.getResourceBundle());
-        Parent root = loader.load();
-        ((ViewCustomersController) loader.getController()).setCustomerTableView();
-        ((ViewCustomersController) loader.getController()).setCustomersIdsWithAppointments();
-        Scene scene = new Scene(root);
-        Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
-        window.setTitle(CONNECTION_MODEL.getResourceBundle().getString("mainMenuHeaderTextLabel"));
-        window.setScene(scene);
-        window.centerOnScreen();
-        window.show();
+        ViewCustomersController viewCustomersController = showCachedScene(event, "view-customers.fxml", "mainMenuHeaderTextLabel");
+        viewCustomersController.refreshCustomers();
     }
 }
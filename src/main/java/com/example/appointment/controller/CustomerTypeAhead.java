@@ -0,0 +1,163 @@
+package com.example.appointment.controller;
+
+import com.example.appointment.Customer;
+import com.example.appointment.CustomerSearchIndex;
+import com.example.appointment.DataAccessExecutor;
+import com.example.appointment.IntIdSet;
+import javafx.geometry.Side;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.MenuItem;
+import javafx.util.StringConverter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A class that lets the user pick a customer in a customer ID ComboBox by typing part of the customer's name, address, postal code or phone number
+ * instead of scrolling through the IDs. What is typed is searched in the CustomerSearchIndex, and the best matches are shown in a menu under the
+ * ComboBox. Typing an existing ID still selects it straight away, and the drop down shows the name of each customer next to its ID.
+ * <br>
+ * If the user leaves the ComboBox without picking from the menu, the first match is selected, so typing a name and pressing Enter also works.
+ * */
+final class CustomerTypeAhead {
+    /**
+     * The most customers that are shown in the menu.
+     * */
+    private static final int SUGGESTION_LIMIT = 10;
+    private final ComboBox<Integer> comboBox;
+    private final IntIdSet customerIds;
+    private final Consumer<Throwable> failureHandler;
+    private final ContextMenu suggestionMenu = new ContextMenu();
+    private String suggestedText = "";
+    private List<Customer> suggestions = List.of();
+
+    private CustomerTypeAhead(ComboBox<Integer> comboBox, IntIdSet customerIds, Consumer<Throwable> failureHandler){
+        this.comboBox = comboBox;
+        this.customerIds = customerIds;
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * A method that fills the ComboBox with the customer IDs and adds the search to it. The CustomerSearchIndex is loaded in the background
+     * if it hasn't been loaded yet, so it is normally ready before the user starts typing.
+     * @param comboBox The customer ID ComboBox. It must be editable.
+     * @param customerIds The IDs of every customer, in numerical order.
+     * @param failureHandler The handler that is called if the customers can't be searched.
+     * */
+    static void install(ComboBox<Integer> comboBox, IntIdSet customerIds, Consumer<Throwable> failureHandler){
+        CustomerTypeAhead typeAhead = new CustomerTypeAhead(comboBox, customerIds, failureHandler);
+        comboBox.setItems(new IdComboBoxItems(customerIds));
+        comboBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Integer customerId){
+                return customerId == null ? "" : customerId.toString();
+            }
+
+            @Override
+            public Integer fromString(String text){
+                return typeAhead.toCustomerId(text);
+            }
+        });
+        comboBox.setCellFactory(listView -> new ListCell<>() {
+            @Override
+            protected void updateItem(Integer customerId, boolean empty){
+                super.updateItem(customerId, empty);
+                setText(empty || customerId == null ? null : describe(customerId));
+            }
+        });
+        comboBox.getEditor().textProperty().addListener((observable, oldValue, newValue) -> typeAhead.textChanged(newValue));
+        DataAccessExecutor.getInstance().submit(handle -> {
+            CustomerSearchIndex.getInstance().ensureLoaded();
+            return null;
+        });
+    }
+
+    /**
+     * Called every time the text in the ComboBox changes. An existing ID is selected, and any other text is searched on a background thread.
+     * A search that is still running when the user types again is cancelled.
+     * */
+    private void textChanged(String text){
+        Integer customerId = parseCustomerId(text);
+        if (customerId != null){
+            DataAccessExecutor.getInstance().cancel(this);
+            suggestionMenu.hide();
+            comboBox.setStyle(null);
+            comboBox.setValue(customerId);
+            return;
+        }
+        if (text == null || text.isBlank()){
+            DataAccessExecutor.getInstance().cancel(this);
+            suggestionMenu.hide();
+            comboBox.setStyle("-fx-border-color: 'red'");
+            return;
+        }
+        DataAccessExecutor.getInstance().submitLatest(this, handle -> CustomerSearchIndex.getInstance().search(text, SUGGESTION_LIMIT))
+                .whenComplete((customers, throwable) -> {
+                    if (throwable != null){
+                        failureHandler.accept(throwable);
+                    }
+                    else if (text.equals(comboBox.getEditor().getText())){
+                        showSuggestions(text, customers);
+                    }
+                });
+    }
+
+    private void showSuggestions(String text, List<Customer> customers){
+        suggestedText = text;
+        suggestions = customers;
+        if (customers.isEmpty()){
+            suggestionMenu.hide();
+            comboBox.setStyle("-fx-border-color: 'red'");
+            return;
+        }
+        comboBox.setStyle(null);
+        List<MenuItem> items = new ArrayList<>(customers.size());
+        for (Customer customer : customers){
+            MenuItem item = new MenuItem(describe(customer));
+            item.setMnemonicParsing(false);
+            item.setOnAction(event -> comboBox.setValue(customer.getCustomerID()));
+            items.add(item);
+        }
+        suggestionMenu.getItems().setAll(items);
+        if (!suggestionMenu.isShowing() && comboBox.getScene() != null){
+            suggestionMenu.show(comboBox, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    /**
+     * Called by the ComboBox when it commits the text, such as when the user presses Enter or leaves the ComboBox.
+     * @return The ID that was typed, the first match of the text, or null if the text doesn't match a customer.
+     * */
+    private Integer toCustomerId(String text){
+        Integer customerId = parseCustomerId(text);
+        if (customerId != null){
+            return customerId;
+        }
+        suggestionMenu.hide();
+        if (text != null && text.equals(suggestedText) && !suggestions.isEmpty()){
+            return suggestions.get(0).getCustomerID();
+        }
+        return null;
+    }
+
+    private Integer parseCustomerId(String text){
+        try {
+            int customerId = Integer.parseInt(text == null ? "" : text.trim());
+            return customerIds.contains(customerId) ? customerId : null;
+        }
+        catch (NumberFormatException e){
+            return null;
+        }
+    }
+
+    private static String describe(int customerId){
+        Customer customer = CustomerSearchIndex.getInstance().getLoadedCustomer(customerId);
+        return customer == null ? Integer.toString(customerId) : describe(customer);
+    }
+
+    private static String describe(Customer customer){
+        return customer.getCustomerID() + " - " + customer.getCustomerName() + ", " + customer.getPostalCode();
+    }
+}
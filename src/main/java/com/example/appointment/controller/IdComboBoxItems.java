@@ -0,0 +1,48 @@
+package com.example.appointment.controller;
+
+import com.example.appointment.IntIdSet;
+import javafx.collections.ObservableListBase;
+
+/**
+ * A read only list that shows an IntIdSet in an ID ComboBox without copying it into a list of Integers. An ID is only boxed when the ComboBox
+ * asks for it, which is when a visible cell of the drop down is drawn, so opening the drop down costs the same with 10 IDs or 100,000.
+ * <br>
+ * contains() and indexOf() are answered by the IntIdSet, so checking typed text and selecting the value don't scan the list.
+ * The IDs never change, so the list never fires a change event; a ComboBox is given a new list when the IDs are loaded again.
+ * */
+final class IdComboBoxItems extends ObservableListBase<Integer> {
+    private final IntIdSet ids;
+
+    /**
+     * Constructor that wraps the IDs.
+     * @param ids The IDs that the ComboBox will show, in numerical order.
+     * */
+    IdComboBoxItems(IntIdSet ids){
+        this.ids = ids;
+    }
+
+    @Override
+    public Integer get(int index){
+        return ids.get(index);
+    }
+
+    @Override
+    public int size(){
+        return ids.size();
+    }
+
+    @Override
+    public boolean contains(Object o){
+        return o instanceof Integer && ids.contains((Integer) o);
+    }
+
+    @Override
+    public int indexOf(Object o){
+        return o instanceof Integer ? ids.indexOf((Integer) o) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o){
+        return indexOf(o);
+    }
+}
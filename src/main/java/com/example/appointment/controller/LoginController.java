@@ -1,7 +1,9 @@
 package com.example.appointment.controller;
 
+import com.example.appointment.AlertScheduler;
 import com.example.appointment.exceptions.SQLConnectionDroppedException;
 import com.mysql.cj.log.Log;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -170,17 +172,13 @@ public class LoginController extends Controller implements AddListenerInterface{
         try {
             boolean isLoginCheckValid = loginCheck();
             if (isLoginCheckValid) {
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/appointment/main-menu.fxml"), CONNECTION_MODEL.getResourceBundle());
-                Parent root = loader.load();
-                ((MainController) loader.getController()).changeViewAll(event);
-                ((MainController) loader.getController()).setZoneIdLabel();
-                Scene scene = new Scene(root);
-                Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
-                window.setTitle(CONNECTION_MODEL.getResourceBundle().getString("mainMenuHeaderTextLabel"));
-                window.setScene(scene);
-                window.centerOnScreen();
-                window.show();
-                ((MainController) loader.getController()).appointmentAlert(((MainController) loader.getController()).getCurrentUserAppointmentsList());
+                clearCachedScenes();
+                MainController mainController = showCachedScene(event, "main-menu.fxml", "mainMenuHeaderTextLabel");
+                mainController.loadAllAppointments();
+                mainController.setZoneIdLabel();
+                mainController.loadExpiringAppointments().thenAccept(mainController::appointmentAlert);
+                AlertScheduler.getInstance().start(CONNECTION_MODEL.getUserId(),
+                        appointments -> Platform.runLater(() -> mainController.upcomingAppointmentAlert(appointments)));
             }
         }
         catch (IOException e){
@@ -3,10 +3,7 @@ package com.example.appointment.controller;
 import com.example.appointment.*;
 import com.example.appointment.exceptions.ItemNotSelectException;
 import com.example.appointment.exceptions.SQLConnectionDroppedException;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.collections.transformation.SortedList;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -17,10 +14,16 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.*;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 /**
  *  A Controller for the main page of the program. It displays the appointment TableView and a variety of options to select different pages.
@@ -60,14 +63,32 @@ public class MainController extends Controller implements GetAppointmentsInterfa
     @FXML
     private RadioButton viewByMonthRadioButton;
     @FXML
+    private RadioButton viewAllRadioButton;
+    @FXML
     private DatePicker appointmentDatePicker;
     @FXML
     private Label yourTimeZoneLabel;
 
-    private ArrayList<Appointment> currentUserAppointments = new ArrayList<>();
+    private TablePager<Appointment> appointmentPager;
+    /**
+     * The view button that was selected when the displayed appointments were loaded. It is selected again when the user comes back to the page.
+     * */
+    private Toggle viewToggle;
     private Appointment selectedAppointment;
-    private final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-    private PreparedStatement stmt = null;
+
+    /**
+     * The column that orders the appointments by their ID. It is also the tie breaker for every other sort column.
+     * */
+    private static final KeysetPageLoader.SortColumn<Appointment> APPOINTMENT_ID_SORT_COLUMN = KeysetPageLoader.column("Appointment_ID", Appointment::getAppointmentID);
+    private static final KeysetPageLoader.SortColumn<Appointment> START_SORT_COLUMN = KeysetPageLoader.column("Start",
+            appointment -> appointment.getStart(AppointmentRowMapper.BUSINESS_ZONE_ID));
+    private static final KeysetPageLoader.SortColumn<Appointment> END_SORT_COLUMN = KeysetPageLoader.column("End",
+            appointment -> appointment.getEnd(AppointmentRowMapper.BUSINESS_ZONE_ID));
+    /**
+     * The loader for the appointment pages. Each view adds its own filter to it.
+     * */
+    private static final KeysetPageLoader<Appointment> APPOINTMENT_PAGES = new KeysetPageLoader<>("SELECT * FROM APPOINTMENTS",
+            APPOINTMENT_ID_SORT_COLUMN, AppointmentRowMapper.FACTORY);
 
     /**
      * Changes the Time Zone label to the user's current ZoneID.
@@ -78,16 +99,8 @@ public class MainController extends Controller implements GetAppointmentsInterfa
     }
 
     /**
-     * A method that returns a list of appointments that matches the appointments in the TableView.
-     * @return An array list of appointments for the current user.
-     * */
-    public ArrayList<Appointment> getCurrentUserAppointmentsList(){
-        return currentUserAppointments;
-    }
-
-    /**
-     * A method that sets up the TableView object by retrieving appointment objects from the database, placing them into a user object's
-     * appointment list, and then displaying that list in the table.
+     * A method that sets up the TableView object so that it displays the appointments that the appointment pager loads from the database.
+     * The pager is created the first time this method is called, and every sortable column is mapped to the database column it is ordered by.
      * <br>
      * They are four columns that have lambda expressions in this method
      *     <ol>
@@ -97,20 +110,16 @@ public class MainController extends Controller implements GetAppointmentsInterfa
      *         <li>endDateColumn</li>
      *     </ol>
      * <br>
-     * The two time columns work by formatting the appointment date objects into the time format HH:mm for each cell in the column.
-     * The two date columns work the same way and format each appointment date object to the format of MM-dd-yyyy.
+     * The two time columns show each appointment's time in the format HH:mm, and the two date columns show its date in the format MM-dd-yyyy.
+     * The text is formatted once per appointment and cached by Appointment.getDisplay(), so cells that are rendered again don't convert or format anything.
      *  These lambda expressions are an easy way to make the time and date information readable and still convertable with
      *  the actual appointment object in the database.
-     * @param stmt A PreparedStatement that is passed in based on what radio button is pressed. This enables the method to only pull
-     *             select appointments from the database. It also prevents the entire code from being copied three times.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
+     * @return The pager that loads the appointments into the TableView.
      * */
-    @FXML
-    public void setTableView(PreparedStatement stmt) throws SQLConnectionDroppedException {
-        ObservableList<Appointment> appointments = FXCollections.observableArrayList(getAppointmentList(stmt));
-        SortedList<Appointment> sortedAppointmentList = new SortedList<>(appointments);
-        sortedAppointmentList.comparatorProperty().bind(appointmentTableView.comparatorProperty());
-        appointmentTableView.setItems(sortedAppointmentList);
+    private TablePager<Appointment> setTableView() {
+        if (appointmentPager != null){
+            return appointmentPager;
+        }
         appointmentIdColumn.setCellValueFactory(
                 new PropertyValueFactory<>("appointmentID")
         );
@@ -129,13 +138,13 @@ public class MainController extends Controller implements GetAppointmentsInterfa
         appointmentTypeColumn.setCellValueFactory(
                 new PropertyValueFactory<>("type")
         );
-        appointmentStartTimeColumn.setCellValueFactory (appointment -> new SimpleStringProperty(ZonedDateTime.ofInstant(appointment.getValue().getStartDate().toInstant(), ZoneId.systemDefault()).format(dateTimeFormatter)));
+        appointmentStartTimeColumn.setCellValueFactory (appointment -> new ReadOnlyStringWrapper(appointment.getValue().getDisplay(FORMATTING_SERVICE.getAppointmentFormat()).getStartTimeText()));
 
-        appointmentEndTimeColumn.setCellValueFactory (appointment -> new SimpleStringProperty(ZonedDateTime.ofInstant(appointment.getValue().getEndDate().toInstant(), ZoneId.systemDefault()).format(dateTimeFormatter)));
+        appointmentEndTimeColumn.setCellValueFactory (appointment -> new ReadOnlyStringWrapper(appointment.getValue().getDisplay(FORMATTING_SERVICE.getAppointmentFormat()).getEndTimeText()));
 
-        startDateColumn.setCellValueFactory(appointment -> new SimpleStringProperty(ZonedDateTime.ofInstant(appointment.getValue().getStartDate().toInstant(), ZoneId.systemDefault()).format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale()))));
+        startDateColumn.setCellValueFactory(appointment -> new ReadOnlyStringWrapper(appointment.getValue().getDisplay(FORMATTING_SERVICE.getAppointmentFormat()).getStartDateText()));
 
-        endDateColumn.setCellValueFactory( appointment -> new SimpleStringProperty(ZonedDateTime.ofInstant(appointment.getValue().getEndDate().toInstant(), ZoneId.systemDefault()).format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale()))));
+        endDateColumn.setCellValueFactory(appointment -> new ReadOnlyStringWrapper(appointment.getValue().getDisplay(FORMATTING_SERVICE.getAppointmentFormat()).getEndDateText()));
 
         customerIdColumn.setCellValueFactory(
                 new PropertyValueFactory<>("customerID")
@@ -146,10 +155,38 @@ public class MainController extends Controller implements GetAppointmentsInterfa
         appointmentTableView.setPlaceholder(new Label(CONNECTION_MODEL.getResourceBundle().getString("tableSetAppointmentsPlaceHolderText")));
         selectionAppointmentModel = appointmentTableView.getSelectionModel();
         selectionAppointmentModel.setSelectionMode(SelectionMode.SINGLE);
-        currentUserAppointments = new ArrayList<>(sortedAppointmentList);
+
+        Map<TableColumn<Appointment, ?>, KeysetPageLoader.SortColumn<Appointment>> sortColumns = new HashMap<>();
+        sortColumns.put(appointmentIdColumn, APPOINTMENT_ID_SORT_COLUMN);
+        sortColumns.put(appointmentTitleColumn, KeysetPageLoader.nullableColumn("Title", Appointment::getTitle));
+        sortColumns.put(appointmentDescriptionColumn, KeysetPageLoader.nullableColumn("Description", Appointment::getDescription));
+        sortColumns.put(appointmentLocationColumn, KeysetPageLoader.nullableColumn("Location", Appointment::getLocation));
+        sortColumns.put(contactInfoColumn, KeysetPageLoader.column("Contact_ID", Appointment::getContactID));
+        sortColumns.put(appointmentTypeColumn, KeysetPageLoader.nullableColumn("Type", Appointment::getType));
+        sortColumns.put(appointmentStartTimeColumn, START_SORT_COLUMN);
+        sortColumns.put(startDateColumn, START_SORT_COLUMN);
+        sortColumns.put(appointmentEndTimeColumn, END_SORT_COLUMN);
+        sortColumns.put(endDateColumn, END_SORT_COLUMN);
+        sortColumns.put(customerIdColumn, KeysetPageLoader.column("Customer_ID", Appointment::getCustomerID));
+        sortColumns.put(userIdColumn, KeysetPageLoader.column("User_ID", Appointment::getUserID));
+        appointmentPager = new TablePager<>(appointmentTableView, sortColumns, DeltaSync.APPOINTMENTS,
+                throwable -> handleDataAccessFailure(appointmentTableView, throwable));
+        return appointmentPager;
     }
 
 
+    /**
+     * A method that imports appointments from a CSV file when the Import Appointments button is pressed. The imported appointments are added to the
+     * displayed appointments after the import.
+     * @param event Passes in that the Import Appointments button was pressed.
+     * @see BulkImporter#importAppointments(DataAccessExecutor.QueryHandle, java.io.Reader)
+     * */
+    @FXML
+    public void importAppointments(ActionEvent event){
+        importCsvFile((Node) event.getSource(), path -> handle -> BulkImporter.importAppointments(handle, Files.newBufferedReader(path, StandardCharsets.UTF_8)),
+                this::refreshAppointments);
+    }
+
     /**
      * Gets the selected appointment object from the TableView so that it can be passed into a method to be modified or deleted.
      * @return The selected appointment from the TableView.
@@ -161,50 +198,39 @@ public class MainController extends Controller implements GetAppointmentsInterfa
 
     /**
      * A method that deletes an appointment from the database. It works by getting a selectedAppointment object,
-     * and then passing the ID of the appointment into the database where it's deleted. After it's been deleted
-     * the table is redrawn so that it shows that the appointment was deleted.
+     * and then passing the ID of the appointment to the AppointmentService, which deletes it on a background thread. After it's been deleted
+     * the table is refreshed, which removes the appointment without loading the other appointments again.
      * @param event Passes in that the delete appointment button was pressed.
      * */
     @FXML
     public void deleteAppointment(ActionEvent event){
-        PreparedStatement stmt = null;
         try{
             selectedAppointment = getSelectedAppointmentFromTable();
             if (selectedAppointment == null){
                 throw new ItemNotSelectException(CONNECTION_MODEL.getResourceBundle().getString("appointmentNotSelectedContentText"));
             }
-            String query = "DELETE FROM APPOINTMENTS WHERE Appointment_ID = ?";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(query);
-            stmt.setString(1, String.valueOf(selectedAppointment.getAppointmentID()));
-            stmt.executeUpdate();
-            Alert alert = new Alert(Alert.AlertType.WARNING);
-            alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningText"));
-            alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("deleteAppointmentHeaderText"));
-            alert.setContentText(CONNECTION_MODEL.getResourceBundle().getString("deletedAppointmentIDText") + selectedAppointment.getAppointmentID()
-            + " " + CONNECTION_MODEL.getResourceBundle().getString("deletedAppointmentTypeText") + selectedAppointment.getType());
-            selectedAppointment = null;
-            alert.showAndWait();
-            changeViewAll(event);
-        }
-        catch (SQLException | IOException e){
-            try {
-                CONNECTION_MODEL.SQLAlert();
-            }
-            catch (SQLConnectionDroppedException f){
-                changeSceneToLoginController(event);
-            }
+            Appointment deletedAppointment = selectedAppointment;
+            DATA_ACCESS_EXECUTOR.submit(handle -> APPOINTMENT_SERVICE.delete(deletedAppointment.getAppointmentID()))
+                    .whenComplete((deleted, throwable) -> {
+                        if (throwable != null){
+                            handleDataAccessFailure(appointmentTableView, throwable);
+                            return;
+                        }
+                        Alert alert = new Alert(Alert.AlertType.WARNING);
+                        alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningText"));
+                        alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("deleteAppointmentHeaderText"));
+                        alert.setContentText(CONNECTION_MODEL.getResourceBundle().getString("deletedAppointmentIDText") + deletedAppointment.getAppointmentID()
+                        + " " + CONNECTION_MODEL.getResourceBundle().getString("deletedAppointmentTypeText") + deletedAppointment.getType());
+                        if (selectedAppointment == deletedAppointment){
+                            selectedAppointment = null;
+                        }
+                        alert.showAndWait();
+                        refreshAppointments();
+                    });
         }
         catch (ItemNotSelectException e){
             e.Alert();
         }
-        finally{
-            try {
-                CONNECTION_MODEL.closeSQLObjects(stmt);
-            }
-            catch (SQLConnectionDroppedException f){
-                changeSceneToLoginController(event);
-            }
-        }
     }
 
     /**
@@ -269,28 +295,83 @@ public class MainController extends Controller implements GetAppointmentsInterfa
         }
     }
 
+    /**
+     * A method that loads the first page of the appointments that match the filter on a background thread, and displays it in the TableView.
+     * The next pages are loaded as the user scrolls. If the user switches view before a page arrives, the older query is cancelled so it can never
+     * overwrite the newer view.
+     * @param filter The condition that the appointments for the current view must match.
+     * @param matcher A test that is true for the same appointments as the filter, so that a changed appointment can be added to or removed from the view.
+     * @param parameters The values of the filter's parameters.
+     * @return A future that is completed after the first page has been displayed.
+     * */
+    private CompletableFuture<List<Appointment>> loadTableView(String filter, Predicate<Appointment> matcher, Object... parameters){
+        viewToggle = viewByWeekRadioButton.getToggleGroup().getSelectedToggle();
+        return setTableView().show(APPOINTMENT_PAGES.where(filter, parameters).matching(matcher));
+    }
+
+    /**
+     * A method that loads every appointment for the current user into the TableView.
+     * @return A future that is completed after the first page has been displayed.
+     * */
+    public CompletableFuture<List<Appointment>> loadAllAppointments(){
+        int userId = CONNECTION_MODEL.getUserId();
+        return loadTableView("User_ID = ?", appointment -> appointment.getUserID() == userId, userId);
+    }
+
+    /**
+     * A method that brings the TableView up to date after the appointments have been changed, such as when the user comes back from adding or modifying one.
+     * Only the appointments that changed since the view was loaded are read, and they are patched into the displayed appointments, so the view and the
+     * rows the user has scrolled through are kept. The appointments are loaded if the TableView hasn't been loaded yet.
+     * @return A future that is completed after the changes have been displayed.
+     * */
+    public CompletableFuture<Void> refreshAppointments(){
+        if (appointmentPager == null){
+            return loadAllAppointments().thenRun(() -> {});
+        }
+        if (viewToggle != null){
+            viewToggle.setSelected(true);
+        }
+        return appointmentPager.refresh();
+    }
+
+    /**
+     * A method that loads the current user's appointments that could start or be running within fifteen minutes of now, so that the
+     * appointment alert can be shown without loading every appointment. The range is wider than the alert needs, and the
+     * getExpiringAppointments method picks the appointments out of it.
+     * @return A future that is completed on the JavaFX application thread with the appointments. It isn't completed if the query fails,
+     * because the failure has already been handled.
+     * */
+    public CompletableFuture<ArrayList<Appointment>> loadExpiringAppointments(){
+        int userId = CONNECTION_MODEL.getUserId();
+        LocalDateTime now = LocalDateTime.now(AppointmentRowMapper.BUSINESS_ZONE_ID);
+        CompletableFuture<ArrayList<Appointment>> expiringAppointments = new CompletableFuture<>();
+        DATA_ACCESS_EXECUTOR.submit(handle -> {
+            String sqlQuery = "SELECT * FROM APPOINTMENTS WHERE User_ID = ? AND Start < ? AND End > ?";
+            PreparedStatement stmt = handle.track(CONNECTION_MODEL.getConnection().prepareStatement(sqlQuery));
+            stmt.setInt(1, userId);
+            stmt.setObject(2, now.plusMinutes(15));
+            stmt.setObject(3, now.minusMinutes(15));
+            return new ArrayList<>(getAppointmentList(stmt));
+        }).whenComplete((appointments, throwable) -> {
+            if (throwable == null){
+                expiringAppointments.complete(appointments);
+            }
+            else{
+                handleDataAccessFailure(appointmentTableView, throwable);
+            }
+        });
+        return expiringAppointments;
+    }
+
     /**
      * A method that creates a query when the appropriate radio button is pressed and then
      * passes it into the setTableView method to load the TableView.
      * This enables the table to display all the appointments, without having to rewrite the entire method multiple times.
      * @param event Passes in that the View All radio button was pressed.
-     * @throws IOException If an input/output error occurs.
      * */
-    public void changeViewAll(ActionEvent event) throws IOException {
-        try {
-            String sqlQuery = "SELECT * FROM APPOINTMENTS WHERE User_ID = ?";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(sqlQuery);
-            stmt.setString(1, String.valueOf(CONNECTION_MODEL.getUserId()));
-            setTableView(stmt);
-        }
-        catch(SQLException | IOException e) {
-            try {
-                CONNECTION_MODEL.SQLAlert();
-            }
-            catch (SQLConnectionDroppedException f){
-                changeSceneToLoginController(event);
-            }
-        }
+    public void changeViewAll(ActionEvent event) {
+        viewAllRadioButton.setSelected(true);
+        loadAllAppointments();
     }
 
     /**
@@ -298,26 +379,10 @@ public class MainController extends Controller implements GetAppointmentsInterfa
      * passes it into the setTableView method to load the TableView.
      * This enables the table to display all the appointments within the current month, without having to rewrite the entire method multiple times.
      * @param event Passes in that the View By Month radio button was pressed.
-     * @throws IOException If an input/output error occurs.
      * */
-    public void changeViewByMonth(ActionEvent event) throws IOException {
-        try {
-            viewByMonthRadioButton.setSelected(true);
-            String sqlQuery = "SELECT * FROM APPOINTMENTS WHERE User_ID = ? AND month(Start) = ? AND year(Start) = ?";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(sqlQuery);
-            stmt.setInt(1, CONNECTION_MODEL.getUserId());
-            stmt.setInt(2, CONNECTION_MODEL.getCurrentTime().getMonth().getValue());
-            stmt.setInt(3, CONNECTION_MODEL.getCurrentTime().getYear());
-            setTableView(stmt);
-        }
-        catch(SQLException | IOException e){
-            try {
-                CONNECTION_MODEL.SQLAlert();
-            }
-            catch (SQLConnectionDroppedException f){
-                changeSceneToLoginController(event);
-            }
-        }
+    public void changeViewByMonth(ActionEvent event) {
+        viewByMonthRadioButton.setSelected(true);
+        loadAppointmentsInRange(DateRange.ofMonth(YearMonth.from(DateRange.businessToday())));
     }
 
     /**
@@ -328,21 +393,10 @@ public class MainController extends Controller implements GetAppointmentsInterfa
      * */
     @FXML
     public void changeViewByDay(ActionEvent event){
-        try {
-            String sqlQuery = "SELECT * FROM APPOINTMENTS WHERE User_ID = ? AND date(Start) = ?";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(sqlQuery);
-            stmt.setInt(1, CONNECTION_MODEL.getUserId());
-            stmt.setDate(2, Date.valueOf(appointmentDatePicker.getValue()));
-            setTableView(stmt);
-        }
-        catch(SQLException | IOException e){
-            try {
-                CONNECTION_MODEL.SQLAlert();
-            }
-            catch (SQLConnectionDroppedException f){
-                changeSceneToLoginController(event);
-            }
+        if (appointmentDatePicker.getValue() == null){
+            return;
         }
+        loadAppointmentsInRange(DateRange.ofDay(appointmentDatePicker.getValue()));
     }
 
     /**
@@ -350,26 +404,25 @@ public class MainController extends Controller implements GetAppointmentsInterfa
      * passes it into the setTableView method to load the TableView.
      * This enables the table to display all the appointments within the current week, without having to rewrite the entire method multiple times.
      * @param event Passes in that the View By Week radio button was pressed.
-     * @throws IOException If an input/output error occurs.
      * */
     @FXML
-    public void changeViewByWeek(ActionEvent event) throws IOException{
-        try {
-            viewByWeekRadioButton.setSelected(true);
-            CONNECTION_MODEL.getConnection().setSchema("appointments");
-            String sqlQuery = "SELECT * FROM APPOINTMENTS WHERE User_ID = ? AND YEARWEEK(Start)=YEARWEEK(NOW());";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(sqlQuery);
-            stmt.setInt(1, CONNECTION_MODEL.getUserId());
-            setTableView(stmt);
-        }
-        catch (SQLException | IOException e){
-            try {
-                CONNECTION_MODEL.SQLAlert();
-            }
-            catch (SQLConnectionDroppedException f){
-                changeSceneToLoginController(event);
-            }
-        }
+    public void changeViewByWeek(ActionEvent event){
+        viewByWeekRadioButton.setSelected(true);
+        loadAppointmentsInRange(DateRange.ofWeek(DateRange.businessToday()));
+    }
+
+    /**
+     * A method that loads the current user's appointments that start within the range. The range is half-open and bound as Start &gt;= ? AND Start &lt; ?,
+     * so the (User_ID, Start) index can find the rows directly instead of scanning every appointment the user has.
+     * @param range The range of business time that the appointments must start in.
+     * */
+    private void loadAppointmentsInRange(DateRange range){
+        int userId = CONNECTION_MODEL.getUserId();
+        Predicate<Appointment> matcher = appointment -> {
+            LocalDateTime start = appointment.getStart(AppointmentRowMapper.BUSINESS_ZONE_ID);
+            return appointment.getUserID() == userId && !start.isBefore(range.getStart()) && start.isBefore(range.getEnd());
+        };
+        loadTableView("User_ID = ? AND Start >= ? AND Start < ?", matcher, userId, range.getStart(), range.getEnd());
     }
 
     /**
@@ -2,18 +2,14 @@ package com.example.appointment.controller;
 
 import com.example.appointment.Appointment;
 import com.example.appointment.exceptions.AppointmentDateException;
+import com.example.appointment.exceptions.InvalidAppointmentException;
 import com.example.appointment.exceptions.SQLConnectionDroppedException;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import java.io.IOException;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.time.*;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * A controller that loads the Modify Appointment page allowing users to modify selected appointments from the database.
@@ -32,6 +28,8 @@ public class ModifyAppointmentController extends AddAppointmentController{
     @FXML
     private Button cancelButton;
     @FXML
+    private Button saveButton;
+    @FXML
     private ComboBox<Integer> contactIdComboBox;
     @FXML
     private ComboBox<Integer> customerIdComboBox;
@@ -93,9 +91,7 @@ public class ModifyAppointmentController extends AddAppointmentController{
     @FXML
     @Override
     public void setContactIdComboBox() throws SQLException, IOException {
-        ObservableList<Integer> observableContactIds = FXCollections.observableList(getContactIdList());
-        Collections.sort(observableContactIds);
-        this.setIntegerComboBoxValidation(contactIdComboBox, observableContactIds);
+        this.setIntegerComboBoxValidation(contactIdComboBox, getContactIdList());
         contactIdComboBox.setValue(selectedAppointment.getContactID());
     }
 
@@ -107,9 +103,7 @@ public class ModifyAppointmentController extends AddAppointmentController{
     @FXML
     @Override
     public void setCustomerIdComboBox() throws SQLException{
-        ObservableList<Integer> observableCustomerIds = FXCollections.observableList(getCustomerIdList());
-        Collections.sort(observableCustomerIds);
-        this.setIntegerComboBoxValidation(customerIdComboBox, observableCustomerIds);
+        CustomerTypeAhead.install(customerIdComboBox, getCustomerIdList(), throwable -> handleDataAccessFailure(customerIdComboBox, throwable));
         customerIdComboBox.setValue(selectedAppointment.getCustomerID());
     }
 
@@ -121,9 +115,7 @@ public class ModifyAppointmentController extends AddAppointmentController{
     @FXML
     @Override
     public void setUserIdComboBox() throws SQLException{
-        ObservableList<Integer> observableUserIds = FXCollections.observableList(getUserIdList());
-        Collections.sort(observableUserIds);
-        this.setIntegerComboBoxValidation(userIdComboBox, observableUserIds);
+        this.setIntegerComboBoxValidation(userIdComboBox, getUserIdList());
         userIdComboBox.setValue(selectedAppointment.getUserID());
     }
 
@@ -141,8 +133,8 @@ public class ModifyAppointmentController extends AddAppointmentController{
                 setDisable(empty || (date.compareTo(currentDate) < 0 ) );
             }
         });
-        appointmentStartDatePicker.setValue(LocalDate.ofInstant(selectedAppointment.getStartDate().toInstant(), ZoneId.systemDefault()));
-        appointmentEndDatePicker.setValue(LocalDate.ofInstant(selectedAppointment.getEndDate().toInstant(), ZoneId.systemDefault()));
+        appointmentStartDatePicker.setValue(selectedAppointment.getStart(ZoneId.systemDefault()).toLocalDate());
+        appointmentEndDatePicker.setValue(selectedAppointment.getEnd(ZoneId.systemDefault()).toLocalDate());
     }
 
     /**
@@ -156,13 +148,13 @@ public class ModifyAppointmentController extends AddAppointmentController{
         SpinnerValueFactory<Integer> startTimeHourValueFactory = new SpinnerValueFactory.IntegerSpinnerValueFactory(0, 23, 7);
         startTimeHourValueFactory.setWrapAround(true);
         startTimeHourTimeSpinner.setValueFactory(startTimeHourValueFactory);
-        startTimeHourValueFactory.setValue(LocalDateTime.ofInstant(selectedAppointment.getStartDate().toInstant(), ZoneId.systemDefault()).getHour());
+        startTimeHourValueFactory.setValue(selectedAppointment.getStart(ZoneId.systemDefault()).getHour());
 
         endTimeHourTimeSpinner.setEditable(true);
         SpinnerValueFactory<Integer> endTimeHourValueFactory = new SpinnerValueFactory.IntegerSpinnerValueFactory(0, 23, 7);
         endTimeHourValueFactory.setWrapAround(true);
         endTimeHourTimeSpinner.setValueFactory(endTimeHourValueFactory);
-        endTimeHourValueFactory.setValue(LocalDateTime.ofInstant(selectedAppointment.getEndDate().toInstant(), ZoneId.systemDefault()).getHour());
+        endTimeHourValueFactory.setValue(selectedAppointment.getEnd(ZoneId.systemDefault()).getHour());
     }
 
     /**
@@ -176,13 +168,13 @@ public class ModifyAppointmentController extends AddAppointmentController{
         SpinnerValueFactory<Integer> startTimeMinuteValueFactory = new SpinnerValueFactory.IntegerSpinnerValueFactory(0, 59, 0);
         startTimeMinuteValueFactory.setWrapAround(true);
         startTimeMinuteTimeSpinner.setValueFactory(startTimeMinuteValueFactory);
-        startTimeMinuteValueFactory.setValue(LocalDateTime.ofInstant(selectedAppointment.getStartDate().toInstant(), ZoneId.systemDefault()).getMinute());
+        startTimeMinuteValueFactory.setValue(selectedAppointment.getStart(ZoneId.systemDefault()).getMinute());
 
         endTimeMinuteTimeSpinner.setEditable(true);
         SpinnerValueFactory<Integer> endTimeMinuteValueFactory = new SpinnerValueFactory.IntegerSpinnerValueFactory(0, 59, 0);
         endTimeMinuteValueFactory.setWrapAround(true);
         endTimeMinuteTimeSpinner.setValueFactory(endTimeMinuteValueFactory);
-        endTimeMinuteValueFactory.setValue(LocalDateTime.ofInstant(selectedAppointment.getEndDate().toInstant(), ZoneId.systemDefault()).getMinute());
+        endTimeMinuteValueFactory.setValue(selectedAppointment.getEnd(ZoneId.systemDefault()).getMinute());
     }
 
     /**
@@ -315,60 +307,35 @@ public class ModifyAppointmentController extends AddAppointmentController{
                 addListenerToLabel(endTimeHourTimeSpinner, endTimeErrorLabel);
                 throw new AppointmentDateException();
             }
-
-            List<Appointment> overlappingAppointments = isAppointmentOverlapping(appointmentCustomerId, zonedStartDateTime, zonedEndDateTime, appointmentId);
-            if (!overlappingAppointments.isEmpty()){
-                appointmentOverlapAlert(overlappingAppointments);
-                throw new AppointmentDateException();
-            }
         }
         catch (AppointmentDateException e){
             errorFlag = true;
         }
-
-        catch (SQLException | IOException e){
-            throw new SQLConnectionDroppedException();
-        }
         if (errorFlag){
             return;
         }
-        try{
-            Appointment appointment = new Appointment(appointmentId, appointmentTitle, appointmentDescription, appointmentLocation,
-                    appointmentContactId, appointmentType, zonedStartDateTime, zonedEndDateTime, appointmentCustomerId, appointmentUserId);
-            addAppointment(appointment);
-        }
-        catch (SQLConnectionDroppedException e){
-            changeSceneToLoginController(event);
-        }
+        Appointment appointment = new Appointment(appointmentId, appointmentTitle, appointmentDescription, appointmentLocation,
+                appointmentContactId, appointmentType, zonedStartDateTime, zonedEndDateTime, appointmentCustomerId, appointmentUserId);
+        addAppointment(appointment);
     }
 
     /**
      * This method is overridden because instead of adding a new appointment to the database,
-     * it needs to update the previously existing appointment value.
+     * it needs to update the previously existing appointment value. If the appointment was deleted in the meantime the user is told and sent back to the main page.
      * @see AddAppointmentController#addAppointment(Appointment)
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * */
     @Override
-    public void addAppointment(Appointment appointment) throws SQLConnectionDroppedException {
-        try{
-            String sqlCommand = "UPDATE APPOINTMENTS SET Title= ?, Description = ?, Location = ?, Type = ?, Start = ?, End = ?, Last_Update = ?, Last_Updated_By = ?, Customer_ID = ?, User_ID = ?, Contact_ID = ? WHERE Appointment_ID = ?";
-
-            PreparedStatement stmt = CONNECTION_MODEL.getConnection().prepareStatement(sqlCommand);
-
-            stmt.setString(1, appointment.getTitle());
-            stmt.setString(2, appointment.getDescription());
-            stmt.setString(3, appointment.getLocation());
-            stmt.setString(4, appointment.getType());
-            stmt.setObject(5, LocalDateTime.ofInstant(appointment.getStartDate().toInstant(), businessZoneId));
-            stmt.setObject(6, LocalDateTime.ofInstant(appointment.getEndDate().toInstant(), businessZoneId));
-            stmt.setObject(7, ZonedDateTime.now());
-            stmt.setString(8, CONNECTION_MODEL.getCurrentUsername());
-            stmt.setInt(9, appointment.getCustomerID());
-            stmt.setInt(10, appointment.getUserID());
-            stmt.setInt(11, appointment.getContactID());
-            stmt.setInt(12, appointment.getAppointmentID());
-
-            stmt.executeUpdate();
+    public void addAppointment(Appointment appointment){
+        String username = CONNECTION_MODEL.getCurrentUsername();
+        saveInBackground(saveButton, InvalidAppointmentException.class, () -> APPOINTMENT_SERVICE.update(appointment, username), updated -> {
+            if (!updated){
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningText"));
+                alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("appointmentNotFoundText"));
+                alert.showAndWait();
+                cancelButton.fireEvent(new ActionEvent());
+                return;
+            }
             appointmentEndDatePicker.setDisable(false);
             appointmentEndDatePicker.setValue(appointmentEndDate);
             Alert alert = new Alert(Alert.AlertType.WARNING);
@@ -377,9 +344,6 @@ public class ModifyAppointmentController extends AddAppointmentController{
             alert.setContentText(CONNECTION_MODEL.getResourceBundle().getString("appointmentAddedText") + " " + appointment.getAppointmentID() + ".");
             alert.showAndWait();
             cancelButton.fireEvent(new ActionEvent());
-        }
-        catch (SQLException | IOException e) {
-            CONNECTION_MODEL.SQLAlert();
-        }
+        }, this::invalidAppointmentAlert);
     }
 }
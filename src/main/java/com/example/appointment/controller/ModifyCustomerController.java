@@ -3,21 +3,18 @@ package com.example.appointment.controller;
 import com.example.appointment.ConnectionModel;
 import com.example.appointment.Customer;
 import com.example.appointment.CustomerComboBoxModel;
+import com.example.appointment.ReferenceDataCache;
+import com.example.appointment.exceptions.InvalidCustomerException;
 import com.example.appointment.exceptions.SQLConnectionDroppedException;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javax.sql.rowset.CachedRowSet;
-import javax.sql.rowset.RowSetProvider;
 import java.io.IOException;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.*;
 
 /**
@@ -37,6 +34,8 @@ public class ModifyCustomerController extends AddCustomerController implements P
     @FXML
     private Button cancelButton;
     @FXML
+    private Button saveButton;
+    @FXML
     private ComboBox<String> countryComboBox;
     @FXML
     private ComboBox<String> divisionComboBox;
@@ -230,67 +229,48 @@ public class ModifyCustomerController extends AddCustomerController implements P
 
     /**
      * This method is overridden so that instead of adding a new customer to the database, the customer in the database is updated with the values from the
-     * customer object created in the saveCustomer() method.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
+     * customer object created in the saveCustomer() method. If the customer was deleted in the meantime the user is told and sent back to the customer list.
      * @see AddCustomerController#addCustomer(Customer)
      * */
     @Override
-    public void addCustomer(Customer customer) throws SQLConnectionDroppedException {
-        try{
-            String sqlCommand = "UPDATE CUSTOMERS SET Customer_Name = ?, Address = ?, Postal_Code = ?, Phone = ?, Last_Update = ?, Last_Updated_By = ?, Division_ID = ? WHERE Customer_ID = ?";
-
-            PreparedStatement stmt = CONNECTION_MODEL.getConnection().prepareStatement(sqlCommand);
-            stmt.setString(1, customer.getCustomerName());
-            stmt.setString(2, customer.getAddress());
-            stmt.setString(3, customer.getPostalCode());
-            stmt.setString(4, customer.getPhone());
-            stmt.setObject(5, ZonedDateTime.now());
-            stmt.setString(6, CONNECTION_MODEL.getCurrentUsername());
-            stmt.setInt(7, customer.getDivisionID());
-            stmt.setInt(8, customer.getCustomerID());
-
-            stmt.executeUpdate();
+    public void addCustomer(Customer customer){
+        String username = CONNECTION_MODEL.getCurrentUsername();
+        saveInBackground(saveButton, InvalidCustomerException.class, () -> CUSTOMER_SERVICE.update(customer, username), updated -> {
+            if (!updated){
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningText"));
+                alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("customerNotFoundText"));
+                alert.showAndWait();
+                cancelButton.fireEvent(new ActionEvent());
+                return;
+            }
             Alert alert = new Alert(Alert.AlertType.WARNING);
             alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningText"));
             alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("successText"));
             alert.setContentText(CONNECTION_MODEL.getResourceBundle().getString("customerAddedText") + " " + customer.getCustomerName() + ".");
             alert.showAndWait();
             cancelButton.fireEvent(new ActionEvent());
-        }
-        catch (SQLException | IOException e) {
-            CONNECTION_MODEL.SQLAlert();
-        }
+        }, this::invalidCustomerAlert);
     }
 
     /**
      * A method that returns a Country string from the division ID. This is necessary because the selected customer only includes
-     * the division ID. It doesn't have any information what the country is. So the program has to go back to the database and retrieve the information itself.
+     * the division ID. It doesn't have any information what the country is. So the program looks up the division's country in the reference data cache.
      * @param divisionId The ID of the division passed in to find the associated country.
      * @return The name of the country that is associated with the division ID.
      * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * */
     public String getCountryFromDivisionId(int divisionId) throws SQLConnectionDroppedException {
-        PreparedStatement preparedStatement = null;
-        ResultSet rs = null;
-        CachedRowSet crs = null;
         String country = "";
         try{
-            String query = "SELECT Country FROM COUNTRIES WHERE Country_ID = (SELECT Country_ID FROM FIRST_LEVEL_DIVISIONS WHERE Division_ID = ?)";
-            preparedStatement = ConnectionModel.getInstance().getConnection().prepareStatement(query);
-            preparedStatement.setString(1, String.valueOf(divisionId));
-            rs = preparedStatement.executeQuery();
-            crs = RowSetProvider.newFactory().createCachedRowSet();
-            crs.populate(rs);
-            while (crs.next()) {
-                country = crs.getString(1);
+            Integer countryId = ReferenceDataCache.getInstance().getCountryId(divisionId);
+            if (countryId != null) {
+                country = ReferenceDataCache.getInstance().getCountries().getOrDefault(countryId, "");
             }
         }
         catch (SQLException | IOException e){
             CONNECTION_MODEL.SQLAlert();
         }
-        finally{
-            closeSQLObjects(preparedStatement, rs, crs);
-        }
         return country;
     }
 }
@@ -1,8 +1,10 @@
 package com.example.appointment.controller;
 
 import com.example.appointment.ConnectionModel;
+import com.example.appointment.FormattingService;
 import com.example.appointment.exceptions.SQLConnectionDroppedException;
-import javax.sql.rowset.CachedRowSet;
+import com.example.appointment.service.AppointmentService;
+import com.example.appointment.service.CustomerService;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -17,64 +19,66 @@ public interface SQLControllerInterface{
      * */
     ConnectionModel CONNECTION_MODEL = ConnectionModel.getInstance();
 
+    /**
+     * The formatters and translated messages of the current language, for code that formats or looks up text once per row.
+     * */
+    FormattingService FORMATTING_SERVICE = FormattingService.getInstance();
+
+    /**
+     * The service that checks and saves appointments. The controllers only collect the values and show the results.
+     * */
+    AppointmentService APPOINTMENT_SERVICE = AppointmentService.getInstance();
+
+    /**
+     * The service that checks and saves customers.
+     * */
+    CustomerService CUSTOMER_SERVICE = CustomerService.getInstance();
+
     /**
      * A method that closes all the SQL objects that are passed in. The point of this method is to reduce copying and pasting
-     * because this method gets called every time the database is accessed.
+     * because this method gets called every time the database is accessed. It is called on the background threads of the DataAccessExecutor,
+     * so it throws instead of showing the SQL alert; the caller reports the error on the JavaFX application thread.
      * @param preparedStatement A PreparedStatement that is passed in to be closed.
-    *  @param rs A ResultSet that is passed in to be closed.
-     * @param crs A CachedRowSet that is passed in to be closed.
+     * @param rs A ResultSet that is passed in to be closed.
      * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * */
-    default void closeSQLObjects(PreparedStatement preparedStatement, ResultSet rs, CachedRowSet crs) throws SQLConnectionDroppedException{
+    default void closeSQLObjects(PreparedStatement preparedStatement, ResultSet rs) throws SQLConnectionDroppedException{
         try {
             if (preparedStatement != null) {
                 preparedStatement.close();
             }
         } catch (SQLException e) {
-            CONNECTION_MODEL.SQLAlert();
-
+            throw new SQLConnectionDroppedException();
         }
         try {
             if (rs != null) {
                 rs.close();
             }
         } catch (SQLException e) {
-            CONNECTION_MODEL.SQLAlert();
-        }
-        try {
-            if (crs != null) {
-                crs.close();
-            }
-        } catch (SQLException e) {
-            CONNECTION_MODEL.SQLAlert();
+            throw new SQLConnectionDroppedException();
         }
     }
 
     /**
-     * @see SQLControllerInterface#closeSQLObjects(PreparedStatement, ResultSet, CachedRowSet)
-     * @param preparedStatement A PreparedStatement that is passed in to be closed.
-     * @param rs A ResultSet that is passed in to be closed.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
+     * A method that runs an INSERT statement and returns the ID that the database generated for the new row. The IDs come from the
+     * table's auto-increment column, so they are unique even when several users insert rows at the same time.
+     * The statement must be prepared with Statement.RETURN_GENERATED_KEYS.
+     * @param preparedStatement The INSERT statement that will be run. It is not closed by this method.
+     * @return The generated ID of the new row.
+     * @throws SQLException If a SQL database error occurs, or if the database didn't generate an ID.
      * */
-    default void closeSQLObjects(PreparedStatement preparedStatement, ResultSet rs) throws SQLConnectionDroppedException{
-        try {
-            if (preparedStatement != null) {
-                preparedStatement.close();
+    default int executeInsert(PreparedStatement preparedStatement) throws SQLException {
+        preparedStatement.executeUpdate();
+        try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+            if (!generatedKeys.next()) {
+                throw new SQLException("The database did not generate an ID for the new row.");
             }
-        } catch (SQLException e) {
-            CONNECTION_MODEL.SQLAlert();
-        }
-        try {
-            if (rs != null) {
-                rs.close();
-            }
-        } catch (SQLException e) {
-            CONNECTION_MODEL.SQLAlert();
+            return generatedKeys.getInt(1);
         }
     }
 
     /**
-     * @see SQLControllerInterface#closeSQLObjects(PreparedStatement, ResultSet, CachedRowSet) 
+     * @see SQLControllerInterface#closeSQLObjects(PreparedStatement, ResultSet)
      * @param preparedStatement A PreparedStatement that is passed in to be closed.
      * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * */
@@ -84,7 +88,7 @@ public interface SQLControllerInterface{
                 preparedStatement.close();
             }
         } catch (SQLException e) {
-            CONNECTION_MODEL.SQLAlert();
+            throw new SQLConnectionDroppedException();
         }
     }
 }
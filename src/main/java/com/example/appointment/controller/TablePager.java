@@ -0,0 +1,461 @@
+package com.example.appointment.controller;
+
+import com.example.appointment.DataAccessExecutor;
+import com.example.appointment.DeltaSync;
+import com.example.appointment.KeysetPageLoader;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A class that fills a TableView one page at a time. The first page is displayed as soon as it arrives, and the next page is loaded
+ * in the background when the user scrolls close to the last row that has been loaded. At most LOADED_PAGES pages are kept in memory. When more
+ * are loaded the rows furthest from the viewport are dropped, and they are loaded again with the keyset query in the opposite direction when the user
+ * scrolls back to them.
+ * <br>
+ * Sorting is done by the database. When the user clicks a column header the table's sort policy reloads the first page with the
+ * matching ORDER BY, instead of sorting the loaded rows in memory. Columns that can't be sorted by the database are made unsortable.
+ * <br>
+ * After the rows have been changed, refresh() asks a DeltaSync Cursor for the rows that changed since they were loaded and patches them into the
+ * displayed rows in place. Each changed row is found and put in its place with a binary search, so a refresh costs as much as the change, not the table.
+ * When the Cursor has read every ID in the table, the displayed rows that are no longer in it, because another program deleted them, are removed as well.
+ * @param <T> The type of object displayed in the TableView.
+ * */
+final class TablePager<T> {
+    /**
+     * How many rows before the end of the loaded rows the next page starts loading.
+     * */
+    private static final int PREFETCH_ROWS = 20;
+    /**
+     * How many pages of rows are kept. The window is a few screens in either direction of the rows that are displayed.
+     * */
+    private static final int LOADED_PAGES = 5;
+
+    private final TableView<T> tableView;
+    private final Map<TableColumn<T, ?>, KeysetPageLoader.SortColumn<T>> sortColumns;
+    private final DeltaSync<T> sync;
+    private final Consumer<Throwable> failureHandler;
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+    private final Map<Integer, T> loadedById = new HashMap<>();
+    private final Object refreshKey = new Object();
+    private KeysetPageLoader<T> loader;
+    private DeltaSync.Cursor<T> cursor;
+    private KeysetPageLoader.SortColumn<T> sortColumn;
+    private boolean ascending = true;
+    private boolean loading;
+    private boolean lastPageLoaded;
+    private boolean rowsBeforeLoaded;
+    /**
+     * The future of a refresh that is waiting for a page to load, or null if there is none. It is completed when the refresh has been applied.
+     * */
+    private CompletableFuture<Void> pendingRefresh;
+    private int generation;
+
+    /**
+     * Constructor that connects the pager to the TableView.
+     * @param tableView The TableView that will display the rows.
+     * @param sortColumns The database column that each sortable TableColumn is ordered by.
+     * @param sync The changes to the table that the rows are loaded from.
+     * @param failureHandler The handler that is called if a page or a refresh fails to load.
+     * */
+    TablePager(TableView<T> tableView, Map<TableColumn<T, ?>, KeysetPageLoader.SortColumn<T>> sortColumns, DeltaSync<T> sync,
+            Consumer<Throwable> failureHandler){
+        this.tableView = tableView;
+        this.sortColumns = sortColumns;
+        this.sync = sync;
+        this.failureHandler = failureHandler;
+        for (TableColumn<T, ?> column : tableView.getColumns()){
+            column.setSortable(sortColumns.containsKey(column));
+        }
+        tableView.setItems(items);
+        tableView.setSortPolicy(table -> {
+            sortChanged();
+            return true;
+        });
+        tableView.setRowFactory(table -> new TableRow<>() {
+            @Override
+            public void updateIndex(int index) {
+                super.updateIndex(index);
+                if (index >= 0 && index >= items.size() - PREFETCH_ROWS){
+                    loadNextPage();
+                }
+                else if (index >= 0 && index < PREFETCH_ROWS){
+                    loadPreviousPage();
+                }
+            }
+        });
+    }
+
+    /**
+     * A method that replaces the rows in the TableView with the first page of a new query. Any page of the previous query that is still loading is cancelled.
+     * A new Cursor is started just before the first page is loaded, so refresh() finds everything that changes after this.
+     * @param newLoader The loader for the rows that will be displayed.
+     * @return A future that is completed with the first page after it has been displayed.
+     * */
+    CompletableFuture<List<T>> show(KeysetPageLoader<T> newLoader){
+        loader = newLoader;
+        closeCursor();
+        cursor = sync.cursor();
+        if (sortColumn == null){
+            sortColumn = newLoader.getIdColumn();
+        }
+        generation++;
+        loading = false;
+        lastPageLoaded = false;
+        rowsBeforeLoaded = false;
+        CompletableFuture<Void> deferredRefresh = takePendingRefresh();
+        items.clear();
+        loadedById.clear();
+        CompletableFuture<List<T>> firstPage = loadNextPage();
+        if (deferredRefresh != null){
+            firstPage.whenComplete((page, throwable) -> deferredRefresh.complete(null));
+        }
+        return firstPage;
+    }
+
+    /**
+     * A method that replaces the rows in the TableView with rows that didn't come from a page query, such as search results. Any page that is
+     * still loading is ignored, and no more pages are loaded until show() is called again.
+     * @param rows The rows that will be displayed.
+     * */
+    void showRows(List<T> rows){
+        loader = null;
+        closeCursor();
+        generation++;
+        loading = false;
+        lastPageLoaded = true;
+        rowsBeforeLoaded = false;
+        completePendingRefresh();
+        items.setAll(rows);
+        loadedById.clear();
+    }
+
+    /**
+     * A method that loads the page after the last row that is displayed. Nothing happens if a page is already loading or the last page has been loaded.
+     * @return A future that is completed with the page after it has been displayed.
+     * */
+    CompletableFuture<List<T>> loadNextPage(){
+        return loadPage(true);
+    }
+
+    /**
+     * A method that loads the page before the first row that is displayed, after it was dropped to keep the loaded rows within LOADED_PAGES.
+     * Nothing happens if a page is already loading or the first row of the query is displayed.
+     * @return A future that is completed with the page after it has been displayed.
+     * */
+    CompletableFuture<List<T>> loadPreviousPage(){
+        return loadPage(false);
+    }
+
+    /**
+     * Loads the page after the last row, or before the first row by running the page query in the opposite order from that row.
+     * */
+    private CompletableFuture<List<T>> loadPage(boolean forward){
+        if (loader == null || loading || (forward ? lastPageLoaded : !rowsBeforeLoaded)){
+            return CompletableFuture.completedFuture(List.of());
+        }
+        loading = true;
+        int pageGeneration = generation;
+        KeysetPageLoader<T> pageLoader = loader;
+        KeysetPageLoader.SortColumn<T> pageSortColumn = sortColumn;
+        boolean pageAscending = forward == ascending;
+        DeltaSync.Cursor<T> pageCursor = cursor;
+        T after = items.isEmpty() ? null : items.get(forward ? items.size() - 1 : 0);
+        DataAccessExecutor.DataAccessTask<List<T>> task = handle -> {
+            if (!pageCursor.isStarted()){
+                pageCursor.start(handle);
+            }
+            return pageLoader.loadPage(handle, pageSortColumn, pageAscending, after);
+        };
+        return DataAccessExecutor.getInstance().submitLatest(tableView, task).whenComplete((page, throwable) -> {
+            if (pageGeneration != generation){
+                return;
+            }
+            loading = false;
+            if (throwable == null){
+                boolean endReached = page.size() < pageLoader.getPageSize();
+                Comparator<T> order = pageLoader.comparator(pageSortColumn, ascending);
+                for (T row : page){
+                    T displayedRow = loadedById.put(sync.idOf(row), row);
+                    if (displayedRow != null){
+                        removeLoaded(displayedRow, order);
+                    }
+                }
+                if (forward){
+                    lastPageLoaded = endReached;
+                    items.addAll(page);
+                }
+                else{
+                    rowsBeforeLoaded = !endReached;
+                    List<T> rows = new ArrayList<>(page);
+                    Collections.reverse(rows);
+                    int top = firstVisibleIndex();
+                    items.addAll(0, rows);
+                    keepScrollPosition(top, rows.size());
+                }
+                dropRowsFurthestFromView(!forward);
+                if (pendingRefresh != null){
+                    refresh();
+                }
+            }
+            else{
+                lastPageLoaded = true;
+                rowsBeforeLoaded = false;
+                completePendingRefresh();
+                failureHandler.accept(throwable);
+            }
+        });
+    }
+
+    /**
+     * Drops the rows at one end of the loaded rows until no more than LOADED_PAGES pages are left. The rows are dropped from the start after a page
+     * was loaded at the end, and from the end after a page was loaded at the start.
+     * */
+    private void dropRowsFurthestFromView(boolean fromEnd){
+        int excess = items.size() - LOADED_PAGES * loader.getPageSize();
+        if (excess <= 0){
+            return;
+        }
+        List<T> droppedRows = fromEnd ? items.subList(items.size() - excess, items.size()) : items.subList(0, excess);
+        for (T row : droppedRows){
+            loadedById.remove(sync.idOf(row));
+        }
+        if (fromEnd){
+            droppedRows.clear();
+            lastPageLoaded = false;
+        }
+        else{
+            int top = firstVisibleIndex();
+            droppedRows.clear();
+            rowsBeforeLoaded = true;
+            keepScrollPosition(top, -excess);
+        }
+    }
+
+    /**
+     * @return The index of the first row that the TableView displays, or -1 if it hasn't been displayed yet.
+     * */
+    private int firstVisibleIndex(){
+        Node flow = tableView.lookup(".virtual-flow");
+        if (flow instanceof VirtualFlow){
+            IndexedCell<?> cell = ((VirtualFlow<?>) flow).getFirstVisibleCell();
+            return cell == null ? -1 : cell.getIndex();
+        }
+        return -1;
+    }
+
+    /**
+     * Scrolls the TableView back to the rows it displayed before rows were added or removed above them, so that the user doesn't see the table jump.
+     * */
+    private void keepScrollPosition(int top, int shift){
+        if (top >= 0){
+            tableView.scrollTo(Math.max(0, top + shift));
+        }
+    }
+
+    /**
+     * A method that patches the rows that changed since they were loaded into the TableView, without loading them again. A row that was
+     * changed is moved to its new place, or removed if it no longer matches the query, and a new row is added if it falls among the loaded rows.
+     * A row that falls after the last loaded row, or before the first loaded row when the rows before it were dropped, is left for its page to load.
+     * <br>
+     * If a page is loading, the refresh waits for it. If more rows changed than are loaded, the first page is loaded again instead, because that is cheaper.
+     * Nothing happens if the TableView displays rows from showRows().
+     * @return A future that is completed after the changes have been displayed.
+     * */
+    CompletableFuture<Void> refresh(){
+        if (cursor == null){
+            return CompletableFuture.completedFuture(null);
+        }
+        if (loading){
+            return deferRefresh();
+        }
+        CompletableFuture<Void> deferredRefresh = takePendingRefresh();
+        CompletableFuture<Void> refreshed = pollChanges();
+        if (deferredRefresh != null){
+            refreshed.whenComplete((ignored, throwable) -> deferredRefresh.complete(null));
+        }
+        return refreshed;
+    }
+
+    /**
+     * Reads the changes from the Cursor and applies them. If a page started loading while they were read, they are read again after it has loaded,
+     * and the future is only completed then.
+     * */
+    private CompletableFuture<Void> pollChanges(){
+        if (!cursor.isStarted()){
+            return CompletableFuture.completedFuture(null);
+        }
+        int refreshGeneration = generation;
+        DeltaSync.Cursor<T> refreshCursor = cursor;
+        return DataAccessExecutor.getInstance().submitLatest(refreshKey, refreshCursor::poll).handle((changes, throwable) -> {
+            if (refreshGeneration != generation){
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            if (throwable != null){
+                failureHandler.accept(throwable);
+            }
+            else if (loading){
+                return deferRefresh();
+            }
+            else{
+                applyChanges(changes);
+                refreshCursor.advance(changes);
+            }
+            return CompletableFuture.<Void>completedFuture(null);
+        }).thenCompose(refreshed -> refreshed);
+    }
+
+    private CompletableFuture<Void> deferRefresh(){
+        if (pendingRefresh == null){
+            pendingRefresh = new CompletableFuture<>();
+        }
+        return pendingRefresh;
+    }
+
+    private CompletableFuture<Void> takePendingRefresh(){
+        CompletableFuture<Void> deferredRefresh = pendingRefresh;
+        pendingRefresh = null;
+        return deferredRefresh;
+    }
+
+    /**
+     * Completes a refresh that was waiting for a page without applying it, because the rows were replaced or the page failed and the failure was handled.
+     * */
+    private void completePendingRefresh(){
+        CompletableFuture<Void> deferredRefresh = takePendingRefresh();
+        if (deferredRefresh != null){
+            deferredRefresh.complete(null);
+        }
+    }
+
+    private void applyChanges(DeltaSync.Changes<T> changes){
+        if (changes.isEmpty()){
+            return;
+        }
+        if (changes.size() > Math.max(items.size(), loader.getPageSize())){
+            show(loader);
+            return;
+        }
+        Comparator<T> order = loader.comparator(sortColumn, ascending);
+        Predicate<? super T> matcher = loader.getMatcher();
+        for (int id : changes.getDeletedIds()){
+            T displayedRow = loadedById.remove(id);
+            if (displayedRow != null){
+                removeLoaded(displayedRow, order);
+            }
+        }
+        if (changes.isReconciled()){
+            for (Iterator<Map.Entry<Integer, T>> loadedRows = loadedById.entrySet().iterator(); loadedRows.hasNext();){
+                Map.Entry<Integer, T> loadedRow = loadedRows.next();
+                if (changes.isMissing(loadedRow.getKey())){
+                    loadedRows.remove();
+                    removeLoaded(loadedRow.getValue(), order);
+                }
+            }
+        }
+        for (T row : changes.getChangedRows()){
+            int id = sync.idOf(row);
+            T displayedRow = loadedById.remove(id);
+            int index = displayedRow == null ? -1 : indexOfLoaded(displayedRow, order);
+            boolean matches = matcher == null ? displayedRow != null : matcher.test(row);
+            if (index >= 0 && matches && fitsAt(row, index, order)){
+                items.set(index, row);
+                loadedById.put(id, row);
+                continue;
+            }
+            if (index >= 0){
+                items.remove(index);
+            }
+            if (!matches){
+                continue;
+            }
+            int position = Collections.binarySearch(items, row, order);
+            position = position < 0 ? -position - 1 : position;
+            if ((position > 0 || !rowsBeforeLoaded) && (position < items.size() || lastPageLoaded)){
+                items.add(position, row);
+                loadedById.put(id, row);
+            }
+        }
+    }
+
+    private void closeCursor(){
+        if (cursor != null){
+            cursor.close();
+            cursor = null;
+        }
+    }
+
+    /**
+     * @return True if the row can replace the row at the index without leaving the order. The last loaded row is only replaced if there are no more
+     * pages, because the next page continues after it, and the first loaded row only if no rows before it were dropped, for the same reason.
+     * */
+    private boolean fitsAt(T row, int index, Comparator<T> order){
+        boolean afterPrevious = index == 0 ? !rowsBeforeLoaded : order.compare(items.get(index - 1), row) < 0;
+        boolean beforeNext = index == items.size() - 1 ? lastPageLoaded : order.compare(row, items.get(index + 1)) < 0;
+        return afterPrevious && beforeNext;
+    }
+
+    private void removeLoaded(T row, Comparator<T> order){
+        int index = indexOfLoaded(row, order);
+        if (index >= 0){
+            items.remove(index);
+        }
+    }
+
+    /**
+     * Finds a loaded row with a binary search. The database can order text differently than the comparator, such as by ignoring case,
+     * so the row is searched for one at a time if the binary search misses it.
+     * */
+    private int indexOfLoaded(T row, Comparator<T> order){
+        int index = Collections.binarySearch(items, row, order);
+        if (index >= 0 && items.get(index) == row){
+            return index;
+        }
+        for (int i = 0; i < items.size(); i++){
+            if (items.get(i) == row){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Called by the TableView's sort policy. If the column or direction that the user selected is different from the one that is displayed,
+     * the first page is loaded again in the new order.
+     * */
+    private void sortChanged(){
+        KeysetPageLoader.SortColumn<T> newSortColumn = null;
+        boolean newAscending = true;
+        if (!tableView.getSortOrder().isEmpty()){
+            TableColumn<T, ?> column = tableView.getSortOrder().get(0);
+            newSortColumn = sortColumns.get(column);
+            newAscending = column.getSortType() == TableColumn.SortType.ASCENDING;
+        }
+        if (newSortColumn == null && loader != null){
+            newSortColumn = loader.getIdColumn();
+        }
+        if (newSortColumn == sortColumn && newAscending == ascending){
+            return;
+        }
+        sortColumn = newSortColumn;
+        ascending = newAscending;
+        if (loader != null){
+            show(loader);
+        }
+    }
+}
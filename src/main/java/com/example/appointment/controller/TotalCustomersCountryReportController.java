@@ -2,20 +2,21 @@ package com.example.appointment.controller;
 
 import com.example.appointment.Customer;
 import com.example.appointment.CustomerComboBoxModel;
-import com.example.appointment.exceptions.SQLConnectionDroppedException;
+import com.example.appointment.ReportEngine;
+import com.example.appointment.ReportSummary;
 import javafx.beans.property.SimpleStringProperty;
+import javafx.event.ActionEvent;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.SortedList;
-import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import java.io.*;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A controller that loads the Total Customer Country Reports scene. This scene enables the user to select a country and see the total number of customers that are in that country.
@@ -46,10 +47,13 @@ public class TotalCustomersCountryReportController extends TotalCustomersMonthRe
     @FXML
     private ComboBox<String> customerCountryComboBox;
 
-    private PreparedStatement stmt;
-
     private CustomerComboBoxModel customerComboBoxModel;
 
+    /**
+     * The number of customers in each country.
+     * */
+    private CompletableFuture<ReportSummary<Integer>> countrySummary;
+
     /**
      * Sets the model instance for this controller so that it's using the same model throughout the program.
      * @throws SQLException If a SQL database error occurs.
@@ -63,6 +67,7 @@ public class TotalCustomersCountryReportController extends TotalCustomersMonthRe
     /**
      * A method that loads the customer country ComboBox with values from the database.
      * After the ComboBox gets it values from the setComboBoxValidation method it sorts the values in numerical order.
+     * It also starts loading the number of customers in every country on a background thread.
      * @throws SQLException If a SQL database error occurs.
      * @throws IOException If an input/output error occurs.
      * */
@@ -77,73 +82,79 @@ public class TotalCustomersCountryReportController extends TotalCustomersMonthRe
         Collections.sort(observableCountries);
         customerCountryComboBox.setOnAction(actionEvent -> {
             Integer countryId = reverseCountryHashMap.get(customerCountryComboBox.getValue());
-            try {
-                setCustomerTableView(countryId);
-            } catch (SQLConnectionDroppedException e) {
-                try {
-                    CONNECTION_MODEL.SQLAlert();
-                } catch (SQLConnectionDroppedException ex) {
-                    changeSceneToLoginController(actionEvent);
-                }
-            }
+            setCustomerTableView(countryId);
         });
+        countrySummary = loadReportSummary(customerCountryComboBox, ReportEngine::customersByCountry);
     }
 
     /**
-     * A method that retrieves a list of customers from the database based on the country ID and displays them in a Table View.
+     * A method that displays the total number of customers in the selected country. The customers themselves are only loaded when the user presses the Show Customers button.
      * @param countryId Takes in the ID of the country that was passed in.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * */
     @FXML
-    public void setCustomerTableView(Integer countryId) throws SQLConnectionDroppedException {
-        try {
+    public void setCustomerTableView(Integer countryId) {
+        if (countryId == null){
+            return;
+        }
+        countrySummary.thenAccept(summary -> selectReportValue(customerTableView, summary.getTotal(countryId), handle -> {
             String query = "SELECT * FROM customers WHERE Division_ID IN(select Division_ID FROM first_level_divisions WHERE Country_ID = ?); ";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(query);
+            PreparedStatement stmt = handle.track(CONNECTION_MODEL.getConnection().prepareStatement(query));
             stmt.setInt(1, countryId);
-            SortedList<Customer> sortedCustomerList = new SortedList<>(getCustomerList(stmt));
-            sortedCustomerList.comparatorProperty().bind(customerTableView.comparatorProperty());
-            customerDivisions = setCustomerDivisionNameList();
-            customerTableView.setItems(sortedCustomerList);
-            customerIdColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("customerID")
-            );
-            customerNameColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("customerName")
-            );
-            customerAddressColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("address")
-            );
-            customerPostalCodeColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("postalCode")
-            );
-            customerPhoneColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("phone")
-            );
-            customerCreatedDateColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customer.getValue().getLastUpdate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale())))
-            );
-            customerCreatedByColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("createdBy")
-            );
-            customerLastUpdateColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customer.getValue().getCreateDate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale())))
-            );
-            customerLastUpdatedByColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("lastUpdatedBy")
-            );
-            customerDivisionColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customerDivisions.get(customer.getValue().getDivisionID()))
-            );
+            return getCustomerList(stmt);
+        }));
+    }
 
-            customerTableView.setPlaceholder(new Label(CONNECTION_MODEL.getResourceBundle().getString("customerTableSetAppointmentsPlaceHolderText")));
-            TableView.TableViewSelectionModel<Customer> selectionCustomerModel = customerTableView.getSelectionModel();
-            selectionCustomerModel.setSelectionMode(SelectionMode.SINGLE);
-            setTotalCustomersLabel(sortedCustomerList.size());
-        } catch (IOException | SQLException e) {
-            CONNECTION_MODEL.SQLAlert();;
-        }
-        finally{
-            closeSQLObjects(stmt);
-        }
+    /**
+     * This method is overridden so that the customers for the selected country are displayed in this controller's TableView.
+     * @see TotalCustomersTypeReportController#showCustomerDetails(ActionEvent)
+     * */
+    @FXML
+    @Override
+    public void showCustomerDetails(ActionEvent event) {
+        loadSelectedCustomerDetails(customerTableView, this::displayCustomers);
+    }
+
+    /**
+     * A method that displays the customers in the TableView.
+     * @param customers The customers that were loaded for the selected country.
+     * */
+    private void displayCustomers(ObservableList<Customer> customers){
+        SortedList<Customer> sortedCustomerList = new SortedList<>(customers);
+        sortedCustomerList.comparatorProperty().bind(customerTableView.comparatorProperty());
+        customerTableView.setItems(sortedCustomerList);
+        customerIdColumn.setCellValueFactory(
+                new PropertyValueFactory<>("customerID")
+        );
+        customerNameColumn.setCellValueFactory(
+                new PropertyValueFactory<>("customerName")
+        );
+        customerAddressColumn.setCellValueFactory(
+                new PropertyValueFactory<>("address")
+        );
+        customerPostalCodeColumn.setCellValueFactory(
+                new PropertyValueFactory<>("postalCode")
+        );
+        customerPhoneColumn.setCellValueFactory(
+                new PropertyValueFactory<>("phone")
+        );
+        customerCreatedDateColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(FORMATTING_SERVICE.formatDate(customer.getValue().getLastUpdate()))
+        );
+        customerCreatedByColumn.setCellValueFactory(
+                new PropertyValueFactory<>("createdBy")
+        );
+        customerLastUpdateColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(FORMATTING_SERVICE.formatDate(customer.getValue().getCreateDate()))
+        );
+        customerLastUpdatedByColumn.setCellValueFactory(
+                new PropertyValueFactory<>("lastUpdatedBy")
+        );
+        customerDivisionColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(customerDivisions.get(customer.getValue().getDivisionID()))
+        );
+
+        customerTableView.setPlaceholder(new Label(CONNECTION_MODEL.getResourceBundle().getString("customerTableSetAppointmentsPlaceHolderText")));
+        TableView.TableViewSelectionModel<Customer> selectionCustomerModel = customerTableView.getSelectionModel();
+        selectionCustomerModel.setSelectionMode(SelectionMode.SINGLE);
     }
 }
@@ -1,7 +1,9 @@
 package com.example.appointment.controller;
 
 import com.example.appointment.Customer;
-import com.example.appointment.exceptions.SQLConnectionDroppedException;
+import com.example.appointment.DateRange;
+import com.example.appointment.ReportEngine;
+import com.example.appointment.ReportSummary;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -10,12 +12,12 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import java.io.IOException;
 import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.text.DateFormatSymbols;
-import java.time.format.DateTimeFormatter;
+import java.time.Year;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A controller that loads the Total Customer Month Reports scene. This scene enables the user to select a type and see the total number of customers for that month.
@@ -46,11 +48,15 @@ public class TotalCustomersMonthReportController extends TotalCustomersTypeRepor
     @FXML
     private ComboBox<String> appointmentMonthComboBox;
 
-    private PreparedStatement stmt;
+    /**
+     * The number of the current user's customers in each month of this year.
+     * */
+    private CompletableFuture<ReportSummary<Integer>> monthSummary;
 
     /**
      * A method that sets up the Month ComboBox using a DateFormatSymbols using object in order to ensure the list is internationalized.
      * It removes the 12th value from the list because the dateFormatSymbols object would always return a blank space for Calendar.UNDECIMBER value.
+     * It also starts loading the number of customers for every month of this year on a background thread.
      * */
     @FXML
     public void setAppointmentMonthComboBox(){
@@ -59,70 +65,84 @@ public class TotalCustomersMonthReportController extends TotalCustomersTypeRepor
         months.remove(12);
         ObservableList<String> observableMonths = FXCollections.observableList(months);
         appointmentMonthComboBox.setItems(observableMonths);
+        int userId = CONNECTION_MODEL.getUserId();
+        Year year = Year.from(DateRange.businessToday());
+        monthSummary = loadReportSummary(appointmentMonthComboBox, handle -> ReportEngine.customersByMonth(handle, userId, year));
     }
 
     /**
-     * This method overrides the original method so that it returns a table view based on the month instead of the appointment type.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
+     * This method overrides the original method so that it displays the total for the month instead of the appointment type.
      * @see TotalCustomersTypeReportController#setCustomerTableView(ActionEvent)
      * */
     @FXML
     @Override
-    public void setCustomerTableView(ActionEvent event) throws SQLConnectionDroppedException {
-        try {
-            Integer month = null;
-            if ((event.getSource() instanceof ComboBox)){
-                month = ((ComboBox<?>) event.getSource()).getItems().indexOf(((ComboBox<?>) event.getSource()).getValue());
-            }
-            String query = "SELECT * FROM CUSTOMERS WHERE Customer_ID IN (SELECT Customer_ID FROM APPOINTMENTS WHERE User_ID = ? AND month(Start) = ? AND year(Start) = ?)";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(query);
-            stmt.setInt(1, CONNECTION_MODEL.getUserId());
-            stmt.setInt(2, month + 1);
-            stmt.setInt(3, CONNECTION_MODEL.getCurrentTime().getYear());
-            SortedList<Customer> sortedCustomerList = new SortedList<>(getCustomerList(stmt));
-            sortedCustomerList.comparatorProperty().bind(customerTableView.comparatorProperty());
-            customerDivisions = setCustomerDivisionNameList();
-            customerTableView.setItems(sortedCustomerList);
-            customerIdColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("customerID")
-            );
-            customerNameColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("customerName")
-            );
-            customerAddressColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("address")
-            );
-            customerPostalCodeColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("postalCode")
-            );
-            customerPhoneColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("phone")
-            );
-            customerCreatedDateColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customer.getValue().getLastUpdate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale())))
-            );
-            customerCreatedByColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("createdBy")
-            );
-            customerLastUpdateColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customer.getValue().getCreateDate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale())))
-            );
-            customerLastUpdatedByColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("lastUpdatedBy")
-            );
-            customerDivisionColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customerDivisions.get(customer.getValue().getDivisionID()))
-            );
-
-            customerTableView.setPlaceholder(new Label(CONNECTION_MODEL.getResourceBundle().getString("customerTableSetAppointmentsPlaceHolderText")));
-            TableView.TableViewSelectionModel<Customer> selectionCustomerModel = customerTableView.getSelectionModel();
-            selectionCustomerModel.setSelectionMode(SelectionMode.SINGLE);
-            setTotalCustomersLabel(sortedCustomerList.size());
-        } catch (IOException |SQLException e) {
-            CONNECTION_MODEL.SQLAlert();;
-        }
-        finally{
-            closeSQLObjects(stmt);
+    public void setCustomerTableView(ActionEvent event) {
+        if (!(event.getSource() instanceof ComboBox)){
+            return;
         }
+        int month = ((ComboBox<?>) event.getSource()).getItems().indexOf(((ComboBox<?>) event.getSource()).getValue());
+        int userId = CONNECTION_MODEL.getUserId();
+        DateRange range = DateRange.ofMonth(YearMonth.of(DateRange.businessToday().getYear(), month + 1));
+        monthSummary.thenAccept(summary -> selectReportValue(customerTableView, summary.getTotal(month + 1), handle -> {
+            String query = "SELECT * FROM CUSTOMERS WHERE Customer_ID IN (SELECT Customer_ID FROM APPOINTMENTS WHERE User_ID = ? AND Start >= ? AND Start < ?)";
+            PreparedStatement stmt = handle.track(CONNECTION_MODEL.getConnection().prepareStatement(query));
+            stmt.setInt(1, userId);
+            range.bind(stmt, 2);
+            return getCustomerList(stmt);
+        }));
+    }
+
+    /**
+     * This method is overridden so that the customers for the selected month are displayed in this controller's TableView.
+     * @see TotalCustomersTypeReportController#showCustomerDetails(ActionEvent)
+     * */
+    @FXML
+    @Override
+    public void showCustomerDetails(ActionEvent event) {
+        loadSelectedCustomerDetails(customerTableView, this::displayCustomers);
+    }
+
+    /**
+     * A method that displays the customers in the TableView.
+     * @param customers The customers that were loaded for the selected month.
+     * */
+    private void displayCustomers(ObservableList<Customer> customers){
+        SortedList<Customer> sortedCustomerList = new SortedList<>(customers);
+        sortedCustomerList.comparatorProperty().bind(customerTableView.comparatorProperty());
+        customerTableView.setItems(sortedCustomerList);
+        customerIdColumn.setCellValueFactory(
+                new PropertyValueFactory<>("customerID")
+        );
+        customerNameColumn.setCellValueFactory(
+                new PropertyValueFactory<>("customerName")
+        );
+        customerAddressColumn.setCellValueFactory(
+                new PropertyValueFactory<>("address")
+        );
+        customerPostalCodeColumn.setCellValueFactory(
+                new PropertyValueFactory<>("postalCode")
+        );
+        customerPhoneColumn.setCellValueFactory(
+                new PropertyValueFactory<>("phone")
+        );
+        customerCreatedDateColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(FORMATTING_SERVICE.formatDate(customer.getValue().getLastUpdate()))
+        );
+        customerCreatedByColumn.setCellValueFactory(
+                new PropertyValueFactory<>("createdBy")
+        );
+        customerLastUpdateColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(FORMATTING_SERVICE.formatDate(customer.getValue().getCreateDate()))
+        );
+        customerLastUpdatedByColumn.setCellValueFactory(
+                new PropertyValueFactory<>("lastUpdatedBy")
+        );
+        customerDivisionColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(customerDivisions.get(customer.getValue().getDivisionID()))
+        );
+
+        customerTableView.setPlaceholder(new Label(CONNECTION_MODEL.getResourceBundle().getString("customerTableSetAppointmentsPlaceHolderText")));
+        TableView.TableViewSelectionModel<Customer> selectionCustomerModel = customerTableView.getSelectionModel();
+        selectionCustomerModel.setSelectionMode(SelectionMode.SINGLE);
     }
 }
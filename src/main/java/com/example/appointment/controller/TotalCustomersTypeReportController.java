@@ -8,19 +8,20 @@ import javafx.collections.ObservableList;
 import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javax.sql.rowset.CachedRowSet;
-import javax.sql.rowset.RowSetProvider;
 import java.io.IOException;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.format.DateTimeFormatter;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * A controller that loads the Total Customer Type Reports scene. This scene enables the user to select a type and see the total number of customers for that type.
@@ -54,16 +55,26 @@ public class TotalCustomersTypeReportController extends ReportsController implem
     private Button logoutButton;
     @FXML
     private Label totalCustomersLabel;
-    private PreparedStatement stmt;
 
     /**
      * A HashMap that saves the customer divisions as an integer key and the actual name of the division as a value. This way the TableView can display the customer division name
      * instead of just an ID.
      * */
-    protected HashMap<Integer, String> customerDivisions;
+    protected Map<Integer, String> customerDivisions;
+
+    /**
+     * The number of customers for each appointment type. It is loaded once when the scene opens, so selecting a type shows its total straight away.
+     * */
+    private CompletableFuture<ReportSummary<String>> typeSummary;
+
+    /**
+     * The query that loads the customers for the selected value of the report. It is only run when the user asks to see the customers.
+     * */
+    private DataAccessExecutor.DataAccessTask<ObservableList<Customer>> selectedCustomerDetails;
 
     /**
      * A method that loads the type combo box with all the available types of appointments from the database.
+     * It also starts loading the number of customers for every type on a background thread.
      * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * */
     @FXML
@@ -71,35 +82,21 @@ public class TotalCustomersTypeReportController extends ReportsController implem
         ObservableList<String> observableTypes = FXCollections.observableList(getAppointmentTypeList());
         Collections.sort(observableTypes);
         setStringComboBoxValidation(appointmentTypeComboBox, observableTypes);
+        typeSummary = loadReportSummary(appointmentTypeComboBox, ReportEngine::customersByType);
     }
 
     /**
-     * A method that retrieves a list of appointment types by accessing the database. It gets the
+     * A method that retrieves a list of the distinct appointment types from the reference data cache.
      * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * @return A list of various appointment types.
      * */
     public List<String> getAppointmentTypeList() throws SQLConnectionDroppedException {
-        PreparedStatement preparedStatement = null;
-        ResultSet rs = null;
-        CachedRowSet crs = null;
         List<String> types = new ArrayList<>();
         try {
-            String sqlCommand = "SELECT Type FROM APPOINTMENTS";
-            preparedStatement = CONNECTION_MODEL.getConnection().prepareStatement(sqlCommand);
-            rs = preparedStatement.executeQuery();
-            crs = RowSetProvider.newFactory().createCachedRowSet();
-            crs.populate(rs);
-            while(crs.next()){
-                if(!types.contains(crs.getString(1))){
-                    types.add(crs.getString(1));
-                }
-            }
+            types = new ArrayList<>(ReferenceDataCache.getInstance().getAppointmentTypes());
         } catch (SQLException | IOException e) {
             CONNECTION_MODEL.SQLAlert();
         }
-        finally{
-            closeSQLObjects(preparedStatement, rs, crs);
-        }
         return types;
     }
 
@@ -108,91 +105,165 @@ public class TotalCustomersTypeReportController extends ReportsController implem
      * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
      * @return  A HashMap of customer division IDs and division names.
      * */
-    protected HashMap<Integer, String> setCustomerDivisionNameList() throws SQLConnectionDroppedException {
-        CachedRowSet crs = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        HashMap<Integer, String> customerDivisions = new HashMap<>();
+    protected Map<Integer, String> setCustomerDivisionNameList() throws SQLConnectionDroppedException {
+        Map<Integer, String> customerDivisions = new HashMap<>();
         try{
-            String query = "SELECT Division_ID, Division FROM FIRST_LEVEL_DIVISIONS WHERE Division_ID IN (SELECT Division_ID FROM CUSTOMERS)";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(query);
-            rs = stmt.executeQuery();
-            crs = RowSetProvider.newFactory().createCachedRowSet();
-            crs.populate(rs);
-            while (crs.next()){
-                customerDivisions.put(crs.getInt(1), crs.getString(2));
-            }
+            customerDivisions = getCustomerDivisionNameList();
         }
         catch (SQLException | IOException e) {
             CONNECTION_MODEL.SQLAlert();
             logoutButton.fireEvent(new ActionEvent());
         }
-        finally{
-            closeSQLObjects(stmt,rs, crs);
-        }
         return customerDivisions;
     }
 
     /**
-     * A method that retrieves all customers that have appointments with the given type, then it adds the customers to an observable list, that are displayed in the TableView.
-     * @param event Passes in the data for the button that opened the controller. This data is used to log out if there's a SQL error.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
+     * A method that retrieves the HashMap of customer divisions from the reference data cache without displaying any alerts, so that it can be called from a background thread.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If an input/output error occurs.
+     * @return  A HashMap of customer division IDs and division names.
      * */
-    @FXML
-    public void setCustomerTableView(ActionEvent event) throws SQLConnectionDroppedException {
-        try {
-            String type = "";
-            if ((event.getSource() instanceof ComboBox)){
-                type = (String) ((ComboBox<?>) event.getSource()).getValue();
+    protected Map<Integer, String> getCustomerDivisionNameList() throws SQLException, IOException {
+        return ReferenceDataCache.getInstance().getDivisionNames();
+    }
+
+    /**
+     * A method that loads the totals for a report on a background thread. If the query fails the SQL alert is displayed,
+     * and the returned future is never completed.
+     * @param node A node in the scene of the report. It is used to find the window if the scene has to change.
+     * @param task The database work that computes the totals.
+     * @param <K> The type of the values that the customers are grouped by.
+     * @return A future that is completed on the JavaFX application thread with the totals.
+     * */
+    protected <K> CompletableFuture<ReportSummary<K>> loadReportSummary(Node node, DataAccessExecutor.DataAccessTask<ReportSummary<K>> task){
+        CompletableFuture<ReportSummary<K>> summary = DATA_ACCESS_EXECUTOR.submit(task);
+        summary.whenComplete((totals, throwable) -> {
+            if (throwable != null){
+                handleDataAccessFailure(node, throwable);
             }
-            String query = "SELECT * FROM CUSTOMERS WHERE Customer_ID IN (SELECT APPOINTMENTS.Customer_ID FROM APPOINTMENTS WHERE Type = ?)";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(query);
-            stmt.setString(1, type);
-            SortedList<Customer> sortedCustomerList = new SortedList<>(getCustomerList(stmt));
-            sortedCustomerList.comparatorProperty().bind(customerTableView.comparatorProperty());
-            customerDivisions = setCustomerDivisionNameList();
-            customerTableView.setItems(sortedCustomerList);
-            customerIdColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("customerID")
-            );
-            customerNameColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("customerName")
-            );
-            customerAddressColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("address")
-            );
-            customerPostalCodeColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("postalCode")
-            );
-            customerPhoneColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("phone")
-            );
-            customerCreatedDateColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customer.getValue().getLastUpdate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale())))
-            );
-            customerCreatedByColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("createdBy")
-            );
-            customerLastUpdateColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customer.getValue().getCreateDate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale())))
-            );
-            customerLastUpdatedByColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("lastUpdatedBy")
-            );
-            customerDivisionColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customerDivisions.get(customer.getValue().getDivisionID()))
-            );
-
-            customerTableView.setPlaceholder(new Label(CONNECTION_MODEL.getResourceBundle().getString("customerTableSetAppointmentsPlaceHolderText")));
-            TableView.TableViewSelectionModel<Customer> selectionCustomerModel = customerTableView.getSelectionModel();
-            selectionCustomerModel.setSelectionMode(SelectionMode.SINGLE);
-            setTotalCustomersLabel(sortedCustomerList.size());
-        } catch (IOException |SQLException e) {
-            CONNECTION_MODEL.SQLAlert();
+        });
+        return summary;
+    }
+
+    /**
+     * A method that displays the total for the value that the user selected, and clears the customers of the previous value.
+     * The customers for the new value are only loaded if the user asks to see them.
+     * @param tableView The TableView that displays the customers.
+     * @param total The number of customers for the selected value.
+     * @param details The query that loads the customers for the selected value.
+     * */
+    protected void selectReportValue(TableView<Customer> tableView, int total, DataAccessExecutor.DataAccessTask<ObservableList<Customer>> details){
+        DATA_ACCESS_EXECUTOR.cancel(tableView);
+        tableView.setItems(FXCollections.observableArrayList());
+        setTotalCustomersLabel(total);
+        selectedCustomerDetails = details;
+    }
+
+    /**
+     * A method that loads the customers for the value that the user selected, and displays them in the TableView.
+     * Nothing happens if no value has been selected yet.
+     * @param tableView The TableView that will display the customers.
+     * @param display The method that displays the customers in the TableView.
+     * */
+    protected void loadSelectedCustomerDetails(TableView<Customer> tableView, Consumer<ObservableList<Customer>> display){
+        if (selectedCustomerDetails != null){
+            loadCustomerTableView(tableView, selectedCustomerDetails, display);
         }
-        finally{
-            closeSQLObjects(stmt);
+    }
+
+    /**
+     * A method that loads the customers for a report on a background thread, together with the customer divisions, and then displays them on the
+     * JavaFX application thread. If the user picks another value before the query finishes, the older query is cancelled.
+     * @param tableView The TableView that will display the customers. It is also the key that cancels the previous query for the same table.
+     * @param task The database work that selects the customers for the report.
+     * @param display The method that displays the customers in the TableView.
+     * */
+    protected void loadCustomerTableView(TableView<Customer> tableView, DataAccessExecutor.DataAccessTask<ObservableList<Customer>> task, Consumer<ObservableList<Customer>> display){
+        DATA_ACCESS_EXECUTOR.submitLatest(tableView, handle -> {
+            ObservableList<Customer> customers = task.execute(handle);
+            return new AbstractMap.SimpleImmutableEntry<>(customers, getCustomerDivisionNameList());
+        }).whenComplete((customersAndDivisions, throwable) -> {
+            if (throwable == null){
+                customerDivisions = customersAndDivisions.getValue();
+                display.accept(customersAndDivisions.getKey());
+            }
+            else{
+                handleDataAccessFailure(tableView, throwable);
+            }
+        });
+    }
+
+    /**
+     * A method that displays the total number of customers that have appointments with the selected type. The total comes from the type summary,
+     * so no customers are loaded until the user presses the Show Customers button.
+     * @param event Passes in the data for the button that opened the controller. This data is used to log out if there's a SQL error.
+     * */
+    @FXML
+    public void setCustomerTableView(ActionEvent event) {
+        String type = "";
+        if ((event.getSource() instanceof ComboBox)){
+            type = (String) ((ComboBox<?>) event.getSource()).getValue();
         }
+        String selectedType = type;
+        typeSummary.thenAccept(summary -> selectReportValue(customerTableView, summary.getTotal(selectedType), handle -> {
+            String query = "SELECT * FROM CUSTOMERS WHERE Customer_ID IN (SELECT APPOINTMENTS.Customer_ID FROM APPOINTMENTS WHERE Type = ?)";
+            PreparedStatement stmt = handle.track(CONNECTION_MODEL.getConnection().prepareStatement(query));
+            stmt.setString(1, selectedType);
+            return getCustomerList(stmt);
+        }));
+    }
+
+    /**
+     * A method that loads the customers that have appointments with the selected type, and displays them in the TableView.
+     * @param event Passes in that the Show Customers button was pressed.
+     * */
+    @FXML
+    public void showCustomerDetails(ActionEvent event) {
+        loadSelectedCustomerDetails(customerTableView, this::displayCustomers);
+    }
+
+    /**
+     * A method that displays the customers in the TableView.
+     * @param customers The customers that were loaded for the selected type.
+     * */
+    private void displayCustomers(ObservableList<Customer> customers){
+        SortedList<Customer> sortedCustomerList = new SortedList<>(customers);
+        sortedCustomerList.comparatorProperty().bind(customerTableView.comparatorProperty());
+        customerTableView.setItems(sortedCustomerList);
+        customerIdColumn.setCellValueFactory(
+                new PropertyValueFactory<>("customerID")
+        );
+        customerNameColumn.setCellValueFactory(
+                new PropertyValueFactory<>("customerName")
+        );
+        customerAddressColumn.setCellValueFactory(
+                new PropertyValueFactory<>("address")
+        );
+        customerPostalCodeColumn.setCellValueFactory(
+                new PropertyValueFactory<>("postalCode")
+        );
+        customerPhoneColumn.setCellValueFactory(
+                new PropertyValueFactory<>("phone")
+        );
+        customerCreatedDateColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(FORMATTING_SERVICE.formatDate(customer.getValue().getLastUpdate()))
+        );
+        customerCreatedByColumn.setCellValueFactory(
+                new PropertyValueFactory<>("createdBy")
+        );
+        customerLastUpdateColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(FORMATTING_SERVICE.formatDate(customer.getValue().getCreateDate()))
+        );
+        customerLastUpdatedByColumn.setCellValueFactory(
+                new PropertyValueFactory<>("lastUpdatedBy")
+        );
+        customerDivisionColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(customerDivisions.get(customer.getValue().getDivisionID()))
+        );
+
+        customerTableView.setPlaceholder(new Label(CONNECTION_MODEL.getResourceBundle().getString("customerTableSetAppointmentsPlaceHolderText")));
+        TableView.TableViewSelectionModel<Customer> selectionCustomerModel = customerTableView.getSelectionModel();
+        selectionCustomerModel.setSelectionMode(SelectionMode.SINGLE);
     }
 
     /**
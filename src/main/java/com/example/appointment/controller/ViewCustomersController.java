@@ -5,7 +5,6 @@ import com.example.appointment.exceptions.CustomerHasAppointmentsException;
 import com.example.appointment.exceptions.ItemNotSelectException;
 import com.example.appointment.exceptions.SQLConnectionDroppedException;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -15,14 +14,12 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
-import javax.sql.rowset.CachedRowSet;
-import javax.sql.rowset.RowSetProvider;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.*;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Map;
 
 /**
  * A Controller for the view customer page of the program. It displays the customer TableView and a variety of options to select different pages.
@@ -55,127 +52,164 @@ public class ViewCustomersController extends MainController implements GetAppoin
     private TableView.TableViewSelectionModel<Customer> selectionCustomerModel;
     @FXML
     private Button logoutButton;
-    private HashMap<Integer, String> customerDivisions;
+    @FXML
+    private TextField customerSearchTextField;
+    @FXML
+    private RadioButton viewCustomersRadioButton;
+    private Map<Integer, String> customerDivisions;
     private Customer selectedCustomer = null;
+    private TablePager<Customer> customerPager;
+    private final Object customerDivisionsKey = new Object();
+    private final Object customerSearchKey = new Object();
 
     /**
-     * A list of customers who have appointments. This is important because customers cannot be deleted if they have an appointment.
+     * The most customers that a search displays. A search that matches more than this shows the best matches, as ordered by the CustomerSearchIndex.
      * */
-    protected List<Integer> customerIdsWithAppointments = null;
+    private static final int SEARCH_RESULT_LIMIT = 500;
 
     /**
-     * A method that sets up the customerIdsWithAppointments list so that it's updated with every customer that has an active appointment.
-     * It works by getting a list of appointments for every user, if the customer ID of that appointment is not in the list of customer IDs with appointments, then it is added.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
+     * The loader for the customer pages. The customers are ordered by their ID unless the user sorts by another column.
      * */
-    public void setCustomersIdsWithAppointments() throws SQLConnectionDroppedException {
-        try {
-            customerIdsWithAppointments = new ArrayList<>();
-            CONNECTION_MODEL.getConnection().setSchema("appointments");
-            String sqlQuery = "SELECT * FROM APPOINTMENTS";
-            PreparedStatement stmt = CONNECTION_MODEL.getConnection().prepareStatement(sqlQuery);
-            ArrayList<Appointment> appointments = new ArrayList<>(getAppointmentList(stmt));
-            for (Appointment appointment : appointments) {
-                if (!customerIdsWithAppointments.contains(appointment.getCustomerID())) {
-                    customerIdsWithAppointments.add(appointment.getCustomerID());
-                }
-            }
-        }
-        catch(SQLException | IOException e) {
-            CONNECTION_MODEL.SQLAlert();
-        }
-    }
+    private static final KeysetPageLoader<Customer> CUSTOMER_PAGES = new KeysetPageLoader<>("SELECT * FROM CUSTOMERS",
+            KeysetPageLoader.column("Customer_ID", Customer::getCustomerID), CustomerRowMapper.FACTORY);
 
     /**
      * A method that sets up the customer division name HashMap so that it can be accessed for by the division ComboBox.
-     * This works by connecting to the database, and retrieving the division ID as they key, and the Division as the value, for each customer.
+     * The divisions are read from the reference data cache, which loads every division with one query and keeps them until they expire.
      * @return A HashMap of the customer division ID as they key and the division as the value.
-     * @throws SQLConnectionDroppedException If a SQL error occurs that disrupts the connection to the database.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If an input/output error occurs.
      * */
-    protected HashMap<Integer, String> setCustomerDivisionNameHashMap() throws SQLConnectionDroppedException {
-        CachedRowSet crs = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        HashMap<Integer, String> customerDivisions = new HashMap<>();
-        try{
-            String query = "SELECT Division_ID, Division FROM FIRST_LEVEL_DIVISIONS WHERE Division_ID IN (SELECT Division_ID FROM CUSTOMERS)";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(query);
-            rs = stmt.executeQuery();
-            crs = RowSetProvider.newFactory().createCachedRowSet();
-            crs.populate(rs);
-            while (crs.next()){
-                customerDivisions.put(crs.getInt(1), crs.getString(2));
+    protected Map<Integer, String> setCustomerDivisionNameHashMap() throws SQLException, IOException {
+        return ReferenceDataCache.getInstance().getDivisionNames();
+    }
+
+
+    /**
+     * A method that sets up the TableView object by retrieving customer objects from the database one page at a time.
+     * The division names are loaded first on a background thread, and then the first page of customers is displayed as soon as it arrives.
+     * The next pages are loaded as the user scrolls. If the search field has text, the customers that match it are displayed instead.
+     * */
+    @FXML
+    public void setCustomerTableView() {
+        DATA_ACCESS_EXECUTOR.submitLatest(customerDivisionsKey, handle -> setCustomerDivisionNameHashMap()).whenComplete((divisions, throwable) -> {
+            if (throwable == null){
+                customerDivisions = divisions;
+                setCustomerTableViewColumns();
+                searchCustomers(customerSearchTextField.getText());
+            }
+            else{
+                handleDataAccessFailure(customerTableView, throwable);
             }
+        });
+    }
+
+    /**
+     * A method that sets up the columns of the TableView, and creates the pager that loads the customers into it. The pager and the listener of the
+     * search field are only created the first time this method is called, which also starts loading the CustomerSearchIndex in the background.
+     * The division column displays a name that isn't stored in the CUSTOMERS table, so it can't be sorted by the database.
+     * @return The pager that loads the customers into the TableView.
+     * */
+    private TablePager<Customer> setCustomerTableViewColumns() {
+        if (customerPager != null){
+            return customerPager;
         }
-        catch (SQLException | IOException e) {
-            CONNECTION_MODEL.SQLAlert();
+        customerIdColumn.setCellValueFactory(
+                new PropertyValueFactory<>("customerID")
+        );
+        customerNameColumn.setCellValueFactory(
+                new PropertyValueFactory<>("customerName")
+        );
+        customerAddressColumn.setCellValueFactory(
+                new PropertyValueFactory<>("address")
+        );
+        customerPostalCodeColumn.setCellValueFactory(
+                new PropertyValueFactory<>("postalCode")
+        );
+        customerPhoneColumn.setCellValueFactory(
+                new PropertyValueFactory<>("phone")
+        );
+        customerCreatedDateColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(FORMATTING_SERVICE.formatDate(customer.getValue().getLastUpdate()))
+        );
+        customerCreatedByColumn.setCellValueFactory(
+                new PropertyValueFactory<>("createdBy")
+        );
+        customerLastUpdateColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(FORMATTING_SERVICE.formatDate(customer.getValue().getCreateDate()))
+        );
+        customerLastUpdatedByColumn.setCellValueFactory(
+                new PropertyValueFactory<>("lastUpdatedBy")
+        );
+        customerDivisionColumn.setCellValueFactory(
+                customer -> new SimpleStringProperty(customerDivisions.get(customer.getValue().getDivisionID()))
+        );
+
+        selectionCustomerModel = customerTableView.getSelectionModel();
+        selectionCustomerModel.setSelectionMode(SelectionMode.SINGLE);
+
+        Map<TableColumn<Customer, ?>, KeysetPageLoader.SortColumn<Customer>> sortColumns = new HashMap<>();
+        sortColumns.put(customerIdColumn, CUSTOMER_PAGES.getIdColumn());
+        sortColumns.put(customerNameColumn, KeysetPageLoader.nullableColumn("Customer_Name", Customer::getCustomerName));
+        sortColumns.put(customerAddressColumn, KeysetPageLoader.nullableColumn("Address", Customer::getAddress));
+        sortColumns.put(customerPostalCodeColumn, KeysetPageLoader.nullableColumn("Postal_Code", Customer::getPostalCode));
+        sortColumns.put(customerPhoneColumn, KeysetPageLoader.nullableColumn("Phone", Customer::getPhone));
+        sortColumns.put(customerCreatedDateColumn, KeysetPageLoader.column("Last_Update", customer -> Timestamp.from(customer.getLastUpdate().toInstant())));
+        sortColumns.put(customerCreatedByColumn, KeysetPageLoader.nullableColumn("Created_By", Customer::getCreatedBy));
+        sortColumns.put(customerLastUpdateColumn, KeysetPageLoader.nullableColumn("Create_Date", customer -> customer.getCreateDate().toLocalDateTime()));
+        sortColumns.put(customerLastUpdatedByColumn, KeysetPageLoader.nullableColumn("Last_Updated_By", Customer::getLastUpdatedBy));
+        customerPager = new TablePager<>(customerTableView, sortColumns, DeltaSync.CUSTOMERS, throwable -> handleDataAccessFailure(customerTableView, throwable));
+        DATA_ACCESS_EXECUTOR.submit(handle -> {
+            CustomerSearchIndex.getInstance().ensureLoaded();
+            return null;
+        });
+        customerSearchTextField.textProperty().addListener((observable, oldValue, newValue) -> searchCustomers(newValue));
+        return customerPager;
+    }
+
+    /**
+     * A method that brings the TableView up to date after the customers have been changed, such as when the user comes back from adding or modifying one.
+     * Only the customers that changed since the table was loaded are read and patched into the displayed customers. If the search field has text, the search
+     * is run again instead, because the CustomerSearchIndex is already up to date. The customers are loaded if the TableView hasn't been loaded yet.
+     * */
+    public void refreshCustomers(){
+        if (customerPager == null){
+            setCustomerTableView();
+            return;
+        }
+        viewCustomersRadioButton.setSelected(true);
+        String query = customerSearchTextField.getText();
+        if (query == null || query.isBlank()){
+            customerPager.refresh();
         }
-        finally{
-            closeSQLObjects(stmt,rs, crs);
+        else{
+            searchCustomers(query);
         }
-        return customerDivisions;
     }
 
-
     /**
-     * A method that sets up the TableView object by retrieving customer objects from the database, adding them
-     * to an observable list and then displaying that list in the table.
-     * @throws IOException If an input/output error occurs.
-     * @throws SQLException If the database error occurs.
+     * A method that displays the customers that match the text in the search field, or every customer if the field is empty. The search is run by the
+     * CustomerSearchIndex on a background thread, and a search that is still running when the user types again is cancelled.
+     * The index is loaded when the scene opens, so a search normally takes less than a millisecond.
+     * @param query The text in the search field.
      * */
-    @FXML
-    public void setCustomerTableView() throws IOException, SQLException {
-        CachedRowSet crs = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        try {
-            String query = "SELECT * FROM CUSTOMERS";
-            stmt = CONNECTION_MODEL.getConnection().prepareStatement(query);
-            SortedList<Customer> sortedAppointmentList = new SortedList<>(getCustomerList(stmt));
-            sortedAppointmentList.comparatorProperty().bind(customerTableView.comparatorProperty());
-            customerDivisions = setCustomerDivisionNameHashMap();
-            customerTableView.setItems(sortedAppointmentList);
-            customerIdColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("customerID")
-            );
-            customerNameColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("customerName")
-            );
-            customerAddressColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("address")
-            );
-            customerPostalCodeColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("postalCode")
-            );
-            customerPhoneColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("phone")
-            );
-            customerCreatedDateColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customer.getValue().getLastUpdate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale())))
-            );
-            customerCreatedByColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("createdBy")
-            );
-            customerLastUpdateColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customer.getValue().getCreateDate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy", CONNECTION_MODEL.getCurrentLocale())))
-            );
-            customerLastUpdatedByColumn.setCellValueFactory(
-                    new PropertyValueFactory<>("lastUpdatedBy")
-            );
-            customerDivisionColumn.setCellValueFactory(
-                    customer -> new SimpleStringProperty(customerDivisions.get(customer.getValue().getDivisionID()))
-            );
-
+    private void searchCustomers(String query){
+        if (query == null || query.isBlank()){
+            DATA_ACCESS_EXECUTOR.cancel(customerSearchKey);
             customerTableView.setPlaceholder(new Label(CONNECTION_MODEL.getResourceBundle().getString("customerTableSetAppointmentsPlaceHolderText")));
-            selectionCustomerModel = customerTableView.getSelectionModel();
-            selectionCustomerModel.setSelectionMode(SelectionMode.SINGLE);
-        } catch (SQLException e) {
-            CONNECTION_MODEL.SQLAlert();
-            logoutButton.fireEvent(new ActionEvent());
-        }
-        finally{
-            closeSQLObjects(stmt,rs, crs);
+            customerPager.show(CUSTOMER_PAGES);
+            return;
         }
+        DATA_ACCESS_EXECUTOR.submitLatest(customerSearchKey, handle -> CustomerSearchIndex.getInstance().search(query, SEARCH_RESULT_LIMIT))
+                .whenComplete((customers, throwable) -> {
+                    if (throwable == null){
+                        customerTableView.setPlaceholder(new Label(CONNECTION_MODEL.getResourceBundle().getString("customerSearchNoResultsText")));
+                        customerPager.showRows(customers);
+                    }
+                    else{
+                        handleDataAccessFailure(customerTableView, throwable);
+                    }
+                });
     }
 
     /**
@@ -235,32 +269,23 @@ public class ViewCustomersController extends MainController implements GetAppoin
     }
 
     /**
-     * A method that allows a selected customer to be deleted from the database. After the customer is deleted the setCustomerTableView method
-     * is called again to refresh the displayed customers. If no customer is selected it will generate an error message from the
-     * getSelectedCustomerFromTable() method. If the customer has an appointment then the method throws an exception that is caught and
-     * generates an error message.
+     * A method that allows a selected customer to be deleted from the database. After the customer is deleted the refreshCustomers method
+     * removes it from the displayed customers without loading the other customers again. If no customer is selected it will generate an error message from the
+     * getSelectedCustomerFromTable() method. Whether the customer has an appointment is checked in the database when the button is pressed,
+     * and if it does the CustomerService throws an exception that is caught and generates an error message.
      * @param event - Passes in that the delete customer button was pressed.
      * */
     public void deleteCustomer(ActionEvent event){
-        PreparedStatement stmt = null;
         try{
             selectedCustomer = getSelectedCustomerFromTable();
-            if (customerIdsWithAppointments.contains(selectedCustomer.getCustomerID())){
-                throw new CustomerHasAppointmentsException();
-            }
-            else{
-                String query = "DELETE FROM CUSTOMERS WHERE Customer_ID = ?";
-                stmt = CONNECTION_MODEL.getConnection().prepareStatement(query);
-                stmt.setString(1, String.valueOf(selectedCustomer.getCustomerID()));
-                stmt.executeUpdate();
-                Alert alert = new Alert(Alert.AlertType.WARNING);
-                alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningText"));
-                alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("deleteText"));
-                alert.setContentText(CONNECTION_MODEL.getResourceBundle().getString("customerIdDeletedText") + " " + selectedCustomer.getCustomerName() + ".");
-                selectedCustomer = null;
-                alert.showAndWait();
-                setCustomerTableView();
-            }
+            CUSTOMER_SERVICE.delete(selectedCustomer.getCustomerID());
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningText"));
+            alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("deleteText"));
+            alert.setContentText(CONNECTION_MODEL.getResourceBundle().getString("customerIdDeletedText") + " " + selectedCustomer.getCustomerName() + ".");
+            selectedCustomer = null;
+            alert.showAndWait();
+            refreshCustomers();
         }
         catch (SQLException | IOException e){
             try{
@@ -271,18 +296,31 @@ public class ViewCustomersController extends MainController implements GetAppoin
             }
         }
         catch (CustomerHasAppointmentsException e){
-            e.Alert();
-        }
-        finally{
-            try {
-                CONNECTION_MODEL.closeSQLObjects(stmt);
-            }
-            catch (SQLConnectionDroppedException e){
-                changeSceneToLoginController(event);
-            }
+            customerHasAppointmentsAlert();
         }
     }
 
+    /**
+     * Displays an alert window that tells the user to delete the customer's appointments before deleting the customer.
+     * */
+    private void customerHasAppointmentsAlert(){
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle(CONNECTION_MODEL.getResourceBundle().getString("warningAlert"));
+        alert.setHeaderText(CONNECTION_MODEL.getResourceBundle().getString("customerHasAppointmentsAlertText"));
+        alert.showAndWait();
+    }
+
+    /**
+     * A method that imports customers from a CSV file when the Import Customers button is pressed. The imported customers are added to the table after the import.
+     * @param event Passes in that the Import Customers button was pressed.
+     * @see BulkImporter#importCustomers(DataAccessExecutor.QueryHandle, java.io.Reader)
+     * */
+    @FXML
+    public void importCustomers(ActionEvent event){
+        importCsvFile((Node) event.getSource(), path -> handle -> BulkImporter.importCustomers(handle, Files.newBufferedReader(path, StandardCharsets.UTF_8)),
+                this::refreshCustomers);
+    }
+
     /**
      * Gets the selected customer object from the TableView so that it can be passed into a method to be modified or deleted.
      * @return The selected customer from the TableView.
@@ -300,16 +338,9 @@ public class ViewCustomersController extends MainController implements GetAppoin
     @FXML
     public void changeSceneToMainControllerViewByWeek(ActionEvent event){
         try{
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/appointment/main-menu.fxml"), CONNECTION_MODEL.getResourceBundle());
-            Parent root = loader.load();
-            ((MainController)loader.getController()).changeViewByWeek(event);
-            ((MainController)loader.getController()).setZoneIdLabel();
-            Scene scene = new Scene(root);
-            Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
-            window.setTitle(CONNECTION_MODEL.getResourceBundle().getString("mainMenuHeaderTextLabel"));
-            window.setScene(scene);
-            window.centerOnScreen();
-            window.show();
+            MainController mainController = showCachedScene(event, "main-menu.fxml", "mainMenuHeaderTextLabel");
+            mainController.setZoneIdLabel();
+            mainController.changeViewByWeek(event);
         }
         catch (IOException e){
             try {
@@ -329,16 +360,32 @@ public class ViewCustomersController extends MainController implements GetAppoin
     @FXML
     public void changeSceneToMainControllerViewByMonth(ActionEvent event){
         try{
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/appointment/main-menu.fxml"), CONNECTION_MODEL.getResourceBundle());
-            Parent root = loader.load();
-            ((MainController)loader.getController()).changeViewByMonth(event);
-            ((MainController)loader.getController()).setZoneIdLabel();
-            Scene scene = new Scene(root);
-            Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
-            window.setTitle(CONNECTION_MODEL.getResourceBundle().getString("mainMenuHeaderTextLabel"));
-            window.setScene(scene);
-            window.centerOnScreen();
-            window.show();
+            MainController mainController = showCachedScene(event, "main-menu.fxml", "mainMenuHeaderTextLabel");
+            mainController.setZoneIdLabel();
+            mainController.changeViewByMonth(event);
+        }
+        catch (IOException e){
+            try {
+                CONNECTION_MODEL.SQLAlert();
+            }
+            catch (SQLConnectionDroppedException ex){
+                changeSceneToLoginController(event);
+            }
+        }
+    }
+
+    /**
+     * A method that changes the scene to the main controller page to display all the appointments when the view all appointments radio button is pressed.
+     * This method is overridden because the main page is kept while the user is away from it, and could still be showing a week or a month.
+     * @param event Takes in that the View All radio button was pressed.
+     * */
+    @FXML
+    @Override
+    public void changeSceneToMainController(ActionEvent event){
+        try{
+            MainController mainController = showCachedScene(event, "main-menu.fxml", "mainMenuHeaderTextLabel");
+            mainController.setZoneIdLabel();
+            mainController.changeViewAll(event);
         }
         catch (IOException e){
             try {
@@ -0,0 +1,13 @@
+package com.example.appointment.exceptions;
+
+import java.io.IOException;
+
+/**
+ * An exception that is thrown when a CSV file cannot be imported because of its format, such as a missing column or a quoted field that is never closed.
+ * Unlike other IOExceptions it doesn't mean that the connection to the database failed.
+ * */
+public class CsvFormatException extends IOException {
+    public CsvFormatException(String message){
+        super(message);
+    }
+}
@@ -1,10 +1,8 @@
 package com.example.appointment.exceptions;
 
-import com.example.appointment.ConnectionModel;
-import javafx.scene.control.Alert;
-
 /**
  * An exception that is designed to be thrown if a customer is being deleted that already has appointments associated with it.
+ * It is thrown by the CustomerService, so it doesn't show an alert itself. The controllers show the alert when they catch it.
  * */
 public class CustomerHasAppointmentsException extends Exception{
 
@@ -16,13 +14,10 @@ public class CustomerHasAppointmentsException extends Exception{
     }
 
     /**
-     * Displays an alert window with the text that displays an error message.
+     * A constructor that creates the CustomerHasAppointmentsException object for a specific customer.
+     * @param customerId The ID of the customer that has appointments.
      * */
-    public  void Alert(){
-        ConnectionModel connectionModel = ConnectionModel.getInstance();
-        Alert alert = new Alert(Alert.AlertType.WARNING);
-        alert.setTitle(connectionModel.getResourceBundle().getString("warningAlert"));
-        alert.setHeaderText(connectionModel.getResourceBundle().getString("customerHasAppointmentsAlertText"));
-        alert.showAndWait();
+    public CustomerHasAppointmentsException(int customerId){
+        super("Customer " + customerId + " still has appointments.");
     }
-}
\ No newline at end of file
+}
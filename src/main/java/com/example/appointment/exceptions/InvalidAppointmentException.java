@@ -0,0 +1,67 @@
+package com.example.appointment.exceptions;
+
+import com.example.appointment.Appointment;
+import java.util.List;
+
+/**
+ * An exception that is thrown by the AppointmentService when an appointment cannot be saved. The reason says which rule the appointment broke,
+ * so that the caller can show its own message, whether that is an alert, a log line or an HTTP response.
+ * */
+public class InvalidAppointmentException extends Exception{
+
+    /**
+     * The rules that an appointment has to follow before it is saved.
+     * <ul>
+     *     <li>OUTSIDE_BUSINESS_HOURS - The appointment doesn't start and end between 08:00 and 22:00 business time on the same day.</li>
+     *     <li>END_BEFORE_START - The appointment ends before it starts.</li>
+     *     <li>UNKNOWN_CUSTOMER - There is no customer with the appointment's customer ID.</li>
+     *     <li>OVERLAPPING - The customer already has an appointment at that time.</li>
+     * </ul>
+     * */
+    public enum Reason {
+        OUTSIDE_BUSINESS_HOURS,
+        END_BEFORE_START,
+        UNKNOWN_CUSTOMER,
+        OVERLAPPING
+    }
+
+    private final Reason reason;
+    private final List<Appointment> overlappingAppointments;
+
+    /**
+     * Constructs an InvalidAppointmentException for an appointment that broke one of the rules.
+     * @param reason The rule that the appointment broke.
+     * @param message A description of the problem.
+     * */
+    public InvalidAppointmentException(Reason reason, String message){
+        this(reason, message, List.of());
+    }
+
+    /**
+     * Constructs an InvalidAppointmentException for an appointment that overlaps the customer's other appointments.
+     * @param overlappingAppointments The appointments that the appointment overlaps.
+     * */
+    public InvalidAppointmentException(List<Appointment> overlappingAppointments){
+        this(Reason.OVERLAPPING, "The appointment overlaps " + overlappingAppointments.size() + " other appointment(s) of the customer.", overlappingAppointments);
+    }
+
+    private InvalidAppointmentException(Reason reason, String message, List<Appointment> overlappingAppointments){
+        super(message);
+        this.reason = reason;
+        this.overlappingAppointments = List.copyOf(overlappingAppointments);
+    }
+
+    /**
+     * @return The rule that the appointment broke.
+     * */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * @return The appointments that the appointment overlaps. The list is empty unless the reason is OVERLAPPING.
+     * */
+    public List<Appointment> getOverlappingAppointments() {
+        return overlappingAppointments;
+    }
+}
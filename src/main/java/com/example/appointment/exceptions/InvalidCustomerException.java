@@ -0,0 +1,27 @@
+package com.example.appointment.exceptions;
+
+import com.example.appointment.CustomerValidator;
+import java.util.Set;
+
+/**
+ * An exception that is thrown by the CustomerService when a customer has fields that are invalid for the customer's country.
+ * */
+public class InvalidCustomerException extends Exception{
+    private final Set<CustomerValidator.Field> invalidFields;
+
+    /**
+     * Constructs an InvalidCustomerException for the fields that failed validation.
+     * @param invalidFields The fields that are invalid.
+     * */
+    public InvalidCustomerException(Set<CustomerValidator.Field> invalidFields){
+        super("The customer has invalid fields: " + invalidFields + ".");
+        this.invalidFields = Set.copyOf(invalidFields);
+    }
+
+    /**
+     * @return The fields that are invalid.
+     * */
+    public Set<CustomerValidator.Field> getInvalidFields() {
+        return invalidFields;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.appointment.exceptions;
+
+import java.sql.SQLException;
+
+/**
+ * An exception that wraps a SQLException so that it can be thrown from inside a Stream, which cannot throw checked exceptions.
+ * */
+public class UncheckedSQLException extends RuntimeException{
+
+    /**
+     * Constructs an UncheckedSQLException object that wraps the SQL error.
+     * @param cause The SQL error that occurred while the stream was reading rows.
+     * */
+    public UncheckedSQLException(SQLException cause){
+        super(cause);
+    }
+
+    /**
+     * @return The SQL error that occurred while the stream was reading rows.
+     * */
+    @Override
+    public synchronized SQLException getCause(){
+        return (SQLException) super.getCause();
+    }
+}
@@ -0,0 +1,492 @@
+package com.example.appointment.server;
+
+import com.example.appointment.Appointment;
+import com.example.appointment.AuditLogger;
+import com.example.appointment.ConnectionModel;
+import com.example.appointment.DataAccessExecutor;
+import com.example.appointment.DateRange;
+import com.example.appointment.JsonWriter;
+import com.example.appointment.QueryMetrics;
+import com.example.appointment.QueryStatistics;
+import com.example.appointment.ReferenceDataCache;
+import com.example.appointment.ReportEngine;
+import com.example.appointment.ReportSummary;
+import com.example.appointment.service.AppointmentService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An optional HTTP server that lets other systems read the schedules as JSON. It is built on the JDK's com.sun.net.httpserver, so it needs no
+ * extra dependencies, and it only reads through the AppointmentService and the ReportEngine, so it returns exactly what the desktop program shows.
+ * <br>
+ * The endpoints are:
+ * <ul>
+ *     <li>GET /api/users/{id}/appointments</li>
+ *     <li>GET /api/contacts/{id}/appointments</li>
+ *     <li>GET /api/customers/{id}/appointments</li>
+ *     <li>GET /api/reports/customers-by-type</li>
+ *     <li>GET /api/reports/customers-by-month?userId={id}&amp;year={yyyy}</li>
+ *     <li>GET /api/reports/customers-by-country</li>
+ *     <li>GET /api/metrics/queries</li>
+ * </ul>
+ * The appointment endpoints take range=day, week or month, which is week by default, and date=yyyy-MM-dd, which is today in the business time zone by default.
+ * The appointments are written to the response as they are read from the database, so a large range is never held in memory. Nothing is sent
+ * until the first row has been read, so a failure to borrow a connection or to run the query is still reported with its own status code:
+ * a 503 when no connection is free before the pool's borrow timeout, or when the query times out, and a 500 when the query fails.
+ * <br>
+ * Each request runs on its own virtual thread when the JVM supports them, and on a bounded thread pool otherwise. The server has no authentication,
+ * so it only listens on the loopback address unless appointment.api.host is set.
+ * */
+public final class ApiServer implements AutoCloseable {
+    /**
+     * The system property with the port that the desktop program starts the server on. The server isn't started if it isn't set.
+     * */
+    public static final String PORT_PROPERTY = "appointment.api.port";
+    /**
+     * The system property with the address that the server listens on. It is the loopback address by default.
+     * */
+    public static final String HOST_PROPERTY = "appointment.api.host";
+    /**
+     * The system property with the number of request threads, for JVMs without virtual threads.
+     * */
+    public static final String THREADS_PROPERTY = "appointment.api.threads";
+    /**
+     * The system property with the username that the standalone server logs in with.
+     * */
+    public static final String USERNAME_PROPERTY = "appointment.api.username";
+    /**
+     * The environment variable with the password that the standalone server logs in with. It isn't a system property so that it doesn't show up in the process list.
+     * */
+    public static final String PASSWORD_VARIABLE = "APPOINTMENT_API_PASSWORD";
+    private static final int DEFAULT_PORT = 8080;
+    private static final int STOP_DELAY_SECONDS = 1;
+    private static final Logger LOGGER = Logger.getLogger(ApiServer.class.getName());
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private ApiServer(HttpServer server, ExecutorService executor){
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * A method that starts the server.
+     * @param address The address and port that the server listens on. Port 0 picks a free port.
+     * @return The running server.
+     * @throws IOException If the server cannot listen on the address.
+     * */
+    public static ApiServer start(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        ExecutorService executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", new Router());
+        server.start();
+        LOGGER.info("The API server is listening on " + server.getAddress() + ".");
+        return new ApiServer(server, executor);
+    }
+
+    /**
+     * A method that starts the server if the appointment.api.port system property is set.
+     * @return The running server, or null if the property isn't set.
+     * @throws IOException If the server cannot listen on the address.
+     * */
+    public static ApiServer startIfConfigured() throws IOException {
+        Integer port = Integer.getInteger(PORT_PROPERTY);
+        if (port == null){
+            return null;
+        }
+        return start(configuredAddress(port));
+    }
+
+    /**
+     * @return The port that the server is listening on.
+     * */
+    public int getPort(){
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server. Requests that are running are given a second to finish.
+     * */
+    @Override
+    public void close(){
+        server.stop(STOP_DELAY_SECONDS);
+        executor.shutdown();
+    }
+
+    /**
+     * Runs the server without the desktop program. It logs in with the appointment.api.username system property and the APPOINTMENT_API_PASSWORD
+     * environment variable and listens on appointment.api.port, which is 8080 by default.
+     * @param args The command-line arguments, which are not used.
+     * @throws IOException If the server cannot listen on the address.
+     * */
+    public static void main(String[] args) throws IOException {
+        String username = System.getProperty(USERNAME_PROPERTY);
+        String password = System.getenv(PASSWORD_VARIABLE);
+        if (username == null || password == null){
+            System.err.println("Set the " + USERNAME_PROPERTY + " system property and the " + PASSWORD_VARIABLE + " environment variable to log in.");
+            System.exit(1);
+            return;
+        }
+        ConnectionModel connectionModel = ConnectionModel.getInstance();
+        try {
+            connectionModel.establishConnection(username, password.toCharArray());
+        }
+        catch (SQLException e){
+            System.err.println("The database could not be reached, or the username or password is wrong.");
+            System.exit(1);
+            return;
+        }
+        ApiServer apiServer = start(configuredAddress(Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT)));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.close();
+            connectionModel.closeConnectionPool();
+            AuditLogger.getInstance().close();
+        }, "api-server-shutdown"));
+    }
+
+    private static InetSocketAddress configuredAddress(int port){
+        String host = System.getProperty(HOST_PROPERTY);
+        return host == null ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port) : new InetSocketAddress(host, port);
+    }
+
+    /**
+     * Creates the executor that runs the requests. Virtual threads are used when the JVM has them, which is Java 21 and later. The program is built
+     * for Java 17, so the factory method is looked up when the server starts instead of being called directly.
+     * */
+    private static ExecutorService newRequestExecutor(){
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e){
+            int threadCount = Math.max(1, Integer.getInteger(THREADS_PROPERTY, 16));
+            AtomicInteger threadNumber = new AtomicInteger();
+            return new ThreadPoolExecutor(threadCount, threadCount, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "api-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * An error that is sent to the client as a JSON object with a status code.
+     * */
+    private static final class ApiException extends Exception {
+        private final int status;
+
+        private ApiException(int status, String message){
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * A writer for the response body that only sends the headers when the first character is written. Until then an error can still be sent
+     * with its own status code, and after that the response is streamed with chunked encoding.
+     * */
+    private static final class ResponseWriter extends Writer {
+        private final HttpExchange exchange;
+        private Writer body;
+
+        private ResponseWriter(HttpExchange exchange){
+            this.exchange = exchange;
+        }
+
+        private boolean isCommitted(){
+            return body != null;
+        }
+
+        private Writer body() throws IOException {
+            if (body == null){
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, 0);
+                body = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+            }
+            return body;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            body().write(buffer, offset, length);
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            body().write(text, offset, length);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            body().write(c);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (body != null){
+                body.flush();
+            }
+        }
+
+        /**
+         * Closes the body if anything was written. If nothing was, the headers are left unsent so that an error can still be sent.
+         * */
+        @Override
+        public void close() throws IOException {
+            if (body != null){
+                body.close();
+            }
+        }
+    }
+
+    /**
+     * The handler that sends each request under /api/ to its endpoint.
+     * */
+    private static final class Router implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            ResponseWriter response = new ResponseWriter(exchange);
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())){
+                    throw new ApiException(405, "Only GET requests are supported.");
+                }
+                String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+                Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+                try (JsonWriter json = new JsonWriter(response)){
+                    route(path, parameters, json);
+                }
+            }
+            catch (ApiException e){
+                sendError(exchange, response, e.status, e.getMessage());
+            }
+            catch (NumberFormatException | DateTimeException e){
+                sendError(exchange, response, 400, "A parameter is not valid: " + e.getMessage());
+            }
+            catch (SQLTimeoutException | SQLTransientConnectionException e){
+                LOGGER.log(Level.WARNING, "An API request timed out: " + exchange.getRequestURI(), e);
+                sendError(exchange, response, 503, "The database is busy. Try again later.");
+            }
+            catch (SQLException e){
+                LOGGER.log(Level.WARNING, "An API request failed: " + exchange.getRequestURI(), e);
+                sendError(exchange, response, 500, "The database could not be read.");
+            }
+            catch (IOException | UncheckedIOException e){
+                if (!response.isCommitted()){
+                    sendError(exchange, response, 503, "The database is not connected.");
+                }
+            }
+            finally {
+                exchange.close();
+            }
+        }
+
+        private static void route(String[] path, Map<String, String> parameters, JsonWriter json) throws ApiException, SQLException, IOException {
+            if (path.length == 3 && path[2].equals("appointments")){
+                AppointmentService.Owner owner;
+                switch (path[0]){
+                    case "users":
+                        owner = AppointmentService.Owner.USER;
+                        break;
+                    case "contacts":
+                        owner = AppointmentService.Owner.CONTACT;
+                        break;
+                    case "customers":
+                        owner = AppointmentService.Owner.CUSTOMER;
+                        break;
+                    default:
+                        throw new ApiException(404, "There is no such endpoint.");
+                }
+                writeAppointments(json, owner, Integer.parseInt(path[1]), parseRange(parameters));
+            }
+            else if (path.length == 2 && path[0].equals("reports")){
+                DataAccessExecutor.QueryHandle handle = new DataAccessExecutor.QueryHandle();
+                switch (path[1]){
+                    case "customers-by-type":
+                        writeTotals(json, "type", ReportEngine.customersByType(handle), null);
+                        break;
+                    case "customers-by-month":
+                        int userId = Integer.parseInt(requiredParameter(parameters, "userId"));
+                        Year year = parameters.containsKey("year") ? Year.parse(parameters.get("year")) : Year.from(DateRange.businessToday());
+                        writeTotals(json, "month", ReportEngine.customersByMonth(handle, userId, year), null);
+                        break;
+                    case "customers-by-country":
+                        writeTotals(json, "countryId", ReportEngine.customersByCountry(handle), ReferenceDataCache.getInstance().getCountries());
+                        break;
+                    default:
+                        throw new ApiException(404, "There is no such report.");
+                }
+            }
+            else if (path.length == 2 && path[0].equals("metrics") && path[1].equals("queries")){
+                writeQueryStatistics(json, QueryMetrics.getInstance().getQueryStatistics());
+            }
+            else {
+                throw new ApiException(404, "There is no such endpoint.");
+            }
+        }
+
+        /**
+         * Writes the appointments as an array. The array is only opened when the first row has been read, because opening it sends the headers
+         * with a 200. Until then a connection that can't be borrowed or a query that fails is still sent as a 503 or a 500.
+         * */
+        private static void writeAppointments(JsonWriter json, AppointmentService.Owner owner, int ownerId, DateRange range) throws SQLException, IOException {
+            boolean[] arrayStarted = {false};
+            AppointmentService.getInstance().forEach(owner, ownerId, range, appointment -> {
+                try {
+                    if (!arrayStarted[0]){
+                        json.beginArray();
+                        arrayStarted[0] = true;
+                    }
+                    writeAppointment(json, appointment);
+                }
+                catch (IOException e){
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!arrayStarted[0]){
+                json.beginArray();
+            }
+            json.endArray();
+        }
+
+        private static void writeAppointment(JsonWriter json, Appointment appointment) throws IOException {
+            json.beginObject()
+                    .name("appointmentId").value(appointment.getAppointmentID())
+                    .name("title").value(appointment.getTitle())
+                    .name("description").value(appointment.getDescription())
+                    .name("location").value(appointment.getLocation())
+                    .name("type").value(appointment.getType())
+                    .name("start").value(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(appointment.getStartDate()))
+                    .name("end").value(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(appointment.getEndDate()))
+                    .name("customerId").value(appointment.getCustomerID())
+                    .name("userId").value(appointment.getUserID())
+                    .name("contactId").value(appointment.getContactID())
+                    .endObject();
+        }
+
+        private static void writeQueryStatistics(JsonWriter json, List<QueryStatistics> statistics) throws IOException {
+            json.beginArray();
+            for (QueryStatistics stats : statistics){
+                json.beginObject()
+                        .name("caller").value(stats.getCaller())
+                        .name("sql").value(stats.getSql())
+                        .name("executions").value(stats.getExecutions())
+                        .name("errors").value(stats.getErrors())
+                        .name("rows").value(stats.getRows())
+                        .name("meanMicros").value(stats.getMeanMicros())
+                        .name("p50Micros").value(stats.getP50Micros())
+                        .name("p95Micros").value(stats.getP95Micros())
+                        .name("p99Micros").value(stats.getP99Micros())
+                        .name("maxMicros").value(stats.getMaxMicros())
+                        .endObject();
+            }
+            json.endArray();
+        }
+
+        /**
+         * Writes a report as an array of objects with the value and its number of customers.
+         * @param names The names of the values, such as the country names, or null if the values have no names.
+         * */
+        private static <K> void writeTotals(JsonWriter json, String keyName, ReportSummary<K> summary, Map<K, String> names) throws IOException {
+            json.beginArray();
+            for (Map.Entry<K, Integer> total : summary.getTotals().entrySet()){
+                json.beginObject().name(keyName);
+                K key = total.getKey();
+                if (key instanceof Number){
+                    json.value(((Number) key).longValue());
+                }
+                else {
+                    json.value(String.valueOf(key));
+                }
+                if (names != null){
+                    json.name("name").value(names.get(key));
+                }
+                json.name("customers").value(total.getValue()).endObject();
+            }
+            json.endArray();
+        }
+
+        private static DateRange parseRange(Map<String, String> parameters) throws ApiException {
+            LocalDate date = parameters.containsKey("date") ? LocalDate.parse(parameters.get("date")) : DateRange.businessToday();
+            switch (parameters.getOrDefault("range", "week")){
+                case "day":
+                    return DateRange.ofDay(date);
+                case "week":
+                    return DateRange.ofWeek(date);
+                case "month":
+                    return DateRange.ofMonth(YearMonth.from(date));
+                default:
+                    throw new ApiException(400, "The range must be day, week or month.");
+            }
+        }
+
+        private static String requiredParameter(Map<String, String> parameters, String name) throws ApiException {
+            String value = parameters.get(name);
+            if (value == null){
+                throw new ApiException(400, "The " + name + " parameter is required.");
+            }
+            return value;
+        }
+
+        private static Map<String, String> parseQuery(String rawQuery){
+            Map<String, String> parameters = new HashMap<>();
+            if (rawQuery == null || rawQuery.isEmpty()){
+                return parameters;
+            }
+            for (String pair : rawQuery.split("&")){
+                int equals = pair.indexOf('=');
+                String name = equals < 0 ? pair : pair.substring(0, equals);
+                String value = equals < 0 ? "" : pair.substring(equals + 1);
+                parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+            return parameters;
+        }
+
+        /**
+         * Sends an error as a JSON object. If the headers were already sent the response can't be changed any more, so the connection is closed
+         * and the client sees a response that ends early.
+         * */
+        private static void sendError(HttpExchange exchange, ResponseWriter response, int status, String message) throws IOException {
+            if (response.isCommitted()){
+                return;
+            }
+            StringWriter body = new StringWriter();
+            try (JsonWriter json = new JsonWriter(body)){
+                json.beginObject().name("error").value(message).endObject();
+            }
+            byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+}
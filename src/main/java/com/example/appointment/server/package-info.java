@@ -0,0 +1,6 @@
+/**
+ * <p>This package has the optional HTTP server that lets other systems read the appointment schedules and the Total Customers reports as JSON.
+ * It reads through the services and the ReportEngine, and doesn't use JavaFX, so it can run inside the desktop program or on its own.
+ * </p>
+ * */
+package com.example.appointment.server;
@@ -0,0 +1,423 @@
+package com.example.appointment.service;
+
+import com.example.appointment.AlertScheduler;
+import com.example.appointment.Appointment;
+import com.example.appointment.AppointmentIndex;
+import com.example.appointment.AppointmentRowMapper;
+import com.example.appointment.AuditLogger;
+import com.example.appointment.ConnectionModel;
+import com.example.appointment.DateRange;
+import com.example.appointment.DeltaSync;
+import com.example.appointment.ReferenceDataCache;
+import com.example.appointment.ResultSetStreams;
+import com.example.appointment.exceptions.InvalidAppointmentException;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * A Singleton class that holds the appointment rules and writes appointments to the database without any user interface. The controllers,
+ * the importer and any other front-end all go through it, so an appointment is checked the same way no matter where it comes from.
+ * <br>
+ * The service keeps no state of its own, and every call borrows its own connection from the ConnectionModel's pool, so it can be called from
+ * many threads at once. Saving an appointment locks the customer's row for the length of the transaction, so two callers booking the same customer
+ * at the same time can't both pass the overlap check.
+ * <br>
+ * Overlaps are found with one range query on the (Customer_ID, Start, End) index by default. The appointment.overlapCheck system property can be set
+ * to "index" to check the in-memory AppointmentIndex instead, as a fallback for databases that don't have that index.
+ * */
+public final class AppointmentService {
+    /**
+     * The time that the business opens, in the business time zone.
+     * */
+    public static final LocalTime BUSINESS_START_TIME = LocalTime.of(8, 0);
+    /**
+     * The time that the business closes, in the business time zone.
+     * */
+    public static final LocalTime BUSINESS_END_TIME = LocalTime.of(22, 0);
+    private static final ZoneId BUSINESS_ZONE_ID = AppointmentRowMapper.BUSINESS_ZONE_ID;
+    private static final String INSERT_APPOINTMENT = "INSERT INTO APPOINTMENTS (Title, Description, Location, Type, Start, End, Create_Date, Created_By, "
+            + "Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_APPOINTMENT = "UPDATE APPOINTMENTS SET Title = ?, Description = ?, Location = ?, Type = ?, Start = ?, End = ?, "
+            + "Last_Update = ?, Last_Updated_By = ?, Customer_ID = ?, User_ID = ?, Contact_ID = ? WHERE Appointment_ID = ?";
+    private static final String LOCK_CUSTOMER = "SELECT Customer_ID FROM CUSTOMERS WHERE Customer_ID = ? FOR UPDATE";
+    private static final String FIND_OVERLAPS = "SELECT * FROM APPOINTMENTS WHERE Customer_ID = ? AND Start < ? AND End > ? AND Appointment_ID <> ? ORDER BY Start";
+    /**
+     * The system property that chooses how overlapping appointments are found. It can be set to "database" or "index".
+     * */
+    public static final String OVERLAP_CHECK_PROPERTY = "appointment.overlapCheck";
+    private static AppointmentService INSTANCE;
+
+    /**
+     * The ways that overlapping appointments can be found.
+     * <ul>
+     *     <li>DATABASE - Sends a single range query that the (Customer_ID, Start, End) index can answer. This is the default.</li>
+     *     <li>INDEX - Checks the in-memory AppointmentIndex. This is kept as a fallback for databases without the index. The AppointmentIndex only
+     *     sees the appointments that were saved through this program after it was loaded, so this mode is meant for a database that no other program writes to.</li>
+     * </ul>
+     * */
+    public enum OverlapCheckMode {
+        DATABASE,
+        INDEX;
+
+        /**
+         * @return The mode that is selected by the appointment.overlapCheck system property, or DATABASE if it isn't set.
+         * */
+        public static OverlapCheckMode current(){
+            String mode = System.getProperty(OVERLAP_CHECK_PROPERTY, DATABASE.name());
+            return INDEX.name().equalsIgnoreCase(mode) ? INDEX : DATABASE;
+        }
+    }
+
+    /**
+     * The people that an appointment belongs to, and the column that selects their appointments.
+     * */
+    public enum Owner {
+        USER("User_ID"),
+        CONTACT("Contact_ID"),
+        CUSTOMER("Customer_ID");
+
+        private final String query;
+
+        Owner(String column){
+            query = "SELECT * FROM APPOINTMENTS WHERE " + column + " = ? AND Start >= ? AND Start < ? ORDER BY Start";
+        }
+    }
+
+    /**
+     * Constructor that is private so that only one AppointmentService object is ever created.
+     * */
+    private AppointmentService(){
+    }
+
+    /**
+     * A method that returns the instance of the AppointmentService. It only creates a new one the first time it is called.
+     * @return The AppointmentService object.
+     * */
+    public static synchronized AppointmentService getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new AppointmentService();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * @param time A time in any time zone.
+     * @return The time that the business opens on the business day of the time.
+     * */
+    public static ZonedDateTime getBusinessOpen(ZonedDateTime time){
+        LocalDate businessDate = time.withZoneSameInstant(BUSINESS_ZONE_ID).toLocalDate();
+        return ZonedDateTime.of(businessDate, BUSINESS_START_TIME, BUSINESS_ZONE_ID);
+    }
+
+    /**
+     * @param time A time in any time zone.
+     * @return The time that the business closes on the business day of the time.
+     * */
+    public static ZonedDateTime getBusinessClose(ZonedDateTime time){
+        LocalDate businessDate = time.withZoneSameInstant(BUSINESS_ZONE_ID).toLocalDate();
+        return ZonedDateTime.of(businessDate, BUSINESS_END_TIME, BUSINESS_ZONE_ID);
+    }
+
+    /**
+     * A method that checks that an appointment starts and ends during the business hours of the day it starts on, 08:00 to 22:00 business time.
+     * @param start The start of the appointment.
+     * @param end The end of the appointment.
+     * @return True if both times are within the business hours.
+     * */
+    public static boolean isWithinBusinessHours(ZonedDateTime start, ZonedDateTime end){
+        ZonedDateTime open = getBusinessOpen(start);
+        ZonedDateTime close = getBusinessClose(start);
+        return !start.isBefore(open) && !start.isAfter(close) && !end.isBefore(open) && !end.isAfter(close);
+    }
+
+    /**
+     * A method that checks the rules that don't need the database.
+     * @param appointment The appointment that will be checked.
+     * @throws InvalidAppointmentException If the appointment ends before it starts, or is outside of business hours.
+     * */
+    public static void validate(Appointment appointment) throws InvalidAppointmentException {
+        if (appointment.getEndEpochSecond() < appointment.getStartEpochSecond()){
+            throw new InvalidAppointmentException(InvalidAppointmentException.Reason.END_BEFORE_START, "The appointment ends before it starts.");
+        }
+        if (!isWithinBusinessHours(appointment.getStartDate(), appointment.getEndDate())){
+            throw new InvalidAppointmentException(InvalidAppointmentException.Reason.OUTSIDE_BUSINESS_HOURS,
+                    "The appointment is outside of business hours, " + BUSINESS_START_TIME + " to " + BUSINESS_END_TIME + ".");
+        }
+    }
+
+    /**
+     * @param appointmentId The ID of the appointment.
+     * @return The appointment, or an empty Optional if there is no appointment with the ID.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public Optional<Appointment> findById(int appointmentId) throws SQLException, IOException {
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection();
+             PreparedStatement stmt = connection.prepareStatement("SELECT * FROM APPOINTMENTS WHERE Appointment_ID = ?")){
+            stmt.setInt(1, appointmentId);
+            return ResultSetStreams.list(stmt, AppointmentRowMapper.FACTORY).stream().findFirst();
+        }
+    }
+
+    /**
+     * @param owner The column that the appointments are selected by.
+     * @param ownerId The ID of the user, contact or customer.
+     * @param range The business dates that the appointments start in.
+     * @return The appointments that start in the range, ordered by their start.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public List<Appointment> find(Owner owner, int ownerId, DateRange range) throws SQLException, IOException {
+        List<Appointment> appointments = new ArrayList<>();
+        forEach(owner, ownerId, range, appointments::add);
+        return appointments;
+    }
+
+    /**
+     * A method that passes the appointments to the callback as they are read, so that a caller that writes them out, such as the ApiServer,
+     * never has to hold all of them in memory. The connection is held until the last row has been passed to the callback.
+     * @param owner The column that the appointments are selected by.
+     * @param ownerId The ID of the user, contact or customer.
+     * @param range The business dates that the appointments start in.
+     * @param callback The callback that receives each appointment, ordered by their start.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public void forEach(Owner owner, int ownerId, DateRange range, Consumer<? super Appointment> callback) throws SQLException, IOException {
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection();
+             PreparedStatement stmt = connection.prepareStatement(owner.query)){
+            stmt.setInt(1, ownerId);
+            range.bind(stmt, 2);
+            ResultSetStreams.forEach(stmt, AppointmentRowMapper.FACTORY, callback);
+        }
+    }
+
+    /**
+     * A method that finds a customer's appointments that overlap a time, with a single range query on the (Customer_ID, Start, End) index or with the
+     * AppointmentIndex, depending on the OverlapCheckMode. Appointments that only touch, such as one ending at 10:00 and the next starting at 10:00, do not overlap.
+     * @param customerId The ID of the customer.
+     * @param start The start of the time that is checked.
+     * @param end The end of the time that is checked.
+     * @param excludedAppointmentId The ID of an appointment that is left out, so that an appointment that is being modified isn't compared with itself.
+     * @return The overlapping appointments, ordered by their start.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public List<Appointment> findOverlaps(int customerId, ZonedDateTime start, ZonedDateTime end, int excludedAppointmentId) throws SQLException, IOException {
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection()){
+            return findOverlaps(connection, customerId, start, end, excludedAppointmentId);
+        }
+    }
+
+    /**
+     * A method that checks an appointment and inserts it in one transaction. The database generates the new appointment's ID.
+     * @param appointment The appointment that will be saved. Its ID is ignored.
+     * @param username The name of the user that is saving the appointment, for the Created_By and Last_Updated_By columns.
+     * @return The saved appointment with its generated ID.
+     * @throws InvalidAppointmentException If the appointment breaks one of the rules. Nothing is saved.
+     * @throws SQLException If a SQL database error occurs. Nothing is saved.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public Appointment create(Appointment appointment, String username) throws InvalidAppointmentException, SQLException, IOException {
+        validate(appointment);
+        Appointment savedAppointment = null;
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection()){
+            connection.setAutoCommit(false);
+            try {
+                checkSchedule(connection, appointment);
+                try (PreparedStatement stmt = connection.prepareStatement(INSERT_APPOINTMENT, Statement.RETURN_GENERATED_KEYS)){
+                    ZonedDateTime now = ZonedDateTime.now();
+                    bindAppointment(stmt, appointment);
+                    stmt.setObject(7, now);
+                    stmt.setString(8, username);
+                    stmt.setObject(9, now);
+                    stmt.setString(10, username);
+                    stmt.setInt(11, appointment.getCustomerID());
+                    stmt.setInt(12, appointment.getUserID());
+                    stmt.setInt(13, appointment.getContactID());
+                    stmt.executeUpdate();
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()){
+                        if (!generatedKeys.next()){
+                            throw new SQLException("The database did not generate an ID for the new row.");
+                        }
+                        savedAppointment = appointment.withAppointmentID(generatedKeys.getInt(1));
+                    }
+                }
+                AppointmentIndex.getInstance().put(savedAppointment);
+                connection.commit();
+            }
+            catch (SQLException | IOException | InvalidAppointmentException | RuntimeException e){
+                connection.rollback();
+                if (savedAppointment != null){
+                    AppointmentIndex.getInstance().invalidate();
+                }
+                throw e;
+            }
+        }
+        appointmentSaved(savedAppointment);
+        AuditLogger.getInstance().changed(AuditLogger.EventType.CREATED, "appointment", savedAppointment.getAppointmentID(), username);
+        return savedAppointment;
+    }
+
+    /**
+     * A method that checks an appointment and updates the row with the same ID in one transaction.
+     * @param appointment The new values of the appointment.
+     * @param username The name of the user that is saving the appointment, for the Last_Updated_By column.
+     * @return True if the appointment was updated, or false if there is no appointment with its ID.
+     * @throws InvalidAppointmentException If the appointment breaks one of the rules. Nothing is saved.
+     * @throws SQLException If a SQL database error occurs. Nothing is saved.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public boolean update(Appointment appointment, String username) throws InvalidAppointmentException, SQLException, IOException {
+        validate(appointment);
+        int updatedRows = 0;
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection()){
+            connection.setAutoCommit(false);
+            try {
+                checkSchedule(connection, appointment);
+                try (PreparedStatement stmt = connection.prepareStatement(UPDATE_APPOINTMENT)){
+                    bindAppointment(stmt, appointment);
+                    stmt.setObject(7, ZonedDateTime.now());
+                    stmt.setString(8, username);
+                    stmt.setInt(9, appointment.getCustomerID());
+                    stmt.setInt(10, appointment.getUserID());
+                    stmt.setInt(11, appointment.getContactID());
+                    stmt.setInt(12, appointment.getAppointmentID());
+                    updatedRows = stmt.executeUpdate();
+                }
+                if (updatedRows > 0){
+                    AppointmentIndex.getInstance().put(appointment);
+                }
+                connection.commit();
+            }
+            catch (SQLException | IOException | InvalidAppointmentException | RuntimeException e){
+                connection.rollback();
+                if (updatedRows > 0){
+                    AppointmentIndex.getInstance().invalidate();
+                }
+                throw e;
+            }
+        }
+        if (updatedRows == 0){
+            return false;
+        }
+        appointmentSaved(appointment);
+        AuditLogger.getInstance().changed(AuditLogger.EventType.UPDATED, "appointment", appointment.getAppointmentID(), username);
+        return true;
+    }
+
+    /**
+     * A method that deletes an appointment and removes it from the index and the alerts. The delete is reported to DeltaSync, because a deleted row has no Last_Update to be found by.
+     * @param appointmentId The ID of the appointment.
+     * @return True if the appointment was deleted, or false if there is no appointment with the ID.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public boolean delete(int appointmentId) throws SQLException, IOException {
+        int deletedRows;
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection();
+             PreparedStatement stmt = connection.prepareStatement("DELETE FROM APPOINTMENTS WHERE Appointment_ID = ?")){
+            stmt.setInt(1, appointmentId);
+            deletedRows = stmt.executeUpdate();
+        }
+        AppointmentIndex.getInstance().remove(appointmentId);
+        AlertScheduler.getInstance().appointmentDeleted(appointmentId);
+        ReferenceDataCache.getInstance().invalidate(ReferenceDataCache.Table.APPOINTMENT_TYPES);
+        if (deletedRows == 0){
+            return false;
+        }
+        DeltaSync.APPOINTMENTS.deleted(appointmentId);
+        AuditLogger.getInstance().changed(AuditLogger.EventType.DELETED, "appointment", appointmentId, ConnectionModel.getInstance().getCurrentUsername());
+        return true;
+    }
+
+    /**
+     * Locks the customer's row until the transaction ends and checks the customer's appointments for overlaps. Every save of the customer's appointments
+     * waits on the same lock, so the check can't be passed by two appointments at the same time.
+     * */
+    private static void checkSchedule(Connection connection, Appointment appointment) throws SQLException, IOException, InvalidAppointmentException {
+        if (!lockCustomer(connection, appointment.getCustomerID())){
+            throw new InvalidAppointmentException(InvalidAppointmentException.Reason.UNKNOWN_CUSTOMER,
+                    "There is no customer with the ID " + appointment.getCustomerID() + ".");
+        }
+        List<Appointment> overlapping = findOverlaps(connection, appointment.getCustomerID(), appointment.getStartDate(), appointment.getEndDate(),
+                appointment.getAppointmentID());
+        if (!overlapping.isEmpty()){
+            throw new InvalidAppointmentException(overlapping);
+        }
+    }
+
+    /**
+     * A method that locks a customer's row with SELECT ... FOR UPDATE until the transaction on the connection ends. Every save of the customer's
+     * appointments takes the same lock before it checks for overlaps, so code that writes appointments in its own transaction, such as the BulkImporter,
+     * must take it as well.
+     * @param connection A connection with auto-commit turned off.
+     * @param customerId The ID of the customer.
+     * @return True if the customer was locked, or false if there is no customer with the ID.
+     * @throws SQLException If a SQL database error occurs.
+     * */
+    public static boolean lockCustomer(Connection connection, int customerId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(LOCK_CUSTOMER)){
+            stmt.setInt(1, customerId);
+            try (ResultSet rs = stmt.executeQuery()){
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * A method that finds a customer's overlapping appointments on a connection that the caller already holds, so that the check runs in the same
+     * transaction as the customer's lock. In the INDEX mode the AppointmentIndex is checked instead of sending the query.
+     * @throws IOException If the AppointmentIndex has to be loaded and the connection cannot be accessed.
+     * @see #findOverlaps(int, ZonedDateTime, ZonedDateTime, int)
+     * @see #lockCustomer(Connection, int)
+     * */
+    public static List<Appointment> findOverlaps(Connection connection, int customerId, ZonedDateTime start, ZonedDateTime end, int excludedAppointmentId)
+            throws SQLException, IOException {
+        if (OverlapCheckMode.current() == OverlapCheckMode.INDEX){
+            return AppointmentIndex.getInstance().findCustomerOverlaps(customerId, start, end, excludedAppointmentId);
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(FIND_OVERLAPS)){
+            stmt.setInt(1, customerId);
+            stmt.setObject(2, LocalDateTime.ofInstant(end.toInstant(), BUSINESS_ZONE_ID));
+            stmt.setObject(3, LocalDateTime.ofInstant(start.toInstant(), BUSINESS_ZONE_ID));
+            stmt.setInt(4, excludedAppointmentId);
+            return ResultSetStreams.list(stmt, AppointmentRowMapper.FACTORY);
+        }
+    }
+
+    /**
+     * Binds the first six columns, which are the same in the INSERT and the UPDATE.
+     * */
+    private static void bindAppointment(PreparedStatement stmt, Appointment appointment) throws SQLException {
+        stmt.setString(1, appointment.getTitle());
+        stmt.setString(2, appointment.getDescription());
+        stmt.setString(3, appointment.getLocation());
+        stmt.setString(4, appointment.getType());
+        stmt.setObject(5, appointment.getStart(BUSINESS_ZONE_ID));
+        stmt.setObject(6, appointment.getEnd(BUSINESS_ZONE_ID));
+    }
+
+    /**
+     * Updates everything that keeps a copy of the appointments once a save is committed. The AppointmentIndex is not updated here, because it is updated
+     * before the commit, while the customer is still locked, so that a save that waits on the lock finds the appointment in the INDEX mode.
+     * If the commit fails, the index is cleared and loaded again.
+     * */
+    private static void appointmentSaved(Appointment appointment){
+        AlertScheduler.getInstance().appointmentSaved(appointment);
+        ReferenceDataCache.getInstance().invalidate(ReferenceDataCache.Table.APPOINTMENT_TYPES);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.appointment.service;
+
+import com.example.appointment.ConnectionModel;
+import com.example.appointment.IntHashSet;
+import com.example.appointment.QueryMetrics;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A Singleton class that answers which customers have appointments, which is what stops a customer from being deleted. Both queries only read the
+ * Customer_ID column, so the database answers them from the (Customer_ID, Start, End) index without reading the appointments themselves.
+ * */
+public final class CustomerDependencyService {
+    private static final String HAS_APPOINTMENTS = "SELECT EXISTS (SELECT 1 FROM APPOINTMENTS WHERE Customer_ID = ?)";
+    private static final String CUSTOMERS_WITH_APPOINTMENTS = "SELECT DISTINCT Customer_ID FROM APPOINTMENTS";
+    private static CustomerDependencyService INSTANCE;
+
+    /**
+     * Constructor that is private so that only one CustomerDependencyService object is ever created.
+     * */
+    private CustomerDependencyService(){
+    }
+
+    /**
+     * A method that returns the instance of the CustomerDependencyService. It only creates a new one the first time it is called.
+     * @return The CustomerDependencyService object.
+     * */
+    public static synchronized CustomerDependencyService getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new CustomerDependencyService();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * A method that checks whether a customer has at least one appointment. The database stops at the first index entry it finds.
+     * @param customerId The ID of the customer.
+     * @return True if the customer has an appointment.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public boolean hasAppointments(int customerId) throws SQLException, IOException {
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection()){
+            return hasAppointments(connection, customerId);
+        }
+    }
+
+    /**
+     * A method that checks whether a customer has at least one appointment on a connection that the caller already has, such as one in a transaction.
+     * @param connection The connection that the query is run on. It is not closed.
+     * @param customerId The ID of the customer.
+     * @return True if the customer has an appointment.
+     * @throws SQLException If a SQL database error occurs.
+     * */
+    public boolean hasAppointments(Connection connection, int customerId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(HAS_APPOINTMENTS)){
+            stmt.setInt(1, customerId);
+            try (ResultSet rs = stmt.executeQuery()){
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * A method that loads the ID of every customer that has at least one appointment. This is for when the whole set is needed at once, such as
+     * checking many customers; a single customer should be checked with hasAppointments() instead.
+     * @return The IDs of the customers with appointments.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public IntHashSet findCustomerIdsWithAppointments() throws SQLException, IOException {
+        IntHashSet customerIds = new IntHashSet();
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection();
+             PreparedStatement stmt = connection.prepareStatement(CUSTOMERS_WITH_APPOINTMENTS);
+             ResultSet rs = stmt.executeQuery()){
+            while (rs.next()){
+                customerIds.add(rs.getInt(1));
+            }
+            QueryMetrics.getInstance().rowsRead(stmt, customerIds.size());
+        }
+        return customerIds;
+    }
+}
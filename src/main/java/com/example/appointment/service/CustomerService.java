@@ -0,0 +1,192 @@
+package com.example.appointment.service;
+
+import com.example.appointment.AuditLogger;
+import com.example.appointment.ConnectionModel;
+import com.example.appointment.Customer;
+import com.example.appointment.CustomerRowMapper;
+import com.example.appointment.CustomerSearchIndex;
+import com.example.appointment.CustomerValidator;
+import com.example.appointment.DeltaSync;
+import com.example.appointment.ReferenceDataCache;
+import com.example.appointment.ResultSetStreams;
+import com.example.appointment.exceptions.CustomerHasAppointmentsException;
+import com.example.appointment.exceptions.InvalidCustomerException;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A Singleton class that validates customers and writes them to the database without any user interface. Like the AppointmentService it keeps
+ * no state of its own and every call borrows its own connection, so it can be called from many threads at once.
+ * */
+public final class CustomerService {
+    private static final String INSERT_CUSTOMER = "INSERT INTO CUSTOMERS (Customer_Name, Address, Postal_Code, Phone, Create_Date, Created_By, Last_Update, "
+            + "Last_Updated_By, Division_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_CUSTOMER = "UPDATE CUSTOMERS SET Customer_Name = ?, Address = ?, Postal_Code = ?, Phone = ?, Last_Update = ?, "
+            + "Last_Updated_By = ?, Division_ID = ? WHERE Customer_ID = ?";
+    private static final String DELETE_CUSTOMER = "DELETE FROM CUSTOMERS WHERE Customer_ID = ? "
+            + "AND NOT EXISTS (SELECT 1 FROM APPOINTMENTS WHERE APPOINTMENTS.Customer_ID = ?)";
+    private static CustomerService INSTANCE;
+
+    /**
+     * Constructor that is private so that only one CustomerService object is ever created.
+     * */
+    private CustomerService(){
+    }
+
+    /**
+     * A method that returns the instance of the CustomerService. It only creates a new one the first time it is called.
+     * @return The CustomerService object.
+     * */
+    public static synchronized CustomerService getInstance(){
+        if (INSTANCE == null){
+            INSTANCE = new CustomerService();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * @return Every customer, ordered by ID.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public List<Customer> findAll() throws SQLException, IOException {
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection();
+             PreparedStatement stmt = connection.prepareStatement("SELECT * FROM CUSTOMERS ORDER BY Customer_ID")){
+            return ResultSetStreams.list(stmt, CustomerRowMapper.FACTORY);
+        }
+    }
+
+    /**
+     * @param customerId The ID of the customer.
+     * @return The customer, or an empty Optional if there is no customer with the ID.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public Optional<Customer> findById(int customerId) throws SQLException, IOException {
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection();
+             PreparedStatement stmt = connection.prepareStatement("SELECT * FROM CUSTOMERS WHERE Customer_ID = ?")){
+            stmt.setInt(1, customerId);
+            return ResultSetStreams.list(stmt, CustomerRowMapper.FACTORY).stream().findFirst();
+        }
+    }
+
+    /**
+     * A method that validates a customer and inserts it. The database generates the new customer's ID, which is set on the customer.
+     * @param customer The customer that will be saved. Its ID is ignored.
+     * @param username The name of the user that is saving the customer, for the Created_By and Last_Updated_By columns.
+     * @return The generated ID of the customer.
+     * @throws InvalidCustomerException If a field is invalid for the customer's country. Nothing is saved.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public int create(Customer customer, String username) throws InvalidCustomerException, SQLException, IOException {
+        validate(customer);
+        int customerId;
+        ZonedDateTime now = ZonedDateTime.now();
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT_CUSTOMER, Statement.RETURN_GENERATED_KEYS)){
+            stmt.setString(1, customer.getCustomerName());
+            stmt.setString(2, customer.getAddress());
+            stmt.setString(3, customer.getPostalCode());
+            stmt.setString(4, customer.getPhone());
+            stmt.setObject(5, now);
+            stmt.setString(6, username);
+            stmt.setObject(7, now);
+            stmt.setString(8, username);
+            stmt.setInt(9, customer.getDivisionID());
+            stmt.executeUpdate();
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()){
+                if (!generatedKeys.next()){
+                    throw new SQLException("The database did not generate an ID for the new row.");
+                }
+                customerId = generatedKeys.getInt(1);
+            }
+        }
+        customer.setCustomerID(customerId);
+        ReferenceDataCache.getInstance().invalidate(ReferenceDataCache.Table.CUSTOMERS);
+        CustomerSearchIndex.getInstance().put(new Customer(customerId, customer.getCustomerName(), customer.getAddress(), customer.getPostalCode(),
+                customer.getPhone(), now, username, now, username, customer.getDivisionID()));
+        AuditLogger.getInstance().changed(AuditLogger.EventType.CREATED, "customer", customerId, username);
+        return customerId;
+    }
+
+    /**
+     * A method that validates a customer and updates the row with the same ID.
+     * @param customer The new values of the customer.
+     * @param username The name of the user that is saving the customer, for the Last_Updated_By column.
+     * @return True if the customer was updated, or false if there is no customer with its ID.
+     * @throws InvalidCustomerException If a field is invalid for the customer's country. Nothing is saved.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public boolean update(Customer customer, String username) throws InvalidCustomerException, SQLException, IOException {
+        validate(customer);
+        ZonedDateTime now = ZonedDateTime.now();
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection();
+             PreparedStatement stmt = connection.prepareStatement(UPDATE_CUSTOMER)){
+            stmt.setString(1, customer.getCustomerName());
+            stmt.setString(2, customer.getAddress());
+            stmt.setString(3, customer.getPostalCode());
+            stmt.setString(4, customer.getPhone());
+            stmt.setObject(5, now);
+            stmt.setString(6, username);
+            stmt.setInt(7, customer.getDivisionID());
+            stmt.setInt(8, customer.getCustomerID());
+            if (stmt.executeUpdate() == 0){
+                return false;
+            }
+        }
+        CustomerSearchIndex.getInstance().put(new Customer(customer.getCustomerID(), customer.getCustomerName(), customer.getAddress(), customer.getPostalCode(),
+                customer.getPhone(), customer.getCreateDate(), customer.getCreatedBy(), now, username, customer.getDivisionID()));
+        AuditLogger.getInstance().changed(AuditLogger.EventType.UPDATED, "customer", customer.getCustomerID(), username);
+        return true;
+    }
+
+    /**
+     * A method that deletes a customer that has no appointments. An indexed EXISTS probe turns the usual case away before any row is locked,
+     * and the delete itself repeats the check in the same statement, so an appointment that is added at the same time can't be left without its customer.
+     * @param customerId The ID of the customer.
+     * @return True if the customer was deleted, or false if there is no customer with the ID.
+     * @throws CustomerHasAppointmentsException If the customer still has appointments. Nothing is deleted.
+     * @throws SQLException If a SQL database error occurs.
+     * @throws IOException If the connection pool has not been created yet.
+     * */
+    public boolean delete(int customerId) throws CustomerHasAppointmentsException, SQLException, IOException {
+        CustomerDependencyService dependencies = CustomerDependencyService.getInstance();
+        try (Connection connection = ConnectionModel.getInstance().borrowConnection()){
+            if (dependencies.hasAppointments(connection, customerId)){
+                throw new CustomerHasAppointmentsException(customerId);
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(DELETE_CUSTOMER)){
+                stmt.setInt(1, customerId);
+                stmt.setInt(2, customerId);
+                if (stmt.executeUpdate() > 0){
+                    ReferenceDataCache.getInstance().invalidate(ReferenceDataCache.Table.CUSTOMERS);
+                    CustomerSearchIndex.getInstance().remove(customerId);
+                    DeltaSync.CUSTOMERS.deleted(customerId);
+                    AuditLogger.getInstance().changed(AuditLogger.EventType.DELETED, "customer", customerId, ConnectionModel.getInstance().getCurrentUsername());
+                    return true;
+                }
+            }
+            if (dependencies.hasAppointments(connection, customerId)){
+                throw new CustomerHasAppointmentsException(customerId);
+            }
+        }
+        return false;
+    }
+
+    private static void validate(Customer customer) throws InvalidCustomerException, SQLException, IOException {
+        Set<CustomerValidator.Field> invalidFields = CustomerValidator.validate(customer);
+        if (!invalidFields.isEmpty()){
+            throw new InvalidCustomerException(invalidFields);
+        }
+    }
+}
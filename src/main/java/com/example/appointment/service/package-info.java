@@ -0,0 +1,6 @@
+/**
+ * <p>This package holds the services that check and save appointments and customers for the appointment scheduler. The services don't use JavaFX,
+ * so the same rules apply whether an appointment is saved from a controller, the CSV importer, a batch job or a server.
+ * </p>
+ * */
+package com.example.appointment.service;
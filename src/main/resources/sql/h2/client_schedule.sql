@@ -0,0 +1,175 @@
+-- The client_schedule schema for the embedded H2 database, with the reference data and a few sample rows.
+-- DatabaseDialect.H2 runs this script and then the migrations the first time an embedded database is opened, so the program,
+-- the load tests and the benchmarks can run on a machine without a MySQL server. The database is opened in MySQL mode with END allowed as a column name.
+-- The tables match the MySQL schema. The MySQL schema itself is owned by the other systems that share it and is not created by the program.
+
+CREATE TABLE COUNTRIES (
+    Country_ID INT AUTO_INCREMENT PRIMARY KEY,
+    Country VARCHAR(50),
+    Create_Date DATETIME,
+    Created_By VARCHAR(50),
+    Last_Update TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    Last_Updated_By VARCHAR(50)
+);
+
+CREATE TABLE FIRST_LEVEL_DIVISIONS (
+    Division_ID INT AUTO_INCREMENT PRIMARY KEY,
+    Division VARCHAR(50),
+    Create_Date DATETIME,
+    Created_By VARCHAR(50),
+    Last_Update TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    Last_Updated_By VARCHAR(50),
+    Country_ID INT NOT NULL,
+    CONSTRAINT fk_country_id FOREIGN KEY (Country_ID) REFERENCES COUNTRIES (Country_ID)
+);
+
+CREATE TABLE CUSTOMERS (
+    Customer_ID INT AUTO_INCREMENT PRIMARY KEY,
+    Customer_Name VARCHAR(50),
+    Address VARCHAR(100),
+    Postal_Code VARCHAR(50),
+    Phone VARCHAR(50),
+    Create_Date DATETIME,
+    Created_By VARCHAR(50),
+    Last_Update TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    Last_Updated_By VARCHAR(50),
+    Division_ID INT NOT NULL,
+    CONSTRAINT fk_division_id FOREIGN KEY (Division_ID) REFERENCES FIRST_LEVEL_DIVISIONS (Division_ID)
+);
+
+CREATE TABLE USERS (
+    User_ID INT AUTO_INCREMENT PRIMARY KEY,
+    User_Name VARCHAR(50) UNIQUE,
+    Password TEXT,
+    Create_Date DATETIME,
+    Created_By VARCHAR(50),
+    Last_Update TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    Last_Updated_By VARCHAR(50)
+);
+
+CREATE TABLE CONTACTS (
+    Contact_ID INT AUTO_INCREMENT PRIMARY KEY,
+    Contact_Name VARCHAR(50),
+    Email VARCHAR(50)
+);
+
+CREATE TABLE APPOINTMENTS (
+    Appointment_ID INT AUTO_INCREMENT PRIMARY KEY,
+    Title VARCHAR(50),
+    Description VARCHAR(50),
+    Location VARCHAR(50),
+    Type VARCHAR(50),
+    Start DATETIME,
+    End DATETIME,
+    Create_Date DATETIME,
+    Created_By VARCHAR(50),
+    Last_Update TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    Last_Updated_By VARCHAR(50),
+    Customer_ID INT NOT NULL,
+    User_ID INT NOT NULL,
+    Contact_ID INT NOT NULL,
+    CONSTRAINT fk_customer_id FOREIGN KEY (Customer_ID) REFERENCES CUSTOMERS (Customer_ID),
+    CONSTRAINT fk_user_id FOREIGN KEY (User_ID) REFERENCES USERS (User_ID),
+    CONSTRAINT fk_contact_id FOREIGN KEY (Contact_ID) REFERENCES CONTACTS (Contact_ID)
+);
+
+INSERT INTO COUNTRIES (Country_ID, Country, Create_Date, Created_By, Last_Update, Last_Updated_By) VALUES
+    (1, 'U.S', NOW(), 'script', NOW(), 'script'),
+    (2, 'UK', NOW(), 'script', NOW(), 'script'),
+    (3, 'Canada', NOW(), 'script', NOW(), 'script');
+
+INSERT INTO FIRST_LEVEL_DIVISIONS (Division_ID, Division, Create_Date, Created_By, Last_Update, Last_Updated_By, Country_ID) VALUES
+    (1, 'Alabama', NOW(), 'script', NOW(), 'script', 1),
+    (2, 'Alaska', NOW(), 'script', NOW(), 'script', 1),
+    (3, 'Arizona', NOW(), 'script', NOW(), 'script', 1),
+    (4, 'Arkansas', NOW(), 'script', NOW(), 'script', 1),
+    (5, 'California', NOW(), 'script', NOW(), 'script', 1),
+    (6, 'Colorado', NOW(), 'script', NOW(), 'script', 1),
+    (7, 'Connecticut', NOW(), 'script', NOW(), 'script', 1),
+    (8, 'Delaware', NOW(), 'script', NOW(), 'script', 1),
+    (9, 'District of Columbia', NOW(), 'script', NOW(), 'script', 1),
+    (10, 'Florida', NOW(), 'script', NOW(), 'script', 1),
+    (11, 'Georgia', NOW(), 'script', NOW(), 'script', 1),
+    (12, 'Hawaii', NOW(), 'script', NOW(), 'script', 1),
+    (13, 'Idaho', NOW(), 'script', NOW(), 'script', 1),
+    (14, 'Illinois', NOW(), 'script', NOW(), 'script', 1),
+    (15, 'Indiana', NOW(), 'script', NOW(), 'script', 1),
+    (16, 'Iowa', NOW(), 'script', NOW(), 'script', 1),
+    (17, 'Kansas', NOW(), 'script', NOW(), 'script', 1),
+    (18, 'Kentucky', NOW(), 'script', NOW(), 'script', 1),
+    (19, 'Louisiana', NOW(), 'script', NOW(), 'script', 1),
+    (20, 'Maine', NOW(), 'script', NOW(), 'script', 1),
+    (21, 'Maryland', NOW(), 'script', NOW(), 'script', 1),
+    (22, 'Massachusetts', NOW(), 'script', NOW(), 'script', 1),
+    (23, 'Michigan', NOW(), 'script', NOW(), 'script', 1),
+    (24, 'Minnesota', NOW(), 'script', NOW(), 'script', 1),
+    (25, 'Mississippi', NOW(), 'script', NOW(), 'script', 1),
+    (26, 'Missouri', NOW(), 'script', NOW(), 'script', 1),
+    (27, 'Montana', NOW(), 'script', NOW(), 'script', 1),
+    (28, 'Nebraska', NOW(), 'script', NOW(), 'script', 1),
+    (29, 'Nevada', NOW(), 'script', NOW(), 'script', 1),
+    (30, 'New Hampshire', NOW(), 'script', NOW(), 'script', 1),
+    (31, 'New Jersey', NOW(), 'script', NOW(), 'script', 1),
+    (32, 'New Mexico', NOW(), 'script', NOW(), 'script', 1),
+    (33, 'New York', NOW(), 'script', NOW(), 'script', 1),
+    (34, 'North Carolina', NOW(), 'script', NOW(), 'script', 1),
+    (35, 'North Dakota', NOW(), 'script', NOW(), 'script', 1),
+    (36, 'Ohio', NOW(), 'script', NOW(), 'script', 1),
+    (37, 'Oklahoma', NOW(), 'script', NOW(), 'script', 1),
+    (38, 'Oregon', NOW(), 'script', NOW(), 'script', 1),
+    (39, 'Pennsylvania', NOW(), 'script', NOW(), 'script', 1),
+    (40, 'Rhode Island', NOW(), 'script', NOW(), 'script', 1),
+    (41, 'South Carolina', NOW(), 'script', NOW(), 'script', 1),
+    (42, 'South Dakota', NOW(), 'script', NOW(), 'script', 1),
+    (43, 'Tennessee', NOW(), 'script', NOW(), 'script', 1),
+    (44, 'Texas', NOW(), 'script', NOW(), 'script', 1),
+    (45, 'Utah', NOW(), 'script', NOW(), 'script', 1),
+    (46, 'Vermont', NOW(), 'script', NOW(), 'script', 1),
+    (47, 'Virginia', NOW(), 'script', NOW(), 'script', 1),
+    (48, 'Washington', NOW(), 'script', NOW(), 'script', 1),
+    (49, 'West Virginia', NOW(), 'script', NOW(), 'script', 1),
+    (50, 'Wisconsin', NOW(), 'script', NOW(), 'script', 1),
+    (51, 'Wyoming', NOW(), 'script', NOW(), 'script', 1),
+    (60, 'Alberta', NOW(), 'script', NOW(), 'script', 3),
+    (61, 'British Columbia', NOW(), 'script', NOW(), 'script', 3),
+    (62, 'Manitoba', NOW(), 'script', NOW(), 'script', 3),
+    (63, 'New Brunswick', NOW(), 'script', NOW(), 'script', 3),
+    (64, 'Newfoundland and Labrador', NOW(), 'script', NOW(), 'script', 3),
+    (65, 'Northwest Territories', NOW(), 'script', NOW(), 'script', 3),
+    (66, 'Nova Scotia', NOW(), 'script', NOW(), 'script', 3),
+    (67, 'Nunavut', NOW(), 'script', NOW(), 'script', 3),
+    (68, 'Ontario', NOW(), 'script', NOW(), 'script', 3),
+    (69, 'Prince Edward Island', NOW(), 'script', NOW(), 'script', 3),
+    (70, 'Québec', NOW(), 'script', NOW(), 'script', 3),
+    (71, 'Saskatchewan', NOW(), 'script', NOW(), 'script', 3),
+    (72, 'Yukon', NOW(), 'script', NOW(), 'script', 3),
+    (101, 'England', NOW(), 'script', NOW(), 'script', 2),
+    (102, 'Wales', NOW(), 'script', NOW(), 'script', 2),
+    (103, 'Scotland', NOW(), 'script', NOW(), 'script', 2),
+    (104, 'Northern Ireland', NOW(), 'script', NOW(), 'script', 2);
+
+INSERT INTO USERS (User_ID, User_Name, Password, Create_Date, Created_By, Last_Update, Last_Updated_By) VALUES
+    (1, 'test', 'test', NOW(), 'script', NOW(), 'script'),
+    (2, 'admin', 'admin', NOW(), 'script', NOW(), 'script');
+
+INSERT INTO CONTACTS (Contact_ID, Contact_Name, Email) VALUES
+    (1, 'Anika Costa', 'acosta@company.com'),
+    (2, 'Daniel Garcia', 'dgarcia@company.com'),
+    (3, 'Li Lee', 'llee@company.com');
+
+INSERT INTO CUSTOMERS (Customer_ID, Customer_Name, Address, Postal_Code, Phone, Create_Date, Created_By, Last_Update, Last_Updated_By, Division_ID) VALUES
+    (1, 'Daddy Warbucks', '1919 Boardwalk, Atlantic City', '08401', '869-908-1875', NOW(), 'script', NOW(), 'script', 31),
+    (2, 'Lady McAnderson', '22 Wonder Way, Shoreditch, London', 'EC2A 3AY', '020 7445 9102', NOW(), 'script', NOW(), 'script', 101),
+    (3, 'Dudley Do-Right', '48 Horse Manor, Toronto', 'M5V 2T6', '874-916-2671', NOW(), 'script', NOW(), 'script', 68);
+
+INSERT INTO APPOINTMENTS (Appointment_ID, Title, Description, Location, Type, Start, End, Create_Date, Created_By, Last_Update, Last_Updated_By,
+                          Customer_ID, User_ID, Contact_ID) VALUES
+    (1, 'title', 'description', 'location', 'Planning Session', '2020-05-28 12:00:00', '2020-05-28 13:00:00', NOW(), 'script', NOW(), 'script', 1, 1, 3),
+    (2, 'title', 'description', 'location', 'De-Briefing', '2020-05-29 12:00:00', '2020-05-29 13:00:00', NOW(), 'script', NOW(), 'script', 2, 2, 2);
+
+ALTER TABLE COUNTRIES ALTER COLUMN Country_ID RESTART WITH 4;
+ALTER TABLE FIRST_LEVEL_DIVISIONS ALTER COLUMN Division_ID RESTART WITH 105;
+ALTER TABLE USERS ALTER COLUMN User_ID RESTART WITH 3;
+ALTER TABLE CONTACTS ALTER COLUMN Contact_ID RESTART WITH 4;
+ALTER TABLE CUSTOMERS ALTER COLUMN Customer_ID RESTART WITH 4;
+ALTER TABLE APPOINTMENTS ALTER COLUMN Appointment_ID RESTART WITH 3;
@@ -0,0 +1,6 @@
+-- Adds a composite index for the appointment overlap check.
+-- The overlap check sends Customer_ID = ? AND Start < ? AND End > ? AND Appointment_ID <> ?,
+-- so with this index the database only reads the customer's appointments that start before the new one ends,
+-- instead of every appointment the customer has ever had.
+
+CREATE INDEX idx_appointments_customer_start_end ON APPOINTMENTS (Customer_ID, Start, End);
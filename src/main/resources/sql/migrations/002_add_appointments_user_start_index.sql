@@ -0,0 +1,5 @@
+-- Adds a composite index for the week, month and day views on the main page.
+-- The views now send User_ID = ? AND Start >= ? AND Start < ?, which this index answers with a single range scan
+-- instead of reading every appointment the user has and running month(), date() or YEARWEEK() on each row.
+
+CREATE INDEX idx_appointments_user_start ON APPOINTMENTS (User_ID, Start);
@@ -0,0 +1,5 @@
+-- Adds a composite index for the contact schedules that the API server returns.
+-- GET /api/contacts/{id}/appointments sends Contact_ID = ? AND Start >= ? AND Start < ?, which this index answers with a single range scan
+-- instead of reading every appointment in the table.
+
+CREATE INDEX idx_appointments_contact_start ON APPOINTMENTS (Contact_ID, Start);
@@ -0,0 +1,6 @@
+-- Adds an index on Last_Update to the appointments and customers for DeltaSync.
+-- After a row is saved the tables ask for the rows with Last_Update >= ? instead of loading every row again, and these indexes answer that
+-- with a range scan over the rows that changed.
+
+CREATE INDEX idx_appointments_last_update ON APPOINTMENTS (Last_Update);
+CREATE INDEX idx_customers_last_update ON CUSTOMERS (Last_Update);
@@ -0,0 +1,133 @@
+package com.example.appointment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentIndexTest {
+    /**
+     * The start of sample appointment 1 in the packaged schema, for customer 1 and contact 3. It ends an hour later.
+     * */
+    private static final ZonedDateTime SAMPLE_START = ZonedDateTime.of(2020, 5, 28, 12, 0, 0, 0, AppointmentRowMapper.BUSINESS_ZONE_ID);
+    private final AppointmentIndex index = AppointmentIndex.getInstance();
+    private TestDatabase database;
+
+    @BeforeEach
+    void createDatabase() throws Exception {
+        database = new TestDatabase();
+        index.invalidate();
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        index.invalidate();
+        database.close();
+    }
+
+    private static Appointment appointment(int id, int customerId, int contactId, ZonedDateTime start, int minutes){
+        return new Appointment(id, "title", "description", "location", contactId, "Review", start, start.plusMinutes(minutes), customerId, 1);
+    }
+
+    private static List<Integer> ids(List<Appointment> appointments){
+        return appointments.stream().map(Appointment::getAppointmentID).collect(Collectors.toList());
+    }
+
+    private List<Integer> customerOverlaps(int customerId, ZonedDateTime start, ZonedDateTime end) throws Exception {
+        return ids(index.findCustomerOverlaps(customerId, start, end, -1));
+    }
+
+    @Test
+    void loadsTheAppointmentsFromTheDatabase() throws Exception {
+        assertEquals(List.of(1), customerOverlaps(1, SAMPLE_START.plusMinutes(30), SAMPLE_START.plusMinutes(90)));
+        assertEquals(List.of(1), ids(index.findContactOverlaps(3, SAMPLE_START, SAMPLE_START.plusMinutes(10), -1)));
+        assertEquals(List.of(), customerOverlaps(2, SAMPLE_START, SAMPLE_START.plusHours(1)), "another customer");
+    }
+
+    @Test
+    void touchingAppointmentsDoNotOverlap() throws Exception {
+        assertEquals(List.of(), customerOverlaps(1, SAMPLE_START.plusHours(1), SAMPLE_START.plusHours(2)));
+        assertEquals(List.of(), customerOverlaps(1, SAMPLE_START.minusHours(1), SAMPLE_START));
+    }
+
+    @Test
+    void excludedAppointmentIsLeftOut() throws Exception {
+        assertEquals(List.of(), ids(index.findCustomerOverlaps(1, SAMPLE_START, SAMPLE_START.plusHours(1), 1)));
+    }
+
+    @Test
+    void timesInOtherZonesAreComparedAsInstants() throws Exception {
+        ZonedDateTime utcStart = SAMPLE_START.withZoneSameInstant(ZoneOffset.UTC);
+
+        assertEquals(List.of(1), customerOverlaps(1, utcStart.plusMinutes(59), utcStart.plusMinutes(61)));
+    }
+
+    @Test
+    void putReplacesTheAppointmentWithTheSameId() throws Exception {
+        index.findCustomerOverlaps(1, SAMPLE_START, SAMPLE_START, -1);
+        ZonedDateTime movedStart = SAMPLE_START.plusDays(1);
+
+        index.put(appointment(1, 1, 3, movedStart, 60));
+
+        assertEquals(List.of(), customerOverlaps(1, SAMPLE_START, SAMPLE_START.plusHours(1)));
+        assertEquals(List.of(1), customerOverlaps(1, movedStart, movedStart.plusHours(1)));
+    }
+
+    @Test
+    void putMovesTheAppointmentToItsNewCustomerAndContact() throws Exception {
+        index.findCustomerOverlaps(1, SAMPLE_START, SAMPLE_START, -1);
+
+        index.put(appointment(1, 2, 1, SAMPLE_START, 60));
+
+        assertEquals(List.of(), customerOverlaps(1, SAMPLE_START, SAMPLE_START.plusHours(1)));
+        assertEquals(List.of(1), customerOverlaps(2, SAMPLE_START, SAMPLE_START.plusHours(1)));
+        assertEquals(List.of(), ids(index.findContactOverlaps(3, SAMPLE_START, SAMPLE_START.plusHours(1), -1)));
+        assertEquals(List.of(1), ids(index.findContactOverlaps(1, SAMPLE_START, SAMPLE_START.plusHours(1), -1)));
+    }
+
+    @Test
+    void appointmentsWithTheSameStartAreAllFoundAndRemovedSeparately() throws Exception {
+        index.findCustomerOverlaps(1, SAMPLE_START, SAMPLE_START, -1);
+        index.put(appointment(10, 1, 1, SAMPLE_START, 30));
+        index.put(appointment(11, 1, 2, SAMPLE_START, 90));
+
+        assertEquals(List.of(1, 10, 11), customerOverlaps(1, SAMPLE_START, SAMPLE_START.plusMinutes(1)));
+        assertEquals(List.of(1, 11), customerOverlaps(1, SAMPLE_START.plusMinutes(30), SAMPLE_START.plusMinutes(31)));
+
+        index.remove(10);
+
+        assertEquals(List.of(1, 11), customerOverlaps(1, SAMPLE_START, SAMPLE_START.plusMinutes(1)));
+    }
+
+    @Test
+    void removeDropsTheAppointment() throws Exception {
+        index.findCustomerOverlaps(1, SAMPLE_START, SAMPLE_START, -1);
+
+        index.remove(1);
+        index.remove(999);
+
+        assertEquals(List.of(), customerOverlaps(1, SAMPLE_START, SAMPLE_START.plusHours(1)));
+    }
+
+    @Test
+    void putBeforeLoadingIsReadFromTheDatabaseInstead() throws Exception {
+        index.put(appointment(50, 1, 1, SAMPLE_START.plusDays(3), 30));
+
+        assertEquals(List.of(), customerOverlaps(1, SAMPLE_START.plusDays(3), SAMPLE_START.plusDays(3).plusMinutes(30)));
+    }
+
+    @Test
+    void invalidateReloadsFromTheDatabase() throws Exception {
+        index.findCustomerOverlaps(1, SAMPLE_START, SAMPLE_START, -1);
+        database.execute("DELETE FROM APPOINTMENTS WHERE Appointment_ID = 1");
+        assertEquals(List.of(1), customerOverlaps(1, SAMPLE_START, SAMPLE_START.plusHours(1)), "the index is not refreshed on its own");
+
+        index.invalidate();
+
+        assertEquals(List.of(), customerOverlaps(1, SAMPLE_START, SAMPLE_START.plusHours(1)));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.appointment;
+
+import com.example.appointment.exceptions.InvalidAppointmentException;
+import com.example.appointment.service.AppointmentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentServiceTest {
+    /**
+     * The start of sample appointment 1 in the packaged schema, for customer 1. It ends an hour later.
+     * */
+    private static final ZonedDateTime SAMPLE_START = ZonedDateTime.of(2020, 5, 28, 12, 0, 0, 0, AppointmentRowMapper.BUSINESS_ZONE_ID);
+    private final AppointmentService service = AppointmentService.getInstance();
+    private TestDatabase database;
+
+    @BeforeEach
+    void createDatabase() throws Exception {
+        database = new TestDatabase();
+        AppointmentIndex.getInstance().invalidate();
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        System.clearProperty(AppointmentService.OVERLAP_CHECK_PROPERTY);
+        AppointmentIndex.getInstance().invalidate();
+        database.close();
+    }
+
+    private static Appointment appointment(int id, int customerId, ZonedDateTime start, int minutes){
+        return new Appointment(id, "title", "description", "location", 1, "Review", start, start.plusMinutes(minutes), customerId, 1);
+    }
+
+    private static List<Integer> ids(List<Appointment> appointments){
+        return appointments.stream().map(Appointment::getAppointmentID).collect(Collectors.toList());
+    }
+
+    private static void useIndex(){
+        System.setProperty(AppointmentService.OVERLAP_CHECK_PROPERTY, "index");
+    }
+
+    @Test
+    void modeComesFromTheSystemProperty(){
+        assertEquals(AppointmentService.OverlapCheckMode.DATABASE, AppointmentService.OverlapCheckMode.current());
+        useIndex();
+        assertEquals(AppointmentService.OverlapCheckMode.INDEX, AppointmentService.OverlapCheckMode.current());
+        System.setProperty(AppointmentService.OVERLAP_CHECK_PROPERTY, "something else");
+        assertEquals(AppointmentService.OverlapCheckMode.DATABASE, AppointmentService.OverlapCheckMode.current());
+    }
+
+    @Test
+    void bothModesFindTheSameOverlaps() throws Exception {
+        List<Integer> fromDatabase = ids(service.findOverlaps(1, SAMPLE_START.plusMinutes(30), SAMPLE_START.plusMinutes(90), -1));
+        useIndex();
+        List<Integer> fromIndex = ids(service.findOverlaps(1, SAMPLE_START.plusMinutes(30), SAMPLE_START.plusMinutes(90), -1));
+
+        assertEquals(List.of(1), fromDatabase);
+        assertEquals(fromDatabase, fromIndex);
+        assertEquals(List.of(), ids(service.findOverlaps(1, SAMPLE_START.plusHours(1), SAMPLE_START.plusHours(2), -1)), "touching");
+    }
+
+    @Test
+    void overlappingAppointmentIsNotSaved() throws Exception {
+        InvalidAppointmentException e = assertThrows(InvalidAppointmentException.class,
+                () -> service.create(appointment(-1, 1, SAMPLE_START.plusMinutes(30), 60), "test"));
+
+        assertEquals(List.of(1), ids(e.getOverlappingAppointments()));
+    }
+
+    @Test
+    void savedAppointmentIsFoundByTheNextSaveInTheIndexMode() throws Exception {
+        useIndex();
+        ZonedDateTime start = SAMPLE_START.plusDays(1);
+        Appointment saved = service.create(appointment(-1, 1, start, 60), "test");
+
+        InvalidAppointmentException e = assertThrows(InvalidAppointmentException.class,
+                () -> service.create(appointment(-1, 1, start.plusMinutes(30), 60), "test"));
+
+        assertEquals(List.of(saved.getAppointmentID()), ids(e.getOverlappingAppointments()));
+    }
+
+    @Test
+    void updateMovesTheAppointmentInTheIndex() throws Exception {
+        useIndex();
+        ZonedDateTime movedStart = SAMPLE_START.plusDays(1);
+        Appointment sample = service.findById(1).orElseThrow();
+
+        assertTrue(service.update(appointment(1, sample.getCustomerID(), movedStart, 60), "test"));
+
+        assertEquals(List.of(), ids(service.findOverlaps(1, SAMPLE_START, SAMPLE_START.plusHours(1), -1)));
+        assertEquals(List.of(1), ids(service.findOverlaps(1, movedStart, movedStart.plusHours(1), -1)));
+    }
+
+    @Test
+    void updateOfAMissingAppointmentReturnsFalse() throws Exception {
+        assertFalse(service.update(appointment(999, 1, SAMPLE_START.plusDays(1), 60), "test"));
+    }
+
+    @Test
+    void deletedAppointmentNoLongerOverlapsInTheIndexMode() throws Exception {
+        useIndex();
+        service.findOverlaps(1, SAMPLE_START, SAMPLE_START.plusHours(1), -1);
+
+        assertTrue(service.delete(1));
+        assertFalse(service.delete(1));
+
+        assertEquals(List.of(), ids(service.findOverlaps(1, SAMPLE_START, SAMPLE_START.plusHours(1), -1)));
+    }
+
+    @Test
+    void appointmentForAMissingCustomerIsNotSaved(){
+        InvalidAppointmentException e = assertThrows(InvalidAppointmentException.class,
+                () -> service.create(appointment(-1, 999, SAMPLE_START.plusDays(1), 60), "test"));
+
+        assertEquals(InvalidAppointmentException.Reason.UNKNOWN_CUSTOMER, e.getReason());
+    }
+}
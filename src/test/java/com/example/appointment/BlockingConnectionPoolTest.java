@@ -0,0 +1,109 @@
+package com.example.appointment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockingConnectionPoolTest {
+    private static final Duration BORROW_TIMEOUT = Duration.ofMillis(200);
+    private TestDatabase database;
+    private BlockingConnectionPool pool;
+
+    @BeforeEach
+    void createPool() throws Exception {
+        database = new TestDatabase();
+        pool = database.newPool(2, BORROW_TIMEOUT);
+    }
+
+    @AfterEach
+    void closePool() throws Exception {
+        pool.close();
+        database.close();
+    }
+
+    private int appointmentCount() throws SQLException {
+        try (Statement stmt = database.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM APPOINTMENTS")){
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void returnedConnectionsAreReused() throws Exception {
+        pool.borrowConnection().close();
+        pool.borrowConnection().close();
+
+        PoolMetrics metrics = pool.getMetrics();
+        assertEquals(2, metrics.getBorrowCount());
+        assertEquals(1, metrics.getTotalConnections());
+        assertEquals(1, metrics.getIdleConnections());
+        assertEquals(0, metrics.getActiveConnections());
+    }
+
+    @Test
+    void borrowTimesOutWhenEveryConnectionIsBorrowed() throws Exception {
+        Connection first = pool.borrowConnection();
+        Connection second = pool.borrowConnection();
+
+        long start = System.nanoTime();
+        assertThrows(SQLTimeoutException.class, pool::borrowConnection);
+        assertTrue(System.nanoTime() - start >= BORROW_TIMEOUT.toNanos(), "the borrow waits for the timeout");
+        assertEquals(1, pool.getMetrics().getTimeoutCount());
+
+        first.close();
+        try (Connection third = pool.borrowConnection()){
+            assertFalse(third.isClosed());
+        }
+        second.close();
+    }
+
+    @Test
+    void releaseRollsBackAnOpenTransaction() throws Exception {
+        int before = appointmentCount();
+        Connection connection = pool.borrowConnection();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()){
+            stmt.executeUpdate("DELETE FROM APPOINTMENTS");
+        }
+        connection.close();
+
+        assertEquals(before, appointmentCount());
+        try (Connection reused = pool.borrowConnection()){
+            assertTrue(reused.getAutoCommit(), "the next borrower starts in auto-commit mode");
+        }
+        assertEquals(1, pool.getMetrics().getTotalConnections());
+    }
+
+    @Test
+    void returnedLeaseCannotBeUsed() throws Exception {
+        Connection connection = pool.borrowConnection();
+        connection.close();
+        connection.close();
+
+        assertTrue(connection.isClosed());
+        assertThrows(SQLException.class, connection::createStatement);
+        assertEquals(0, pool.getMetrics().getActiveConnections());
+        assertEquals(1, pool.getMetrics().getIdleConnections());
+    }
+
+    @Test
+    void closedPoolRejectsBorrowsAndClosesReturnedConnections() throws Exception {
+        Connection borrowed = pool.borrowConnection();
+        pool.borrowConnection().close();
+
+        pool.close();
+
+        assertThrows(SQLException.class, pool::borrowConnection);
+        assertEquals(0, pool.getMetrics().getIdleConnections());
+        borrowed.close();
+        assertEquals(0, pool.getMetrics().getTotalConnections());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.appointment;
+
+import com.example.appointment.exceptions.CsvFormatException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.StringReader;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkImporterTest {
+    private static final String HEADER = "Customer_Name,Address,Postal_Code,Phone,Division_ID\n";
+    private final DataAccessExecutor.QueryHandle handle = new DataAccessExecutor.QueryHandle();
+    private TestDatabase database;
+
+    @BeforeEach
+    void createDatabase() throws Exception {
+        database = new TestDatabase();
+        ReferenceDataCache.getInstance().invalidate(ReferenceDataCache.Table.CUSTOMERS);
+        CustomerSearchIndex.getInstance().invalidate();
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        CustomerSearchIndex.getInstance().invalidate();
+        database.close();
+    }
+
+    /**
+     * A row of a customer in White Plains, New York, that passes validation.
+     * */
+    private static String customer(String name){
+        return name + ",\"123 ABC Street, White Plains\",12345,817-555-5555,31\n";
+    }
+
+    private ImportReport importCustomers(String csv) throws Exception {
+        return BulkImporter.importCustomers(handle, new StringReader(csv));
+    }
+
+    /**
+     * @return The names of the customers that were not in the sample rows, in the order they were inserted.
+     * */
+    private List<String> importedNames() throws Exception {
+        List<String> names = new ArrayList<>();
+        try (Statement stmt = database.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT Customer_Name FROM CUSTOMERS WHERE Customer_ID > 3 ORDER BY Customer_ID")){
+            while (rs.next()){
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+
+    private static List<Long> errorLines(ImportReport report){
+        return report.getErrors().stream().map(ImportReport.RowError::getLineNumber).collect(Collectors.toList());
+    }
+
+    @Test
+    void quotedFieldsAreImportedWhole() throws Exception {
+        ImportReport report = importCustomers(HEADER + customer("\"Smith, John\"") + customer("\"Two\nLines\"") + customer("Last"));
+
+        assertEquals(3, report.getRowsImported());
+        assertEquals(List.of("Smith, John", "Two\nLines", "Last"), importedNames());
+        try (Statement stmt = database.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT DISTINCT Address FROM CUSTOMERS WHERE Customer_ID > 3")){
+            assertTrue(rs.next());
+            assertEquals("123 ABC Street, White Plains", rs.getString(1));
+            assertFalse(rs.next());
+        }
+    }
+
+    @Test
+    void headerCanStartWithAByteOrderMarkAndBeInAnyOrder() throws Exception {
+        ImportReport report = importCustomers("\uFEFFDivision_ID,Phone,Postal_Code,Address,Customer_Name\n31,817-555-5555,12345,\"123 ABC Street, White Plains\",Reordered\n");
+
+        assertEquals(1, report.getRowsImported(), report.getErrors().toString());
+        assertEquals(List.of("Reordered"), importedNames());
+    }
+
+    @Test
+    void missingColumnIsAFormatError(){
+        CsvFormatException e = assertThrows(CsvFormatException.class, () -> importCustomers("Customer_Name,Address,Postal_Code,Phone\n"));
+
+        assertTrue(e.getMessage().contains("Division_ID"), e.getMessage());
+    }
+
+    @Test
+    void invalidRowsAreReportedWithTheLineTheyStartOn() throws Exception {
+        ImportReport report = importCustomers(HEADER + customer("\"First\nName\"") + "Bad Phone,\"123 ABC Street, White Plains\",12345,555,31\n"
+                + "Bad Division,\"123 ABC Street, White Plains\",12345,817-555-5555,x\n" + customer("Last"));
+
+        assertEquals(4, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(List.of(4L, 5L), errorLines(report));
+        assertEquals(List.of("First\nName", "Last"), importedNames());
+    }
+
+    @Test
+    void rowThatTheDatabaseRejectsIsRetriedAloneAndTheRestOfTheBatchIsImported() throws Exception {
+        // The name passes validation but is longer than the 50 characters of the column, so the batch fails.
+        String tooLong = "N".repeat(60);
+        ImportReport report = importCustomers(HEADER + customer("Before") + customer(tooLong) + customer("After"));
+
+        assertEquals(3, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(1, report.getRowsRejected());
+        assertEquals(List.of(3L), errorLines(report));
+        assertEquals(List.of("Before", "After"), importedNames());
+    }
+
+    @Test
+    void importedCustomersAreAddedToTheSearchIndex() throws Exception {
+        CustomerSearchIndex index = CustomerSearchIndex.getInstance();
+        index.ensureLoaded();
+
+        importCustomers(HEADER + customer("Imported Person"));
+
+        assertEquals(List.of("Imported Person"), index.search("impor", 10).stream().map(Customer::getCustomerName).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.appointment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionModelTest {
+    private final ConnectionModel connectionModel = ConnectionModel.getInstance();
+    private TestDatabase database;
+
+    @BeforeEach
+    void createDatabase() throws Exception {
+        database = new TestDatabase();
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        database.close();
+    }
+
+    @Test
+    void statementsOfTheSharedConnectionReturnTheSharedConnection() throws Exception {
+        Connection shared = connectionModel.getConnection();
+        try (PreparedStatement stmt = shared.prepareStatement("SELECT 1");
+             Statement plain = shared.createStatement()){
+            assertSame(shared, stmt.getConnection());
+            assertSame(shared, plain.getConnection());
+        }
+    }
+
+    @Test
+    void statementsOfABorrowedConnectionReturnTheBorrowedConnection() throws Exception {
+        try (Connection borrowed = connectionModel.borrowConnection();
+             PreparedStatement stmt = borrowed.prepareStatement("SELECT 1")){
+            assertSame(borrowed, stmt.getConnection());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.appointment;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.function.Predicate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountryRuleTest {
+    private static final String[] VALID_NORTH_AMERICAN_PHONE_NUMBERS = {
+            "817-555-5555",
+            "817 555 5555",
+            "8175555555",
+            "817-555 5555",
+            "817555-5555",
+            "817-5555555",
+    };
+    private static final String[] INVALID_NORTH_AMERICAN_PHONE_NUMBERS = {
+            "",
+            "817-555-555",
+            "817-555-55555",
+            "81-7555-5555",
+            "8175-55-5555",
+            "817-555-555-5",
+            "817.555.5555",
+            "(817) 555-5555",
+            "+1 817-555-5555",
+            // These were accepted before separators were limited to one after the third and sixth digits.
+            "-817-555-5555",
+            "817--555-5555",
+            "817-555-5555-",
+            " 8175555555",
+    };
+    private static final String[] VALID_UK_PHONE_NUMBERS = {
+            "020 7183 8750",
+            "02071838750",
+            "+442071838750",
+            "+44 20 7183 8750",
+            "+44 7911 123456",
+    };
+    private static final String[] INVALID_UK_PHONE_NUMBERS = {
+            "",
+            "020 7183 875",
+            "020 7183 87500",
+            "020-7183-8750",
+            "+44",
+            "+44 20 7183 87500",
+            "44 20 7183 8750",
+            "+1 817 555 5555",
+            // These were accepted before the +44 format needed exactly ten digits after the country code.
+            "+44 207 183 875",
+            "+44207183875",
+    };
+    private static final String[] VALID_US_POSTAL_CODES = {"12345", "12345-1234", "00501"};
+    private static final String[] INVALID_US_POSTAL_CODES = {"", "1234", "123456", "12345-123", "12345 1234", "12345-12345", "1234A", "ABCDE"};
+    private static final String[] VALID_CANADIAN_POSTAL_CODES = {"A1A 1A1", "K1A 0B1", "m5v 3l9", "T2P\t1J9"};
+    private static final String[] INVALID_CANADIAN_POSTAL_CODES = {"", "A1A1A1", "D1A 1A1", "W1A 1A1", "Z1A 1A1", "A1A 1D1", "A1A 11Q", "A1A A1A", "A1A-1A1", "1A1 1A1"};
+    private static final String[] VALID_UK_POSTAL_CODES = {"SW1A 1AA", "EC1A 1BB", "W1A 0AX", "M1 1AE", "b33 8th", "DN55 1PT"};
+    private static final String[] INVALID_UK_POSTAL_CODES = {"", "SW1A1AA", "1W1A 1AA", "SW1AB 1AA", "SW1A AAA", "SW1A 1A", "SW1A-1AA", "S 1AA"};
+
+    /**
+     * Checks every value in a table, and reports all of the values that were not checked as expected instead of stopping at the first.
+     * */
+    private static void assertAllChecked(String check, Predicate<String> rule, boolean expected, String... values){
+        assertAll(Arrays.stream(values).map(value -> () -> assertEquals(expected, rule.test(value), check + " \"" + value + "\"")));
+    }
+
+    @Test
+    void forCountryFindsTheRulesByCountryName(){
+        assertSame(CountryRule.UNITED_STATES, CountryRule.forCountry("U.S"));
+        assertSame(CountryRule.CANADA, CountryRule.forCountry("Canada"));
+        assertSame(CountryRule.UNITED_KINGDOM, CountryRule.forCountry("UK"));
+        assertNull(CountryRule.forCountry("France"));
+        assertNull(CountryRule.forCountry(null));
+    }
+
+    @Test
+    void northAmericanPhoneNumbers(){
+        for (CountryRule rule : new CountryRule[]{CountryRule.UNITED_STATES, CountryRule.CANADA}){
+            assertAllChecked(rule + " phone number", rule::isValidPhoneNumber, true, VALID_NORTH_AMERICAN_PHONE_NUMBERS);
+            assertAllChecked(rule + " phone number", rule::isValidPhoneNumber, false, INVALID_NORTH_AMERICAN_PHONE_NUMBERS);
+        }
+    }
+
+    @Test
+    void ukPhoneNumbers(){
+        CountryRule rule = CountryRule.UNITED_KINGDOM;
+        assertAllChecked("UK phone number", rule::isValidPhoneNumber, true, VALID_UK_PHONE_NUMBERS);
+        assertAllChecked("UK phone number", rule::isValidPhoneNumber, false, INVALID_UK_PHONE_NUMBERS);
+    }
+
+    @Test
+    void phoneNumbersFromAnotherCountryAreRejected(){
+        assertAllChecked("UK phone number", CountryRule.UNITED_KINGDOM::isValidPhoneNumber, false, "817-555-5555", "817 555 5555");
+        assertAllChecked("U.S phone number", CountryRule.UNITED_STATES::isValidPhoneNumber, false, "020 7183 8750", "+442071838750");
+    }
+
+    @Test
+    void usPostalCodes(){
+        CountryRule rule = CountryRule.UNITED_STATES;
+        assertAllChecked("U.S postal code", rule::isValidPostalCode, true, VALID_US_POSTAL_CODES);
+        assertAllChecked("U.S postal code", rule::isValidPostalCode, false, INVALID_US_POSTAL_CODES);
+    }
+
+    @Test
+    void canadianPostalCodes(){
+        CountryRule rule = CountryRule.CANADA;
+        assertAllChecked("Canadian postal code", rule::isValidPostalCode, true, VALID_CANADIAN_POSTAL_CODES);
+        assertAllChecked("Canadian postal code", rule::isValidPostalCode, false, INVALID_CANADIAN_POSTAL_CODES);
+    }
+
+    @Test
+    void ukPostalCodes(){
+        CountryRule rule = CountryRule.UNITED_KINGDOM;
+        assertAllChecked("UK postal code", rule::isValidPostalCode, true, VALID_UK_POSTAL_CODES);
+        assertAllChecked("UK postal code", rule::isValidPostalCode, false, INVALID_UK_POSTAL_CODES);
+        // The UK has no restricted letters, so codes that Canada rejects are accepted.
+        assertTrue(rule.isValidPostalCode("D1A 1DU"));
+    }
+
+    @Test
+    void addressesNeedAStreetNumberAndTheCountrysFieldCount(){
+        assertAllChecked("U.S address", CountryRule.UNITED_STATES::isValidAddress, true,
+                "123 ABC Street, White Plains", "123A ABC Street, White Plains", "123 ABC Street , White Plains  ");
+        assertAllChecked("U.S address", CountryRule.UNITED_STATES::isValidAddress, false,
+                "ABC Street, White Plains", "123 ABC Street", "123 ABC Street, White Plains, New York", "123 ABC Street, White Plains,", " 123 ABC Street, White Plains", "");
+        assertAllChecked("UK address", CountryRule.UNITED_KINGDOM::isValidAddress, true,
+                "123 ABC Street, Greenwich, London", "123 ABC Street,, Greenwich, London");
+        assertAllChecked("UK address", CountryRule.UNITED_KINGDOM::isValidAddress, false,
+                "123 ABC Street, Greenwich", "123 ABC Street, Greenwich, London,");
+        assertAllChecked("Canadian address", CountryRule.CANADA::isValidAddress, true, "123 ABC Street, Newmarket");
+    }
+}
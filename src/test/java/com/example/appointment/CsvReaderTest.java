@@ -0,0 +1,72 @@
+package com.example.appointment;
+
+import com.example.appointment.exceptions.CsvFormatException;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+    private static List<List<String>> readAll(String csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new StringReader(csv))){
+            List<String> record;
+            while ((record = reader.readRecord()) != null){
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    @Test
+    void fieldsAreSplitOnCommas() throws Exception {
+        assertEquals(List.of(List.of("a", "b", ""), List.of("", "c", "d")), readAll("a,b,\n,c,d\n"));
+    }
+
+    @Test
+    void quotedFieldsCanContainCommasQuotesAndLineBreaks() throws Exception {
+        List<List<String>> records = readAll("\"123 ABC Street, White Plains\",\"say \"\"hi\"\"\",\"two\nlines\"\nnext,row\n");
+
+        assertEquals(List.of(List.of("123 ABC Street, White Plains", "say \"hi\"", "two\nlines"), List.of("next", "row")), records);
+    }
+
+    @Test
+    void crlfLineEndingsAreRemoved() throws Exception {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), readAll("a,b\r\nc,d\r\n"));
+        assertEquals(List.of(List.of("a\r\nb", "c")), readAll("\"a\r\nb\",c\r\n"), "a line break in quotes is kept");
+    }
+
+    @Test
+    void lastRecordDoesNotNeedALineBreak() throws Exception {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), readAll("a,b\nc,d"));
+    }
+
+    @Test
+    void blankLineIsOneEmptyField() throws Exception {
+        assertEquals(List.of(List.of("a"), List.of(""), List.of("b")), readAll("a\n\nb\n"));
+    }
+
+    @Test
+    void recordLineNumbersCountTheLineBreaksInQuotedFields() throws Exception {
+        try (CsvReader reader = new CsvReader(new StringReader("header\n\"one\ntwo\nthree\"\nlast\n"))){
+            reader.readRecord();
+            assertEquals(1, reader.getRecordLineNumber());
+            reader.readRecord();
+            assertEquals(2, reader.getRecordLineNumber());
+            assertEquals(List.of("last"), reader.readRecord());
+            assertEquals(5, reader.getRecordLineNumber());
+            assertNull(reader.readRecord());
+        }
+    }
+
+    @Test
+    void unclosedQuoteIsAFormatError() throws Exception {
+        try (CsvReader reader = new CsvReader(new StringReader("a\n\"never closed,b\nc\n"))){
+            reader.readRecord();
+            CsvFormatException e = assertThrows(CsvFormatException.class, reader::readRecord);
+            assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+        }
+    }
+}
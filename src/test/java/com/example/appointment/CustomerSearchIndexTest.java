@@ -0,0 +1,137 @@
+package com.example.appointment;
+
+import com.example.appointment.service.CustomerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerSearchIndexTest {
+    private final CustomerSearchIndex index = CustomerSearchIndex.getInstance();
+    private final CustomerService service = CustomerService.getInstance();
+    private TestDatabase database;
+
+    @BeforeEach
+    void createDatabase() throws Exception {
+        database = new TestDatabase();
+        index.invalidate();
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        index.invalidate();
+        database.close();
+    }
+
+    /**
+     * A customer in White Plains, New York, that passes validation.
+     * */
+    private static Customer customer(int id, String name){
+        ZonedDateTime now = ZonedDateTime.now();
+        return new Customer(id, name, "123 ABC Street, White Plains", "12345", "817-555-5555", now, "test", now, "test", 31);
+    }
+
+    private List<String> names(String query) throws Exception {
+        return index.search(query, 10).stream().map(Customer::getCustomerName).collect(Collectors.toList());
+    }
+
+    @Test
+    void prefixOfAnyWordFindsTheCustomer() throws Exception {
+        assertEquals(List.of("Dudley Do-Right"), names("dud"));
+        assertEquals(List.of("Daddy Warbucks"), names("warb"));
+        assertEquals(List.of("Lady McAnderson"), names("shored"), "address");
+        assertEquals(List.of("Daddy Warbucks"), names("1"), "ID");
+        assertEquals(List.of(), names("zz"));
+        assertEquals(List.of(), names(" - "), "a query with no words");
+    }
+
+    @Test
+    void everyWordOfTheQueryMustMatch() throws Exception {
+        assertEquals(List.of("Dudley Do-Right"), names("do dud"));
+        assertEquals(List.of(), names("dudley london"));
+    }
+
+    @Test
+    void caseAndAccentsAreIgnored() throws Exception {
+        assertEquals(List.of("Dudley Do-Right"), names("DUD"));
+        assertEquals(List.of("Dudley Do-Right"), names("Dúdley"));
+        service.create(customer(-1, "Québec Supplies"), "test");
+
+        assertEquals(List.of("Québec Supplies"), names("que"));
+        assertEquals(List.of("Québec Supplies"), names("QUÉ"));
+    }
+
+    @Test
+    void postalCodesAndPhoneNumbersAreFoundWithoutTheirSeparators() throws Exception {
+        assertEquals(List.of("Lady McAnderson"), names("ec2a3"));
+        assertEquals(List.of("Lady McAnderson"), names("EC2A 3AY"));
+        assertEquals(List.of("Daddy Warbucks"), names("8699081875"));
+        assertEquals(List.of("Daddy Warbucks"), names("869-908"));
+    }
+
+    @Test
+    void namePrefixMatchesComeBeforeOtherWordMatches() throws Exception {
+        service.create(customer(-1, "Toronto Trading"), "test");
+
+        assertEquals(List.of("Toronto Trading", "Dudley Do-Right"), names("toro"));
+        assertEquals(List.of("Daddy Warbucks", "Dudley Do-Right"), names("d"));
+        assertEquals(1, index.search("d", 1).size());
+    }
+
+    @Test
+    void addedCustomerIsFound() throws Exception {
+        index.ensureLoaded();
+        int id = service.create(customer(-1, "Newly Added"), "test");
+
+        assertEquals(List.of("Newly Added"), names("newl"));
+        assertEquals("Newly Added", index.getLoadedCustomer(id).getCustomerName());
+    }
+
+    @Test
+    void editedCustomerIsOnlyFoundByItsNewName() throws Exception {
+        index.ensureLoaded();
+        Customer sample = service.findById(3).orElseThrow();
+
+        assertTrue(service.update(new Customer(3, "Renamed Person", sample.getAddress(), sample.getPostalCode(), sample.getPhone(), sample.getCreateDate(),
+                sample.getCreatedBy(), sample.getLastUpdate(), "test", sample.getDivisionID()), "test"));
+
+        assertEquals(List.of(), names("dudley"));
+        assertEquals(List.of("Renamed Person"), names("renamed"));
+        assertEquals(List.of("Renamed Person"), names("toronto"), "the address is still indexed");
+        assertEquals("Renamed Person", index.getLoadedCustomer(3).getCustomerName());
+    }
+
+    @Test
+    void removedCustomerIsNotFound() throws Exception {
+        index.ensureLoaded();
+
+        assertTrue(service.delete(3));
+
+        assertEquals(List.of(), names("dudley"));
+        assertNull(index.getLoadedCustomer(3));
+    }
+
+    @Test
+    void changesBeforeTheIndexIsLoadedAreReadFromTheDatabase() throws Exception {
+        index.put(customer(99, "Never Saved"));
+        assertNull(index.getLoadedCustomer(99));
+
+        assertEquals(List.of(), names("never"));
+        assertEquals(List.of("Dudley Do-Right"), names("dudley"));
+    }
+
+    @Test
+    void invalidatedIndexIsLoadedAgain() throws Exception {
+        index.ensureLoaded();
+        database.execute("UPDATE CUSTOMERS SET Customer_Name = 'Changed Elsewhere' WHERE Customer_ID = 3");
+        assertEquals(List.of("Dudley Do-Right"), names("dudley"), "the index is not reloaded until it is invalidated");
+
+        index.invalidate();
+
+        assertEquals(List.of("Changed Elsewhere"), names("changed"));
+        assertEquals(List.of(), names("dudley"));
+    }
+}
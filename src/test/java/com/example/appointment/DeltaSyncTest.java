@@ -0,0 +1,230 @@
+package com.example.appointment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaSyncTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 4, 9, 0);
+    private final DataAccessExecutor.QueryHandle handle = new DataAccessExecutor.QueryHandle();
+    private final List<DeltaSync.Cursor<Appointment>> cursors = new ArrayList<>();
+    private TestDatabase database;
+    private DeltaSync<Appointment> sync;
+    private Timestamp now;
+
+    @BeforeEach
+    void createDatabase() throws Exception {
+        database = new TestDatabase();
+        sync = newSync(Long.MAX_VALUE);
+        now = new Timestamp(System.currentTimeMillis());
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        cursors.forEach(DeltaSync.Cursor::close);
+        database.close();
+    }
+
+    private static DeltaSync<Appointment> newSync(long reconcileNanos){
+        return new DeltaSync<>("APPOINTMENTS", "Appointment_ID", Appointment::getAppointmentID, AppointmentRowMapper.FACTORY, 0, reconcileNanos);
+    }
+
+    private DeltaSync.Cursor<Appointment> startedCursor(DeltaSync<Appointment> deltaSync) throws Exception {
+        DeltaSync.Cursor<Appointment> cursor = deltaSync.cursor();
+        cursors.add(cursor);
+        cursor.start(handle);
+        return cursor;
+    }
+
+    private Timestamp later(int hours){
+        return new Timestamp(now.getTime() + hours * 3_600_000L);
+    }
+
+    private static List<Integer> ids(DeltaSync.Changes<Appointment> changes){
+        return changes.getChangedRows().stream().map(Appointment::getAppointmentID).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    void pollBeforeStartIsRejected(){
+        DeltaSync.Cursor<Appointment> cursor = sync.cursor();
+        assertThrows(IllegalStateException.class, () -> cursor.poll(handle));
+    }
+
+    @Test
+    void pollReturnsRowsUpdatedSinceStart() throws Exception {
+        DeltaSync.Cursor<Appointment> cursor = startedCursor(sync);
+        int id = database.insertAppointment(START, later(1));
+
+        DeltaSync.Changes<Appointment> changes = cursor.poll(handle);
+
+        assertTrue(ids(changes).contains(id));
+        assertFalse(changes.isEmpty());
+    }
+
+    @Test
+    void pollDoesNotMoveTheCursor() throws Exception {
+        DeltaSync.Cursor<Appointment> cursor = startedCursor(sync);
+        int id = database.insertAppointment(START, later(1));
+
+        cursor.poll(handle);
+
+        assertTrue(ids(cursor.poll(handle)).contains(id));
+    }
+
+    @Test
+    void advanceSkipsRowsOlderThanTheNewWatermark() throws Exception {
+        DeltaSync.Cursor<Appointment> cursor = startedCursor(sync);
+        int first = database.insertAppointment(START, later(1));
+        cursor.advance(cursor.poll(handle));
+        int second = database.insertAppointment(START.plusHours(1), later(2));
+
+        List<Integer> changed = ids(cursor.poll(handle));
+
+        // A row exactly at the watermark is read again, because Last_Update >= watermark.
+        assertEquals(List.of(first, second), changed);
+    }
+
+    @Test
+    void advanceWithOlderChangesDoesNotMoveBackwards() throws Exception {
+        DeltaSync.Cursor<Appointment> cursor = startedCursor(sync);
+        int first = database.insertAppointment(START, later(1));
+        DeltaSync.Changes<Appointment> older = cursor.poll(handle);
+        int second = database.insertAppointment(START.plusHours(1), later(2));
+        DeltaSync.Changes<Appointment> newer = cursor.poll(handle);
+
+        cursor.advance(newer);
+        cursor.advance(older);
+
+        List<Integer> changed = ids(cursor.poll(handle));
+        assertFalse(changed.contains(first));
+        assertEquals(List.of(second), changed);
+    }
+
+    @Test
+    void advanceWithChangesFromAnotherCursorIsRejected() throws Exception {
+        DeltaSync.Cursor<Appointment> cursor = startedCursor(sync);
+        DeltaSync.Cursor<Appointment> otherCursor = startedCursor(sync);
+        DeltaSync.Changes<Appointment> changes = otherCursor.poll(handle);
+
+        assertThrows(IllegalArgumentException.class, () -> cursor.advance(changes));
+    }
+
+    @Test
+    void deletedIdsAreReturnedUntilAdvance() throws Exception {
+        DeltaSync.Cursor<Appointment> cursor = startedCursor(sync);
+        sync.deleted(41);
+        sync.deleted(42);
+
+        DeltaSync.Changes<Appointment> changes = cursor.poll(handle);
+        assertArrayEquals(new int[]{41, 42}, changes.getDeletedIds());
+        assertArrayEquals(new int[]{41, 42}, cursor.poll(handle).getDeletedIds());
+
+        cursor.advance(changes);
+        sync.deleted(43);
+
+        assertArrayEquals(new int[]{43}, cursor.poll(handle).getDeletedIds());
+    }
+
+    @Test
+    void deletesBeforeStartAreNotReturned() throws Exception {
+        DeltaSync.Cursor<Appointment> earlierCursor = startedCursor(sync);
+        sync.deleted(41);
+        DeltaSync.Cursor<Appointment> cursor = startedCursor(sync);
+        sync.deleted(42);
+
+        assertArrayEquals(new int[]{42}, cursor.poll(handle).getDeletedIds());
+        assertArrayEquals(new int[]{41, 42}, earlierCursor.poll(handle).getDeletedIds());
+    }
+
+    @Test
+    void deleteLogIsTrimmedOnceEveryCursorHasPassed() throws Exception {
+        DeltaSync.Cursor<Appointment> fastCursor = startedCursor(sync);
+        DeltaSync.Cursor<Appointment> slowCursor = startedCursor(sync);
+        sync.deleted(41);
+        sync.deleted(42);
+
+        fastCursor.advance(fastCursor.poll(handle));
+        assertEquals(2, sync.loggedDeleteCount());
+
+        slowCursor.advance(slowCursor.poll(handle));
+        assertEquals(0, sync.loggedDeleteCount());
+
+        sync.deleted(43);
+        fastCursor.advance(fastCursor.poll(handle));
+        assertEquals(1, sync.loggedDeleteCount());
+        slowCursor.close();
+        assertEquals(0, sync.loggedDeleteCount());
+        assertArrayEquals(new int[0], fastCursor.poll(handle).getDeletedIds());
+    }
+
+    @Test
+    void deletesWithoutCursorsAreNotLogged(){
+        for (int id = 1; id <= 1000; id++){
+            sync.deleted(id);
+        }
+        assertEquals(0, sync.loggedDeleteCount());
+    }
+
+    @Test
+    void reconcileFindsRowsDeletedByAnotherProgram() throws Exception {
+        DeltaSync<Appointment> reconcilingSync = newSync(0);
+        int kept = database.insertAppointment(START, now);
+        int deleted = database.insertAppointment(START.plusHours(1), now);
+        int newest = database.insertAppointment(START.plusHours(2), now);
+        DeltaSync.Cursor<Appointment> cursor = startedCursor(reconcilingSync);
+        database.execute("DELETE FROM APPOINTMENTS WHERE Appointment_ID = " + deleted);
+
+        DeltaSync.Changes<Appointment> changes = cursor.poll(handle);
+
+        assertTrue(changes.isReconciled());
+        assertFalse(changes.isEmpty());
+        assertTrue(changes.isMissing(deleted));
+        assertFalse(changes.isMissing(kept));
+        assertFalse(changes.isMissing(newest));
+    }
+
+    @Test
+    void reconcileFindsTheDeletedRowWithTheHighestId() throws Exception {
+        DeltaSync<Appointment> reconcilingSync = newSync(0);
+        int kept = database.insertAppointment(START, now);
+        int newest = database.insertAppointment(START.plusHours(1), now);
+        DeltaSync.Cursor<Appointment> cursor = startedCursor(reconcilingSync);
+        database.execute("DELETE FROM APPOINTMENTS WHERE Appointment_ID = " + newest);
+
+        DeltaSync.Changes<Appointment> changes = cursor.poll(handle);
+
+        assertTrue(changes.isMissing(newest));
+        assertFalse(changes.isMissing(kept));
+    }
+
+    @Test
+    void reconcileOfAnEmptyTableFindsEveryRowMissing() throws Exception {
+        DeltaSync<Appointment> reconcilingSync = newSync(0);
+        int first = database.insertAppointment(START, now);
+        int second = database.insertAppointment(START.plusHours(1), now);
+        DeltaSync.Cursor<Appointment> cursor = startedCursor(reconcilingSync);
+        database.execute("DELETE FROM APPOINTMENTS");
+
+        DeltaSync.Changes<Appointment> changes = cursor.poll(handle);
+
+        assertTrue(changes.isReconciled());
+        assertTrue(changes.isMissing(first));
+        assertTrue(changes.isMissing(second));
+    }
+
+    @Test
+    void reconcileWaitsForTheInterval() throws Exception {
+        DeltaSync.Cursor<Appointment> cursor = startedCursor(sync);
+
+        DeltaSync.Changes<Appointment> changes = cursor.poll(handle);
+
+        assertFalse(changes.isReconciled());
+        assertFalse(changes.isMissing(-5));
+    }
+}
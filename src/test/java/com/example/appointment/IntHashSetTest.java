@@ -0,0 +1,176 @@
+package com.example.appointment;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashSetTest {
+
+    private static int[] sorted(int[] values){
+        int[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static int[] sorted(Set<Integer> values){
+        return values.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    @Test
+    void negativeExpectedSizeIsRejected(){
+        assertThrows(IllegalArgumentException.class, () -> new IntHashSet(-1));
+    }
+
+    @Test
+    void addContainsAndRemove(){
+        IntHashSet set = new IntHashSet();
+
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(7));
+        assertFalse(set.add(7), "already in the set");
+        assertTrue(set.contains(7));
+        assertFalse(set.contains(8));
+        assertEquals(1, set.size());
+
+        assertTrue(set.remove(7));
+        assertFalse(set.remove(7), "already removed");
+        assertFalse(set.contains(7));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void zeroIsStoredApartFromTheEmptySlots(){
+        IntHashSet set = new IntHashSet();
+
+        assertFalse(set.contains(0));
+        assertFalse(set.remove(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+        assertArrayEquals(new int[]{0}, set.toArray());
+
+        assertTrue(set.remove(0));
+        assertFalse(set.contains(0));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    void negativeAndExtremeValues(){
+        IntHashSet set = new IntHashSet();
+        int[] values = {-1, Integer.MIN_VALUE, Integer.MAX_VALUE, -42, 1};
+        for (int value : values){
+            assertTrue(set.add(value));
+        }
+
+        for (int value : values){
+            assertTrue(set.contains(value), "contains " + value);
+        }
+        assertArrayEquals(sorted(values), sorted(set.toArray()));
+    }
+
+    @Test
+    void resizeKeepsEveryValue(){
+        // The set starts with the smallest table and doubles many times.
+        IntHashSet set = new IntHashSet(0);
+        for (int value = 1; value <= 10_000; value++){
+            assertTrue(set.add(value));
+        }
+
+        assertEquals(10_000, set.size());
+        for (int value = 1; value <= 10_000; value++){
+            assertTrue(set.contains(value), "contains " + value);
+        }
+        assertFalse(set.contains(10_001));
+    }
+
+    @Test
+    void removeMovesBackTheValuesAfterIt(){
+        // Consecutive IDs in a small table form long runs of slots, so removing from the middle of a run has values after it to move back.
+        IntHashSet set = new IntHashSet(64);
+        for (int value = 1; value <= 60; value++){
+            set.add(value);
+        }
+        for (int value = 1; value <= 60; value += 2){
+            assertTrue(set.remove(value));
+        }
+
+        for (int value = 1; value <= 60; value++){
+            assertEquals(value % 2 == 0, set.contains(value), "contains " + value);
+        }
+        assertEquals(30, set.size());
+    }
+
+    @Test
+    void removedSlotsAreReused(){
+        IntHashSet set = new IntHashSet(8);
+        for (int round = 0; round < 1000; round++){
+            set.add(round);
+            set.remove(round);
+        }
+
+        assertTrue(set.isEmpty());
+        for (int round = 0; round < 1000; round++){
+            assertFalse(set.contains(round));
+        }
+    }
+
+    @Test
+    void clearRemovesEverything(){
+        IntHashSet set = new IntHashSet();
+        set.add(0);
+        set.add(5);
+        set.add(-5);
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(5));
+        assertArrayEquals(new int[0], set.toArray());
+        assertTrue(set.add(5));
+    }
+
+    @Test
+    void forEachVisitsEveryValueOnce(){
+        IntHashSet set = new IntHashSet();
+        for (int value = -50; value <= 50; value++){
+            set.add(value);
+        }
+        List<Integer> visited = new ArrayList<>();
+
+        set.forEach(visited::add);
+
+        assertEquals(101, visited.size());
+        assertEquals(101, new HashSet<>(visited).size());
+    }
+
+    @Test
+    void randomOperationsMatchHashSet(){
+        Random random = new Random(7);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int step = 0; step < 200_000; step++){
+            // A small range of values makes adds, removes and misses all common.
+            int value = random.nextInt(4000) - 100;
+            switch (random.nextInt(3)){
+                case 0:
+                    assertEquals(expected.add(value), set.add(value), "add " + value);
+                    break;
+                case 1:
+                    assertEquals(expected.remove(value), set.remove(value), "remove " + value);
+                    break;
+                default:
+                    assertEquals(expected.contains(value), set.contains(value), "contains " + value);
+                    break;
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        assertArrayEquals(sorted(expected), sorted(set.toArray()));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.appointment;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    /**
+     * An interval, and the value stored with it, for comparing the tree with a plain list.
+     * */
+    private static final class Interval {
+        private final long start;
+        private final long end;
+        private final int id;
+
+        private Interval(long start, long end, int id){
+            this.start = start;
+            this.end = end;
+            this.id = id;
+        }
+    }
+
+    private static List<Integer> find(IntervalTree<Integer> tree, long start, long end){
+        List<Integer> overlapping = new ArrayList<>();
+        tree.findOverlapping(start, end, overlapping);
+        return overlapping;
+    }
+
+    private static List<Integer> bruteForce(List<Interval> intervals, long start, long end){
+        return intervals.stream()
+                .filter(interval -> interval.start < end && interval.end > start)
+                .sorted(Comparator.comparingLong((Interval interval) -> interval.start).thenComparingInt(interval -> interval.id))
+                .map(interval -> interval.id)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void emptyTreeFindsNothing(){
+        IntervalTree<Integer> tree = new IntervalTree<>();
+
+        assertEquals(0, tree.size());
+        assertEquals(List.of(), find(tree, 0, 100));
+        assertFalse(tree.remove(0, 1));
+    }
+
+    @Test
+    void touchingIntervalsDoNotOverlap(){
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        tree.insert(100, 200, 1, 1);
+
+        assertEquals(List.of(), find(tree, 200, 300), "starts when the interval ends");
+        assertEquals(List.of(), find(tree, 0, 100), "ends when the interval starts");
+        assertEquals(List.of(1), find(tree, 199, 300));
+        assertEquals(List.of(1), find(tree, 0, 101));
+        assertEquals(List.of(1), find(tree, 100, 200), "same interval");
+        assertEquals(List.of(1), find(tree, 120, 130), "inside the interval");
+        assertEquals(List.of(1), find(tree, 0, 300), "around the interval");
+    }
+
+    @Test
+    void queryBetweenTouchingIntervalsFindsNeither(){
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        tree.insert(100, 200, 1, 1);
+        tree.insert(300, 400, 2, 2);
+
+        assertEquals(List.of(), find(tree, 200, 300));
+        assertEquals(List.of(1, 2), find(tree, 150, 350));
+    }
+
+    @Test
+    void duplicateStartTimesAreKeptApartById(){
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        tree.insert(100, 200, 3, 3);
+        tree.insert(100, 150, 1, 1);
+        tree.insert(100, 300, 2, 2);
+
+        assertEquals(3, tree.size());
+        assertEquals(List.of(1, 2, 3), find(tree, 100, 101));
+        assertEquals(List.of(2, 3), find(tree, 150, 250));
+
+        assertTrue(tree.remove(100, 2));
+        assertEquals(List.of(1, 3), find(tree, 100, 101));
+        assertEquals(List.of(3), find(tree, 150, 250));
+    }
+
+    @Test
+    void removeNeedsTheStartAndIdThatWereInserted(){
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        tree.insert(100, 200, 1, 1);
+
+        assertFalse(tree.remove(101, 1), "wrong start");
+        assertFalse(tree.remove(100, 2), "wrong id");
+        assertEquals(1, tree.size());
+        assertTrue(tree.remove(100, 1));
+        assertFalse(tree.remove(100, 1), "already removed");
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    void ascendingInsertsAndRemovalsKeepMaxEndCorrect(){
+        // Inserting in order and removing from the middle forces rotations on both sides of the tree.
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < 1000; i++){
+            long start = i * 10L;
+            // Every 100th interval is long, so a subtree's maxEnd comes from a node deep inside it.
+            long end = i % 100 == 0 ? start + 2000 : start + 5;
+            tree.insert(start, end, i, i);
+            intervals.add(new Interval(start, end, i));
+        }
+        for (int i = 250; i < 750; i++){
+            assertTrue(tree.remove(i * 10L, i));
+        }
+        intervals.removeIf(interval -> interval.id >= 250 && interval.id < 750);
+
+        assertEquals(intervals.size(), tree.size());
+        for (long start = 0; start < 10_500; start += 97){
+            assertEquals(bruteForce(intervals, start, start + 50), find(tree, start, start + 50), "query at " + start);
+        }
+    }
+
+    @Test
+    void randomInsertsAndRemovalsMatchBruteForce(){
+        Random random = new Random(42);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        List<Interval> intervals = new ArrayList<>();
+        int nextId = 0;
+        for (int step = 0; step < 5000; step++){
+            if (intervals.isEmpty() || random.nextInt(3) != 0){
+                // Starts are drawn from a small range so that many intervals share a start.
+                long start = random.nextInt(500) * 10L;
+                long end = start + 1 + random.nextInt(300);
+                tree.insert(start, end, nextId, nextId);
+                intervals.add(new Interval(start, end, nextId));
+                nextId++;
+            }
+            else{
+                Interval removed = intervals.remove(random.nextInt(intervals.size()));
+                assertTrue(tree.remove(removed.start, removed.id));
+            }
+            if (step % 50 == 0){
+                long start = random.nextInt(5200);
+                long end = start + random.nextInt(200);
+                assertEquals(bruteForce(intervals, start, end), find(tree, start, end), "step " + step);
+            }
+        }
+        assertEquals(intervals.size(), tree.size());
+    }
+}
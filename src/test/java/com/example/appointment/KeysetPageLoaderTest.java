@@ -0,0 +1,181 @@
+package com.example.appointment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPageLoaderTest {
+    private static final KeysetPageLoader.SortColumn<Customer> ID = KeysetPageLoader.column("Customer_ID", Customer::getCustomerID);
+    private static final KeysetPageLoader.SortColumn<Customer> NAME = KeysetPageLoader.column("Customer_Name", Customer::getCustomerName);
+    private static final KeysetPageLoader.SortColumn<Customer> NULLABLE_NAME = KeysetPageLoader.nullableColumn("Customer_Name", Customer::getCustomerName);
+    private static final KeysetPageLoader<Customer> CUSTOMERS = new KeysetPageLoader<>("SELECT * FROM CUSTOMERS", ID, CustomerRowMapper.FACTORY);
+    private static final String[] NAMES = {"ALPHA", "BRAVO", "CHARLIE", "DELTA", "ECHO"};
+    private final DataAccessExecutor.QueryHandle handle = new DataAccessExecutor.QueryHandle();
+    private TestDatabase database;
+
+    @Test
+    void firstPageSortedById(){
+        assertEquals("SELECT * FROM CUSTOMERS ORDER BY Customer_ID ASC LIMIT ?",
+                CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, ID, true, false));
+        assertEquals("SELECT * FROM CUSTOMERS ORDER BY Customer_ID DESC LIMIT ?",
+                CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, ID, false, false));
+    }
+
+    @Test
+    void nextPageSortedByIdContinuesAfterTheId(){
+        assertEquals("SELECT * FROM CUSTOMERS WHERE Customer_ID > ? ORDER BY Customer_ID ASC LIMIT ?",
+                CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, ID, true, true));
+        assertEquals("SELECT * FROM CUSTOMERS WHERE Customer_ID < ? ORDER BY Customer_ID DESC LIMIT ?",
+                CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, ID, false, true));
+    }
+
+    @Test
+    void otherSortColumnsBreakTiesById(){
+        assertEquals("SELECT * FROM CUSTOMERS ORDER BY Customer_Name ASC, Customer_ID ASC LIMIT ?",
+                CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, NAME, true, false));
+        assertEquals("SELECT * FROM CUSTOMERS WHERE (Customer_Name > ? OR (Customer_Name = ? AND Customer_ID > ?)) "
+                        + "ORDER BY Customer_Name ASC, Customer_ID ASC LIMIT ?",
+                CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, NAME, true, true));
+        assertEquals("SELECT * FROM CUSTOMERS WHERE (Customer_Name < ? OR (Customer_Name = ? AND Customer_ID < ?)) "
+                        + "ORDER BY Customer_Name DESC, Customer_ID DESC LIMIT ?",
+                CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, NAME, false, true));
+    }
+
+    @Test
+    void nullableColumnsContinueAfterNullKeysAndOrderNullsFirst(){
+        assertEquals("SELECT * FROM CUSTOMERS WHERE (Customer_Name > ? OR (Customer_Name = ? AND Customer_ID > ?)) "
+                        + "ORDER BY Customer_Name ASC, Customer_ID ASC LIMIT ?",
+                CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, NULLABLE_NAME, true, true, false));
+        assertEquals("SELECT * FROM CUSTOMERS WHERE (Customer_Name < ? OR (Customer_Name = ? AND Customer_ID < ?) OR Customer_Name IS NULL) "
+                        + "ORDER BY Customer_Name DESC, Customer_ID DESC LIMIT ?",
+                CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, NULLABLE_NAME, false, true, false));
+        assertEquals("SELECT * FROM CUSTOMERS WHERE ((Customer_Name IS NULL AND Customer_ID > ?) OR Customer_Name IS NOT NULL) "
+                        + "ORDER BY Customer_Name ASC, Customer_ID ASC LIMIT ?",
+                CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, NULLABLE_NAME, true, true, true));
+        assertEquals("SELECT * FROM CUSTOMERS WHERE ((Customer_Name IS NULL AND Customer_ID < ?)) "
+                        + "ORDER BY Customer_Name DESC, Customer_ID DESC LIMIT ?",
+                CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, NULLABLE_NAME, false, true, true));
+    }
+
+    @Test
+    void filterIsParenthesizedAndJoinedWithAnd(){
+        KeysetPageLoader<Customer> filtered = CUSTOMERS.where("Division_ID = ? OR Division_ID = ?", 1, 2);
+
+        assertEquals("SELECT * FROM CUSTOMERS WHERE (Division_ID = ? OR Division_ID = ?) ORDER BY Customer_ID ASC LIMIT ?",
+                filtered.pageQuery(DatabaseDialect.MYSQL, ID, true, false));
+        assertEquals("SELECT * FROM CUSTOMERS WHERE (Division_ID = ? OR Division_ID = ?) AND (Customer_Name > ? OR (Customer_Name = ? AND Customer_ID > ?)) "
+                        + "ORDER BY Customer_Name ASC, Customer_ID ASC LIMIT ?",
+                filtered.pageQuery(DatabaseDialect.MYSQL, NAME, true, true));
+    }
+
+    @Test
+    void limitComesFromTheDialect(){
+        assertEquals("SELECT * FROM CUSTOMERS ORDER BY Customer_ID ASC FETCH FIRST ? ROWS ONLY",
+                CUSTOMERS.pageQuery(DatabaseDialect.H2, ID, true, false));
+    }
+
+    @Test
+    void whereAndMatchingReturnCopies(){
+        KeysetPageLoader<Customer> filtered = CUSTOMERS.where("Division_ID = ?", 1);
+
+        assertNotNull(CUSTOMERS.getMatcher(), "a loader without a filter matches every row");
+        assertNull(filtered.getMatcher(), "a filter without a matcher can't be checked in memory");
+        assertNotNull(filtered.matching(customer -> customer.getDivisionID() == 1).getMatcher());
+        assertEquals("SELECT * FROM CUSTOMERS ORDER BY Customer_ID ASC LIMIT ?", CUSTOMERS.pageQuery(DatabaseDialect.MYSQL, ID, true, false));
+    }
+
+    /**
+     * Creates more customers than fit in two pages, where many customers share a name.
+     * */
+    @BeforeEach
+    void createDatabase() throws Exception {
+        database = new TestDatabase();
+        database.execute("DELETE FROM APPOINTMENTS");
+        database.execute("DELETE FROM CUSTOMERS");
+        String sql = "INSERT INTO CUSTOMERS (Customer_Name, Address, Postal_Code, Phone, Create_Date, Created_By, Last_Update, Last_Updated_By, Division_ID) "
+                + "VALUES (?, 'address', '00000', '555-555-5555', NOW(), 'test', NOW(), 'test', ?)";
+        try (PreparedStatement stmt = database.getConnection().prepareStatement(sql)){
+            for (int i = 0; i < CUSTOMERS.getPageSize() * 2 + 50; i++){
+                stmt.setString(1, NAMES[(i * 7) % NAMES.length]);
+                stmt.setInt(2, i % 3 == 0 ? 1 : 2);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        database.close();
+    }
+
+    private List<Customer> loadAll(KeysetPageLoader<Customer> loader, KeysetPageLoader.SortColumn<Customer> sortColumn, boolean ascending) throws Exception {
+        List<Customer> rows = new ArrayList<>();
+        List<Customer> page;
+        do {
+            page = loader.loadPage(handle, sortColumn, ascending, rows.isEmpty() ? null : rows.get(rows.size() - 1));
+            assertTrue(page.size() <= loader.getPageSize());
+            rows.addAll(page);
+        } while (page.size() == loader.getPageSize());
+        return rows;
+    }
+
+    private static List<Integer> ids(List<Customer> customers){
+        return customers.stream().map(Customer::getCustomerID).collect(Collectors.toList());
+    }
+
+    private static List<Integer> expectedOrder(List<Customer> customers, Comparator<Customer> order){
+        return ids(customers.stream().sorted(order).collect(Collectors.toList()));
+    }
+
+    @Test
+    void pagesSortedByIdLoadEveryRowOnce() throws Exception {
+        List<Customer> ascending = loadAll(CUSTOMERS, ID, true);
+        List<Customer> descending = loadAll(CUSTOMERS, ID, false);
+
+        assertEquals(CUSTOMERS.getPageSize() * 2 + 50, ascending.size());
+        assertEquals(expectedOrder(ascending, CUSTOMERS.comparator(ID, true)), ids(ascending));
+        assertEquals(expectedOrder(ascending, CUSTOMERS.comparator(ID, false)), ids(descending));
+    }
+
+    @Test
+    void pagesSortedByNameLoadEveryRowOnceAcrossTies() throws Exception {
+        List<Customer> ascending = loadAll(CUSTOMERS, NAME, true);
+        List<Customer> descending = loadAll(CUSTOMERS, NAME, false);
+
+        assertEquals(CUSTOMERS.getPageSize() * 2 + 50, ascending.size());
+        assertEquals(expectedOrder(ascending, CUSTOMERS.comparator(NAME, true)), ids(ascending));
+        assertEquals(expectedOrder(ascending, CUSTOMERS.comparator(NAME, false)), ids(descending));
+    }
+
+    @Test
+    void filteredPagesOnlyLoadMatchingRows() throws Exception {
+        KeysetPageLoader<Customer> filtered = CUSTOMERS.where("Division_ID = ?", 2);
+
+        List<Customer> rows = loadAll(filtered, NAME, true);
+
+        assertEquals((CUSTOMERS.getPageSize() * 2 + 50) * 2 / 3, rows.size());
+        assertTrue(rows.stream().allMatch(customer -> customer.getDivisionID() == 2));
+        assertEquals(expectedOrder(rows, filtered.comparator(NAME, true)), ids(rows));
+    }
+
+    @Test
+    void pagesSortedByANullableColumnLoadEveryRowOnceAcrossNullKeys() throws Exception {
+        database.execute("UPDATE CUSTOMERS SET Customer_Name = NULL WHERE MOD(Customer_ID, 4) <> 0");
+
+        List<Customer> ascending = loadAll(CUSTOMERS, NULLABLE_NAME, true);
+        List<Customer> descending = loadAll(CUSTOMERS, NULLABLE_NAME, false);
+
+        assertEquals(CUSTOMERS.getPageSize() * 2 + 50, ascending.size());
+        assertNull(ascending.get(CUSTOMERS.getPageSize() - 1).getCustomerName(), "the first ascending page ends on a null key");
+        assertNull(descending.get(CUSTOMERS.getPageSize() - 1).getCustomerName(), "the first descending page ends on a null key");
+        assertEquals(expectedOrder(ascending, CUSTOMERS.comparator(NULLABLE_NAME, true)), ids(ascending));
+        assertEquals(expectedOrder(ascending, CUSTOMERS.comparator(NULLABLE_NAME, false)), ids(descending));
+    }
+}
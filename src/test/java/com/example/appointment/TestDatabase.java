@@ -0,0 +1,97 @@
+package com.example.appointment;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-memory H2 database with the client_schedule schema, the sample rows and the migrations, created by DatabaseDialect.H2 the same way the program
+ * creates an embedded database. It is installed as the ConnectionModel's pool, so the code under test runs unchanged against it.
+ * It is public so that the tests of the other packages, such as the API server, can use it.
+ * */
+public final class TestDatabase implements AutoCloseable {
+    private static final AtomicInteger DATABASE_COUNT = new AtomicInteger();
+    private final String url;
+    private final BlockingConnectionPool pool;
+    private final Connection connection;
+
+    /**
+     * Creates a new empty database and installs it as the ConnectionModel's pool.
+     * @throws SQLException If the database cannot be created.
+     * */
+    public TestDatabase() throws SQLException {
+        url = "jdbc:h2:mem:test_" + DATABASE_COUNT.incrementAndGet() + ";MODE=MySQL;NON_KEYWORDS=END";
+        connection = DriverManager.getConnection(url);
+        DatabaseDialect.H2.initializeSchema(connection);
+        pool = new BlockingConnectionPool(() -> DriverManager.getConnection(url), 1, 4, Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofSeconds(60));
+        ConnectionModel.getInstance().setConnectionPool(pool, DatabaseDialect.H2);
+    }
+
+    /**
+     * @return A connection that is not from the pool, for setting up rows the way another program would.
+     * */
+    public Connection getConnection(){
+        return connection;
+    }
+
+    /**
+     * Creates another pool on the same database, for testing the pool itself. It keeps one connection open, and the caller must close it.
+     * @param maximumSize The largest number of connections the pool opens.
+     * @param borrowTimeout How long a borrow waits for a connection.
+     * @return The new pool.
+     * @throws SQLException If the pool cannot open its first connection.
+     * */
+    public BlockingConnectionPool newPool(int maximumSize, Duration borrowTimeout) throws SQLException {
+        return new BlockingConnectionPool(() -> DriverManager.getConnection(url), 1, maximumSize, borrowTimeout, Duration.ofSeconds(30), Duration.ofSeconds(60));
+    }
+
+    /**
+     * Inserts an appointment for customer 1, user 1 and contact 1.
+     * @param start The start of the appointment in the business time zone. It lasts 30 minutes.
+     * @param lastUpdate The Last_Update of the row.
+     * @return The ID of the new appointment.
+     * @throws SQLException If the row cannot be inserted.
+     * */
+    int insertAppointment(LocalDateTime start, Timestamp lastUpdate) throws SQLException {
+        String sql = "INSERT INTO APPOINTMENTS (Title, Description, Location, Type, Start, End, Create_Date, Created_By, Last_Update, Last_Updated_By, "
+                + "Customer_ID, User_ID, Contact_ID) VALUES ('title', 'description', 'location', 'Review', ?, ?, ?, 'test', ?, 'test', 1, 1, 1)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)){
+            stmt.setObject(1, start);
+            stmt.setObject(2, start.plusMinutes(30));
+            stmt.setTimestamp(3, lastUpdate);
+            stmt.setTimestamp(4, lastUpdate);
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()){
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Runs a statement that returns no rows.
+     * @param sql The statement.
+     * @throws SQLException If the statement fails.
+     * */
+    public void execute(String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()){
+            stmt.execute(sql);
+        }
+    }
+
+    /**
+     * Closes the pool and drops the database.
+     * */
+    @Override
+    public void close() throws SQLException {
+        pool.close();
+        connection.close();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.appointment.controller;
+
+import com.example.appointment.AppointmentRowMapper;
+import org.junit.jupiter.api.Test;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentOverlappingInterfaceTest {
+    private static final ZonedDateTime TEN = ZonedDateTime.of(2030, 3, 4, 10, 0, 0, 0, AppointmentRowMapper.BUSINESS_ZONE_ID);
+    private static final ZonedDateTime TWELVE = TEN.plusHours(2);
+    /**
+     * The start and end of a new appointment, in hours after 10:00, and whether it overlaps an existing appointment from 10:00 to 12:00.
+     * */
+    private static final Object[][] CASES = {
+            {-1.0, 1.0, true},
+            {1.0, 3.0, true},
+            {0.0, 2.0, true},
+            {0.5, 1.5, true},
+            {-1.0, 3.0, true},
+            {0.0, 0.5, true},
+            {1.5, 2.0, true},
+            {-1.0, 0.0, false},
+            {2.0, 3.0, false},
+            {-2.0, -1.0, false},
+            {3.0, 4.0, false},
+    };
+    private final AppointmentOverlappingInterface checks = new AppointmentOverlappingInterface() {
+    };
+
+    private static ZonedDateTime hoursAfterTen(double hours){
+        return TEN.plusMinutes((long) (hours * 60));
+    }
+
+    @Test
+    void overlapsAreHalfOpen(){
+        assertAll(Arrays.stream(CASES).map(row -> () -> {
+            ZonedDateTime start = hoursAfterTen((Double) row[0]);
+            ZonedDateTime end = hoursAfterTen((Double) row[1]);
+            assertEquals(row[2], checks.isBetween(TEN, TWELVE, start, end), "new appointment " + start.toLocalTime() + " to " + end.toLocalTime());
+        }));
+    }
+
+    @Test
+    void overlapIsTheSameFromBothSides(){
+        assertAll(Arrays.stream(CASES).map(row -> () -> {
+            ZonedDateTime start = hoursAfterTen((Double) row[0]);
+            ZonedDateTime end = hoursAfterTen((Double) row[1]);
+            assertEquals(checks.isBetween(TEN, TWELVE, start, end), checks.isBetween(start, end, TEN, TWELVE));
+        }));
+    }
+
+    @Test
+    void timesInOtherZonesAreComparedAsInstants(){
+        ZonedDateTime utcEleven = TEN.plusHours(1).withZoneSameInstant(ZoneOffset.UTC);
+
+        assertTrue(checks.isBetween(TEN, TWELVE, utcEleven, utcEleven.plusHours(2)));
+        assertFalse(checks.isBetween(TEN, TWELVE, TWELVE.withZoneSameInstant(ZoneOffset.UTC), utcEleven.plusHours(3)));
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.appointment.server;
+
+import com.example.appointment.BlockingConnectionPool;
+import com.example.appointment.ConnectionModel;
+import com.example.appointment.TestDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiServerTest {
+    /**
+     * Sample appointment 1 in the packaged schema, which is the only appointment of customer 1.
+     * */
+    private static final String SAMPLE_APPOINTMENT = "{\"appointmentId\":1,\"title\":\"title\",\"description\":\"description\",\"location\":\"location\","
+            + "\"type\":\"Planning Session\",\"start\":\"2020-05-28T12:00:00-04:00\",\"end\":\"2020-05-28T13:00:00-04:00\",\"customerId\":1,\"userId\":1,\"contactId\":3}";
+    private static final String[] BAD_PARAMETERS = {
+            "/api/customers/1/appointments?range=year",
+            "/api/customers/1/appointments?date=2020-13-01",
+            "/api/customers/one/appointments",
+            "/api/reports/customers-by-month",
+            "/api/reports/customers-by-month?userId=x",
+            "/api/reports/customers-by-month?userId=1&year=twenty",
+    };
+    private static final String[] UNKNOWN_PATHS = {
+            "/api/rooms/1/appointments",
+            "/api/customers/1",
+            "/api/reports/customers-by-planet",
+            "/api/metrics",
+    };
+    private static ApiServer server;
+    private static HttpClient client;
+    private TestDatabase database;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = ApiServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    static void stopServer(){
+        server.close();
+    }
+
+    @BeforeEach
+    void createDatabase() throws Exception {
+        database = new TestDatabase();
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        database.close();
+    }
+
+    private static HttpResponse<String> get(String path) throws Exception {
+        return send(HttpRequest.newBuilder(uri(path)).GET());
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(String path){
+        return URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort() + path);
+    }
+
+    private static void assertError(int status, HttpResponse<String> response){
+        assertEquals(status, response.statusCode(), response.uri() + " " + response.body());
+        assertTrue(response.body().startsWith("{\"error\":\""), response.body());
+        assertEquals("application/json; charset=utf-8", response.headers().firstValue("Content-Type").orElse(null));
+    }
+
+    @Test
+    void appointmentsAreAJsonArrayOfObjects() throws Exception {
+        HttpResponse<String> response = get("/api/customers/1/appointments?range=day&date=2020-05-28");
+
+        assertEquals(200, response.statusCode(), response.body());
+        assertEquals("application/json; charset=utf-8", response.headers().firstValue("Content-Type").orElse(null));
+        assertEquals("[" + SAMPLE_APPOINTMENT + "]", response.body());
+    }
+
+    @Test
+    void rangeWithNoAppointmentsIsAnEmptyArray() throws Exception {
+        HttpResponse<String> response = get("/api/users/1/appointments?range=month&date=2031-01-15");
+
+        assertEquals(200, response.statusCode(), response.body());
+        assertEquals("[]", response.body());
+    }
+
+    @Test
+    void reportsAreArraysOfTotals() throws Exception {
+        HttpResponse<String> response = get("/api/reports/customers-by-country");
+
+        assertEquals(200, response.statusCode(), response.body());
+        assertTrue(response.body().matches("\\[(\\{\"countryId\":\\d+,\"name\":\"[^\"]+\",\"customers\":\\d+},?)+]"), response.body());
+    }
+
+    @Test
+    void badParametersAreA400(){
+        assertAll(Arrays.stream(BAD_PARAMETERS).map(path -> () -> assertError(400, get(path))));
+    }
+
+    @Test
+    void unknownPathsAreA404(){
+        assertAll(Arrays.stream(UNKNOWN_PATHS).map(path -> () -> assertError(404, get(path))));
+    }
+
+    @Test
+    void onlyGetIsAllowed() throws Exception {
+        assertError(405, send(HttpRequest.newBuilder(uri("/api/customers/1/appointments")).POST(HttpRequest.BodyPublishers.ofString("{}"))));
+    }
+
+    @Test
+    void timeoutWaitingForAConnectionIsA503() throws Exception {
+        BlockingConnectionPool pool = database.newPool(1, Duration.ofMillis(100));
+        ConnectionModel.getInstance().setConnectionPool(pool);
+        try (Connection held = pool.borrowConnection()){
+            assertError(503, get("/api/customers/1/appointments"));
+        }
+        finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void missingConnectionPoolIsA503() throws Exception {
+        ConnectionModel.getInstance().setConnectionPool(null);
+
+        assertError(503, get("/api/customers/1/appointments"));
+    }
+
+    @Test
+    void failingQueryIsA500() throws Exception {
+        database.execute("DROP TABLE APPOINTMENTS");
+
+        assertError(500, get("/api/customers/1/appointments"));
+    }
+}